@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+
+import com.amazon.randomcutforest.config.Precision;
+import com.amazon.randomcutforest.parkservices.ThresholdedRandomCutForest;
+
+/**
+ * Fixtures shared by the JMH benchmarks. Benchmarks run outside of the
+ * randomized test framework, so everything here is seeded explicitly.
+ */
+public class BenchmarkUtil {
+    public static final long SEED = 42L;
+
+    private BenchmarkUtil() {}
+
+    /**
+     * Mocks created with default settings record every invocation for later
+     * verification, which leaks memory and skews results in long benchmark runs.
+     * @param <T> Type to mock
+     * @param classToMock Class to mock
+     * @return a mock that only answers stubbed calls
+     */
+    public static <T> T stub(Class<T> classToMock) {
+        return mock(classToMock, withSettings().stubOnly());
+    }
+
+    /**
+     * Create a mocked HC detector exposing the few properties the cache and model
+     * code consult on the hot path.
+     * @param detectorId Detector Id
+     * @param intervalMinutes Detector interval in minutes
+     * @param numFeatures Number of enabled features
+     * @return mocked detector
+     */
+    public static AnomalyDetector createDetector(String detectorId, int intervalMinutes, int numFeatures) {
+        AnomalyDetector detector = stub(AnomalyDetector.class);
+        Duration interval = Duration.of(intervalMinutes, ChronoUnit.MINUTES);
+        when(detector.getDetectorId()).thenReturn(detectorId);
+        when(detector.getDetectionIntervalDuration()).thenReturn(interval);
+        when(detector.getDetectorIntervalInSeconds()).thenReturn(interval.getSeconds());
+        String[] featureIds = new String[numFeatures];
+        for (int i = 0; i < numFeatures; i++) {
+            featureIds[i] = "feature" + i;
+        }
+        when(detector.getEnabledFeatureIds()).thenReturn(Arrays.asList(featureIds));
+        when(detector.getShingleSize()).thenReturn(AnomalyDetectorSettings.DEFAULT_SHINGLE_SIZE);
+        return detector;
+    }
+
+    /**
+     * Create a TRCF configured the way EntityColdStarter configures HC entity models
+     * and feed it enough points to emit scores.
+     * @param numFeatures Number of features per point
+     * @param numPoints Number of points to train with
+     * @param random Random source
+     * @return trained TRCF
+     */
+    public static ThresholdedRandomCutForest createTrainedTrcf(int numFeatures, int numPoints, Random random) {
+        int shingleSize = AnomalyDetectorSettings.DEFAULT_SHINGLE_SIZE;
+        ThresholdedRandomCutForest trcf = new ThresholdedRandomCutForest(
+            ThresholdedRandomCutForest
+                .builder()
+                .dimensions(numFeatures * shingleSize)
+                .sampleSize(AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE)
+                .numberOfTrees(AnomalyDetectorSettings.NUM_TREES)
+                .timeDecay(AnomalyDetectorSettings.TIME_DECAY)
+                .outputAfter(AnomalyDetectorSettings.NUM_MIN_SAMPLES)
+                .initialAcceptFraction(0.125d)
+                .parallelExecutionEnabled(false)
+                .compact(true)
+                .precision(Precision.FLOAT_32)
+                .boundingBoxCacheFraction(AnomalyDetectorSettings.REAL_TIME_BOUNDING_BOX_CACHE_RATIO)
+                .shingleSize(shingleSize)
+                .internalShinglingEnabled(true)
+                .randomSeed(random.nextLong())
+                .anomalyRate(1 - AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE)
+        );
+        for (int i = 0; i < numPoints; i++) {
+            trcf.process(randomPoint(numFeatures, random), 0);
+        }
+        return trcf;
+    }
+
+    public static double[] randomPoint(int numFeatures, Random random) {
+        double[] point = new double[numFeatures];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = random.nextDouble();
+        }
+        return point;
+    }
+}
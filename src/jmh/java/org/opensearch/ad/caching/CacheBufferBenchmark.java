@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.ad.BenchmarkUtil;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+
+/**
+ * Measures CacheBuffer put/get/replace for a single detector.  Model states carry
+ * no model so that checkpoint bookkeeping on eviction does not dominate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBufferBenchmark {
+    private static final String DETECTOR_ID = "Ynjd-4MBz3qWmP4SoG_h";
+
+    @Param({ "100", "10000" })
+    public int capacity;
+
+    private CacheBuffer buffer;
+    // twice the capacity: the entry going in was evicted capacity replacements ago
+    private ModelState<EntityModel>[] states;
+    private int nextHit;
+    private int nextReplace;
+    private float priority;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Clock clock = Clock.systemUTC();
+        buffer = new CacheBuffer(
+            1,
+            60,
+            1_000,
+            BenchmarkUtil.stub(MemoryTracker.class),
+            clock,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            DETECTOR_ID,
+            BenchmarkUtil.stub(CheckpointWriteWorker.class),
+            BenchmarkUtil.stub(OffHeapModelStore.class)
+        );
+        states = new ModelState[capacity * 2];
+        for (int i = 0; i < states.length; i++) {
+            String modelId = DETECTOR_ID + "_entity_" + i;
+            states[i] = new ModelState<>(null, modelId, DETECTOR_ID, ModelType.ENTITY.getName(), clock, 0);
+        }
+        priority = 0;
+        for (int i = 0; i < capacity; i++) {
+            states[i].setPriority(priority++);
+            buffer.put(states[i].getModelId(), states[i]);
+        }
+        nextHit = 0;
+        nextReplace = capacity;
+    }
+
+    @Benchmark
+    public Object get() {
+        ModelState<EntityModel> state = buffer.get(states[nextHit].getModelId());
+        nextHit = (nextHit + 1) % capacity;
+        return state;
+    }
+
+    /**
+     * Put on a resident key takes the priority update path.
+     */
+    @Benchmark
+    public void putExisting() {
+        ModelState<EntityModel> state = states[nextHit];
+        buffer.put(state.getModelId(), state);
+        nextHit = (nextHit + 1) % capacity;
+    }
+
+    /**
+     * Evict the minimum priority entity and admit a new one, as PriorityCache does
+     * when a hotter entity shows up and the cache is full.
+     * @return evicted state
+     */
+    @Benchmark
+    public Object replace() {
+        ModelState<EntityModel> state = states[nextReplace];
+        state.setPriority(priority++);
+        nextReplace = (nextReplace + 1) % states.length;
+        return buffer.replace(state.getModelId(), state);
+    }
+}
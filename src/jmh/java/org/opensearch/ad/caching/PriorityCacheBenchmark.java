@@ -0,0 +1,168 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.ad.BenchmarkUtil;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.ratelimit.CheckpointMaintainWorker;
+import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Measures PriorityCache.get for hot (cached) and cold (inactive) entities. Cold
+ * lookups go through the inactive entity cache and priority recomputation, which
+ * is what every entity outside of the cache pays in each interval.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriorityCacheBenchmark {
+    private static final String DETECTOR_ID = "Ynjd-4MBz3qWmP4SoG_h";
+
+    @Param({ "1000" })
+    public int numHotEntities;
+
+    @Param({ "100000" })
+    public int numColdEntities;
+
+    private EntityCache cache;
+    private AnomalyDetector detector;
+    private String[] hotModelIds;
+    private String[] coldModelIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Clock clock = Clock.systemUTC();
+
+        ClusterService clusterService = BenchmarkUtil.stub(ClusterService.class);
+        ClusterSettings clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections
+                .unmodifiableSet(
+                    new HashSet<>(
+                        Arrays
+                            .asList(
+                                AnomalyDetectorSettings.DEDICATED_CACHE_SIZE,
+                                AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE,
+                                AnomalyDetectorSettings.CHECKPOINT_TTL,
+                                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                                AnomalyDetectorSettings.CHECKPOINT_MAINTAIN_BYTES_PER_HOUR
+                            )
+                    )
+                )
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+
+        MemoryTracker memoryTracker = BenchmarkUtil.stub(MemoryTracker.class);
+        when(memoryTracker.estimateTRCFModelSize(anyInt(), anyInt(), anyDouble(), anyInt(), anyBoolean())).thenReturn(1_000L);
+        when(memoryTracker.canAllocateReserved(anyLong())).thenReturn(true);
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+
+        ThreadPool threadPool = BenchmarkUtil.stub(ThreadPool.class);
+        when(threadPool.executor(anyString())).thenReturn(OpenSearchExecutors.newDirectExecutorService());
+
+        cache = new PriorityCache(
+            BenchmarkUtil.stub(CheckpointDao.class),
+            numHotEntities,
+            AnomalyDetectorSettings.CHECKPOINT_TTL,
+            AnomalyDetectorSettings.MAX_INACTIVE_ENTITIES,
+            memoryTracker,
+            AnomalyDetectorSettings.NUM_TREES,
+            clock,
+            clusterService,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            threadPool,
+            BenchmarkUtil.stub(CheckpointWriteWorker.class),
+            AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
+            BenchmarkUtil.stub(CheckpointMaintainWorker.class),
+            Settings.EMPTY,
+            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+            BenchmarkUtil.stub(OffHeapModelStore.class)
+        );
+
+        detector = BenchmarkUtil.createDetector(DETECTOR_ID, 1, 1);
+
+        hotModelIds = new String[numHotEntities];
+        for (int i = 0; i < numHotEntities; i++) {
+            hotModelIds[i] = DETECTOR_ID + "_entity_hot_" + i;
+            ModelState<EntityModel> state = new ModelState<>(null, hotModelIds[i], DETECTOR_ID, ModelType.ENTITY.getName(), clock, 0);
+            // the first lookup records the entity in the inactive cache so that it can be hosted
+            cache.get(hotModelIds[i], detector);
+            cache.hostIfPossible(detector, state);
+        }
+
+        coldModelIds = new String[numColdEntities];
+        for (int i = 0; i < numColdEntities; i++) {
+            coldModelIds[i] = DETECTOR_ID + "_entity_cold_" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object getHot(Cursor cursor) {
+        ModelState<EntityModel> state = cache.get(hotModelIds[cursor.next], detector);
+        cursor.next = (cursor.next + 1) % hotModelIds.length;
+        return state;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object getCold(Cursor cursor) {
+        ModelState<EntityModel> state = cache.get(coldModelIds[cursor.next], detector);
+        cursor.next = (cursor.next + 1) % coldModelIds.length;
+        return state;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.time.Clock;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.ad.BenchmarkUtil;
+
+/**
+ * Measures PriorityTracker.updatePriority, which runs on every cache hit of an
+ * HC detector.  The tracker is pre-filled so that each update repositions a node
+ * inside a populated skip list.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriorityTrackerBenchmark {
+    @Param({ "1000", "100000" })
+    public int numEntities;
+
+    private PriorityTracker tracker;
+    private String[] entityIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkUtil.SEED);
+        Clock clock = Clock.systemUTC();
+        tracker = new PriorityTracker(clock, 60, clock.instant().getEpochSecond(), 1_000_000);
+        entityIds = new String[numEntities];
+        for (int i = 0; i < numEntities; i++) {
+            entityIds[i] = "detector_entity_" + i;
+            tracker.addPriority(entityIds[i], random.nextFloat());
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public void updatePriority() {
+        tracker.updatePriority(entityIds[next]);
+        next = (next + 1) % numEntities;
+    }
+
+    @Benchmark
+    public Object getMinimumScaledPriority() {
+        return tracker.getMinimumScaledPriority();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.Build;
+import org.opensearch.Version;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.admin.cluster.node.info.NodeInfo;
+import org.opensearch.action.admin.cluster.node.info.NodesInfoResponse;
+import org.opensearch.action.admin.cluster.node.info.PluginsAndModules;
+import org.opensearch.ad.BenchmarkUtil;
+import org.opensearch.ad.constant.ADCommonName;
+import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.util.DiscoveryNodeFilterer;
+import org.opensearch.client.AdminClient;
+import org.opensearch.client.Client;
+import org.opensearch.client.ClusterAdminClient;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.node.DiscoveryNodeRole;
+import org.opensearch.cluster.node.DiscoveryNodes;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.transport.TransportAddress;
+import org.opensearch.plugins.PluginInfo;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures owning node lookup for real-time HC entities.  The coordinating node
+ * resolves an owner for every entity of every page, so this sits on the fan-out
+ * path of AnomalyResultTransportAction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashRingBenchmark {
+    @Param({ "3", "30" })
+    public int numNodes;
+
+    private HashRing hashRing;
+    private String[] modelIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<DiscoveryNode> nodes = new ArrayList<>();
+        for (int i = 0; i < numNodes; i++) {
+            nodes
+                .add(
+                    new DiscoveryNode(
+                        "node" + i,
+                        new TransportAddress(InetAddress.getLoopbackAddress(), 9300 + i),
+                        Collections.emptyMap(),
+                        DiscoveryNodeRole.BUILT_IN_ROLES,
+                        Version.CURRENT
+                    )
+                );
+        }
+
+        Settings settings = Settings.EMPTY;
+        ClusterService clusterService = BenchmarkUtil.stub(ClusterService.class);
+        when(clusterService.getClusterSettings())
+            .thenReturn(new ClusterSettings(settings, new HashSet<>(Arrays.asList(COOLDOWN_MINUTES, PLACEMENT_CAPACITY_FACTOR))));
+        when(clusterService.localNode()).thenReturn(nodes.get(0));
+
+        DiscoveryNodeFilterer nodeFilter = BenchmarkUtil.stub(DiscoveryNodeFilterer.class);
+        when(nodeFilter.isEligibleNode(any())).thenReturn(true);
+
+        Client client = BenchmarkUtil.stub(Client.class);
+        AdminClient adminClient = BenchmarkUtil.stub(AdminClient.class);
+        ClusterAdminClient clusterAdminClient = BenchmarkUtil.stub(ClusterAdminClient.class);
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.cluster()).thenReturn(clusterAdminClient);
+        doAnswer(invocation -> {
+            ActionListener<NodesInfoResponse> listener = invocation.getArgument(1);
+            List<NodeInfo> nodeInfos = new ArrayList<>();
+            for (DiscoveryNode node : nodes) {
+                nodeInfos.add(createNodeInfo(node, settings));
+            }
+            listener.onResponse(new NodesInfoResponse(ClusterName.DEFAULT, nodeInfos, ImmutableList.of()));
+            return null;
+        }).when(clusterAdminClient).nodesInfo(any(), any());
+
+        ModelManager modelManager = BenchmarkUtil.stub(ModelManager.class);
+        when(modelManager.getAllModelIds()).thenReturn(new HashSet<>());
+
+        hashRing = new HashRing(
+            nodeFilter,
+            Clock.systemUTC(),
+            settings,
+            client,
+            clusterService,
+            BenchmarkUtil.stub(ADDataMigrator.class),
+            modelManager,
+            BenchmarkUtil.stub(ModelHandoff.class),
+            new PlacementSkewSupplier(Clock.systemUTC())
+        );
+
+        DiscoveryNodes.Delta delta = BenchmarkUtil.stub(DiscoveryNodes.Delta.class);
+        when(delta.added()).thenReturn(true);
+        when(delta.addedNodes()).thenReturn(nodes);
+        hashRing.buildCircles(delta, ActionListener.wrap(r -> {}, e -> { throw new IllegalStateException(e); }));
+
+        modelIds = new String[10_000];
+        for (int i = 0; i < modelIds.length; i++) {
+            modelIds[i] = "Ynjd-4MBz3qWmP4SoG_h_entity_" + i;
+        }
+        next = 0;
+    }
+
+    private NodeInfo createNodeInfo(DiscoveryNode node, Settings settings) {
+        List<PluginInfo> plugins = new ArrayList<>();
+        plugins
+            .add(
+                new PluginInfo(
+                    ADCommonName.AD_PLUGIN_NAME,
+                    "anomaly detection",
+                    "2.1.0.0",
+                    Version.CURRENT,
+                    "1.8",
+                    "org.opensearch.ad.AnomalyDetectorPlugin",
+                    "opensearch-anomaly-detection",
+                    ImmutableList.of(),
+                    false
+                )
+            );
+        PluginsAndModules pluginsAndModules = new PluginsAndModules(plugins, new ArrayList<>(plugins));
+        return new NodeInfo(
+            Version.CURRENT,
+            Build.CURRENT,
+            node,
+            settings,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            pluginsAndModules,
+            null,
+            null,
+            null,
+            null
+        );
+    }
+
+    @Benchmark
+    public Optional<DiscoveryNode> getOwningNodeForRealtimeAD() {
+        Optional<DiscoveryNode> owner = hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(modelIds[next]);
+        next = (next + 1) % modelIds.length;
+        return owner;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.ad.BenchmarkUtil;
+import org.opensearch.ad.constant.ADCommonName;
+import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.ClientUtil;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.timeseries.constant.CommonName;
+
+import com.amazon.randomcutforest.parkservices.state.ThresholdedRandomCutForestMapper;
+import com.amazon.randomcutforest.parkservices.state.ThresholdedRandomCutForestState;
+import com.amazon.randomcutforest.serialize.json.v1.V1JsonToV3StateConverter;
+import com.amazon.randomcutforest.state.RandomCutForestMapper;
+import com.google.gson.GsonBuilder;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.runtime.RuntimeSchema;
+
+/**
+ * Measures entity checkpoint serialization and deserialization.  Checkpoints are
+ * written when entities are evicted or maintained and read on every cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckpointDaoBenchmark {
+    private static final String DETECTOR_ID = "Ynjd-4MBz3qWmP4SoG_h";
+
+    @Param({ "1", "5" })
+    public int numFeatures;
+
+    @Param({ "0", "32" })
+    public int numSamples;
+
+    private CheckpointDao checkpointDao;
+    private EntityModel model;
+    private String modelId;
+    private Map<String, Object> checkpoint;
+    private Map<String, Object> binaryCheckpoint;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkUtil.SEED);
+
+        RandomCutForestMapper mapper = new RandomCutForestMapper();
+        mapper.setSaveExecutorContextEnabled(true);
+        ThresholdedRandomCutForestMapper trcfMapper = new ThresholdedRandomCutForestMapper();
+
+        GenericObjectPool<LinkedBuffer> serializeRCFBufferPool = new GenericObjectPool<>(new BasePooledObjectFactory<LinkedBuffer>() {
+            @Override
+            public LinkedBuffer create() throws Exception {
+                return LinkedBuffer.allocate(AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES);
+            }
+
+            @Override
+            public PooledObject<LinkedBuffer> wrap(LinkedBuffer obj) {
+                return new DefaultPooledObject<>(obj);
+            }
+        });
+        serializeRCFBufferPool.setMaxTotal(AnomalyDetectorSettings.MAX_TOTAL_RCF_SERIALIZATION_BUFFERS);
+        serializeRCFBufferPool.setMaxIdle(AnomalyDetectorSettings.MAX_TOTAL_RCF_SERIALIZATION_BUFFERS);
+        serializeRCFBufferPool.setMinIdle(0);
+        serializeRCFBufferPool.setBlockWhenExhausted(false);
+
+        checkpointDao = new CheckpointDao(
+            BenchmarkUtil.stub(Client.class),
+            BenchmarkUtil.stub(ClientUtil.class),
+            ADCommonName.CHECKPOINT_INDEX_NAME,
+            new GsonBuilder().serializeSpecialFloatingPointValues().create(),
+            mapper,
+            new V1JsonToV3StateConverter(),
+            trcfMapper,
+            RuntimeSchema.getSchema(ThresholdedRandomCutForestState.class),
+            HybridThresholdingModel.class,
+            BenchmarkUtil.stub(AnomalyDetectionIndices.class),
+            AnomalyDetectorSettings.MAX_CHECKPOINT_BYTES,
+            serializeRCFBufferPool,
+            AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
+            1 - AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE,
+            BenchmarkUtil.stub(ClusterService.class)
+        );
+
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1234");
+        modelId = entity.getModelId(DETECTOR_ID).get();
+        Queue<double[]> samples = new ArrayDeque<>();
+        for (int i = 0; i < numSamples; i++) {
+            samples.add(BenchmarkUtil.randomPoint(numFeatures, random));
+        }
+        model = new EntityModel(entity, samples, BenchmarkUtil.createTrainedTrcf(numFeatures, 2_000, random));
+
+        // mimic what a GET on the checkpoint index returns
+        checkpoint = new HashMap<>();
+        checkpoint.put(CheckpointDao.DETECTOR_ID, DETECTOR_ID);
+        checkpoint.put(CheckpointDao.FIELD_MODELV2, checkpointDao.toCheckpoint(model, modelId).get());
+        checkpoint.put(CommonName.TIMESTAMP, Instant.now().toString());
+
+        binaryCheckpoint = new HashMap<>();
+        binaryCheckpoint.put(CheckpointDao.DETECTOR_ID, DETECTOR_ID);
+        binaryCheckpoint.put(CheckpointDao.FIELD_MODELV3, checkpointDao.toBinaryCheckpoint(model, modelId).get());
+        binaryCheckpoint.put(CommonName.TIMESTAMP, Instant.now().toString());
+    }
+
+    @Benchmark
+    public Optional<String> toCheckpoint() {
+        return checkpointDao.toCheckpoint(model, modelId);
+    }
+
+    @Benchmark
+    public Object fromEntityModelCheckpoint() {
+        return checkpointDao.fromEntityModelCheckpoint(checkpoint, modelId);
+    }
+
+    @Benchmark
+    public Optional<byte[]> toBinaryCheckpoint() {
+        return checkpointDao.toBinaryCheckpoint(model, modelId);
+    }
+
+    @Benchmark
+    public Object fromBinaryEntityModelCheckpoint() {
+        return checkpointDao.fromEntityModelCheckpoint(binaryCheckpoint, modelId);
+    }
+}
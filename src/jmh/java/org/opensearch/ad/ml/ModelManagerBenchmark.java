@@ -0,0 +1,102 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearch.ad.BenchmarkUtil;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.feature.FeatureManager;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * Measures ModelManager.score on a trained entity model: one TRCF process call
+ * per entity per interval.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelManagerBenchmark {
+    private static final String DETECTOR_ID = "Ynjd-4MBz3qWmP4SoG_h";
+
+    @Param({ "1", "5" })
+    public int numFeatures;
+
+    private ModelManager modelManager;
+    private ModelState<EntityModel> modelState;
+    private String modelId;
+    private double[][] points;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkUtil.SEED);
+        Clock clock = Clock.systemUTC();
+
+        modelManager = new ModelManager(
+            BenchmarkUtil.stub(CheckpointDao.class),
+            clock,
+            AnomalyDetectorSettings.NUM_TREES,
+            AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE,
+            AnomalyDetectorSettings.TIME_DECAY,
+            AnomalyDetectorSettings.NUM_MIN_SAMPLES,
+            AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE,
+            AnomalyDetectorSettings.MIN_PREVIEW_SIZE,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+            BenchmarkUtil.stub(EntityColdStarter.class),
+            BenchmarkUtil.stub(FeatureManager.class),
+            BenchmarkUtil.stub(MemoryTracker.class),
+            Settings.EMPTY,
+            null
+        );
+
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1234");
+        modelId = entity.getModelId(DETECTOR_ID).get();
+        EntityModel model = new EntityModel(entity, new ArrayDeque<>(), BenchmarkUtil.createTrainedTrcf(numFeatures, 2_000, random));
+        modelState = new ModelState<>(model, modelId, DETECTOR_ID, ModelType.ENTITY.getName(), clock, 0);
+
+        points = new double[1024][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = BenchmarkUtil.randomPoint(numFeatures, random);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public ThresholdingResult score() {
+        ThresholdingResult result = modelManager.score(points[next], modelId, modelState);
+        next = (next + 1) % points.length;
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures model id computation for single and multi-category entities. Model ids
+ * are derived for every entity of every HC detector interval.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityBenchmark {
+    private static final String DETECTOR_ID = "Ynjd-4MBz3qWmP4SoG_h";
+
+    private SortedMap<String, String> singleAttribute;
+    private SortedMap<String, String> multiAttributes;
+    private Map<String, Object> unorderedAttributes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        singleAttribute = new TreeMap<>();
+        singleAttribute.put("host", "server_1234");
+
+        multiAttributes = new TreeMap<>();
+        multiAttributes.put("host", "server_1234");
+        multiAttributes.put("service", "app_0042");
+
+        unorderedAttributes = new HashMap<>(multiAttributes);
+    }
+
+    @Benchmark
+    public Object singleAttributeModelId() {
+        return Entity.getModelId(DETECTOR_ID, singleAttribute);
+    }
+
+    @Benchmark
+    public Object multiAttributeModelId() {
+        return Entity.getModelId(DETECTOR_ID, multiAttributes);
+    }
+
+    /**
+     * Entities are re-created from the composite aggregation buckets in every
+     * interval, so the cached model id on Entity only helps within one interval.
+     * @return model id
+     */
+    @Benchmark
+    public Object newEntityModelId() {
+        return Entity.createEntityByReordering(unorderedAttributes).getModelId(DETECTOR_ID);
+    }
+}
@@ -37,11 +37,16 @@ import org.opensearch.action.ActionResponse;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.caching.ModelSpillFile;
+import org.opensearch.ad.caching.OffHeapModelStore;
 import org.opensearch.ad.caching.PriorityCache;
+import org.opensearch.ad.caching.TinyLfuCache;
 import org.opensearch.ad.cluster.ADClusterEventListener;
 import org.opensearch.ad.cluster.ADDataMigrator;
 import org.opensearch.ad.cluster.ClusterManagerEventListener;
 import org.opensearch.ad.cluster.HashRing;
+import org.opensearch.ad.cluster.MaintenanceScheduler;
+import org.opensearch.ad.cluster.ModelHandoff;
 import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.dataprocessor.IntegerSensitiveSingleFeatureLinearUniformInterpolator;
 import org.opensearch.ad.dataprocessor.Interpolator;
@@ -64,6 +69,7 @@ import org.opensearch.ad.ratelimit.CheckpointReadWorker;
 import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
 import org.opensearch.ad.ratelimit.ColdEntityWorker;
 import org.opensearch.ad.ratelimit.EntityColdStartWorker;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.ratelimit.ResultWriteWorker;
 import org.opensearch.ad.rest.RestAnomalyDetectorJobAction;
 import org.opensearch.ad.rest.RestDeleteAnomalyDetectorAction;
@@ -85,10 +91,13 @@ import org.opensearch.ad.settings.LegacyOpenDistroAnomalyDetectorSettings;
 import org.opensearch.ad.settings.NumericSetting;
 import org.opensearch.ad.stats.ADStat;
 import org.opensearch.ad.stats.ADStats;
+import org.opensearch.ad.stats.suppliers.BatchSizeSupplier;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
+import org.opensearch.ad.stats.suppliers.EntityCacheStatsSupplier;
 import org.opensearch.ad.stats.suppliers.IndexStatusSupplier;
 import org.opensearch.ad.stats.suppliers.ModelsOnNodeCountSupplier;
 import org.opensearch.ad.stats.suppliers.ModelsOnNodeSupplier;
+import org.opensearch.ad.stats.suppliers.PlacementSkewSupplier;
 import org.opensearch.ad.stats.suppliers.SettableSupplier;
 import org.opensearch.ad.task.ADBatchTaskRunner;
 import org.opensearch.ad.task.ADTaskCacheManager;
@@ -127,6 +136,10 @@ import org.opensearch.ad.transport.GetAnomalyDetectorAction;
 import org.opensearch.ad.transport.GetAnomalyDetectorTransportAction;
 import org.opensearch.ad.transport.IndexAnomalyDetectorAction;
 import org.opensearch.ad.transport.IndexAnomalyDetectorTransportAction;
+import org.opensearch.ad.transport.InvalidateDetectorConfigAction;
+import org.opensearch.ad.transport.InvalidateDetectorConfigTransportAction;
+import org.opensearch.ad.transport.ModelHandoffAction;
+import org.opensearch.ad.transport.ModelHandoffTransportAction;
 import org.opensearch.ad.transport.PreviewAnomalyDetectorAction;
 import org.opensearch.ad.transport.PreviewAnomalyDetectorTransportAction;
 import org.opensearch.ad.transport.ProfileAction;
@@ -151,6 +164,8 @@ import org.opensearch.ad.transport.StopDetectorAction;
 import org.opensearch.ad.transport.StopDetectorTransportAction;
 import org.opensearch.ad.transport.ThresholdResultAction;
 import org.opensearch.ad.transport.ThresholdResultTransportAction;
+import org.opensearch.ad.transport.TopAnomalySummaryAction;
+import org.opensearch.ad.transport.TopAnomalySummaryTransportAction;
 import org.opensearch.ad.transport.ValidateAnomalyDetectorAction;
 import org.opensearch.ad.transport.ValidateAnomalyDetectorTransportAction;
 import org.opensearch.ad.transport.handler.ADSearchHandler;
@@ -158,7 +173,9 @@ import org.opensearch.ad.transport.handler.AnomalyIndexHandler;
 import org.opensearch.ad.transport.handler.AnomalyResultBulkIndexHandler;
 import org.opensearch.ad.transport.handler.MultiEntityResultHandler;
 import org.opensearch.ad.util.ClientUtil;
+import org.opensearch.ad.util.DateUtils;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.IndexUtils;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.ad.util.Throttler;
@@ -226,8 +243,11 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
     public static final String AD_THREAD_POOL_NAME = "ad-threadpool";
     public static final String AD_BATCH_TASK_THREAD_POOL_NAME = "ad-batch-task-threadpool";
     public static final String AD_JOB_TYPE = "opendistro_anomaly_detector";
+    // directory under the node's temp dir holding the model spill file
+    public static final String AD_MODEL_SPILL_DIR = "anomaly_detection_models";
     private static Gson gson;
     private AnomalyDetectionIndices anomalyDetectionIndices;
+    private ModelSpillFile modelSpillFile;
     private AnomalyDetectorRunner anomalyDetectorRunner;
     private Client client;
     private ClusterService clusterService;
@@ -347,6 +367,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
         SingleFeatureLinearUniformInterpolator singleFeatureLinearUniformInterpolator =
             new IntegerSensitiveSingleFeatureLinearUniformInterpolator();
         Interpolator interpolator = new LinearUniformInterpolator(singleFeatureLinearUniformInterpolator);
+        FeatureQueryCache featureQueryCache = new FeatureQueryCache(xContentRegistry);
         stateManager = new NodeStateManager(
             client,
             xContentRegistry,
@@ -354,12 +375,13 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             clientUtil,
             getClock(),
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
-            clusterService
+            clusterService,
+            featureQueryCache
         );
         securityClientUtil = new SecurityClientUtil(stateManager, settings);
         SearchFeatureDao searchFeatureDao = new SearchFeatureDao(
             client,
-            xContentRegistry,
+            featureQueryCache,
             interpolator,
             securityClientUtil,
             settings,
@@ -445,7 +467,8 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             AnomalyDetectorSettings.MAX_CHECKPOINT_BYTES,
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            1 - AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE
+            1 - AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE,
+            clusterService
         );
 
         Random random = new Random(42);
@@ -504,24 +527,63 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             adapter
         );
 
-        EntityCache cache = new PriorityCache(
+        this.modelSpillFile = new ModelSpillFile(
+            environment.tmpFile().resolve(AD_MODEL_SPILL_DIR),
+            AnomalyDetectorSettings.MODEL_SPILL_FILE_SIZE_MB.get(settings) * 1024 * 1024,
+            DateUtils.toDuration(AnomalyDetectorSettings.MODEL_SPILL_FILE_TTL.get(settings)),
+            getClock()
+        );
+
+        OffHeapModelStore offHeapModelStore = new OffHeapModelStore(
             checkpoint,
-            AnomalyDetectorSettings.DEDICATED_CACHE_SIZE.get(settings),
-            AnomalyDetectorSettings.CHECKPOINT_TTL,
-            AnomalyDetectorSettings.MAX_INACTIVE_ENTITIES,
             memoryTracker,
-            AnomalyDetectorSettings.NUM_TREES,
             getClock(),
-            clusterService,
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
-            threadPool,
-            checkpointWriteQueue,
-            AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
-            checkpointMaintainQueue,
-            settings,
-            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ
+            (long) (heapSizeBytes * AnomalyDetectorSettings.OFF_HEAP_MODEL_CACHE_PERCENT.get(settings)),
+            modelSpillFile
         );
 
+        EntityCache cache;
+        if (AnomalyDetectorSettings.TINY_LFU_CACHE_POLICY.equals(AnomalyDetectorSettings.ENTITY_CACHE_POLICY.get(settings))) {
+            cache = new TinyLfuCache(
+                checkpoint,
+                AnomalyDetectorSettings.DEDICATED_CACHE_SIZE.get(settings),
+                AnomalyDetectorSettings.CHECKPOINT_TTL,
+                AnomalyDetectorSettings.MAX_INACTIVE_ENTITIES,
+                memoryTracker,
+                AnomalyDetectorSettings.NUM_TREES,
+                getClock(),
+                clusterService,
+                AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+                threadPool,
+                checkpointWriteQueue,
+                AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
+                checkpointMaintainQueue,
+                settings,
+                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                offHeapModelStore
+            );
+        } else {
+            cache = new PriorityCache(
+                checkpoint,
+                AnomalyDetectorSettings.DEDICATED_CACHE_SIZE.get(settings),
+                AnomalyDetectorSettings.CHECKPOINT_TTL,
+                AnomalyDetectorSettings.MAX_INACTIVE_ENTITIES,
+                memoryTracker,
+                AnomalyDetectorSettings.NUM_TREES,
+                getClock(),
+                clusterService,
+                AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+                threadPool,
+                checkpointWriteQueue,
+                AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
+                checkpointMaintainQueue,
+                settings,
+                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                offHeapModelStore
+            );
+        }
+
         cacheProvider.set(cache);
 
         EntityColdStarter entityColdStarter = new EntityColdStarter(
@@ -593,6 +655,8 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             clusterService
         );
 
+        TopAnomalySummary topAnomalySummary = new TopAnomalySummary(getClock(), clusterService, settings);
+
         ResultWriteWorker resultWriteQueue = new ResultWriteWorker(
             heapSizeBytes,
             AnomalyDetectorSettings.RESULT_WRITE_QUEUE_SIZE_IN_BYTES,
@@ -611,9 +675,17 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             multiEntityResultHandler,
             xContentRegistry,
             stateManager,
-            AnomalyDetectorSettings.HOURLY_MAINTENANCE
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            topAnomalySummary
         );
 
+        ResultRollupBuffer resultRollupBuffer = new ResultRollupBuffer(getClock(), clusterService, settings, resultWriteQueue);
+
+        BatchSizeSupplier batchSizeSupplier = new BatchSizeSupplier();
+        PlacementSkewSupplier placementSkewSupplier = new PlacementSkewSupplier(getClock());
+        batchSizeSupplier.register(CheckpointWriteWorker.WORKER_NAME, checkpointWriteQueue);
+        batchSizeSupplier.register(ResultWriteWorker.WORKER_NAME, resultWriteQueue);
+
         Map<String, ADStat<?>> stats = ImmutableMap
             .<String, ADStat<?>>builder()
             .put(StatNames.AD_EXECUTE_REQUEST_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
@@ -653,6 +725,11 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             .put(StatNames.AD_BATCH_TASK_FAILURE_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
             .put(StatNames.MODEL_COUNT.getName(), new ADStat<>(false, new ModelsOnNodeCountSupplier(modelManager, cacheProvider)))
             .put(StatNames.MODEL_CORRUTPION_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
+            .put(StatNames.CHECKPOINT_COMPRESSION_RATIO.getName(), new ADStat<>(false, checkpoint.getCompressor()::getCompressionRatio))
+            .put(StatNames.CHECKPOINT_CODEC_TIME_NANOS.getName(), new ADStat<>(false, checkpoint.getCompressor()::getCodecTimeNanos))
+            .put(StatNames.QUEUE_BATCH_SIZES.getName(), new ADStat<>(false, batchSizeSupplier))
+            .put(StatNames.PLACEMENT_SKEW.getName(), new ADStat<>(false, placementSkewSupplier))
+            .put(StatNames.ENTITY_CACHE_STATS.getName(), new ADStat<>(false, new EntityCacheStatsSupplier(cacheProvider)))
             .build();
 
         adStats = new ADStats(stats);
@@ -683,6 +760,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             checkpointWriteQueue,
             adStats
         );
+        batchSizeSupplier.register(CheckpointReadWorker.WORKER_NAME, checkpointReadQueue);
 
         ColdEntityWorker coldEntityQueue = new ColdEntityWorker(
             heapSizeBytes,
@@ -704,7 +782,26 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
         );
 
         ADDataMigrator dataMigrator = new ADDataMigrator(client, clusterService, xContentRegistry, anomalyDetectionIndices);
-        HashRing hashRing = new HashRing(nodeFilter, getClock(), settings, client, clusterService, dataMigrator, modelManager);
+        ModelHandoff modelHandoff = new ModelHandoff(
+            client,
+            cacheProvider,
+            checkpoint,
+            threadPool,
+            clusterService,
+            offHeapModelStore,
+            settings
+        );
+        HashRing hashRing = new HashRing(
+            nodeFilter,
+            getClock(),
+            settings,
+            client,
+            clusterService,
+            dataMigrator,
+            modelManager,
+            modelHandoff,
+            placementSkewSupplier
+        );
 
         anomalyDetectorRunner = new AnomalyDetectorRunner(modelManager, featureManager, AnomalyDetectorSettings.MAX_PREVIEW_RESULTS);
 
@@ -779,6 +876,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 anomalyDetectionIndices,
                 anomalyDetectorRunner,
                 searchFeatureDao,
+                featureQueryCache,
                 singleFeatureLinearUniformInterpolator,
                 interpolator,
                 gson,
@@ -814,7 +912,10 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 coldEntityQueue,
                 entityColdStarter,
                 adTaskCacheManager,
-                adResultResponseRecorder
+                adResultResponseRecorder,
+                topAnomalySummary,
+                resultRollupBuffer,
+                new MaintenanceScheduler(threadPool, clusterService, settings)
             );
     }
 
@@ -860,6 +961,11 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 // HCAD cache
                 LegacyOpenDistroAnomalyDetectorSettings.MAX_CACHE_MISS_HANDLING_PER_SECOND,
                 AnomalyDetectorSettings.DEDICATED_CACHE_SIZE,
+                AnomalyDetectorSettings.OFF_HEAP_MODEL_CACHE_PERCENT,
+                AnomalyDetectorSettings.MODEL_SPILL_FILE_SIZE_MB,
+                AnomalyDetectorSettings.MODEL_SPILL_FILE_TTL,
+                AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC,
+                AnomalyDetectorSettings.ENTITY_CACHE_POLICY,
                 // Detector config
                 LegacyOpenDistroAnomalyDetectorSettings.DETECTION_INTERVAL,
                 LegacyOpenDistroAnomalyDetectorSettings.DETECTION_WINDOW_DELAY,
@@ -877,6 +983,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 AnomalyDetectorSettings.REQUEST_TIMEOUT,
                 AnomalyDetectorSettings.MAX_RETRY_FOR_UNRESPONSIVE_NODE,
                 AnomalyDetectorSettings.COOLDOWN_MINUTES,
+                AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR,
                 AnomalyDetectorSettings.BACKOFF_MINUTES,
                 AnomalyDetectorSettings.BACKOFF_INITIAL_DELAY,
                 AnomalyDetectorSettings.MAX_RETRY_FOR_BACKOFF,
@@ -911,6 +1018,8 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS,
                 AnomalyDetectorSettings.MAX_OLD_AD_TASK_DOCS_PER_DETECTOR,
                 AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE,
+                AnomalyDetectorSettings.BATCH_TASK_MAX_IN_FLIGHT_PIECES,
+                AnomalyDetectorSettings.BATCH_TASK_SHARED_SCAN,
                 AnomalyDetectorSettings.MAX_TOP_ENTITIES_FOR_HISTORICAL_ANALYSIS,
                 AnomalyDetectorSettings.MAX_RUNNING_ENTITIES_PER_DETECTOR_FOR_HISTORICAL_ANALYSIS,
                 AnomalyDetectorSettings.MAX_CACHED_DELETED_TASKS,
@@ -922,6 +1031,12 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_BATCH_SIZE,
                 AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_BATCH_SIZE,
                 AnomalyDetectorSettings.RESULT_WRITE_QUEUE_BATCH_SIZE,
+                AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_BATCH_SIZE,
+                AnomalyDetectorSettings.BATCH_TARGET_LATENCY,
+                AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT,
+                AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT,
+                AnomalyDetectorSettings.RESULT_ROLLUP_INTERVAL,
+                AnomalyDetectorSettings.MAINTENANCE_SPREAD,
                 AnomalyDetectorSettings.COLD_ENTITY_QUEUE_MAX_HEAP_PERCENT,
                 AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_MAX_HEAP_PERCENT,
                 AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_MAX_HEAP_PERCENT,
@@ -931,6 +1046,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 AnomalyDetectorSettings.EXPECTED_COLD_ENTITY_EXECUTION_TIME_IN_MILLISECS,
                 AnomalyDetectorSettings.EXPECTED_CHECKPOINT_MAINTAIN_TIME_IN_MILLISECS,
                 AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                AnomalyDetectorSettings.CHECKPOINT_MAINTAIN_BYTES_PER_HOUR,
                 AnomalyDetectorSettings.CHECKPOINT_TTL,
                 // query limit
                 LegacyOpenDistroAnomalyDetectorSettings.MAX_ENTITIES_PER_QUERY,
@@ -942,7 +1058,9 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 // clean resource
                 AnomalyDetectorSettings.DELETE_AD_RESULT_WHEN_DELETE_DETECTOR,
                 // stats/profile API
-                AnomalyDetectorSettings.MAX_MODEL_SIZE_PER_NODE
+                AnomalyDetectorSettings.MAX_MODEL_SIZE_PER_NODE,
+                // top anomaly API
+                AnomalyDetectorSettings.TOP_ANOMALY_SUMMARY_RETENTION
             );
         return unmodifiableList(
             Stream
@@ -1000,6 +1118,9 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 new ActionHandler<>(ForwardADTaskAction.INSTANCE, ForwardADTaskTransportAction.class),
                 new ActionHandler<>(DeleteAnomalyResultsAction.INSTANCE, DeleteAnomalyResultsTransportAction.class),
                 new ActionHandler<>(SearchTopAnomalyResultAction.INSTANCE, SearchTopAnomalyResultTransportAction.class),
+                new ActionHandler<>(TopAnomalySummaryAction.INSTANCE, TopAnomalySummaryTransportAction.class),
+                new ActionHandler<>(InvalidateDetectorConfigAction.INSTANCE, InvalidateDetectorConfigTransportAction.class),
+                new ActionHandler<>(ModelHandoffAction.INSTANCE, ModelHandoffTransportAction.class),
                 new ActionHandler<>(ValidateAnomalyDetectorAction.INSTANCE, ValidateAnomalyDetectorTransportAction.class)
             );
     }
@@ -1041,5 +1162,12 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 LOG.error("Failed to shut down object Pool", e);
             }
         }
+        if (modelSpillFile != null) {
+            try {
+                modelSpillFile.close();
+            } catch (Exception e) {
+                LOG.error("Failed to delete model spill file", e);
+            }
+        }
     }
 }
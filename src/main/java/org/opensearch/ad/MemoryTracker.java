@@ -12,6 +12,7 @@
 package org.opensearch.ad;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.REAL_TIME_BOUNDING_BOX_CACHE_RATIO;
 
 import java.util.EnumMap;
 import java.util.Locale;
@@ -33,11 +34,16 @@ import com.amazon.randomcutforest.parkservices.ThresholdedRandomCutForest;
  */
 public class MemoryTracker {
     private static final Logger LOG = LogManager.getLogger(MemoryTracker.class);
+    // StampedLock of a ModelState: object header, lock state, head and tail of the
+    // wait queue, reader overflow count, and the lazily created lock views
+    public static final long MODEL_STATE_LOCK_BYTES = 48;
 
     public enum Origin {
         SINGLE_ENTITY_DETECTOR,
         HC_DETECTOR,
         HISTORICAL_SINGLE_ENTITY_DETECTOR,
+        // serialized HC entity models kept in direct buffers. Not counted toward the heap limit.
+        HC_DETECTOR_OFF_HEAP,
     }
 
     // memory tracker for total consumption of bytes
@@ -130,8 +136,12 @@ public class MemoryTracker {
     }
 
     public synchronized void consumeMemory(long memoryToConsume, boolean reserved, Origin origin) {
-        totalMemoryBytes += memoryToConsume;
         adjustOriginMemoryConsumption(memoryToConsume, origin, totalMemoryBytesByOrigin);
+        if (origin == Origin.HC_DETECTOR_OFF_HEAP) {
+            // off-heap bytes are only tracked per origin
+            return;
+        }
+        totalMemoryBytes += memoryToConsume;
         if (reserved) {
             reservedMemoryBytes += memoryToConsume;
             adjustOriginMemoryConsumption(memoryToConsume, origin, reservedMemoryBytesByOrigin);
@@ -144,8 +154,11 @@ public class MemoryTracker {
     }
 
     public synchronized void releaseMemory(long memoryToShed, boolean reserved, Origin origin) {
-        totalMemoryBytes -= memoryToShed;
         adjustOriginMemoryRelease(memoryToShed, origin, totalMemoryBytesByOrigin);
+        if (origin == Origin.HC_DETECTOR_OFF_HEAP) {
+            return;
+        }
+        totalMemoryBytes -= memoryToShed;
         if (reserved) {
             reservedMemoryBytes -= memoryToShed;
             adjustOriginMemoryRelease(memoryToShed, origin, reservedMemoryBytesByOrigin);
@@ -290,6 +303,20 @@ public class MemoryTracker {
         return compactRcfSize + thresholdSize;
     }
 
+    /**
+     * Gets the estimated size of an entity's model state hosted in the entity cache:
+     * the TRCF model plus the lock that serializes the state's updates and snapshots.
+     *
+     * @param dimension The number of feature dimensions in RCF
+     * @param numberOfTrees The number of trees in RCF
+     * @param shingleSize shingle size
+     * @return estimated model state size
+     */
+    public long estimateEntityModelStateSize(int dimension, int numberOfTrees, int shingleSize) {
+        return estimateTRCFModelSize(dimension, numberOfTrees, REAL_TIME_BOUNDING_BOX_CACHE_RATIO, shingleSize, true)
+            + MODEL_STATE_LOCK_BYTES;
+    }
+
     /**
      * Bytes to remove to keep AD memory usage within the limit
      * @return bytes to remove
@@ -318,6 +345,14 @@ public class MemoryTracker {
         return totalMemoryBytes;
     }
 
+    /**
+     *
+     * @return bytes of serialized models stored outside of the java heap
+     */
+    public synchronized long getOffHeapMemoryBytes() {
+        return totalMemoryBytesByOrigin.getOrDefault(Origin.HC_DETECTOR_OFF_HEAP, 0L);
+    }
+
     /**
      * In case of bugs/race conditions or users dyanmically changing dedicated/shared
      * cache size, sync used bytes infrequently by recomputing memory usage.
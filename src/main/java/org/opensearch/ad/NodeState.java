@@ -16,7 +16,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 
-import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyDetectorJob;
 
 /**
@@ -25,8 +24,6 @@ import org.opensearch.ad.model.AnomalyDetectorJob;
  */
 public class NodeState implements ExpiringState {
     private String detectorId;
-    // detector definition
-    private AnomalyDetector detectorDef;
     // number of partitions
     private int partitonNumber;
     // last access time
@@ -47,7 +44,6 @@ public class NodeState implements ExpiringState {
 
     public NodeState(String detectorId, Clock clock) {
         this.detectorId = detectorId;
-        this.detectorDef = null;
         this.partitonNumber = -1;
         this.lastAccessTime = clock.instant();
         this.lastDetectionError = Optional.empty();
@@ -62,24 +58,6 @@ public class NodeState implements ExpiringState {
         return detectorId;
     }
 
-    /**
-     *
-     * @return Detector configuration object
-     */
-    public AnomalyDetector getDetectorDef() {
-        refreshLastUpdateTime();
-        return detectorDef;
-    }
-
-    /**
-     *
-     * @param detectorDef Detector configuration object
-     */
-    public void setDetectorDef(AnomalyDetector detectorDef) {
-        this.detectorDef = detectorDef;
-        refreshLastUpdateTime();
-    }
-
     /**
      *
      * @return RCF partition number of the detector
@@ -12,6 +12,7 @@
 package org.opensearch.ad;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BACKOFF_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.DETECTOR_CONFIG_IDLE_TTL;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_RETRY_FOR_UNRESPONSIVE_NODE;
 import static org.opensearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 
@@ -38,7 +39,10 @@ import org.opensearch.ad.model.AnomalyDetectorJob;
 import org.opensearch.ad.transport.BackPressureRouting;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.ExceptionUtil;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Settings;
@@ -54,11 +58,18 @@ import org.opensearch.timeseries.constant.CommonName;
  * NodeStateManager is used to manage states shared by transport and ml components
  * like AnomalyDetector object
  *
+ * Detector configs are cached apart from the expiring node states. A cached config
+ * stays until an update or delete of the config doc is broadcast to all nodes, so
+ * unchanged configs are not fetched and parsed again.
  */
-public class NodeStateManager implements MaintenanceState, CleanState {
+public class NodeStateManager implements MaintenanceState, CleanState, ClusterStateListener {
     private static final Logger LOG = LogManager.getLogger(NodeStateManager.class);
     public static final String NO_ERROR = "no_error";
     private ConcurrentHashMap<String, NodeState> states;
+    // detector id -> cached config
+    private ConcurrentHashMap<String, CachedConfig> configs;
+    // parsed feature aggregations of cached configs
+    private final FeatureQueryCache featureQueryCache;
     private Client client;
     private NamedXContentRegistry xContentRegistry;
     private ClientUtil clientUtil;
@@ -79,6 +90,7 @@ public class NodeStateManager implements MaintenanceState, CleanState {
      * @param clock A UTC clock
      * @param stateTtl Max time to keep state in memory
      * @param clusterService Cluster service accessor
+     * @param featureQueryCache Parsed feature aggregations to drop on detector updates
      */
     public NodeStateManager(
         Client client,
@@ -87,9 +99,12 @@ public class NodeStateManager implements MaintenanceState, CleanState {
         ClientUtil clientUtil,
         Clock clock,
         Duration stateTtl,
-        ClusterService clusterService
+        ClusterService clusterService,
+        FeatureQueryCache featureQueryCache
     ) {
         this.states = new ConcurrentHashMap<>();
+        this.configs = new ConcurrentHashMap<>();
+        this.featureQueryCache = featureQueryCache;
         this.client = client;
         this.xContentRegistry = xContentRegistry;
         this.clientUtil = clientUtil;
@@ -114,6 +129,7 @@ public class NodeStateManager implements MaintenanceState, CleanState {
                 entry.values().forEach(v -> v.setMutePeriod(it));
             }
         });
+        clusterService.addListener(this);
     }
 
     /**
@@ -122,14 +138,14 @@ public class NodeStateManager implements MaintenanceState, CleanState {
      * @return the Detecor config object or empty Optional
      */
     public Optional<AnomalyDetector> getAnomalyDetectorIfPresent(String adID) {
-        NodeState state = states.get(adID);
-        return Optional.ofNullable(state).map(NodeState::getDetectorDef);
+        CachedConfig config = configs.get(adID);
+        return Optional.ofNullable(config).map(this::getDetector);
     }
 
     public void getAnomalyDetector(String adID, ActionListener<Optional<AnomalyDetector>> listener) {
-        NodeState state = states.get(adID);
-        if (state != null && state.getDetectorDef() != null) {
-            listener.onResponse(Optional.of(state.getDetectorDef()));
+        CachedConfig config = configs.get(adID);
+        if (config != null && config.detector != null) {
+            listener.onResponse(Optional.of(getDetector(config)));
         } else {
             GetRequest request = new GetRequest(CommonName.CONFIG_INDEX, adID);
             clientUtil.<GetRequest, GetResponse>asyncRequest(request, client::get, onGetDetectorResponse(adID, listener));
@@ -156,8 +172,14 @@ public class NodeStateManager implements MaintenanceState, CleanState {
                     listener.onFailure(new EndRunException(adID, CommonMessages.ALL_FEATURES_DISABLED_ERR_MSG, true).countedInStats(false));
                     return;
                 }
-                NodeState state = states.computeIfAbsent(adID, id -> new NodeState(id, clock));
-                state.setDetectorDef(detector);
+                long seqNo = response.getSeqNo();
+                configs.compute(adID, (id, cached) -> {
+                    // keep an invalidation or a config newer than the fetched one
+                    if (cached != null && cached.seqNo > seqNo) {
+                        return cached;
+                    }
+                    return new CachedConfig(detector, seqNo, clock.millis());
+                });
 
                 listener.onResponse(Optional.of(detector));
             } catch (Exception t) {
@@ -168,6 +190,40 @@ public class NodeStateManager implements MaintenanceState, CleanState {
         }, listener::onFailure);
     }
 
+    private AnomalyDetector getDetector(CachedConfig config) {
+        config.lastUsedMillis = clock.millis();
+        return config.detector;
+    }
+
+    /**
+     * Drop the cached config of a detector after its config doc is updated or deleted
+     *
+     * @param detectorId detector Id
+     * @param seqNo sequence number of the update or delete
+     */
+    public void invalidateAnomalyDetector(String detectorId, long seqNo) {
+        configs.compute(detectorId, (id, cached) -> {
+            if (cached != null && cached.seqNo >= seqNo) {
+                // already invalidated or fetched after the change
+                return cached;
+            }
+            // remember the change so that a get still in flight doesn't cache the old version
+            return new CachedConfig(null, seqNo, clock.millis());
+        });
+        featureQueryCache.invalidate(detectorId);
+    }
+
+    /**
+     * A node out of the cluster may miss invalidations, so start over once nodes
+     * or the cluster manager change.
+     */
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.nodesChanged() || event.nodesDelta().clusterManagerNodeChanged()) {
+            configs.clear();
+        }
+    }
+
     /**
      * Get a detector's checkpoint and save a flag if we find any so that next time we don't need to do it again
      * @param adID  the detector's ID
@@ -221,6 +277,11 @@ public class NodeStateManager implements MaintenanceState, CleanState {
     @Override
     public void maintenance() {
         maintenance(states, stateTtl);
+        if (configs.isEmpty()) {
+            return;
+        }
+        long idleBefore = clock.millis() - DETECTOR_CONFIG_IDLE_TTL.toMillis();
+        configs.values().removeIf(config -> config.lastUsedMillis < idleBefore);
     }
 
     public boolean isMuted(String nodeId, String detectorId) {
@@ -405,4 +466,18 @@ public class NodeStateManager implements MaintenanceState, CleanState {
             }
         }, listener::onFailure);
     }
+
+    private static class CachedConfig {
+        // null once invalidated
+        private final AnomalyDetector detector;
+        // sequence number of the config doc, or of the change that invalidated it
+        private final long seqNo;
+        private volatile long lastUsedMillis;
+
+        CachedConfig(AnomalyDetector detector, long seqNo, long lastUsedMillis) {
+            this.detector = detector;
+            this.seqNo = seqNo;
+            this.lastUsedMillis = lastUsedMillis;
+        }
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad;
+
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.TOP_ANOMALY_SUMMARY_RETENTION;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.AnomalyResultBucket;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * Max anomaly grade and anomaly count per entity per hour of the real-time HC
+ * results written by this node.  Lets the top anomaly API read small pre-aggregated
+ * buckets instead of aggregating the result index.
+ *
+ * The summary is in memory.  It is complete for results whose data end time is
+ * at or after the coverage start: the node records results from its start, and
+ * starts over when a node leaves the cluster since the left node's part of the
+ * summary is lost.  Buckets older than the retention or dropped to bound memory
+ * move the coverage start forward.  Callers fall back to the result index for
+ * anything before the coverage start.
+ */
+public class TopAnomalySummary implements ClusterStateListener {
+    private static final Logger LOG = LogManager.getLogger(TopAnomalySummary.class);
+
+    public static final long BUCKET_MILLIS = 3_600_000L;
+    // max (entity, hour) cells of all detectors on a node
+    static final int MAX_CELLS = 100_000;
+
+    private final Clock clock;
+    private final Map<String, DetectorSummary> summaries;
+    private volatile long retentionMillis;
+    // results with data end time at or after it are in the summary
+    private volatile long nodeCoverageStart;
+    private volatile long lastTrimBucket;
+    private int cells;
+
+    public TopAnomalySummary(Clock clock, ClusterService clusterService, Settings settings) {
+        this.clock = clock;
+        this.summaries = new ConcurrentHashMap<>();
+        this.retentionMillis = TOP_ANOMALY_SUMMARY_RETENTION.get(settings).getMillis();
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(TOP_ANOMALY_SUMMARY_RETENTION, it -> {
+            if (retentionMillis <= 0) {
+                // nothing was recorded while disabled
+                nodeCoverageStart = clock.millis();
+            }
+            retentionMillis = it.getMillis();
+        });
+        this.nodeCoverageStart = clock.millis();
+        this.lastTrimBucket = getBucket(nodeCoverageStart);
+        this.cells = 0;
+        clusterService.addListener(this);
+    }
+
+    /**
+     * @param time epoch millis
+     * @return start time of the hour containing the time
+     */
+    public static long getBucket(long time) {
+        return time - time % BUCKET_MILLIS;
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.nodesRemoved()) {
+            LOG.info("Node left, restart top anomaly summary coverage");
+            nodeCoverageStart = clock.millis();
+        }
+    }
+
+    /**
+     * Record a result written to the result index
+     * @param result anomaly result
+     */
+    public void record(AnomalyResult result) {
+        if (retentionMillis <= 0
+            || result.getTaskId() != null
+            || result.getEntity() == null
+            || result.getAnomalyGrade() == null
+            || result.getAnomalyGrade() <= 0
+            || result.getDataEndTime() == null) {
+            return;
+        }
+        trimIfNeeded();
+        long bucket = getBucket(result.getDataEndTime().toEpochMilli());
+        synchronized (this) {
+            DetectorSummary summary = summaries.computeIfAbsent(result.getDetectorId(), k -> new DetectorSummary(nodeCoverageStart));
+            if (summary.add(bucket, result.getEntity(), result.getAnomalyGrade())) {
+                cells++;
+            }
+            while (cells > MAX_CELLS) {
+                dropOldestBucket();
+            }
+        }
+    }
+
+    /**
+     * @param detectorId detector id
+     * @return results of the detector with data end time at or after the returned
+     *  time are all in the summary
+     */
+    public long getCoverageStart(String detectorId) {
+        if (retentionMillis <= 0) {
+            return Long.MAX_VALUE;
+        }
+        trimIfNeeded();
+        DetectorSummary summary = summaries.get(detectorId);
+        long coverageStart = nodeCoverageStart;
+        if (summary != null) {
+            synchronized (this) {
+                coverageStart = Math.max(coverageStart, summary.coverageStart);
+            }
+        }
+        return coverageStart;
+    }
+
+    /**
+     * Anomalies of a detector in whole hours, grouped by the given category fields
+     *
+     * @param detectorId detector id
+     * @param startTime start of the first hour, inclusive
+     * @param endTime end of the last hour, exclusive
+     * @param categoryFields category fields to group by
+     * @return max anomaly grade and anomaly count of each group
+     */
+    public List<AnomalyResultBucket> getBuckets(String detectorId, long startTime, long endTime, List<String> categoryFields) {
+        DetectorSummary summary = summaries.get(detectorId);
+        if (summary == null) {
+            return new ArrayList<>();
+        }
+        Map<Map<String, Object>, AnomalyResultBucket> buckets = new HashMap<>();
+        synchronized (this) {
+            for (Map<Entity, Cell> hour : summary.hours.subMap(startTime, endTime).values()) {
+                for (Map.Entry<Entity, Cell> entry : hour.entrySet()) {
+                    Map<String, Object> key = new HashMap<>();
+                    Map<String, String> attributes = entry.getKey().getAttributes();
+                    for (String categoryField : categoryFields) {
+                        key.put(categoryField, attributes.get(categoryField));
+                    }
+                    Cell cell = entry.getValue();
+                    buckets.merge(key, new AnomalyResultBucket(key, cell.count, cell.maxGrade), TopAnomalySummary::merge);
+                }
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * @param bucket1 bucket
+     * @param bucket2 bucket of the same key
+     * @return a bucket with the larger max anomaly grade and the total count
+     */
+    public static AnomalyResultBucket merge(AnomalyResultBucket bucket1, AnomalyResultBucket bucket2) {
+        return new AnomalyResultBucket(
+            bucket1.getKey(),
+            bucket1.getDocCount() + bucket2.getDocCount(),
+            Math.max(bucket1.getMaxAnomalyGrade(), bucket2.getMaxAnomalyGrade())
+        );
+    }
+
+    // drop buckets out of retention once an hour
+    private void trimIfNeeded() {
+        long currentBucket = getBucket(clock.millis());
+        if (currentBucket <= lastTrimBucket) {
+            return;
+        }
+        synchronized (this) {
+            lastTrimBucket = currentBucket;
+            long expiry = clock.millis() - retentionMillis;
+            nodeCoverageStart = Math.max(nodeCoverageStart, expiry);
+            Iterator<DetectorSummary> iterator = summaries.values().iterator();
+            while (iterator.hasNext()) {
+                DetectorSummary summary = iterator.next();
+                cells -= summary.dropBefore(getBucket(expiry));
+                // the node's coverage start covers an empty summary unless memory pressure moved it further
+                if (summary.hours.isEmpty() && summary.coverageStart <= nodeCoverageStart) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void dropOldestBucket() {
+        DetectorSummary oldest = null;
+        for (DetectorSummary summary : summaries.values()) {
+            if (false == summary.hours.isEmpty() && (oldest == null || summary.hours.firstKey() < oldest.hours.firstKey())) {
+                oldest = summary;
+            }
+        }
+        if (oldest == null) {
+            cells = 0;
+            return;
+        }
+        LOG.info("Top anomaly summary is full, drop hour {}", oldest.hours.firstKey());
+        cells -= oldest.dropBefore(oldest.hours.firstKey() + BUCKET_MILLIS);
+    }
+
+    int getCellCount() {
+        return cells;
+    }
+
+    private static class Cell {
+        private double maxGrade;
+        private int count;
+    }
+
+    /**
+     * Summary of a detector.  Guarded by the lock of the enclosing summary.
+     */
+    private static class DetectorSummary {
+        // hour -> entity -> cell
+        private final TreeMap<Long, Map<Entity, Cell>> hours = new TreeMap<>();
+        private long coverageStart;
+
+        DetectorSummary(long coverageStart) {
+            this.coverageStart = coverageStart;
+        }
+
+        /**
+         * @return whether a new cell is created
+         */
+        boolean add(long bucket, Entity entity, double grade) {
+            Map<Entity, Cell> hour = hours.computeIfAbsent(bucket, k -> new HashMap<>());
+            Cell cell = hour.get(entity);
+            boolean created = cell == null;
+            if (created) {
+                cell = new Cell();
+                hour.put(entity, cell);
+            }
+            cell.maxGrade = Math.max(cell.maxGrade, grade);
+            cell.count++;
+            return created;
+        }
+
+        /**
+         * @return number of dropped cells
+         */
+        int dropBefore(long bucket) {
+            int dropped = 0;
+            Map<Long, Map<Entity, Cell>> droppedHours = hours.headMap(bucket);
+            for (Map<Entity, Cell> hour : droppedHours.values()) {
+                dropped += hour.size();
+            }
+            if (dropped > 0 || false == droppedHours.isEmpty()) {
+                droppedHours.clear();
+                coverageStart = Math.max(coverageStart, bucket);
+            }
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,727 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_MAINTAIN_BYTES_PER_HOUR;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.DEDICATED_CACHE_SIZE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.MemoryTracker.Origin;
+import org.opensearch.ad.common.exception.AnomalyDetectionException;
+import org.opensearch.ad.common.exception.LimitExceededException;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.model.ModelProfile;
+import org.opensearch.ad.ratelimit.CheckpointMaintainRequest;
+import org.opensearch.ad.ratelimit.CheckpointMaintainWorker;
+import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
+import org.opensearch.ad.util.DateUtils;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.Strings;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.timeseries.constant.CommonMessages;
+
+/**
+ * Entity cache keeping models in per-detector CacheBuffers.  Memory accounting,
+ * the dedicated cache, checkpoints, off-heap copies, and maintenance are shared
+ * by all caches.  Subclasses decide which entities are admitted when memory is
+ * full and which ones are evicted to make room.
+ */
+public abstract class AbstractEntityCache implements EntityCache {
+    private static final Logger LOG = LogManager.getLogger(AbstractEntityCache.class);
+
+    // detector id -> CacheBuffer, weight based
+    protected final Map<String, CacheBuffer> activeEnities;
+    private final CheckpointDao checkpointDao;
+    protected volatile int dedicatedCacheSize;
+    protected final MemoryTracker memoryTracker;
+    protected final ReentrantLock maintenanceLock;
+    private final int numberOfTrees;
+    protected final Clock clock;
+    protected final Duration modelTtl;
+    private ThreadPool threadPool;
+    protected Random random;
+    private CheckpointWriteWorker checkpointWriteQueue;
+    protected int maintenanceFreqConstant;
+    private CheckpointMaintainWorker checkpointMaintainQueue;
+    private Duration checkpointInterval;
+    private volatile long checkpointMaintainBytesPerHour;
+    // checkpoint bytes left for the remaining slices of the current maintenance round
+    private volatile long checkpointBudgetLeft;
+    private final OffHeapModelStore offHeapModelStore;
+    protected final EntityCacheStats cacheStats;
+
+    protected AbstractEntityCache(
+        CheckpointDao checkpointDao,
+        int dedicatedCacheSize,
+        MemoryTracker memoryTracker,
+        int numberOfTrees,
+        Clock clock,
+        ClusterService clusterService,
+        Duration modelTtl,
+        ThreadPool threadPool,
+        CheckpointWriteWorker checkpointWriteQueue,
+        int maintenanceFreqConstant,
+        CheckpointMaintainWorker checkpointMaintainQueue,
+        Settings settings,
+        Setting<TimeValue> checkpointSavingFreq,
+        OffHeapModelStore offHeapModelStore
+    ) {
+        this.checkpointDao = checkpointDao;
+
+        this.activeEnities = new ConcurrentHashMap<>();
+        this.dedicatedCacheSize = dedicatedCacheSize;
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(DEDICATED_CACHE_SIZE, (it) -> {
+            this.dedicatedCacheSize = it;
+            this.setDedicatedCacheSizeListener();
+            this.tryClearUpMemory();
+        }, this::validateDedicatedCacheSize);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MODEL_MAX_SIZE_PERCENTAGE, it -> this.tryClearUpMemory());
+
+        this.memoryTracker = memoryTracker;
+        this.maintenanceLock = new ReentrantLock();
+        this.numberOfTrees = numberOfTrees;
+        this.clock = clock;
+        this.modelTtl = modelTtl;
+
+        this.threadPool = threadPool;
+        this.random = new Random(42);
+        this.checkpointWriteQueue = checkpointWriteQueue;
+        this.maintenanceFreqConstant = maintenanceFreqConstant;
+        this.checkpointMaintainQueue = checkpointMaintainQueue;
+
+        this.offHeapModelStore = offHeapModelStore;
+        this.cacheStats = new EntityCacheStats();
+
+        this.checkpointInterval = DateUtils.toDuration(checkpointSavingFreq.get(settings));
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(checkpointSavingFreq, it -> this.checkpointInterval = DateUtils.toDuration(it));
+        this.checkpointMaintainBytesPerHour = CHECKPOINT_MAINTAIN_BYTES_PER_HOUR.get(settings).getBytes();
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(CHECKPOINT_MAINTAIN_BYTES_PER_HOUR, it -> this.checkpointMaintainBytesPerHour = it.getBytes());
+    }
+
+    /**
+     * Host a model if the admission policy lets it in.  Called with the
+     * detector's CacheBuffer.
+     *
+     * @param buffer the CacheBuffer of the model's detector
+     * @param modelId model id
+     * @param toUpdate model state to host
+     * @return whether the model is hosted
+     */
+    protected abstract boolean host(CacheBuffer buffer, String modelId, ModelState<EntityModel> toUpdate);
+
+    /**
+     * @param buffer a CacheBuffer
+     * @return the model id of the buffer's next eviction victim and its score, or
+     *  empty if the buffer has nothing to evict.  Victims of lower scores are
+     *  evicted first.  Scores are comparable across CacheBuffers.
+     */
+    protected abstract Optional<Entry<String, Float>> getVictim(CacheBuffer buffer);
+
+    /**
+     * Called after a model leaves a CacheBuffer.
+     *
+     * @param buffer the CacheBuffer the model was in
+     * @param modelId model id
+     * @param removed the removed model state; null if another thread removed it first
+     */
+    protected abstract void onEvicted(CacheBuffer buffer, String modelId, ModelState<EntityModel> removed);
+
+    /**
+     * Called after a detector's CacheBuffer is dropped because of expiry or
+     * the detector's deletion.
+     *
+     * @param detectorId detector id
+     */
+    protected abstract void onBufferRemoved(String detectorId);
+
+    /**
+     * Maintain whatever the admission policy keeps about evicted and uncached
+     * entities.  Called by the hourly maintenance.
+     */
+    protected abstract void maintainAdmission();
+
+    /**
+     * @param entityModelId entity model id
+     * @return when an entity no longer in the cache was last seen, in epoch
+     *  milliseconds; or -1 if unknown
+     */
+    protected abstract long getLastEvictedMs(String entityModelId);
+
+    /**
+     * Called after a detector's CacheBuffer is created, before it is visible to
+     * other threads.
+     *
+     * @param detector detector config
+     * @param buffer the new CacheBuffer
+     */
+    protected void onBufferCreated(AnomalyDetector detector, CacheBuffer buffer) {}
+
+    @Override
+    public boolean hostIfPossible(AnomalyDetector detector, ModelState<EntityModel> toUpdate) {
+        if (toUpdate == null) {
+            return false;
+        }
+        String modelId = toUpdate.getModelId();
+        String detectorId = toUpdate.getDetectorId();
+
+        if (Strings.isEmpty(modelId) || Strings.isEmpty(detectorId)) {
+            return false;
+        }
+
+        CacheBuffer buffer = computeBufferIfAbsent(detector, detectorId);
+        boolean hosted = host(buffer, modelId, toUpdate);
+        cacheStats.recordAdmission(detectorId, hosted);
+        return hosted;
+    }
+
+    /**
+     * Remove a model from a CacheBuffer.  CacheBuffer writes its checkpoint and
+     * off-heap copy.
+     *
+     * @param buffer the CacheBuffer to remove from
+     * @param modelId model id
+     * @return whether the model was in the buffer
+     */
+    protected boolean evict(CacheBuffer buffer, String modelId) {
+        ModelState<EntityModel> removed = buffer.remove(modelId);
+        onEvicted(buffer, modelId, removed);
+        return removed != null;
+    }
+
+    protected CacheBuffer computeBufferIfAbsent(AnomalyDetector detector, String detectorId) {
+        CacheBuffer buffer = activeEnities.get(detectorId);
+        if (buffer == null) {
+            long requiredBytes = getRequiredMemory(detector, dedicatedCacheSize);
+            if (memoryTracker.canAllocateReserved(requiredBytes)) {
+                memoryTracker.consumeMemory(requiredBytes, true, Origin.HC_DETECTOR);
+                long intervalSecs = detector.getDetectorIntervalInSeconds();
+
+                buffer = new CacheBuffer(
+                    dedicatedCacheSize,
+                    intervalSecs,
+                    getRequiredMemory(detector, 1),
+                    memoryTracker,
+                    clock,
+                    modelTtl,
+                    detectorId,
+                    checkpointWriteQueue,
+                    offHeapModelStore
+                );
+                onBufferCreated(detector, buffer);
+                activeEnities.put(detectorId, buffer);
+                // There can be race conditions between tryClearUpMemory and
+                // activeEntities.put above as tryClearUpMemory accesses activeEnities too.
+                // Put tryClearUpMemory after consumeMemory to prevent that.
+                tryClearUpMemory();
+            } else {
+                throw new LimitExceededException(detectorId, CommonMessages.MEMORY_LIMIT_EXCEEDED_ERR_MSG);
+            }
+
+        }
+        return buffer;
+    }
+
+    /**
+     *
+     * @param detector Detector config accessor
+     * @param numberOfEntity number of entities
+     * @return Memory in bytes required for hosting numberOfEntity entities
+     */
+    private long getRequiredMemory(AnomalyDetector detector, int numberOfEntity) {
+        int dimension = detector.getEnabledFeatureIds().size() * detector.getShingleSize();
+        return numberOfEntity * memoryTracker.estimateEntityModelStateSize(dimension, numberOfTrees, detector.getShingleSize().intValue());
+    }
+
+    /**
+     * Whether the candidate entity can replace any entity in the shared cache.
+     * We can have race conditions when multiple threads try to evaluate this
+     * function. The result is that we can have multiple threads thinks they
+     * can replace entities in the cache.
+     *
+     * @param originBuffer the CacheBuffer that the entity belongs to (with the same detector Id)
+     * @param candidateScore the candidate entity's score
+     * @return the CacheBuffer and model id of the lowest score victim in other
+     *  CacheBuffers, or nulls if no victim has a lower score than the candidate;
+     *  and the lowest victim score
+     */
+    protected Triple<CacheBuffer, String, Float> canReplaceInSharedCache(CacheBuffer originBuffer, float candidateScore) {
+        CacheBuffer minScoreBuffer = null;
+        float minScore = candidateScore;
+        String minScoreEntityModelId = null;
+        for (CacheBuffer buffer : activeEnities.values()) {
+            if (buffer != originBuffer && buffer.canRemove()) {
+                Optional<Entry<String, Float>> victim = getVictim(buffer);
+                if (false == victim.isPresent()) {
+                    continue;
+                }
+                float score = victim.get().getValue();
+                if (score < minScore) {
+                    minScore = score;
+                    minScoreBuffer = buffer;
+                    minScoreEntityModelId = victim.get().getKey();
+                }
+            }
+        }
+        return Triple.of(minScoreBuffer, minScoreEntityModelId, minScore);
+    }
+
+    /**
+     * Clear up overused memory.  Can happen due to race condition or other detectors
+     * consumes resources from shared memory.
+     * tryClearUpMemory is ran using AD threadpool because the function is expensive.
+     */
+    protected void tryClearUpMemory() {
+        try {
+            if (maintenanceLock.tryLock()) {
+                threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(() -> clearMemory());
+            } else {
+                threadPool.schedule(() -> {
+                    try {
+                        tryClearUpMemory();
+                    } catch (Exception e) {
+                        LOG.error("Fail to clear up memory taken by CacheBuffer.  Will retry during maintenance.");
+                    }
+                }, new TimeValue(random.nextInt(90), TimeUnit.SECONDS), AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+            }
+        } finally {
+            if (maintenanceLock.isHeldByCurrentThread()) {
+                maintenanceLock.unlock();
+            }
+        }
+    }
+
+    private void clearMemory() {
+        recalculateUsedMemory();
+        long memoryToShed = memoryTracker.memoryToShed();
+        if (memoryToShed <= 0) {
+            return;
+        }
+        // sort the triple in an ascending order of score
+        PriorityQueue<Triple<Float, CacheBuffer, String>> removalCandiates = new PriorityQueue<>(
+            (x, y) -> Float.compare(x.getLeft(), y.getLeft())
+        );
+        for (CacheBuffer buffer : activeEnities.values()) {
+            addRemovalCandidate(removalCandiates, buffer);
+        }
+        while (memoryToShed > 0 && false == removalCandiates.isEmpty()) {
+            Triple<Float, CacheBuffer, String> toRemove = removalCandiates.poll();
+            CacheBuffer minScoreBuffer = toRemove.getMiddle();
+            evict(minScoreBuffer, toRemove.getRight());
+            memoryToShed -= minScoreBuffer.getMemoryConsumptionPerEntity();
+            // can remove another one
+            addRemovalCandidate(removalCandiates, minScoreBuffer);
+        }
+    }
+
+    private void addRemovalCandidate(PriorityQueue<Triple<Float, CacheBuffer, String>> removalCandiates, CacheBuffer buffer) {
+        if (buffer.canRemove()) {
+            getVictim(buffer).ifPresent(victim -> removalCandiates.add(Triple.of(victim.getValue(), buffer, victim.getKey())));
+        }
+    }
+
+    /**
+     * Recalculate memory consumption in case of bugs/race conditions when allocating/releasing memory
+     */
+    private void recalculateUsedMemory() {
+        long reserved = 0;
+        long shared = 0;
+        for (CacheBuffer buffer : activeEnities.values()) {
+            reserved += buffer.getReservedBytes();
+            shared += buffer.getBytesInSharedCache();
+        }
+        memoryTracker.syncMemoryState(Origin.HC_DETECTOR, reserved + shared, reserved);
+    }
+
+    /**
+     * Remove expired models and buffers, checkpoint models updated since their
+     * last checkpoint, and maintain the admission policy's state.
+     */
+    @Override
+    public void maintenance() {
+        maintenance(0, 1);
+    }
+
+    /**
+     * Maintain the cached models whose id hashes to the slice, so slices are about
+     * the same size however models spread over detectors.  The
+     * hourly checkpoint budget is shared by the slices of a round: each slice may
+     * use the budget left divided by the slices left, so bytes a slice does not
+     * need carry over to the next ones.
+     *
+     * @param slice index of the slice in [0, slices)
+     * @param slices number of slices in a round
+     */
+    @Override
+    public void maintenance(int slice, int slices) {
+        try {
+            if (slice == 0) {
+                // clean up memory if we allocate more memory than we should
+                tryClearUpMemory();
+                checkpointBudgetLeft = checkpointMaintainBytesPerHour;
+            }
+            CheckpointScheduler checkpointScheduler = new CheckpointScheduler(clock.instant(), checkpointInterval);
+            activeEnities.entrySet().stream().forEach(cacheBufferEntry -> {
+                String detectorId = cacheBufferEntry.getKey();
+                CacheBuffer cacheBuffer = cacheBufferEntry.getValue();
+                // remove expired cache buffer
+                if (cacheBuffer.expired(modelTtl)) {
+                    activeEnities.remove(detectorId);
+                    onBufferRemoved(detectorId);
+                    cacheBuffer.clear();
+                    cacheStats.remove(detectorId);
+                } else {
+                    for (ModelState<EntityModel> state : cacheBuffer.maintenance(slice, slices)) {
+                        if (state != null) {
+                            onEvicted(cacheBuffer, state.getModelId(), state);
+                        }
+                    }
+                    cacheBuffer.offerCheckpoints(checkpointScheduler, slice, slices);
+                }
+            });
+
+            // checkpoint models updated since their last checkpoint. Maintenance runs hourly.
+            // The requests expire when the next maintenance starts. A budget of 0 or less
+            // lets the scheduler size the budget by the slice's cached models.
+            long sliceBudget = checkpointMaintainBytesPerHour <= 0 ? 0 : Math.max(1, checkpointBudgetLeft / (slices - slice));
+            List<CheckpointMaintainRequest> checkpointRequests = checkpointScheduler
+                .schedule(sliceBudget, System.currentTimeMillis() + modelTtl.toMillis());
+            checkpointBudgetLeft = Math.max(0, checkpointBudgetLeft - checkpointScheduler.getScheduledBytes());
+            LOG.debug("Checkpoint {} of {} due models in slice {}", checkpointRequests.size(), checkpointScheduler.getDueModels(), slice);
+            checkpointMaintainQueue.putAll(checkpointRequests);
+
+            if (slice == 0) {
+                maintainAdmission();
+
+                offHeapModelStore.maintenance();
+            }
+        } catch (Exception e) {
+            // will be thrown to ES's transport broadcast handler
+            throw new AnomalyDetectionException("Fail to maintain cache", e);
+        }
+    }
+
+    /**
+     * Permanently deletes models hosted in memory and persisted in index.
+     *
+     * @param detectorId id the of the detector for which models are to be permanently deleted
+     */
+    @Override
+    public void clear(String detectorId) {
+        if (Strings.isEmpty(detectorId)) {
+            return;
+        }
+        CacheBuffer buffer = activeEnities.remove(detectorId);
+        if (buffer != null) {
+            buffer.clear();
+        }
+        onBufferRemoved(detectorId);
+        offHeapModelStore.clear(detectorId);
+        checkpointDao.deleteModelCheckpointByDetectorId(detectorId);
+        cacheStats.remove(detectorId);
+    }
+
+    /**
+     * Get the number of active entities of a detector
+     * @param detectorId Detector Id
+     * @return The number of active entities
+     */
+    @Override
+    public int getActiveEntities(String detectorId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null) {
+            return cacheBuffer.getActiveEntities();
+        }
+        return 0;
+    }
+
+    /**
+     * Whether an entity is active or not
+     * @param detectorId The Id of the detector that an entity belongs to
+     * @param entityModelId Entity's Model Id
+     * @return Whether an entity is active or not
+     */
+    @Override
+    public boolean isActive(String detectorId, String entityModelId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null) {
+            return cacheBuffer.isActive(entityModelId);
+        }
+        return false;
+    }
+
+    @Override
+    public long getTotalUpdates(String detectorId) {
+        return Optional
+            .of(activeEnities)
+            .map(entities -> entities.get(detectorId))
+            .flatMap(buffer -> buffer.getPriorityTracker().getHighestPriorityEntityId())
+            .map(entityModelId -> getTotalUpdates(detectorId, entityModelId))
+            .orElse(0L);
+    }
+
+    @Override
+    public long getTotalUpdates(String detectorId, String entityModelId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null) {
+            Optional<EntityModel> modelOptional = cacheBuffer.getModel(entityModelId);
+            // TODO: make it work for shingles. samples.size() is not the real shingle
+            long accumulatedShingles = modelOptional
+                .flatMap(model -> model.getTrcf())
+                .map(trcf -> trcf.getForest())
+                .map(rcf -> rcf.getTotalUpdates())
+                .orElseGet(
+                    () -> modelOptional.map(model -> model.getSamples()).map(samples -> samples.size()).map(Long::valueOf).orElse(0L)
+                );
+            return accumulatedShingles;
+        }
+        return 0L;
+    }
+
+    /**
+     *
+     * @return total active entities in the cache
+     */
+    @Override
+    public int getTotalActiveEntities() {
+        AtomicInteger total = new AtomicInteger();
+        activeEnities.values().stream().forEach(cacheBuffer -> { total.addAndGet(cacheBuffer.getActiveEntities()); });
+        return total.get();
+    }
+
+    /**
+     * Gets modelStates of all model hosted on a node
+     *
+     * @return list of modelStates
+     */
+    @Override
+    public List<ModelState<?>> getAllModels() {
+        List<ModelState<?>> states = new ArrayList<>();
+        activeEnities.values().stream().forEach(cacheBuffer -> states.addAll(cacheBuffer.getAllModels()));
+        return states;
+    }
+
+    /**
+     * Gets all of a detector's model sizes hosted on a node
+     *
+     * @return a map of model id to its memory size
+     */
+    @Override
+    public Map<String, Long> getModelSize(String detectorId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        Map<String, Long> res = new HashMap<>();
+        if (cacheBuffer != null) {
+            long size = cacheBuffer.getMemoryConsumptionPerEntity();
+            cacheBuffer.getAllModels().forEach(entry -> res.put(entry.getModelId(), size));
+        }
+        return res;
+    }
+
+    /**
+     * Return the last active time of an entity's state.
+     *
+     * If the entity's state is active in the cache, the value indicates when the cache
+     * is lastly accessed (get/put).  Otherwise, the value comes from what the
+     * admission policy remembers about the entity, e.g., when it is evicted.
+     *
+     * @param detectorId The Id of the detector that an entity belongs to
+     * @param entityModelId Entity's Model Id
+     * @return if the cache knows about the entity, return the timestamp in epoch
+     * milliseconds when the entity's state is lastly used.  Otherwise, return -1.
+     */
+    @Override
+    public long getLastActiveMs(String detectorId, String entityModelId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null) {
+            long lastUsedMs = cacheBuffer.getLastUsedTime(entityModelId);
+            if (lastUsedMs != -1) {
+                return lastUsedMs;
+            }
+        }
+        return getLastEvictedMs(entityModelId);
+    }
+
+    @Override
+    public void releaseMemoryForOpenCircuitBreaker() {
+        tryClearUpMemory();
+        activeEnities.values().stream().forEach(cacheBuffer -> {
+            if (cacheBuffer.canRemove()) {
+                getVictim(cacheBuffer).ifPresent(victim -> evict(cacheBuffer, victim.getKey()));
+            }
+        });
+    }
+
+    /**
+     * Called when dedicated cache size changes.  Will adjust existing cache buffer's
+     * cache size
+     */
+    private void setDedicatedCacheSizeListener() {
+        activeEnities.values().stream().forEach(cacheBuffer -> cacheBuffer.setMinimumCapacity(dedicatedCacheSize));
+    }
+
+    @Override
+    public List<ModelProfile> getAllModelProfile(String detectorId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        List<ModelProfile> res = new ArrayList<>();
+        if (cacheBuffer != null) {
+            long size = cacheBuffer.getMemoryConsumptionPerEntity();
+            cacheBuffer.getAllModels().forEach(entry -> {
+                EntityModel model = entry.getModel();
+                Entity entity = null;
+                if (model != null && model.getEntity().isPresent()) {
+                    entity = model.getEntity().get();
+                }
+                res.add(new ModelProfile(entry.getModelId(), entity, size));
+            });
+        }
+        return res;
+    }
+
+    /**
+     * Gets an entity's model state
+     *
+     * @param detectorId detector id
+     * @param entityModelId  entity model id
+     * @return the model state
+     */
+    @Override
+    public Optional<ModelProfile> getModelProfile(String detectorId, String entityModelId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null && cacheBuffer.getModel(entityModelId).isPresent()) {
+            EntityModel model = cacheBuffer.getModel(entityModelId).get();
+            Entity entity = null;
+            if (model != null && model.getEntity().isPresent()) {
+                entity = model.getEntity().get();
+            }
+            return Optional.of(new ModelProfile(entityModelId, entity, cacheBuffer.getMemoryConsumptionPerEntity()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Throw an IllegalArgumentException even the dedicated size increases cannot
+     * be fulfilled.
+     *
+     * @param newDedicatedCacheSize the new dedicated cache size to validate
+     */
+    private void validateDedicatedCacheSize(Integer newDedicatedCacheSize) {
+        if (this.dedicatedCacheSize < newDedicatedCacheSize) {
+            int delta = newDedicatedCacheSize - this.dedicatedCacheSize;
+            long totalIncreasedBytes = 0;
+            for (CacheBuffer cacheBuffer : activeEnities.values()) {
+                totalIncreasedBytes += cacheBuffer.getMemoryConsumptionPerEntity() * delta;
+            }
+
+            if (false == memoryTracker.canAllocateReserved(totalIncreasedBytes)) {
+                throw new IllegalArgumentException("We don't have enough memory for the required change");
+            }
+        }
+    }
+
+    /**
+     * Get a model state without incurring priority update. Used in maintenance.
+     * @param detectorId Detector Id
+     * @param modelId Model Id
+     * @return Model state
+     */
+    @Override
+    public Optional<ModelState<EntityModel>> getForMaintainance(String detectorId, String modelId) {
+        CacheBuffer buffer = activeEnities.get(detectorId);
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(buffer.getWithoutUpdatePriority(modelId));
+    }
+
+    /**
+     * Remove entity model from active entity buffer and delete checkpoint. Used to clean corrupted model.
+     * @param detectorId Detector Id
+     * @param entityModelId Model Id
+     */
+    @Override
+    public void removeEntityModel(String detectorId, String entityModelId) {
+        CacheBuffer buffer = activeEnities.get(detectorId);
+        if (buffer != null) {
+            onEvicted(buffer, entityModelId, buffer.remove(entityModelId, false));
+        }
+        offHeapModelStore.remove(entityModelId);
+        checkpointDao
+            .deleteModelCheckpoint(
+                entityModelId,
+                ActionListener
+                    .wrap(
+                        r -> LOG.debug(new ParameterizedMessage("Succeeded in deleting checkpoint [{}].", entityModelId)),
+                        e -> LOG.error(new ParameterizedMessage("Failed to delete checkpoint [{}].", entityModelId), e)
+                    )
+            );
+    }
+
+    @Override
+    public boolean hasOffHeapModel(String modelId) {
+        return offHeapModelStore.contains(modelId);
+    }
+
+    @Override
+    public Optional<Entry<EntityModel, Instant>> takeOffHeapModel(String modelId) {
+        return offHeapModelStore.take(modelId);
+    }
+
+    @Override
+    public boolean putOffHeapModel(
+        String modelId,
+        String detectorId,
+        Entity entity,
+        byte[] binaryCheckpoint,
+        Instant lastCheckpointTime,
+        int ringVersion
+    ) {
+        return offHeapModelStore.put(modelId, detectorId, entity, binaryCheckpoint, lastCheckpointTime, ringVersion);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getCacheStats() {
+        return cacheStats.getStats();
+    }
+}
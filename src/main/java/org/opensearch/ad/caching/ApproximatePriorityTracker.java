@@ -0,0 +1,302 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.time.Clock;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A priority tracker that makes updating an entity's priority O(1) and lock-free.
+ *
+ * {@link PriorityTracker} keeps entities sorted in a skip list and has to remove
+ * and re-insert an entity on every cache hit.  This tracker instead keeps the
+ * time-decayed priorities in a {@link CountMinSketch}.  A hit reads and raises
+ * a few counters (conservative update) using the same priority formula as
+ * {@link PriorityTracker}.  Counters never decrease, so priorities are
+ * approximate: an entity colliding with hotter entities in all rows looks
+ * hotter than it is.
+ *
+ * The minimum priority entity is found via a small min-heap of candidates.  The
+ * heap is refilled by scanning tracked entities and keeping the ones with the
+ * lowest priorities.  Only cache eviction refills; making room for a new entity
+ * when too many are tracked evicts from the heap or a bounded sample instead.
+ * Every entity not in the heap has a priority no less than the heap's bound,
+ * so the heap minimum is the tracker's minimum.  As priorities only go up,
+ * stale candidates are re-estimated lazily when they reach the top of the heap.
+ * Hits don't touch the heap.
+ *
+ * Finding the top or highest priority entities requires a scan. These are only
+ * used by profile APIs and historical analysis.
+ */
+public class ApproximatePriorityTracker extends PriorityTracker {
+    // max number of minimum priority candidates to keep after a refill
+    static final int MAX_CANDIDATES = 64;
+
+    // compare by priority, then key
+    private static final Comparator<Candidate> CANDIDATE_COMPARATOR = Comparator
+        .comparingDouble((Candidate candidate) -> candidate.priority)
+        .thenComparing(candidate -> candidate.key);
+
+    private static class Candidate {
+        private final String key;
+        private final float priority;
+
+        Candidate(String key, float priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    // tracked entity keys
+    private final Set<String> keys;
+    // time-decayed priorities of tracked and once tracked entities
+    private final CountMinSketch sketch;
+    // entities that may have the minimum priority. Guarded by itself.
+    private final PriorityQueue<Candidate> candidates;
+    // Entities not in candidates have priorities no less than bound. Guarded by candidates.
+    private float bound;
+    // the max number of entities to track
+    private final int maxEntities;
+
+    /**
+     * Create a priority tracker for a detector.  Detector and priority tracker
+     * have 1:1 mapping.
+     *
+     * @param clock Used to get current time.
+     * @param intervalSecs Detector interval seconds.
+     * @param landmarkEpoch The epoch time when the priority tracking starts.
+     * @param maxEntities the max number of entities to track.  Also the number of
+     *  counters per sketch row so that tracked entities rarely share all counters.
+     */
+    public ApproximatePriorityTracker(Clock clock, long intervalSecs, long landmarkEpoch, int maxEntities) {
+        super(clock, intervalSecs, landmarkEpoch, maxEntities, false);
+        this.keys = ConcurrentHashMap.newKeySet();
+        this.sketch = new CountMinSketch(maxEntities);
+        this.candidates = new PriorityQueue<>(CANDIDATE_COMPARATOR);
+        // force a refill on first use
+        this.bound = Float.NEGATIVE_INFINITY;
+        this.maxEntities = maxEntities;
+    }
+
+    @Override
+    public Optional<Entry<String, Float>> getMinimumScaledPriority() {
+        return getMinimumPriority().map(entry -> new SimpleImmutableEntry<>(entry.getKey(), getScaledPriority(entry.getValue())));
+    }
+
+    @Override
+    public Optional<Entry<String, Float>> getMinimumPriority() {
+        return getMinimumCandidate(true);
+    }
+
+    /**
+     * @param refillIfEmpty whether to scan tracked entities when no candidate is left
+     * @return the minimum priority entity among candidates
+     */
+    private Optional<Entry<String, Float>> getMinimumCandidate(boolean refillIfEmpty) {
+        synchronized (candidates) {
+            while (true) {
+                if (candidates.isEmpty() && (false == refillIfEmpty || false == refill())) {
+                    return Optional.empty();
+                }
+                Candidate top = candidates.peek();
+                if (!keys.contains(top.key)) {
+                    candidates.poll();
+                    continue;
+                }
+                float current = estimate(top.key);
+                if (current == top.priority) {
+                    return Optional.of(new SimpleImmutableEntry<>(top.key, top.priority));
+                }
+                candidates.poll();
+                // the entity can be outside of the heap once it is above the bound
+                if (current <= bound) {
+                    candidates.add(new Candidate(top.key, current));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<String> getMinimumPriorityEntityId() {
+        return getMinimumPriority().map(Entry::getKey);
+    }
+
+    @Override
+    public Optional<String> getHighestPriorityEntityId() {
+        List<String> top = getTopNEntities(1);
+        return top.isEmpty() ? Optional.empty() : Optional.of(top.get(0));
+    }
+
+    @Override
+    public void updatePriority(String entityId) {
+        float priority = getUpdatedPriority(estimate(entityId));
+        sketch.raise(entityId, priority);
+        if (!keys.contains(entityId)) {
+            track(entityId, priority);
+        }
+    }
+
+    @Override
+    protected void addPriority(String entityId, float priority) {
+        sketch.raise(entityId, priority);
+        track(entityId, estimate(entityId));
+    }
+
+    @Override
+    protected void removePriority(String entityId) {
+        // counters are shared with other entities and cannot be lowered.
+        // Candidates of removed entities are dropped lazily.
+        keys.remove(entityId);
+    }
+
+    @Override
+    protected void clearPriority() {
+        keys.clear();
+        sketch.clear();
+        synchronized (candidates) {
+            candidates.clear();
+            bound = Float.NEGATIVE_INFINITY;
+        }
+    }
+
+    @Override
+    public List<String> getTopNEntities(int n) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        // min-heap of the n highest priority entities seen so far
+        PriorityQueue<Candidate> top = new PriorityQueue<>(CANDIDATE_COMPARATOR);
+        for (String key : keys) {
+            top.add(new Candidate(key, estimate(key)));
+            if (top.size() > n) {
+                top.poll();
+            }
+        }
+        List<String> entities = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            entities.add(top.poll().key);
+        }
+        Collections.reverse(entities);
+        return entities;
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Start tracking an entity and evict the minimum priority entity if we track too many.
+     * @param entityId Entity Id
+     * @param priority the entity's priority
+     */
+    private void track(String entityId, float priority) {
+        if (!keys.add(entityId)) {
+            return;
+        }
+        synchronized (candidates) {
+            if (priority <= bound) {
+                candidates.add(new Candidate(entityId, priority));
+                if (candidates.size() > 2 * MAX_CANDIDATES) {
+                    // too many new entities since the last refill
+                    trimCandidates();
+                }
+            }
+        }
+        if (keys.size() > maxEntities) {
+            // don't scan all tracked entities on the put path: fall back to a sample
+            // when no candidate is left
+            Optional<String> victim = getMinimumCandidate(false).map(Entry::getKey);
+            if (false == victim.isPresent()) {
+                victim = getSampledMinimum();
+            }
+            victim.ifPresent(this::removePriority);
+        }
+    }
+
+    /**
+     * Keep the MAX_CANDIDATES lowest candidates and lower the bound to the highest
+     * of them.  Dropped candidates have priorities no less than the new bound, so
+     * the bound still holds for entities outside the heap. Must hold the lock of
+     * candidates.
+     */
+    private void trimCandidates() {
+        List<Candidate> lowest = new ArrayList<>(MAX_CANDIDATES);
+        while (lowest.size() < MAX_CANDIDATES && false == candidates.isEmpty()) {
+            lowest.add(candidates.poll());
+        }
+        candidates.clear();
+        candidates.addAll(lowest);
+        bound = lowest.get(lowest.size() - 1).priority;
+    }
+
+    /**
+     * @return the minimum priority entity among the first MAX_CANDIDATES tracked entities
+     */
+    private Optional<String> getSampledMinimum() {
+        String minimum = null;
+        float minPriority = Float.POSITIVE_INFINITY;
+        int sampled = 0;
+        for (String key : keys) {
+            float priority = estimate(key);
+            if (minimum == null || priority < minPriority) {
+                minimum = key;
+                minPriority = priority;
+            }
+            if (++sampled >= MAX_CANDIDATES) {
+                break;
+            }
+        }
+        return Optional.ofNullable(minimum);
+    }
+
+    /**
+     * Refill candidates with the lowest priority entities. Must hold the lock of candidates.
+     * @return whether there is any candidate
+     */
+    private boolean refill() {
+        // max-heap of the lowest priority entities seen so far
+        PriorityQueue<Candidate> lowest = new PriorityQueue<>(CANDIDATE_COMPARATOR.reversed());
+        boolean dropped = false;
+        for (String key : keys) {
+            lowest.add(new Candidate(key, estimate(key)));
+            if (lowest.size() > MAX_CANDIDATES) {
+                lowest.poll();
+                dropped = true;
+            }
+        }
+        if (lowest.isEmpty()) {
+            bound = Float.NEGATIVE_INFINITY;
+            return false;
+        }
+        bound = dropped ? lowest.peek().priority : Float.POSITIVE_INFINITY;
+        candidates.addAll(lowest);
+        return true;
+    }
+
+    /**
+     * @param entityId Entity Id
+     * @return the estimated priority of an entity
+     */
+    float estimate(String entityId) {
+        return sketch.estimate(entityId);
+    }
+}
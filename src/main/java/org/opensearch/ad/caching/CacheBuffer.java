@@ -31,11 +31,9 @@ import org.opensearch.ad.MemoryTracker.Origin;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelState;
 import org.opensearch.ad.model.InitProgressProfile;
-import org.opensearch.ad.ratelimit.CheckpointMaintainRequest;
-import org.opensearch.ad.ratelimit.CheckpointMaintainWorker;
 import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
 import org.opensearch.ad.ratelimit.RequestPriority;
-import org.opensearch.ad.util.DateUtils;
+import org.opensearch.ad.settings.EnabledSetting;
 
 /**
  * We use a layered cache to manage active entities’ states.  We have a two-level
@@ -77,8 +75,7 @@ public class CacheBuffer implements ExpiringState {
     private final PriorityTracker priorityTracker;
     private final Clock clock;
     private final CheckpointWriteWorker checkpointWriteQueue;
-    private final CheckpointMaintainWorker checkpointMaintainQueue;
-    private int checkpointIntervalHrs;
+    private final OffHeapModelStore offHeapModelStore;
 
     public CacheBuffer(
         int minimumCapacity,
@@ -89,8 +86,7 @@ public class CacheBuffer implements ExpiringState {
         Duration modelTtl,
         String detectorId,
         CheckpointWriteWorker checkpointWriteQueue,
-        CheckpointMaintainWorker checkpointMaintainQueue,
-        int checkpointIntervalHrs
+        OffHeapModelStore offHeapModelStore
     ) {
         this.memoryConsumptionPerEntity = memoryConsumptionPerEntity;
         setMinimumCapacity(minimumCapacity);
@@ -103,10 +99,23 @@ public class CacheBuffer implements ExpiringState {
         this.lastUsedTime = clock.instant();
 
         this.clock = clock;
-        this.priorityTracker = new PriorityTracker(clock, intervalSecs, clock.instant().getEpochSecond(), MAX_TRACKING_ENTITIES);
+        long landmarkEpoch = clock.instant().getEpochSecond();
+        if (EnabledSetting.isApproximatePriorityTrackingEnabled()) {
+            // only hosted entities are tracked. Size the sketch by the most entities
+            // of the detector that can fit in memory instead of the tracking limit.
+            long maxEntities = Math
+                .max(this.minimumCapacity, memoryTracker.getHeapLimit() / Math.max(memoryConsumptionPerEntity, 1));
+            this.priorityTracker = new ApproximatePriorityTracker(
+                clock,
+                intervalSecs,
+                landmarkEpoch,
+                (int) Math.min(maxEntities, MAX_TRACKING_ENTITIES)
+            );
+        } else {
+            this.priorityTracker = new PriorityTracker(clock, intervalSecs, landmarkEpoch, MAX_TRACKING_ENTITIES);
+        }
         this.checkpointWriteQueue = checkpointWriteQueue;
-        this.checkpointMaintainQueue = checkpointMaintainQueue;
-        setCheckpointIntervalHrs(checkpointIntervalHrs);
+        this.offHeapModelStore = offHeapModelStore;
     }
 
     /**
@@ -277,7 +286,10 @@ public class CacheBuffer implements ExpiringState {
                     // regardless of last checkpoint time. whether If we don't save,
                     // we throw the new samples and might never be able to initialize the model
                     boolean isNullModel = !modelRemoved.getTrcf().isPresent();
-                    checkpointWriteQueue.write(valueRemoved, isNullModel, RequestPriority.MEDIUM);
+                    checkpointWriteQueue.writeSnapshot(valueRemoved, isNullModel, RequestPriority.MEDIUM);
+                    // keep a serialized copy off heap so that reloading the model
+                    // soon after eviction does not need to read the checkpoint index
+                    offHeapModelStore.put(valueRemoved);
                 }
 
                 modelRemoved.clear();
@@ -339,17 +351,27 @@ public class CacheBuffer implements ExpiringState {
     }
 
     /**
-     * Remove expired state and save checkpoints of existing states
+     * Remove expired state
      * @return removed states
      */
     public List<ModelState<EntityModel>> maintenance() {
-        List<CheckpointMaintainRequest> modelsToSave = new ArrayList<>();
+        return maintenance(0, 1);
+    }
+
+    /**
+     * Remove expired state of models whose id hashes to the slice
+     * @param slice index of the slice in [0, slices)
+     * @param slices number of slices in a round
+     * @return removed states
+     */
+    public List<ModelState<EntityModel>> maintenance(int slice, int slices) {
         List<ModelState<EntityModel>> removedStates = new ArrayList<>();
         Instant now = clock.instant();
-        int currentHour = DateUtils.getUTCHourOfDay(now);
-        int currentSlot = currentHour % checkpointIntervalHrs;
         items.entrySet().stream().forEach(entry -> {
             String entityModelId = entry.getKey();
+            if (false == inSlice(entityModelId, slice, slices)) {
+                return;
+            }
             try {
                 ModelState<EntityModel> modelState = entry.getValue();
 
@@ -364,55 +386,56 @@ public class CacheBuffer implements ExpiringState {
                     // already in the cache
                     // remove method saves checkpoint as well
                     removedStates.add(remove(entityModelId));
-                } else if (Math.abs(entityModelId.hashCode()) % checkpointIntervalHrs == currentSlot) {
-                    // checkpoint is relatively big compared to other queued requests
-                    // Evens out the resource usage more fairly across a large maintenance window
-                    // by adding saving requests to CheckpointMaintainWorker.
-                    //
-                    // Background:
-                    // We will save a checkpoint when
-                    //
-                    // (a)removing the model from cache.
-                    // (b) cold start
-                    // (c) no complete model only a few samples. If we don't save new samples,
-                    // we will never be able to have enough samples for a trained mode.
-                    // (d) periodically save in case of exceptions.
-                    //
-                    // This branch is doing d). Previously, I will do it every hour for all
-                    // in-cache models. Consider we are moving to 1M entities, this will bring
-                    // the cluster in a heavy payload every hour. That's why I am doing it randomly
-                    // (expected 6 hours for each checkpoint statistically).
-                    //
-                    // I am doing it random since maintaining a state of which one has been saved
-                    // and which one hasn't are not cheap. Also, the models in the cache can be
-                    // dynamically changing. Will have to maintain the state in the removing logic.
-                    // Random is a lazy way to deal with this as it is stateless and statistically sound.
-                    //
-                    // If a checkpoint does not fall into the 6-hour bucket in a particular scenario, the model
-                    // is stale (i.e., we don't recover from the freshest model in disaster.).
-                    //
-                    // All in all, randomness is mostly due to performance and easy maintenance.
-                    modelsToSave
-                        .add(
-                            new CheckpointMaintainRequest(
-                                // the request expires when the next maintainance starts
-                                System.currentTimeMillis() + modelTtl.toMillis(),
-                                detectorId,
-                                RequestPriority.LOW,
-                                entityModelId
-                            )
-                        );
                 }
-
             } catch (Exception e) {
                 LOG.warn("Failed to finish maintenance for model id " + entityModelId, e);
             }
         });
 
-        checkpointMaintainQueue.putAll(modelsToSave);
         return removedStates;
     }
 
+    /**
+     * Offer cached models to the checkpoint scheduler.
+     *
+     * Background:
+     * We will save a checkpoint when
+     *
+     * (a) removing the model from cache.
+     * (b) cold start
+     * (c) no complete model only a few samples. If we don't save new samples,
+     * we will never be able to have enough samples for a trained mode.
+     * (d) periodically save in case of exceptions.
+     *
+     * This is doing d).  Saving every in-cache model each hour would bring the
+     * cluster a heavy payload when we have 1M entities, so the scheduler only
+     * saves models updated since their last checkpoint, within a per-hour budget.
+     *
+     * @param scheduler checkpoint scheduler of the maintenance run
+     */
+    public void offerCheckpoints(CheckpointScheduler scheduler) {
+        offerCheckpoints(scheduler, 0, 1);
+    }
+
+    /**
+     * Offer cached models whose id hashes to the slice to the checkpoint scheduler.
+     *
+     * @param scheduler checkpoint scheduler of the maintenance run
+     * @param slice index of the slice in [0, slices)
+     * @param slices number of slices in a round
+     */
+    public void offerCheckpoints(CheckpointScheduler scheduler, int slice, int slices) {
+        for (Entry<String, ModelState<EntityModel>> entry : items.entrySet()) {
+            if (inSlice(entry.getKey(), slice, slices)) {
+                scheduler.offer(detectorId, entry.getValue(), memoryConsumptionPerEntity);
+            }
+        }
+    }
+
+    private static boolean inSlice(String entityModelId, int slice, int slices) {
+        return Math.floorMod(entityModelId.hashCode(), slices) == slice;
+    }
+
     /**
      *
      * @return the number of active entities
@@ -536,17 +559,4 @@ public class CacheBuffer implements ExpiringState {
         this.minimumCapacity = minimumCapacity;
         this.reservedBytes = memoryConsumptionPerEntity * minimumCapacity;
     }
-
-    public void setCheckpointIntervalHrs(int checkpointIntervalHrs) {
-        this.checkpointIntervalHrs = checkpointIntervalHrs;
-        // 0 can cause java.lang.ArithmeticException: / by zero
-        // negative value is meaningless
-        if (checkpointIntervalHrs <= 0) {
-            this.checkpointIntervalHrs = 1;
-        }
-    }
-
-    public int getCheckpointIntervalHrs() {
-        return checkpointIntervalHrs;
-    }
 }
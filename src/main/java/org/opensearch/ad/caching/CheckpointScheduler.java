@@ -0,0 +1,128 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.ratelimit.CheckpointMaintainRequest;
+import org.opensearch.ad.ratelimit.RequestPriority;
+
+/**
+ * Picks the cached HC models to checkpoint in one maintenance run.
+ *
+ * A model is due when it has been updated since its last checkpoint and the
+ * checkpoint is older than the checkpoint saving frequency.  Models that are not
+ * updated are not written again.  Due models are ordered by staleness (hours since
+ * the last checkpoint) times updates since the last checkpoint, so the models that
+ * would lose the most on a node failure go first, and are picked until the bytes
+ * budget of the run is used up.  Models left out stay due and rank higher in the
+ * next run as their staleness grows.
+ */
+public class CheckpointScheduler {
+    private final Instant now;
+    private final Duration checkpointInterval;
+    private final List<Candidate> candidates;
+    // size of all offered models, due or not
+    private long cachedBytes;
+    // size of the models picked by schedule
+    private long scheduledBytes;
+
+    /**
+     * @param now time of the maintenance run
+     * @param checkpointInterval checkpoint saving frequency
+     */
+    public CheckpointScheduler(Instant now, Duration checkpointInterval) {
+        this.now = now;
+        this.checkpointInterval = checkpointInterval;
+        this.candidates = new ArrayList<>();
+        this.cachedBytes = 0;
+        this.scheduledBytes = 0;
+    }
+
+    /**
+     * Consider a cached model for checkpointing
+     * @param detectorId detector id
+     * @param modelState model state
+     * @param modelBytes estimated size of the model
+     */
+    public void offer(String detectorId, ModelState<EntityModel> modelState, long modelBytes) {
+        cachedBytes += modelBytes;
+        long updates = modelState.getUpdatesSinceCheckpoint();
+        Instant lastCheckpointTime = modelState.getLastCheckpointTime();
+        // a model without a checkpoint time is saved on cold start or eviction instead
+        if (updates <= 0 || lastCheckpointTime == Instant.MIN || false == lastCheckpointTime.plus(checkpointInterval).isBefore(now)) {
+            return;
+        }
+        double stalenessHours = Math.max(1, Duration.between(lastCheckpointTime, now).toHours());
+        candidates.add(new Candidate(detectorId, modelState.getModelId(), modelBytes, stalenessHours * updates));
+    }
+
+    /**
+     * Pick the due models to checkpoint within the budget.  At least one due model is
+     * picked so that a budget smaller than a model does not stop checkpointing.
+     *
+     * @param budgetBytes bytes to checkpoint in this run. 0 or less uses the size of
+     *  all offered models divided by the checkpoint saving frequency in hours.
+     * @param expirationEpochMs expiration time of the checkpoint requests
+     * @return checkpoint requests of the picked models
+     */
+    public List<CheckpointMaintainRequest> schedule(long budgetBytes, long expirationEpochMs) {
+        if (budgetBytes <= 0) {
+            budgetBytes = cachedBytes / Math.max(1, checkpointInterval.toHours());
+        }
+        candidates.sort(Comparator.comparingDouble((Candidate candidate) -> candidate.priority).reversed());
+        List<CheckpointMaintainRequest> requests = new ArrayList<>();
+        scheduledBytes = 0;
+        for (Candidate candidate : candidates) {
+            if (false == requests.isEmpty() && scheduledBytes + candidate.modelBytes > budgetBytes) {
+                break;
+            }
+            scheduledBytes += candidate.modelBytes;
+            requests.add(new CheckpointMaintainRequest(expirationEpochMs, candidate.detectorId, RequestPriority.LOW, candidate.modelId));
+        }
+        return requests;
+    }
+
+    /**
+     * @return size of the models picked by the last schedule call
+     */
+    public long getScheduledBytes() {
+        return scheduledBytes;
+    }
+
+    /**
+     * @return number of due models
+     */
+    public int getDueModels() {
+        return candidates.size();
+    }
+
+    private static class Candidate {
+        private final String detectorId;
+        private final String modelId;
+        private final long modelBytes;
+        private final double priority;
+
+        Candidate(String detectorId, String modelId, long modelBytes, double priority) {
+            this.detectorId = detectorId;
+            this.modelId = modelId;
+            this.modelBytes = modelBytes;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A count-min sketch of float counters.  Each of the 4 rows maps a key to a
+ * counter and a key's estimate is the minimum of its counters.  Counters are
+ * only raised to a new value (conservative update), so collisions can only
+ * overestimate.
+ *
+ * Used for both the time-decayed priorities of {@link ApproximatePriorityTracker}
+ * and the access frequencies of {@link TinyLfuPolicy}.
+ *
+ * Reads and raises are lock-free.  Halving is not atomic with concurrent raises;
+ * callers aging the sketch serialize access themselves.
+ */
+public class CountMinSketch {
+    // number of rows
+    static final int DEPTH = 4;
+
+    // float bits of counters. Row i occupies [i * width, (i + 1) * width)
+    private final AtomicIntegerArray counters;
+    // power of 2 so that we can mask hashes
+    private final int width;
+
+    /**
+     *
+     * @param width the number of counters per row. Rounded up to a power of 2.
+     */
+    public CountMinSketch(int width) {
+        this.width = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+    }
+
+    /**
+     * @param key key
+     * @return the estimated value of a key: the minimum of its counters
+     */
+    public float estimate(String key) {
+        int hash = key.hashCode();
+        int step = spread(hash);
+        float min = Float.POSITIVE_INFINITY;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, Float.intBitsToFloat(counters.get(index(row, hash, step))));
+        }
+        return min;
+    }
+
+    /**
+     * Raise a key's counters to at least the given value
+     * @param key key
+     * @param value new value
+     */
+    public void raise(String key, float value) {
+        int hash = key.hashCode();
+        int step = spread(hash);
+        int bits = Float.floatToIntBits(value);
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(row, hash, step);
+            int current = counters.get(index);
+            while (Float.intBitsToFloat(current) < value && !counters.compareAndSet(index, current, bits)) {
+                current = counters.get(index);
+            }
+        }
+    }
+
+    /**
+     * Halve every counter, rounding down so that counters of whole events stay whole.
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, Float.floatToIntBits((float) Math.floor(Float.intBitsToFloat(counters.get(i)) / 2)));
+        }
+    }
+
+    /**
+     * Reset every counter to 0
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    // derive the other row hashes from two hashes (Kirsch-Mitzenmacher)
+    private int index(int row, int hash, int step) {
+        return row * width + ((hash + row * step) & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        // odd so that rows differ even if two keys share the low bits of hash
+        return (Integer.reverse(hash) * 0x9E3779B9) | 1;
+    }
+}
@@ -11,8 +11,11 @@
 
 package org.opensearch.ad.caching;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -154,4 +157,58 @@ public interface EntityCache extends MaintenanceState, CleanState, DetectorModel
      * @param entityModelId Model Id
      */
     void removeEntityModel(String detectorId, String entityModelId);
+
+    /**
+     * Whether the model of an evicted entity is kept off heap
+     * @param modelId Model Id
+     * @return whether the model can be restored without reading its checkpoint
+     */
+    boolean hasOffHeapModel(String modelId);
+
+    /**
+     * Remove the model of an evicted entity from off-heap storage
+     * @param modelId Model Id
+     * @return a pair of entity model and its last checkpoint time; or empty if
+     *  the model is not kept off heap anymore
+     */
+    Optional<Entry<EntityModel, Instant>> takeOffHeapModel(String modelId);
+
+    /**
+     * Keep the model of an entity handed off by its previous owner node off heap
+     * until the entity's next request restores it
+     * @param modelId Model Id
+     * @param detectorId Detector Id
+     * @param entity the entity the model belongs to
+     * @param binaryCheckpoint uncompressed binary checkpoint of the model
+     * @param lastCheckpointTime last checkpoint time of the model
+     * @param ringVersion version of the realtime hash ring the previous owner sent the model under
+     * @return whether the model is kept. A copy older than the one kept already or sent
+     *  under another hash ring is not.
+     */
+    boolean putOffHeapModel(
+        String modelId,
+        String detectorId,
+        Entity entity,
+        byte[] binaryCheckpoint,
+        Instant lastCheckpointTime,
+        int ringVersion
+    );
+
+    /**
+     * Gets per-detector lookup and admission counters of the cache
+     *
+     * @return detector id to counter name (hits, misses, admissions, rejections) to count
+     */
+    Map<String, Map<String, Long>> getCacheStats();
+
+    /**
+     * Maintain one slice of the cached models: remove expired models and
+     * checkpoint models updated since their last checkpoint.  Expired buffers
+     * are removed in every slice.  Slice 0 also maintains node-wide state.
+     * Running every slice of a round is one full maintenance.
+     *
+     * @param slice index of the slice in [0, slices)
+     * @param slices number of slices in a round
+     */
+    void maintenance(int slice, int slices);
 }
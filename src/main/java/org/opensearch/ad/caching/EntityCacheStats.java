@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-detector counters of an entity cache: lookups that found the model
+ * (hits), lookups that did not (misses), models the cache agreed to host
+ * (admissions), and models it turned down (rejections).
+ */
+public class EntityCacheStats {
+    public static final String HITS = "hits";
+    public static final String MISSES = "misses";
+    public static final String ADMISSIONS = "admissions";
+    public static final String REJECTIONS = "rejections";
+
+    private static class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder admissions = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+    }
+
+    // key is detector id
+    private final Map<String, Counters> counters;
+
+    public EntityCacheStats() {
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    public void recordLookup(String detectorId, boolean hit) {
+        Counters detectorCounters = getCounters(detectorId);
+        if (hit) {
+            detectorCounters.hits.increment();
+        } else {
+            detectorCounters.misses.increment();
+        }
+    }
+
+    public void recordAdmission(String detectorId, boolean admitted) {
+        Counters detectorCounters = getCounters(detectorId);
+        if (admitted) {
+            detectorCounters.admissions.increment();
+        } else {
+            detectorCounters.rejections.increment();
+        }
+    }
+
+    /**
+     * Drop the counters of a detector whose models are gone from the cache
+     * @param detectorId detector id
+     */
+    public void remove(String detectorId) {
+        counters.remove(detectorId);
+    }
+
+    /**
+     *
+     * @return detector id to counter name to count
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new HashMap<>();
+        counters.forEach((detectorId, detectorCounters) -> {
+            Map<String, Long> detectorStats = new HashMap<>();
+            detectorStats.put(HITS, detectorCounters.hits.sum());
+            detectorStats.put(MISSES, detectorCounters.misses.sum());
+            detectorStats.put(ADMISSIONS, detectorCounters.admissions.sum());
+            detectorStats.put(REJECTIONS, detectorCounters.rejections.sum());
+            stats.put(detectorId, detectorStats);
+        });
+        return stats;
+    }
+
+    private Counters getCounters(String detectorId) {
+        return counters.computeIfAbsent(detectorId, id -> new Counters());
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.ad.caching.OffHeapModelStore.StoredModel;
+
+/**
+ * A node-local, memory-mapped, append-only file of serialized models.  It is
+ * the tier behind {@link OffHeapModelStore}: models dropped from the off-heap
+ * store land here so that reloading them does not read the checkpoint index.
+ *
+ * Model bytes are appended to a file mapped in full.  An on-heap index keyed by
+ * model id records where each model is and its metadata.  Taking, replacing or
+ * expiring a model only updates the index; the space is reclaimed when the file
+ * is full by moving live models to the front of the same file, so disk use never
+ * exceeds the budget.  If live models still do not fit, the oldest ones are dropped.
+ *
+ * The file is a cache. Nothing is recovered from it after a restart and stale
+ * files are deleted on start.
+ */
+public class ModelSpillFile implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(ModelSpillFile.class);
+    private static final String FILE_SUFFIX = ".spill";
+    private static final String FILE_NAME = "models" + FILE_SUFFIX;
+    // bytes copied at a time when compacting
+    private static final int COMPACTION_CHUNK_BYTES = 64 * 1024;
+
+    private static class Location {
+        private final StoredModel metadata;
+        private final int offset;
+        private final int length;
+
+        Location(StoredModel metadata, int offset, int length) {
+            this.metadata = metadata;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path directory;
+    private final int capacityBytes;
+    private final Duration ttl;
+    private final Clock clock;
+    // key is model id. Insertion order is the append order, which is also the
+    // ascending order of offsets. Guarded by this.
+    private final LinkedHashMap<String, Location> index;
+    // Guarded by this.
+    private MappedByteBuffer buffer;
+    private FileChannel channel;
+    private Path file;
+    private int writePosition;
+    private long liveBytes;
+
+    /**
+     * Constructor
+     *
+     * @param directory Directory holding the spill file
+     * @param capacityBytes Disk budget. 0 disables the file.
+     * @param ttl How long a model is kept
+     * @param clock Used to get current time
+     */
+    public ModelSpillFile(Path directory, int capacityBytes, Duration ttl, Clock clock) {
+        this.directory = directory;
+        this.capacityBytes = capacityBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.index = new LinkedHashMap<>();
+        this.writePosition = 0;
+        this.liveBytes = 0;
+    }
+
+    /**
+     * @return whether the file can hold any model
+     */
+    public boolean isEnabled() {
+        return capacityBytes > 0;
+    }
+
+    /**
+     * Append a model to the file
+     * @param modelId Model Id
+     * @param model serialized model and its metadata
+     * @return whether the model is stored
+     */
+    public synchronized boolean append(String modelId, StoredModel model) {
+        ByteBuffer checkpoint = model.getCheckpoint().duplicate();
+        int length = checkpoint.remaining();
+        if (false == isEnabled() || length > capacityBytes || isExpired(model, clock.instant())) {
+            return false;
+        }
+        try {
+            if (buffer == null) {
+                deleteStaleFiles();
+                openFile();
+            }
+            drop(modelId);
+            if (capacityBytes - writePosition < length) {
+                // make room: the oldest models go first
+                Iterator<Location> oldest = index.values().iterator();
+                while (capacityBytes - liveBytes < length && oldest.hasNext()) {
+                    liveBytes -= oldest.next().length;
+                    oldest.remove();
+                }
+                compact();
+            }
+            ByteBuffer target = buffer.duplicate();
+            target.position(writePosition);
+            target.put(checkpoint);
+            index.put(modelId, new Location(model, writePosition, length));
+            writePosition += length;
+            liveBytes += length;
+            return true;
+        } catch (IOException e) {
+            LOG.error(new ParameterizedMessage("Fail to spill model [{}]", modelId), e);
+            return false;
+        }
+    }
+
+    /**
+     * @param modelId Model Id
+     * @return whether the file has the model
+     */
+    public synchronized boolean contains(String modelId) {
+        return index.containsKey(modelId);
+    }
+
+    /**
+     * @param modelId Model Id
+     * @return last checkpoint time of the model or empty if the file does not have the model
+     */
+    public synchronized Optional<Instant> getLastCheckpointTime(String modelId) {
+        return Optional.ofNullable(index.get(modelId)).map(location -> location.metadata.getLastCheckpointTime());
+    }
+
+    /**
+     * Remove a model from the file and read it back to heap.
+     * @param modelId Model Id
+     * @return the serialized model or empty if the file does not have the model
+     */
+    public synchronized Optional<StoredModel> take(String modelId) {
+        Location location = index.remove(modelId);
+        if (location == null) {
+            return Optional.empty();
+        }
+        liveBytes -= location.length;
+        if (isExpired(location.metadata, clock.instant())) {
+            return Optional.empty();
+        }
+        byte[] bytes = new byte[location.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(location.offset);
+        source.get(bytes);
+        return Optional.of(location.metadata.withCheckpoint(ByteBuffer.wrap(bytes)));
+    }
+
+    /**
+     * Drop a model
+     * @param modelId Model Id
+     */
+    public synchronized void remove(String modelId) {
+        drop(modelId);
+    }
+
+    /**
+     * Drop all models of a detector
+     * @param detectorId Detector Id
+     */
+    public synchronized void clear(String detectorId) {
+        Iterator<Location> iterator = index.values().iterator();
+        while (iterator.hasNext()) {
+            Location location = iterator.next();
+            if (detectorId.equals(location.metadata.getDetectorId())) {
+                liveBytes -= location.length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop models that fail a predicate
+     * @param keep whether to keep a model
+     * @return the number of dropped models
+     */
+    public synchronized int retain(Predicate<StoredModel> keep) {
+        int dropped = 0;
+        Iterator<Location> iterator = index.values().iterator();
+        while (iterator.hasNext()) {
+            Location location = iterator.next();
+            if (false == keep.test(location.metadata)) {
+                liveBytes -= location.length;
+                iterator.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Drop expired models from the index. Their space is reclaimed by the next compaction.
+     */
+    public synchronized void maintenance() {
+        Instant now = clock.instant();
+        Iterator<Location> iterator = index.values().iterator();
+        while (iterator.hasNext()) {
+            Location location = iterator.next();
+            if (isExpired(location.metadata, now)) {
+                liveBytes -= location.length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of models in the file
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return bytes of live models in the file
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Drop all models and delete the file
+     * @throws IOException when failing to delete the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        liveBytes = 0;
+        writePosition = 0;
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private boolean isExpired(StoredModel model, Instant now) {
+        return model.getStoredTime().plus(ttl).isBefore(now);
+    }
+
+    private void drop(String modelId) {
+        Location removed = index.remove(modelId);
+        if (removed != null) {
+            liveBytes -= removed.length;
+        }
+    }
+
+    /**
+     * Move live models to the front of the file in offset order. A model only moves
+     * to a lower offset, so the bytes it is copied over are either free or already
+     * moved. Must hold the lock of this.
+     */
+    private void compact() {
+        Instant now = clock.instant();
+        byte[] chunk = null;
+        int position = 0;
+        Iterator<Entry<String, Location>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<String, Location> entry = iterator.next();
+            Location location = entry.getValue();
+            if (isExpired(location.metadata, now)) {
+                liveBytes -= location.length;
+                iterator.remove();
+                continue;
+            }
+            if (location.offset != position) {
+                if (chunk == null) {
+                    chunk = new byte[Math.min(COMPACTION_CHUNK_BYTES, capacityBytes)];
+                }
+                move(location.offset, position, location.length, chunk);
+                entry.setValue(new Location(location.metadata, position, location.length));
+            }
+            position += location.length;
+        }
+        writePosition = position;
+    }
+
+    /**
+     * Copy bytes to a lower offset of the file chunk by chunk. A chunk is read in full
+     * before it is written, so overlapping ranges are copied correctly.
+     * Must hold the lock of this.
+     */
+    private void move(int from, int to, int length, byte[] chunk) {
+        ByteBuffer source = buffer.duplicate();
+        source.position(from);
+        ByteBuffer target = buffer.duplicate();
+        target.position(to);
+        int remaining = length;
+        while (remaining > 0) {
+            int size = Math.min(remaining, chunk.length);
+            source.get(chunk, 0, size);
+            target.put(chunk, 0, size);
+            remaining -= size;
+        }
+    }
+
+    /**
+     * Create the file and map it in full. Fields are only updated on success.
+     * Must hold the lock of this.
+     * @throws IOException when failing to create the file
+     */
+    private void openFile() throws IOException {
+        Files.createDirectories(directory);
+        Path nextFile = directory.resolve(FILE_NAME);
+        FileChannel nextChannel = FileChannel
+            .open(
+                nextFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            );
+        MappedByteBuffer nextBuffer = null;
+        try {
+            nextBuffer = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        } catch (IOException e) {
+            nextChannel.close();
+            Files.deleteIfExists(nextFile);
+            throw e;
+        }
+        file = nextFile;
+        channel = nextChannel;
+        buffer = nextBuffer;
+        writePosition = 0;
+    }
+
+    private void deleteStaleFiles() throws IOException {
+        if (false == Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path stale : stream) {
+                Files.deleteIfExists(stale);
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.MemoryTracker.Origin;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.Entity;
+
+/**
+ * Keeps the binary checkpoints of models evicted from {@link CacheBuffer} in
+ * direct byte buffers.  When an evicted entity comes back, CheckpointReadWorker
+ * rebuilds its model from here instead of reading the checkpoint index.  Samples
+ * and TRCF states only live on heap while being serialized or deserialized, so
+ * churned entities no longer pile up on heap waiting for GC.
+ *
+ * The store is bounded by a byte budget. When the budget is reached or the model
+ * ttl elapses, the oldest entries move to {@link ModelSpillFile}, a memory-mapped
+ * file on local disk, if it is enabled.  Models dropped from both tiers can still
+ * be read from the checkpoint index.  An entry is removed once read back.
+ * Entries of entities the realtime hash ring maps to other nodes are dropped on
+ * ring changes, as their new owners save newer checkpoints.  So the entries left
+ * hold the latest state of their models and are restored without a read.
+ * Bytes are accounted in {@link MemoryTracker} under {@link Origin#HC_DETECTOR_OFF_HEAP}.
+ */
+public class OffHeapModelStore {
+    private static final Logger LOG = LogManager.getLogger(OffHeapModelStore.class);
+
+    /**
+     * A serialized model and what is needed to restore it
+     */
+    static class StoredModel {
+        private final String detectorId;
+        private final Entity entity;
+        private final ByteBuffer checkpoint;
+        private final Instant lastCheckpointTime;
+        private final Instant storedTime;
+
+        StoredModel(String detectorId, Entity entity, ByteBuffer checkpoint, Instant lastCheckpointTime, Instant storedTime) {
+            this.detectorId = detectorId;
+            this.entity = entity;
+            this.checkpoint = checkpoint;
+            this.lastCheckpointTime = lastCheckpointTime;
+            this.storedTime = storedTime;
+        }
+
+        String getDetectorId() {
+            return detectorId;
+        }
+
+        ByteBuffer getCheckpoint() {
+            return checkpoint;
+        }
+
+        Instant getLastCheckpointTime() {
+            return lastCheckpointTime;
+        }
+
+        Instant getStoredTime() {
+            return storedTime;
+        }
+
+        StoredModel withCheckpoint(ByteBuffer newCheckpoint) {
+            return new StoredModel(detectorId, entity, newCheckpoint, lastCheckpointTime, storedTime);
+        }
+    }
+
+    private final CheckpointDao checkpointDao;
+    private final MemoryTracker memoryTracker;
+    private final Clock clock;
+    private final Duration modelTtl;
+    private final long capacityBytes;
+    // tier that models dropped from here go to
+    private final ModelSpillFile spillFile;
+    // key is model id. Insertion order is the eviction order. Guarded by this.
+    private final LinkedHashMap<String, StoredModel> models;
+    // Guarded by this.
+    private long usedBytes;
+    // version of the realtime hash ring the stored models are owned under. Guarded by this.
+    private int ringVersion;
+
+    /**
+     * Constructor
+     *
+     * @param checkpointDao Used to serialize and deserialize models
+     * @param memoryTracker Used to account off-heap bytes
+     * @param clock Used to get current time
+     * @param modelTtl How long a model is kept
+     * @param capacityBytes Byte budget of the store. 0 keeps nothing in direct buffers.
+     * @param spillFile Disk tier behind the store
+     */
+    public OffHeapModelStore(
+        CheckpointDao checkpointDao,
+        MemoryTracker memoryTracker,
+        Clock clock,
+        Duration modelTtl,
+        long capacityBytes,
+        ModelSpillFile spillFile
+    ) {
+        this.checkpointDao = checkpointDao;
+        this.memoryTracker = memoryTracker;
+        this.clock = clock;
+        this.modelTtl = modelTtl;
+        this.capacityBytes = capacityBytes;
+        this.spillFile = spillFile;
+        this.models = new LinkedHashMap<>();
+        this.usedBytes = 0;
+        this.ringVersion = 0;
+    }
+
+    /**
+     * @return whether the store or its disk tier can hold any model
+     */
+    public boolean isEnabled() {
+        return capacityBytes > 0 || spillFile.isEnabled();
+    }
+
+    /**
+     * Serialize a model state and keep it off heap.  Must be called before the
+     * model is cleared.
+     *
+     * @param modelState the model state evicted from cache
+     * @return whether the model is stored
+     */
+    public boolean put(ModelState<EntityModel> modelState) {
+        if (false == isEnabled()) {
+            return false;
+        }
+        EntityModel model = modelState.getModel();
+        String modelId = modelState.getModelId();
+        if (model == null || modelId == null) {
+            return false;
+        }
+        Optional<byte[]> serialized = checkpointDao.toBinaryCheckpoint(model, modelId);
+        if (false == serialized.isPresent()) {
+            return false;
+        }
+        Entity entity = model.getEntity().orElse(null);
+        return store(modelId, modelState.getDetectorId(), entity, serialized.get(), modelState.getLastCheckpointTime());
+    }
+
+    /**
+     * Keep a model serialized by {@link CheckpointDao#toBinaryCheckpoint(ModelState)}
+     * off heap.  Used for models handed off by their previous owner node.  The copy
+     * is restored without reading the checkpoint index, so it is only kept when both
+     * nodes have built the same realtime hash ring: the sender then owned the entity
+     * until the ring change and the local node owns it now.  Later ring changes drop
+     * it once the local node loses the entity.  The sender may also send an older copy
+     * than the one kept here, e.g., after the entity moved back and forth on hash ring
+     * changes.  Such a copy is not kept either.
+     *
+     * @param modelId Model Id
+     * @param detectorId Detector Id
+     * @param entity the entity the model belongs to
+     * @param bytes binary checkpoint
+     * @param lastCheckpointTime last checkpoint time of the model
+     * @param senderRingVersion version of the realtime hash ring the model is sent under
+     * @return whether the model is stored
+     */
+    public synchronized boolean put(
+        String modelId,
+        String detectorId,
+        Entity entity,
+        byte[] bytes,
+        Instant lastCheckpointTime,
+        int senderRingVersion
+    ) {
+        // hold the lock while storing so that no ring change happens in between
+        if (false == isEnabled() || senderRingVersion != ringVersion) {
+            return false;
+        }
+        StoredModel kept = models.get(modelId);
+        Optional<Instant> keptCheckpointTime = kept != null
+            ? Optional.of(kept.lastCheckpointTime)
+            : spillFile.getLastCheckpointTime(modelId);
+        if (keptCheckpointTime.isPresent() && keptCheckpointTime.get().isAfter(lastCheckpointTime)) {
+            return false;
+        }
+        return store(modelId, detectorId, entity, bytes, lastCheckpointTime);
+    }
+
+    private boolean store(String modelId, String detectorId, Entity entity, byte[] bytes, Instant lastCheckpointTime) {
+        if (bytes.length > capacityBytes) {
+            StoredModel spilled = new StoredModel(detectorId, entity, ByteBuffer.wrap(bytes), lastCheckpointTime, clock.instant());
+            synchronized (this) {
+                release(models.remove(modelId));
+                return spillFile.append(modelId, spilled);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        StoredModel stored = new StoredModel(detectorId, entity, buffer, lastCheckpointTime, clock.instant());
+
+        synchronized (this) {
+            release(models.remove(modelId));
+            // the newest copy is in memory
+            spillFile.remove(modelId);
+            Iterator<Entry<String, StoredModel>> oldest = models.entrySet().iterator();
+            while (usedBytes + bytes.length > capacityBytes && oldest.hasNext()) {
+                Entry<String, StoredModel> evicted = oldest.next();
+                oldest.remove();
+                release(evicted.getValue());
+                spillFile.append(evicted.getKey(), evicted.getValue());
+            }
+            models.put(modelId, stored);
+            usedBytes += bytes.length;
+            memoryTracker.consumeMemory(bytes.length, false, Origin.HC_DETECTOR_OFF_HEAP);
+        }
+        return true;
+    }
+
+    /**
+     * @param modelId Model Id
+     * @return whether the store has the model
+     */
+    public synchronized boolean contains(String modelId) {
+        return models.containsKey(modelId) || spillFile.contains(modelId);
+    }
+
+    /**
+     * Remove a model from the store and deserialize it.
+     *
+     * @param modelId Model Id
+     * @return a pair of the entity model and its last checkpoint time; or empty
+     *  if the store does not have the model or the model cannot be parsed
+     */
+    public Optional<Entry<EntityModel, Instant>> take(String modelId) {
+        StoredModel stored = null;
+        synchronized (this) {
+            stored = models.remove(modelId);
+            release(stored);
+        }
+        if (stored == null) {
+            stored = spillFile.take(modelId).orElse(null);
+        }
+        if (stored == null) {
+            return Optional.empty();
+        }
+        byte[] bytes = new byte[stored.checkpoint.remaining()];
+        stored.checkpoint.duplicate().get(bytes);
+        Instant lastCheckpointTime = stored.lastCheckpointTime;
+        return checkpointDao
+            .fromBinaryCheckpoint(bytes, stored.entity, modelId)
+            .<Entry<EntityModel, Instant>>map(model -> new SimpleImmutableEntry<>(model, lastCheckpointTime));
+    }
+
+    /**
+     * Drop a model. Used when its checkpoint is deleted.
+     * @param modelId Model Id
+     */
+    public synchronized void remove(String modelId) {
+        release(models.remove(modelId));
+        spillFile.remove(modelId);
+    }
+
+    /**
+     * Drop all models of a detector.
+     * @param detectorId Detector Id
+     */
+    public synchronized void clear(String detectorId) {
+        Iterator<StoredModel> iterator = models.values().iterator();
+        while (iterator.hasNext()) {
+            StoredModel stored = iterator.next();
+            if (detectorId.equals(stored.detectorId)) {
+                iterator.remove();
+                release(stored);
+            }
+        }
+        spillFile.clear(detectorId);
+    }
+
+    /**
+     * Drop models of entities the local node no longer owns, including those in the
+     * disk tier.  Called when the realtime hash ring changes.
+     *
+     * @param ownedLocally whether the local node owns an entity
+     * @param newRingVersion version of the new realtime hash ring
+     * @return the number of dropped models
+     */
+    public synchronized int retainOwned(Predicate<Entity> ownedLocally, int newRingVersion) {
+        ringVersion = newRingVersion;
+        Predicate<StoredModel> owned = stored -> stored.entity != null && ownedLocally.test(stored.entity);
+        int dropped = 0;
+        Iterator<StoredModel> iterator = models.values().iterator();
+        while (iterator.hasNext()) {
+            StoredModel stored = iterator.next();
+            if (false == owned.test(stored)) {
+                iterator.remove();
+                release(stored);
+                dropped++;
+            }
+        }
+        return dropped + spillFile.retain(owned);
+    }
+
+    /**
+     * Move models stored longer than the model ttl to the disk tier.
+     */
+    public synchronized void maintenance() {
+        Instant expiry = clock.instant().minus(modelTtl);
+        Iterator<Entry<String, StoredModel>> iterator = models.entrySet().iterator();
+        // insertion order is storing order
+        while (iterator.hasNext()) {
+            Entry<String, StoredModel> entry = iterator.next();
+            StoredModel stored = entry.getValue();
+            if (false == stored.storedTime.isBefore(expiry)) {
+                break;
+            }
+            iterator.remove();
+            release(stored);
+            spillFile.append(entry.getKey(), stored);
+        }
+        spillFile.maintenance();
+        LOG
+            .debug(
+                "Off-heap model store has {} models in {} bytes, spill file has {} models",
+                models.size(),
+                usedBytes,
+                spillFile.size()
+            );
+    }
+
+    /**
+     * @return the number of stored models
+     */
+    public synchronized int size() {
+        return models.size();
+    }
+
+    /**
+     * @return bytes of stored models
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Account the removal of a model. Must hold the lock of this.
+     * @param stored removed model
+     */
+    private void release(StoredModel stored) {
+        if (stored == null) {
+            return;
+        }
+        int bytes = stored.checkpoint.capacity();
+        usedBytes -= bytes;
+        memoryTracker.releaseMemory(bytes, false, Origin.HC_DETECTOR_OFF_HEAP);
+    }
+}
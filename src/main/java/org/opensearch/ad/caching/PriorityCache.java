@@ -11,89 +11,58 @@
 
 package org.opensearch.ad.caching;
 
-import static org.opensearch.ad.settings.AnomalyDetectorSettings.DEDICATED_CACHE_SIZE;
-import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE;
-
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
-import org.opensearch.action.ActionListener;
-import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.MemoryTracker;
-import org.opensearch.ad.MemoryTracker.Origin;
-import org.opensearch.ad.common.exception.AnomalyDetectionException;
-import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelManager.ModelType;
 import org.opensearch.ad.ml.ModelState;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.Entity;
-import org.opensearch.ad.model.ModelProfile;
 import org.opensearch.ad.ratelimit.CheckpointMaintainWorker;
 import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.util.DateUtils;
 import org.opensearch.cluster.service.ClusterService;
-import org.opensearch.common.Strings;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.threadpool.ThreadPool;
-import org.opensearch.timeseries.constant.CommonMessages;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
-public class PriorityCache implements EntityCache {
+public class PriorityCache extends AbstractEntityCache {
     private final Logger LOG = LogManager.getLogger(PriorityCache.class);
 
-    // detector id -> CacheBuffer, weight based
-    private final Map<String, CacheBuffer> activeEnities;
-    private final CheckpointDao checkpointDao;
-    private volatile int dedicatedCacheSize;
     // LRU Cache, key is model id
     private Cache<String, ModelState<EntityModel>> inActiveEntities;
-    private final MemoryTracker memoryTracker;
-    private final ReentrantLock maintenanceLock;
-    private final int numberOfTrees;
-    private final Clock clock;
-    private final Duration modelTtl;
     // A bloom filter placed in front of inactive entity cache to
     // filter out unpopular items that are not likely to appear more
     // than once. Key is detector id
     private Map<String, DoorKeeper> doorKeepers;
-    private ThreadPool threadPool;
-    private Random random;
-    private CheckpointWriteWorker checkpointWriteQueue;
     // iterating through all of inactive entities is heavy. We don't want to do
     // it again and again for no obvious benefits.
     private Instant lastInActiveEntityMaintenance;
-    protected int maintenanceFreqConstant;
-    private CheckpointMaintainWorker checkpointMaintainQueue;
-    private int checkpointIntervalHrs;
 
     public PriorityCache(
         CheckpointDao checkpointDao,
@@ -110,24 +79,25 @@ public class PriorityCache implements EntityCache {
         int maintenanceFreqConstant,
         CheckpointMaintainWorker checkpointMaintainQueue,
         Settings settings,
-        Setting<TimeValue> checkpointSavingFreq
+        Setting<TimeValue> checkpointSavingFreq,
+        OffHeapModelStore offHeapModelStore
     ) {
-        this.checkpointDao = checkpointDao;
-
-        this.activeEnities = new ConcurrentHashMap<>();
-        this.dedicatedCacheSize = dedicatedCacheSize;
-        clusterService.getClusterSettings().addSettingsUpdateConsumer(DEDICATED_CACHE_SIZE, (it) -> {
-            this.dedicatedCacheSize = it;
-            this.setDedicatedCacheSizeListener();
-            this.tryClearUpMemory();
-        }, this::validateDedicatedCacheSize);
-        clusterService.getClusterSettings().addSettingsUpdateConsumer(MODEL_MAX_SIZE_PERCENTAGE, it -> this.tryClearUpMemory());
-
-        this.memoryTracker = memoryTracker;
-        this.maintenanceLock = new ReentrantLock();
-        this.numberOfTrees = numberOfTrees;
-        this.clock = clock;
-        this.modelTtl = modelTtl;
+        super(
+            checkpointDao,
+            dedicatedCacheSize,
+            memoryTracker,
+            numberOfTrees,
+            clock,
+            clusterService,
+            modelTtl,
+            threadPool,
+            checkpointWriteQueue,
+            maintenanceFreqConstant,
+            checkpointMaintainQueue,
+            settings,
+            checkpointSavingFreq,
+            offHeapModelStore
+        );
         this.doorKeepers = new ConcurrentHashMap<>();
 
         Duration inactiveEntityTtl = DateUtils.toDuration(checkpointTtl.get(settings));
@@ -140,18 +110,7 @@ public class PriorityCache implements EntityCache {
                 it -> { this.inActiveEntities = createInactiveCache(DateUtils.toDuration(it), maxInactiveStates); }
             );
 
-        this.threadPool = threadPool;
-        this.random = new Random(42);
-        this.checkpointWriteQueue = checkpointWriteQueue;
         this.lastInActiveEntityMaintenance = Instant.MIN;
-        this.maintenanceFreqConstant = maintenanceFreqConstant;
-        this.checkpointMaintainQueue = checkpointMaintainQueue;
-
-        this.checkpointIntervalHrs = DateUtils.toDuration(checkpointSavingFreq.get(settings)).toHoursPart();
-        clusterService.getClusterSettings().addSettingsUpdateConsumer(checkpointSavingFreq, it -> {
-            this.checkpointIntervalHrs = DateUtils.toDuration(it).toHoursPart();
-            this.setCheckpointFreqListener();
-        });
     }
 
     @Override
@@ -159,6 +118,7 @@ public class PriorityCache implements EntityCache {
         String detectorId = detector.getDetectorId();
         CacheBuffer buffer = computeBufferIfAbsent(detector, detectorId);
         ModelState<EntityModel> modelState = buffer.get(modelId);
+        cacheStats.recordLookup(detectorId, modelState != null);
 
         // during maintenance period, stop putting new entries
         if (!maintenanceLock.isLocked() && modelState == null) {
@@ -246,19 +206,7 @@ public class PriorityCache implements EntityCache {
     }
 
     @Override
-    public boolean hostIfPossible(AnomalyDetector detector, ModelState<EntityModel> toUpdate) {
-        if (toUpdate == null) {
-            return false;
-        }
-        String modelId = toUpdate.getModelId();
-        String detectorId = toUpdate.getDetectorId();
-
-        if (Strings.isEmpty(modelId) || Strings.isEmpty(detectorId)) {
-            return false;
-        }
-
-        CacheBuffer buffer = computeBufferIfAbsent(detector, detectorId);
-
+    protected boolean host(CacheBuffer buffer, String modelId, ModelState<EntityModel> toUpdate) {
         Optional<ModelState<EntityModel>> state = getStateFromInactiveEntiiyCache(modelId);
         if (false == state.isPresent()) {
             return false;
@@ -300,11 +248,8 @@ public class PriorityCache implements EntityCache {
         float scaledPriority = buffer.getPriorityTracker().getScaledPriority(priority);
         Triple<CacheBuffer, String, Float> bufferToRemoveEntity = canReplaceInSharedCache(buffer, scaledPriority);
         CacheBuffer bufferToRemove = bufferToRemoveEntity.getLeft();
-        String entityModelId = bufferToRemoveEntity.getMiddle();
-        ModelState<EntityModel> removed = null;
-        if (bufferToRemove != null && ((removed = bufferToRemove.remove(entityModelId)) != null)) {
+        if (bufferToRemove != null && evict(bufferToRemove, bufferToRemoveEntity.getMiddle())) {
             buffer.put(modelId, toUpdate);
-            addIntoInactiveCache(removed);
             return true;
         }
 
@@ -456,376 +401,67 @@ public class PriorityCache implements EntityCache {
         return Pair.of(hotEntities, coldEntities);
     }
 
-    private CacheBuffer computeBufferIfAbsent(AnomalyDetector detector, String detectorId) {
-        CacheBuffer buffer = activeEnities.get(detectorId);
-        if (buffer == null) {
-            long requiredBytes = getRequiredMemory(detector, dedicatedCacheSize);
-            if (memoryTracker.canAllocateReserved(requiredBytes)) {
-                memoryTracker.consumeMemory(requiredBytes, true, Origin.HC_DETECTOR);
-                long intervalSecs = detector.getDetectorIntervalInSeconds();
-
-                buffer = new CacheBuffer(
-                    dedicatedCacheSize,
-                    intervalSecs,
-                    getRequiredMemory(detector, 1),
-                    memoryTracker,
-                    clock,
-                    modelTtl,
-                    detectorId,
-                    checkpointWriteQueue,
-                    checkpointMaintainQueue,
-                    checkpointIntervalHrs
-                );
-                activeEnities.put(detectorId, buffer);
-                // There can be race conditions between tryClearUpMemory and
-                // activeEntities.put above as tryClearUpMemory accesses activeEnities too.
-                // Put tryClearUpMemory after consumeMemory to prevent that.
-                tryClearUpMemory();
-            } else {
-                throw new LimitExceededException(detectorId, CommonMessages.MEMORY_LIMIT_EXCEEDED_ERR_MSG);
-            }
-
-        }
-        return buffer;
-    }
-
-    /**
-     *
-     * @param detector Detector config accessor
-     * @param numberOfEntity number of entities
-     * @return Memory in bytes required for hosting numberOfEntity entities
-     */
-    private long getRequiredMemory(AnomalyDetector detector, int numberOfEntity) {
-        int dimension = detector.getEnabledFeatureIds().size() * detector.getShingleSize();
-        return numberOfEntity * memoryTracker
-            .estimateTRCFModelSize(
-                dimension,
-                numberOfTrees,
-                AnomalyDetectorSettings.REAL_TIME_BOUNDING_BOX_CACHE_RATIO,
-                detector.getShingleSize().intValue(),
-                true
-            );
-    }
-
-    /**
-     * Whether the candidate entity can replace any entity in the shared cache.
-     * We can have race conditions when multiple threads try to evaluate this
-     * function. The result is that we can have multiple threads thinks they
-     * can replace entities in the cache.
-     *
-     *
-     * @param originBuffer the CacheBuffer that the entity belongs to (with the same detector Id)
-     * @param candidatePriority the candidate entity's priority
-     * @return the CacheBuffer if we can find a CacheBuffer to make room for the candidate entity
-     */
-    private Triple<CacheBuffer, String, Float> canReplaceInSharedCache(CacheBuffer originBuffer, float candidatePriority) {
-        CacheBuffer minPriorityBuffer = null;
-        float minPriority = candidatePriority;
-        String minPriorityEntityModelId = null;
-        for (Map.Entry<String, CacheBuffer> entry : activeEnities.entrySet()) {
-            CacheBuffer buffer = entry.getValue();
-            if (buffer != originBuffer && buffer.canRemove()) {
-                Optional<Entry<String, Float>> priorityEntry = buffer.getPriorityTracker().getMinimumScaledPriority();
-                if (!priorityEntry.isPresent()) {
-                    continue;
-                }
-                float priority = priorityEntry.get().getValue();
-                if (candidatePriority > priority && priority < minPriority) {
-                    minPriority = priority;
-                    minPriorityBuffer = buffer;
-                    minPriorityEntityModelId = priorityEntry.get().getKey();
-                }
-            }
-        }
-        return Triple.of(minPriorityBuffer, minPriorityEntityModelId, minPriority);
-    }
-
-    /**
-     * Clear up overused memory.  Can happen due to race condition or other detectors
-     * consumes resources from shared memory.
-     * tryClearUpMemory is ran using AD threadpool because the function is expensive.
-     */
-    private void tryClearUpMemory() {
-        try {
-            if (maintenanceLock.tryLock()) {
-                threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(() -> clearMemory());
-            } else {
-                threadPool.schedule(() -> {
-                    try {
-                        tryClearUpMemory();
-                    } catch (Exception e) {
-                        LOG.error("Fail to clear up memory taken by CacheBuffer.  Will retry during maintenance.");
-                    }
-                }, new TimeValue(random.nextInt(90), TimeUnit.SECONDS), AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
-            }
-        } finally {
-            if (maintenanceLock.isHeldByCurrentThread()) {
-                maintenanceLock.unlock();
-            }
-        }
-    }
-
-    private void clearMemory() {
-        recalculateUsedMemory();
-        long memoryToShed = memoryTracker.memoryToShed();
-        PriorityQueue<Triple<Float, CacheBuffer, String>> removalCandiates = null;
-        if (memoryToShed > 0) {
-            // sort the triple in an ascending order of priority
-            removalCandiates = new PriorityQueue<>((x, y) -> Float.compare(x.getLeft(), y.getLeft()));
-            for (Map.Entry<String, CacheBuffer> entry : activeEnities.entrySet()) {
-                CacheBuffer buffer = entry.getValue();
-                Optional<Entry<String, Float>> priorityEntry = buffer.getPriorityTracker().getMinimumScaledPriority();
-                if (!priorityEntry.isPresent()) {
-                    continue;
-                }
-                float priority = priorityEntry.get().getValue();
-                if (buffer.canRemove()) {
-                    removalCandiates.add(Triple.of(priority, buffer, priorityEntry.get().getKey()));
-                }
-            }
-        }
-        while (memoryToShed > 0) {
-            if (false == removalCandiates.isEmpty()) {
-                Triple<Float, CacheBuffer, String> toRemove = removalCandiates.poll();
-                CacheBuffer minPriorityBuffer = toRemove.getMiddle();
-                String minPriorityEntityModelId = toRemove.getRight();
-
-                ModelState<EntityModel> removed = minPriorityBuffer.remove(minPriorityEntityModelId);
-                memoryToShed -= minPriorityBuffer.getMemoryConsumptionPerEntity();
-                addIntoInactiveCache(removed);
-
-                if (minPriorityBuffer.canRemove()) {
-                    // can remove another one
-                    Optional<Entry<String, Float>> priorityEntry = minPriorityBuffer.getPriorityTracker().getMinimumScaledPriority();
-                    if (priorityEntry.isPresent()) {
-                        removalCandiates.add(Triple.of(priorityEntry.get().getValue(), minPriorityBuffer, priorityEntry.get().getKey()));
-                    }
-                }
-            }
-
-            if (removalCandiates.isEmpty()) {
-                break;
-            }
-        }
-
-    }
-
-    /**
-     * Recalculate memory consumption in case of bugs/race conditions when allocating/releasing memory
-     */
-    private void recalculateUsedMemory() {
-        long reserved = 0;
-        long shared = 0;
-        for (Map.Entry<String, CacheBuffer> entry : activeEnities.entrySet()) {
-            CacheBuffer buffer = entry.getValue();
-            reserved += buffer.getReservedBytes();
-            shared += buffer.getBytesInSharedCache();
-        }
-        memoryTracker.syncMemoryState(Origin.HC_DETECTOR, reserved + shared, reserved);
-    }
-
-    /**
-     * Maintain active entity's cache and door keepers.
-     *
-     * inActiveEntities is a Guava's LRU cache. The data structure itself is
-     * gonna evict items if they are inactive for 3 days or its maximum size
-     * reached (1 million entries)
-     */
-    @Override
-    public void maintenance() {
-        try {
-            // clean up memory if we allocate more memory than we should
-            tryClearUpMemory();
-            activeEnities.entrySet().stream().forEach(cacheBufferEntry -> {
-                String detectorId = cacheBufferEntry.getKey();
-                CacheBuffer cacheBuffer = cacheBufferEntry.getValue();
-                // remove expired cache buffer
-                if (cacheBuffer.expired(modelTtl)) {
-                    activeEnities.remove(detectorId);
-                    cacheBuffer.clear();
-                } else {
-                    List<ModelState<EntityModel>> removedStates = cacheBuffer.maintenance();
-                    for (ModelState<EntityModel> state : removedStates) {
-                        addIntoInactiveCache(state);
-                    }
-                }
-            });
-
-            maintainInactiveCache();
-
-            doorKeepers.entrySet().stream().forEach(doorKeeperEntry -> {
-                String detectorId = doorKeeperEntry.getKey();
-                DoorKeeper doorKeeper = doorKeeperEntry.getValue();
-                // doorKeeper has its own state ttl
-                if (doorKeeper.expired(null)) {
-                    doorKeepers.remove(detectorId);
-                } else {
-                    doorKeeper.maintenance();
-                }
-            });
-        } catch (Exception e) {
-            // will be thrown to ES's transport broadcast handler
-            throw new AnomalyDetectionException("Fail to maintain cache", e);
-        }
-
-    }
-
-    /**
-     * Permanently deletes models hosted in memory and persisted in index.
-     *
-     * @param detectorId id the of the detector for which models are to be permanently deleted
-     */
-    @Override
-    public void clear(String detectorId) {
-        if (Strings.isEmpty(detectorId)) {
-            return;
-        }
-        CacheBuffer buffer = activeEnities.remove(detectorId);
-        if (buffer != null) {
-            buffer.clear();
-        }
-        checkpointDao.deleteModelCheckpointByDetectorId(detectorId);
-        doorKeepers.remove(detectorId);
-    }
-
-    /**
-     * Get the number of active entities of a detector
-     * @param detectorId Detector Id
-     * @return The number of active entities
-     */
-    @Override
-    public int getActiveEntities(String detectorId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        if (cacheBuffer != null) {
-            return cacheBuffer.getActiveEntities();
-        }
-        return 0;
-    }
-
-    /**
-     * Whether an entity is active or not
-     * @param detectorId The Id of the detector that an entity belongs to
-     * @param entityModelId Entity's Model Id
-     * @return Whether an entity is active or not
-     */
-    @Override
-    public boolean isActive(String detectorId, String entityModelId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        if (cacheBuffer != null) {
-            return cacheBuffer.isActive(entityModelId);
-        }
-        return false;
-    }
-
     @Override
-    public long getTotalUpdates(String detectorId) {
-        return Optional
-            .of(activeEnities)
-            .map(entities -> entities.get(detectorId))
-            .map(buffer -> buffer.getPriorityTracker().getHighestPriorityEntityId())
-            .map(entityModelIdOptional -> entityModelIdOptional.get())
-            .map(entityModelId -> getTotalUpdates(detectorId, entityModelId))
-            .orElse(0L);
+    protected Optional<Entry<String, Float>> getVictim(CacheBuffer buffer) {
+        return buffer.getPriorityTracker().getMinimumScaledPriority();
     }
 
     @Override
-    public long getTotalUpdates(String detectorId, String entityModelId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        if (cacheBuffer != null) {
-            Optional<EntityModel> modelOptional = cacheBuffer.getModel(entityModelId);
-            // TODO: make it work for shingles. samples.size() is not the real shingle
-            long accumulatedShingles = modelOptional
-                .flatMap(model -> model.getTrcf())
-                .map(trcf -> trcf.getForest())
-                .map(rcf -> rcf.getTotalUpdates())
-                .orElseGet(
-                    () -> modelOptional.map(model -> model.getSamples()).map(samples -> samples.size()).map(Long::valueOf).orElse(0L)
-                );
-            return accumulatedShingles;
-        }
-        return 0L;
+    protected void onEvicted(CacheBuffer buffer, String modelId, ModelState<EntityModel> removed) {
+        addIntoInactiveCache(removed);
     }
 
-    /**
-     *
-     * @return total active entities in the cache
-     */
     @Override
-    public int getTotalActiveEntities() {
-        AtomicInteger total = new AtomicInteger();
-        activeEnities.values().stream().forEach(cacheBuffer -> { total.addAndGet(cacheBuffer.getActiveEntities()); });
-        return total.get();
+    protected void onBufferRemoved(String detectorId) {
+        doorKeepers.remove(detectorId);
     }
 
     /**
-     * Gets modelStates of all model hosted on a node
+     * Maintain inactive entity's cache and door keepers.
      *
-     * @return list of modelStates
+     * inActiveEntities is a Guava's LRU cache. The data structure itself is
+     * gonna evict items if they are inactive for 3 days or its maximum size
+     * reached (1 million entries)
      */
     @Override
-    public List<ModelState<?>> getAllModels() {
-        List<ModelState<?>> states = new ArrayList<>();
-        activeEnities.values().stream().forEach(cacheBuffer -> states.addAll(cacheBuffer.getAllModels()));
-        return states;
-    }
+    protected void maintainAdmission() {
+        maintainInactiveCache();
 
-    /**
-     * Gets all of a detector's model sizes hosted on a node
-     *
-     * @return a map of model id to its memory size
-     */
-    @Override
-    public Map<String, Long> getModelSize(String detectorId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        Map<String, Long> res = new HashMap<>();
-        if (cacheBuffer != null) {
-            long size = cacheBuffer.getMemoryConsumptionPerEntity();
-            cacheBuffer.getAllModels().forEach(entry -> res.put(entry.getModelId(), size));
-        }
-        return res;
+        doorKeepers.entrySet().stream().forEach(doorKeeperEntry -> {
+            String detectorId = doorKeeperEntry.getKey();
+            DoorKeeper doorKeeper = doorKeeperEntry.getValue();
+            // doorKeeper has its own state ttl
+            if (doorKeeper.expired(null)) {
+                doorKeepers.remove(detectorId);
+            } else {
+                doorKeeper.maintenance();
+            }
+        });
     }
 
     /**
-     * Return the last active time of an entity's state.
+     * If the entity's state is inactive in the cache, the value indicates when
+     * the cache state is created or when the entity is evicted from active
+     * entity cache.
      *
-     * If the entity's state is active in the cache, the value indicates when the cache
-     * is lastly accessed (get/put).  If the entity's state is inactive in the cache,
-     * the value indicates when the cache state is created or when the entity is evicted
-     * from active entity cache.
-     *
-     * @param detectorId The Id of the detector that an entity belongs to
-     * @param entityModelId Entity's Model Id
-     * @return if the entity is in the cache, return the timestamp in epoch
-     * milliseconds when the entity's state is lastly used.  Otherwise, return -1.
+     * @param entityModelId entity model id
+     * @return when the inactive state is lastly used in epoch milliseconds, or -1
+     *  if the entity is not in the inactive cache
      */
     @Override
-    public long getLastActiveMs(String detectorId, String entityModelId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        long lastUsedMs = -1;
-        if (cacheBuffer != null) {
-            lastUsedMs = cacheBuffer.getLastUsedTime(entityModelId);
-            if (lastUsedMs != -1) {
-                return lastUsedMs;
-            }
-        }
+    protected long getLastEvictedMs(String entityModelId) {
         ModelState<EntityModel> stateInActive = inActiveEntities.getIfPresent(entityModelId);
         if (stateInActive != null) {
-            lastUsedMs = stateInActive.getLastUsedTime().toEpochMilli();
+            return stateInActive.getLastUsedTime().toEpochMilli();
         }
-        return lastUsedMs;
+        return -1;
     }
 
     @Override
     public void releaseMemoryForOpenCircuitBreaker() {
         maintainInactiveCache();
 
-        tryClearUpMemory();
-        activeEnities.values().stream().forEach(cacheBuffer -> {
-            if (cacheBuffer.canRemove()) {
-                ModelState<EntityModel> removed = cacheBuffer.remove();
-                addIntoInactiveCache(removed);
-            }
-        });
+        super.releaseMemoryForOpenCircuitBreaker();
     }
 
     private void maintainInactiveCache() {
@@ -849,117 +485,6 @@ public class PriorityCache implements EntityCache {
         lastInActiveEntityMaintenance = clock.instant();
     }
 
-    /**
-     * Called when dedicated cache size changes.  Will adjust existing cache buffer's
-     * cache size
-     */
-    private void setDedicatedCacheSizeListener() {
-        activeEnities.values().stream().forEach(cacheBuffer -> cacheBuffer.setMinimumCapacity(dedicatedCacheSize));
-    }
-
-    private void setCheckpointFreqListener() {
-        activeEnities.values().stream().forEach(cacheBuffer -> cacheBuffer.setCheckpointIntervalHrs(checkpointIntervalHrs));
-    }
-
-    @Override
-    public List<ModelProfile> getAllModelProfile(String detectorId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        List<ModelProfile> res = new ArrayList<>();
-        if (cacheBuffer != null) {
-            long size = cacheBuffer.getMemoryConsumptionPerEntity();
-            cacheBuffer.getAllModels().forEach(entry -> {
-                EntityModel model = entry.getModel();
-                Entity entity = null;
-                if (model != null && model.getEntity().isPresent()) {
-                    entity = model.getEntity().get();
-                }
-                res.add(new ModelProfile(entry.getModelId(), entity, size));
-            });
-        }
-        return res;
-    }
-
-    /**
-     * Gets an entity's model state
-     *
-     * @param detectorId detector id
-     * @param entityModelId  entity model id
-     * @return the model state
-     */
-    @Override
-    public Optional<ModelProfile> getModelProfile(String detectorId, String entityModelId) {
-        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
-        if (cacheBuffer != null && cacheBuffer.getModel(entityModelId).isPresent()) {
-            EntityModel model = cacheBuffer.getModel(entityModelId).get();
-            Entity entity = null;
-            if (model != null && model.getEntity().isPresent()) {
-                entity = model.getEntity().get();
-            }
-            return Optional.of(new ModelProfile(entityModelId, entity, cacheBuffer.getMemoryConsumptionPerEntity()));
-        }
-        return Optional.empty();
-    }
-
-    /**
-     * Throw an IllegalArgumentException even the dedicated size increases cannot
-     * be fulfilled.
-     *
-     * @param newDedicatedCacheSize the new dedicated cache size to validate
-     */
-    private void validateDedicatedCacheSize(Integer newDedicatedCacheSize) {
-        if (this.dedicatedCacheSize < newDedicatedCacheSize) {
-            int delta = newDedicatedCacheSize - this.dedicatedCacheSize;
-            long totalIncreasedBytes = 0;
-            for (CacheBuffer cacheBuffer : activeEnities.values()) {
-                totalIncreasedBytes += cacheBuffer.getMemoryConsumptionPerEntity() * delta;
-            }
-
-            if (false == memoryTracker.canAllocateReserved(totalIncreasedBytes)) {
-                throw new IllegalArgumentException("We don't have enough memory for the required change");
-            }
-        }
-    }
-
-    /**
-     * Get a model state without incurring priority update. Used in maintenance.
-     * @param detectorId Detector Id
-     * @param modelId Model Id
-     * @return Model state
-     */
-    @Override
-    public Optional<ModelState<EntityModel>> getForMaintainance(String detectorId, String modelId) {
-        CacheBuffer buffer = activeEnities.get(detectorId);
-        if (buffer == null) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(buffer.getWithoutUpdatePriority(modelId));
-    }
-
-    /**
-     * Remove entity model from active entity buffer and delete checkpoint. Used to clean corrupted model.
-     * @param detectorId Detector Id
-     * @param entityModelId Model Id
-     */
-    @Override
-    public void removeEntityModel(String detectorId, String entityModelId) {
-        CacheBuffer buffer = activeEnities.get(detectorId);
-        if (buffer != null) {
-            ModelState<EntityModel> removed = null;
-            if ((removed = buffer.remove(entityModelId, false)) != null) {
-                addIntoInactiveCache(removed);
-            }
-        }
-        checkpointDao
-            .deleteModelCheckpoint(
-                entityModelId,
-                ActionListener
-                    .wrap(
-                        r -> LOG.debug(new ParameterizedMessage("Succeeded in deleting checkpoint [{}].", entityModelId)),
-                        e -> LOG.error(new ParameterizedMessage("Failed to delete checkpoint [{}].", entityModelId), e)
-                    )
-            );
-    }
-
     private Cache<String, ModelState<EntityModel>> createInactiveCache(Duration inactiveEntityTtl, int maxInactiveStates) {
         return CacheBuilder
             .newBuilder()
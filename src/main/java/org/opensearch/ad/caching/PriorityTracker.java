@@ -157,11 +157,24 @@ public class PriorityTracker {
      * @param maxEntities the max number of entities to track
      */
     public PriorityTracker(Clock clock, long intervalSecs, long landmarkEpoch, int maxEntities) {
-        this.key2Priority = new ConcurrentHashMap<>();
+        this(clock, intervalSecs, landmarkEpoch, maxEntities, true);
+    }
+
+    /**
+     * @param clock Used to get current time.
+     * @param intervalSecs Detector interval seconds.
+     * @param landmarkEpoch The epoch time when the priority tracking starts.
+     * @param maxEntities the max number of entities to track
+     * @param sorted whether to keep entities sorted by priority. Subclasses tracking
+     *  priorities in their own structures pass false and override every method
+     *  reading or writing the sorted entities.
+     */
+    protected PriorityTracker(Clock clock, long intervalSecs, long landmarkEpoch, int maxEntities, boolean sorted) {
+        this.key2Priority = sorted ? new ConcurrentHashMap<>() : null;
         this.clock = clock;
         this.intervalSecs = intervalSecs;
         this.landmarkEpoch = landmarkEpoch;
-        this.priorityList = new ConcurrentSkipListSet<>(new PriorityNodeComparator());
+        this.priorityList = sorted ? new ConcurrentSkipListSet<>(new PriorityNodeComparator()) : null;
         this.DECAY_CONSTANT = 3;
         this.maxEntities = maxEntities;
     }
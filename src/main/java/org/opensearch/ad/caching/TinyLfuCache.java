@@ -0,0 +1,322 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.ratelimit.CheckpointMaintainWorker;
+import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.DateUtils;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * An entity cache with W-TinyLFU admission and eviction.  Memory accounting,
+ * the dedicated cache, and the checkpoint and off-heap copies written on
+ * eviction are the same as in PriorityCache.  What differs is which entity
+ * gets the memory when it is full.
+ *
+ * Every lookup is counted in the detector's frequency sketch, whether the
+ * model is cached or not.  Once memory is full, a new model enters the
+ * detector's admission window and the window's least recently used model
+ * competes with the detector's main region victim; the less frequently
+ * accessed one is evicted.  A losing candidate can still replace the least
+ * frequently accessed victim of other detectors' shared cache if it was
+ * accessed more often recently.  A detector without cached models has no
+ * window yet, and the new model itself is the candidate.  There is no bloom
+ * filter to pass and no periodic reset: the sketch ages by halving its
+ * counters, so there is no miss spike after a reset.
+ *
+ * Loading a model costs a checkpoint read, so when memory is full
+ * selectUpdateCandidate loads at most a window's worth of a detector's misses
+ * per call, the most frequently accessed first.
+ *
+ * Sketches are per detector and age by the detector's own lookups, so an
+ * entity's frequency is relative to its detector's sampling rate and entities
+ * of detectors with different intervals compete fairly.
+ *
+ * Reference: https://arxiv.org/abs/1512.00727
+ */
+public class TinyLfuCache extends AbstractEntityCache {
+    // detector id -> admission and eviction bookkeeping of the CacheBuffer
+    private final Map<String, TinyLfuPolicy> policies;
+    // model id -> when the model is evicted, for the profile API
+    private Cache<String, Instant> evictedEntities;
+
+    public TinyLfuCache(
+        CheckpointDao checkpointDao,
+        int dedicatedCacheSize,
+        Setting<TimeValue> checkpointTtl,
+        int maxInactiveStates,
+        MemoryTracker memoryTracker,
+        int numberOfTrees,
+        Clock clock,
+        ClusterService clusterService,
+        Duration modelTtl,
+        ThreadPool threadPool,
+        CheckpointWriteWorker checkpointWriteQueue,
+        int maintenanceFreqConstant,
+        CheckpointMaintainWorker checkpointMaintainQueue,
+        Settings settings,
+        Setting<TimeValue> checkpointSavingFreq,
+        OffHeapModelStore offHeapModelStore
+    ) {
+        super(
+            checkpointDao,
+            dedicatedCacheSize,
+            memoryTracker,
+            numberOfTrees,
+            clock,
+            clusterService,
+            modelTtl,
+            threadPool,
+            checkpointWriteQueue,
+            maintenanceFreqConstant,
+            checkpointMaintainQueue,
+            settings,
+            checkpointSavingFreq,
+            offHeapModelStore
+        );
+        this.policies = new ConcurrentHashMap<>();
+
+        this.evictedEntities = createEvictedCache(DateUtils.toDuration(checkpointTtl.get(settings)), maxInactiveStates);
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(
+                checkpointTtl,
+                it -> { this.evictedEntities = createEvictedCache(DateUtils.toDuration(it), maxInactiveStates); }
+            );
+    }
+
+    @Override
+    public ModelState<EntityModel> get(String modelId, AnomalyDetector detector) {
+        String detectorId = detector.getDetectorId();
+        CacheBuffer buffer = computeBufferIfAbsent(detector, detectorId);
+        getPolicy(buffer).recordAccess(modelId);
+        ModelState<EntityModel> modelState = buffer.get(modelId);
+        cacheStats.recordLookup(detectorId, modelState != null);
+
+        // adjust shared memory in case we have used dedicated cache memory for other detectors
+        if (modelState == null && !maintenanceLock.isLocked() && random.nextInt(maintenanceFreqConstant) == 1) {
+            tryClearUpMemory();
+        }
+        return modelState;
+    }
+
+    @Override
+    protected boolean host(CacheBuffer buffer, String modelId, ModelState<EntityModel> toUpdate) {
+        TinyLfuPolicy policy = getPolicy(buffer);
+        toUpdate.setLastUsedTime(clock.instant());
+
+        // current buffer's dedicated cache has free slots or can allocate in shared cache
+        if (buffer.dedicatedCacheAvailable() || memoryTracker.canAllocate(buffer.getMemoryConsumptionPerEntity())) {
+            // buffer.put will call MemoryTracker.consumeMemory
+            put(buffer, policy, modelId, toUpdate);
+            return true;
+        }
+
+        // the window candidate wins against the main region victim of the same detector,
+        // which can live in reserved or shared cache
+        Optional<String> victim = policy.getVictim();
+        if (victim.isPresent() && false == policy.inWindow(victim.get())) {
+            if (evict(buffer, victim.get())) {
+                put(buffer, policy, modelId, toUpdate);
+                return true;
+            }
+            return false;
+        }
+
+        // The window candidate lost, or nothing is cached and the new model is the candidate.
+        // It can still take the place of a less frequent victim in other detectors' shared cache.
+        // If two threads try to remove the same entity and add their own state, the 2nd remove
+        // returns null and only the first one succeeds.
+        Triple<CacheBuffer, String, Float> bufferToRemoveEntity = canReplaceInSharedCache(
+            buffer,
+            policy.frequency(victim.orElse(modelId))
+        );
+        CacheBuffer bufferToRemove = bufferToRemoveEntity.getLeft();
+        if (bufferToRemove != null && evict(bufferToRemove, bufferToRemoveEntity.getMiddle())) {
+            put(buffer, policy, modelId, toUpdate);
+            return true;
+        }
+
+        // the losing window candidate makes room for the new model
+        if (victim.isPresent() && evict(buffer, victim.get())) {
+            put(buffer, policy, modelId, toUpdate);
+            return true;
+        }
+
+        return false;
+    }
+
+    private void put(CacheBuffer buffer, TinyLfuPolicy policy, String modelId, ModelState<EntityModel> toUpdate) {
+        buffer.put(modelId, toUpdate);
+        policy.onAdmit(modelId);
+    }
+
+    @Override
+    public Pair<List<Entity>, List<Entity>> selectUpdateCandidate(
+        Collection<Entity> cacheMissEntities,
+        String detectorId,
+        AnomalyDetector detector
+    ) {
+        List<Entity> hotEntities = new ArrayList<>();
+        List<Entity> coldEntities = new ArrayList<>();
+
+        CacheBuffer buffer = activeEnities.get(detectorId);
+        if (buffer == null) {
+            // TinyLfuCache.get creates the CacheBuffer before this method is invoked.
+            // Don't create side-effects in case of misuse.
+            return Pair.of(hotEntities, coldEntities);
+        }
+        TinyLfuPolicy policy = getPolicy(buffer);
+
+        // misses entering the window of a full cache, with their frequencies
+        List<Pair<Entity, Integer>> windowCandidates = new ArrayList<>();
+        // frequency of the lowest frequency victim among other detectors; computed
+        // at most once as scanning all CacheBuffers is costly
+        Float otherVictimFrequency = null;
+
+        for (Entity entity : cacheMissEntities) {
+            Optional<String> modelId = entity.getModelId(detectorId);
+            if (false == modelId.isPresent()) {
+                continue;
+            }
+
+            // race conditions can happen when multiple threads evaluating the memory
+            // conditions. One model in HCAD is small, it is fine we exceed a little.
+            // We have regular maintenance to remove extra memory usage.
+            if (buffer.dedicatedCacheAvailable() || memoryTracker.canAllocate(buffer.getMemoryConsumptionPerEntity())) {
+                hotEntities.add(entity);
+                continue;
+            }
+
+            if (policy.size() > 0) {
+                windowCandidates.add(Pair.of(entity, policy.frequency(modelId.get())));
+                continue;
+            }
+
+            if (otherVictimFrequency == null) {
+                otherVictimFrequency = canReplaceInSharedCache(buffer, Float.POSITIVE_INFINITY).getRight();
+            }
+            if (policy.frequency(modelId.get()) > otherVictimFrequency) {
+                hotEntities.add(entity);
+            } else {
+                coldEntities.add(entity);
+            }
+        }
+
+        // more misses than the window holds would only push each other out of it
+        windowCandidates.sort((x, y) -> Integer.compare(y.getRight(), x.getRight()));
+        int windowCapacity = policy.getWindowCapacity();
+        for (int i = 0; i < windowCandidates.size(); i++) {
+            if (i < windowCapacity) {
+                hotEntities.add(windowCandidates.get(i).getLeft());
+            } else {
+                coldEntities.add(windowCandidates.get(i).getLeft());
+            }
+        }
+
+        return Pair.of(hotEntities, coldEntities);
+    }
+
+    @Override
+    protected void onBufferCreated(AnomalyDetector detector, CacheBuffer buffer) {
+        // size the sketch by the most entities of the detector that can fit in memory
+        long maxEntities = Math
+            .max(dedicatedCacheSize, memoryTracker.getHeapLimit() / Math.max(buffer.getMemoryConsumptionPerEntity(), 1));
+        int sketchCapacity = (int) Math.min(maxEntities, AnomalyDetectorSettings.MAX_FREQUENCY_SKETCH_CAPACITY);
+        policies.put(buffer.getDetectorId(), new TinyLfuPolicy(sketchCapacity));
+    }
+
+    @Override
+    protected Optional<Entry<String, Float>> getVictim(CacheBuffer buffer) {
+        TinyLfuPolicy policy = getPolicy(buffer);
+        return policy.getVictim().map(victim -> new SimpleImmutableEntry<>(victim, (float) policy.frequency(victim)));
+    }
+
+    @Override
+    protected void onEvicted(CacheBuffer buffer, String modelId, ModelState<EntityModel> removed) {
+        getPolicy(buffer).onRemove(modelId);
+        if (removed != null) {
+            evictedEntities.put(removed.getModelId(), clock.instant());
+        }
+    }
+
+    @Override
+    protected void onBufferRemoved(String detectorId) {
+        policies.remove(detectorId);
+    }
+
+    /**
+     * Frequency sketches age on their own as lookups come in.  Only expired
+     * eviction records need cleaning.
+     */
+    @Override
+    protected void maintainAdmission() {
+        evictedEntities.cleanUp();
+    }
+
+    /**
+     * @param entityModelId entity model id
+     * @return when the entity is evicted in epoch milliseconds, or -1 if unknown
+     */
+    @Override
+    protected long getLastEvictedMs(String entityModelId) {
+        Instant evictedTime = evictedEntities.getIfPresent(entityModelId);
+        return evictedTime == null ? -1 : evictedTime.toEpochMilli();
+    }
+
+    private TinyLfuPolicy getPolicy(CacheBuffer buffer) {
+        TinyLfuPolicy policy = policies.get(buffer.getDetectorId());
+        if (policy == null) {
+            // onBufferCreated adds the policy before the buffer is visible
+            throw new IllegalStateException("No TinyLFU policy for detector " + buffer.getDetectorId());
+        }
+        return policy;
+    }
+
+    private Cache<String, Instant> createEvictedCache(Duration evictedEntityTtl, int maxEvictedEntities) {
+        return CacheBuilder
+            .newBuilder()
+            .expireAfterAccess(evictedEntityTtl.toHours(), TimeUnit.HOURS)
+            .maximumSize(maxEvictedEntities)
+            .concurrencyLevel(1)
+            .build();
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU bookkeeping of a detector's cached entities.  Models live in the
+ * detector's CacheBuffer; this class tracks their access frequency and
+ * recency:
+ *
+ * <ul>
+ * <li>A small window LRU (1% of the cached entities) holds newly admitted
+ * entities so that an entity with a burst of accesses is not evicted before
+ * it builds up frequency.</li>
+ * <li>While there is memory, entities leaving the window join the probation
+ * segment of the main region.  A hit in probation promotes an entity to the
+ * protected segment (80% of the main region).  Protected entities overflowing
+ * the segment are demoted back to probation.</li>
+ * <li>Once memory is full, the window's least recently used entity is the
+ * admission candidate and the main region's least recently used entity
+ * (probation first) is the victim.  A {@link CountMinSketch} counts accesses
+ * of cached and uncached entities alike, and the candidate only enters the
+ * main region if it was accessed more often recently than the victim.
+ * The loser is evicted.</li>
+ * </ul>
+ *
+ * Counters saturate at 15.  Once the sketch has counted 10 times its capacity,
+ * every counter is halved.  The aging keeps frequencies relative to recent
+ * history: an entity popular long ago loses its advantage gradually instead
+ * of all at once.
+ *
+ * Every cache lookup records an access, so accesses do not take the lock.
+ * They are appended to a lock-free buffer and replayed under the lock when
+ * the buffer fills up or before the segments are read or changed.  If the
+ * buffer is full because another thread holds the lock, the access is
+ * dropped; the sketch is approximate anyway.
+ *
+ * Each set is ordered from the least to the most recently used entity.
+ *
+ * Reference: https://arxiv.org/abs/1512.00727
+ */
+public class TinyLfuPolicy {
+    static final double WINDOW_RATIO = 0.01;
+    static final double PROTECTED_RATIO = 0.8;
+    // a frequency saturates at 15
+    static final int MAX_FREQUENCY = 15;
+    // counted accesses per sketch entry before counters are halved
+    private static final int SAMPLE_RATIO = 10;
+    // pending accesses that trigger a drain of the read buffer
+    static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+    // pending accesses beyond which new ones are dropped
+    static final int READ_BUFFER_SIZE = 128;
+
+    private final CountMinSketch sketch;
+    private final int sampleSize;
+    // counted accesses since the last aging
+    private int sampleCount;
+    private final LinkedHashSet<String> window;
+    private final LinkedHashSet<String> probation;
+    private final LinkedHashSet<String> protectedSegment;
+    // guards the sketch and the segments
+    private final ReentrantLock lock;
+    // accesses not yet applied to the sketch and the segments
+    private final Queue<String> readBuffer;
+    private final AtomicInteger pendingReads;
+
+    /**
+     *
+     * @param sketchCapacity the number of entities expected to compete for the cache
+     */
+    public TinyLfuPolicy(int sketchCapacity) {
+        this.sketch = new CountMinSketch(sketchCapacity);
+        this.sampleSize = (int) Math.min((long) SAMPLE_RATIO * Math.max(sketchCapacity, 1), Integer.MAX_VALUE);
+        this.sampleCount = 0;
+        this.window = new LinkedHashSet<>();
+        this.probation = new LinkedHashSet<>();
+        this.protectedSegment = new LinkedHashSet<>();
+        this.lock = new ReentrantLock();
+        this.readBuffer = new ConcurrentLinkedQueue<>();
+        this.pendingReads = new AtomicInteger(0);
+    }
+
+    /**
+     * Count an access of an entity and refresh its recency if it is cached.
+     * The access is buffered and applied later under the lock.
+     * @param modelId model id
+     */
+    public void recordAccess(String modelId) {
+        int pending = pendingReads.incrementAndGet();
+        if (pending > READ_BUFFER_SIZE) {
+            pendingReads.decrementAndGet();
+        } else {
+            readBuffer.offer(modelId);
+        }
+        if (pending >= READ_BUFFER_DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Record an entity hosted by the cache.  New entities enter the window.
+     * Entities overflowing the window join probation without a contest since
+     * the cache either had free memory or has just evicted the victim
+     * returned by {@link #getVictim()}.
+     * @param modelId model id
+     */
+    public void onAdmit(String modelId) {
+        lockAndDrain();
+        try {
+            if (probation.contains(modelId) || protectedSegment.contains(modelId)) {
+                return;
+            }
+            window.remove(modelId);
+            window.add(modelId);
+            while (window.size() > windowCapacity()) {
+                probation.add(pollFirst(window));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget an entity no longer hosted by the cache.  Its frequency stays in the sketch.
+     * @param modelId model id
+     */
+    public void onRemove(String modelId) {
+        lockAndDrain();
+        try {
+            if (false == window.remove(modelId) && false == probation.remove(modelId)) {
+                protectedSegment.remove(modelId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The entity to evict to make room for a new one.  The window's least
+     * recently used entity is the candidate to enter the main region.  It
+     * competes with the main region's least recently used entity, probation
+     * first, and the less frequently accessed one loses; ties go to the
+     * victim already in the main region.  Evicting the returned entity and
+     * admitting the new one through {@link #onAdmit(String)} moves a winning
+     * candidate out of the window into probation.
+     *
+     * @return the loser of the admission contest, or the only side present;
+     *  empty if nothing is cached
+     */
+    public Optional<String> getVictim() {
+        lockAndDrain();
+        try {
+            String candidate = window.isEmpty() ? null : window.iterator().next();
+            String victim = null;
+            if (false == probation.isEmpty()) {
+                victim = probation.iterator().next();
+            } else if (false == protectedSegment.isEmpty()) {
+                victim = protectedSegment.iterator().next();
+            }
+            if (candidate == null || victim == null) {
+                return Optional.ofNullable(candidate == null ? victim : candidate);
+            }
+            return Optional.of(sketch.estimate(candidate) > sketch.estimate(victim) ? victim : candidate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param modelId model id
+     * @return estimated recent accesses of the entity
+     */
+    public int frequency(String modelId) {
+        lockAndDrain();
+        try {
+            return (int) sketch.estimate(modelId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * @return the number of tracked cached entities
+     */
+    public int size() {
+        lockAndDrain();
+        try {
+            return window.size() + probation.size() + protectedSegment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * @return how many entities the window holds at most
+     */
+    public int getWindowCapacity() {
+        lockAndDrain();
+        try {
+            return windowCapacity();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isProtected(String modelId) {
+        lockAndDrain();
+        try {
+            return protectedSegment.contains(modelId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean inWindow(String modelId) {
+        lockAndDrain();
+        try {
+            return window.contains(modelId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getSampleCount() {
+        lockAndDrain();
+        try {
+            return sampleCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getPendingReads() {
+        return pendingReads.get();
+    }
+
+    /**
+     * Take the lock and apply buffered accesses so that the caller sees them.
+     * The caller releases the lock.
+     */
+    private void lockAndDrain() {
+        lock.lock();
+        drainReadBuffer();
+    }
+
+    private void drainReadBuffer() {
+        String modelId;
+        while ((modelId = readBuffer.poll()) != null) {
+            pendingReads.decrementAndGet();
+            onAccess(modelId);
+        }
+    }
+
+    private int windowCapacity() {
+        return Math.max(1, (int) ((window.size() + probation.size() + protectedSegment.size()) * WINDOW_RATIO));
+    }
+
+    private void onAccess(String modelId) {
+        increment(modelId);
+        if (window.remove(modelId)) {
+            window.add(modelId);
+        } else if (probation.remove(modelId)) {
+            protectedSegment.add(modelId);
+            demoteProtected();
+        } else if (protectedSegment.remove(modelId)) {
+            protectedSegment.add(modelId);
+        }
+    }
+
+    /**
+     * Count an access in the sketch.  Halves all counters when the sample is full.
+     */
+    private void increment(String modelId) {
+        float frequency = sketch.estimate(modelId);
+        if (frequency >= MAX_FREQUENCY) {
+            return;
+        }
+        sketch.raise(modelId, frequency + 1);
+        if (++sampleCount >= sampleSize) {
+            sketch.halve();
+            sampleCount >>>= 1;
+        }
+    }
+
+    private void demoteProtected() {
+        int mainSize = probation.size() + protectedSegment.size();
+        int protectedCapacity = Math.max(1, (int) (mainSize * PROTECTED_RATIO));
+        while (protectedSegment.size() > protectedCapacity) {
+            probation.add(pollFirst(protectedSegment));
+        }
+    }
+
+    private static String pollFirst(LinkedHashSet<String> segment) {
+        Iterator<String> iter = segment.iterator();
+        String first = iter.next();
+        iter.remove();
+        return first;
+    }
+}
@@ -14,13 +14,16 @@ package org.opensearch.ad.cluster;
 import static org.opensearch.ad.constant.ADCommonName.AD_PLUGIN_NAME;
 import static org.opensearch.ad.constant.ADCommonName.AD_PLUGIN_NAME_FOR_TEST;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR;
 
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
@@ -41,6 +44,7 @@ import org.opensearch.action.admin.cluster.node.info.PluginsAndModules;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.ml.ModelManager;
 import org.opensearch.ad.ml.SingleStreamModelIdMapper;
+import org.opensearch.ad.stats.suppliers.PlacementSkewSupplier;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
 import org.opensearch.client.AdminClient;
 import org.opensearch.client.Client;
@@ -48,7 +52,6 @@ import org.opensearch.client.ClusterAdminClient;
 import org.opensearch.cluster.ClusterChangedEvent;
 import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.node.DiscoveryNodes;
-import org.opensearch.cluster.routing.Murmur3HashFunction;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.transport.TransportAddress;
@@ -75,7 +78,9 @@ public class HashRing {
     private Map<String, ADNodeInfo> nodeAdVersions;
     // This field records AD version hash ring in realtime way. Historical detection will use this hash ring.
     // Key: AD version; Value: hash ring which only contains eligible data nodes
-    private TreeMap<Version, TreeMap<Integer, DiscoveryNode>> circles;
+    // Both the map and the circles are immutable. Membership changes build a new map and swap it in,
+    // so readers don't need locks.
+    private volatile NavigableMap<Version, RoutingSnapshot> circles;
     // Track if hash ring inited or not. If not inited, the first clusterManager event will try to init it.
     private AtomicBoolean hashRingInited;
 
@@ -85,7 +90,8 @@ public class HashRing {
     private volatile TimeValue coolDownPeriodForRealtimeAD;
     // This field records AD version hash ring with cooldown period. Realtime job will use this hash ring.
     // Key: AD version; Value: hash ring which only contains eligible data nodes
-    private TreeMap<Version, TreeMap<Integer, DiscoveryNode>> circlesForRealtimeAD;
+    // A past value of circles.
+    private volatile NavigableMap<Version, RoutingSnapshot> circlesForRealtimeAD;
 
     // Record node change event. Will check if there is node change event when rebuild AD hash ring with
     // cooldown for realtime job.
@@ -97,6 +103,10 @@ public class HashRing {
     private final Clock clock;
     private final Client client;
     private final ModelManager modelManager;
+    private final ModelHandoff modelHandoff;
+    private final PlacementSkewSupplier placementSkew;
+    // how many times the average load a node may take when HC entities are routed
+    private volatile double placementCapacityFactor;
 
     public HashRing(
         DiscoveryNodeFilterer nodeFilter,
@@ -105,7 +115,9 @@ public class HashRing {
         Client client,
         ClusterService clusterService,
         ADDataMigrator dataMigrator,
-        ModelManager modelManager
+        ModelManager modelManager,
+        ModelHandoff modelHandoff,
+        PlacementSkewSupplier placementSkew
     ) {
         this.nodeFilter = nodeFilter;
         this.buildHashRingSemaphore = new Semaphore(1);
@@ -118,11 +130,15 @@ public class HashRing {
         this.clusterService = clusterService;
         this.dataMigrator = dataMigrator;
         this.nodeAdVersions = new ConcurrentHashMap<>();
-        this.circles = new TreeMap<>();
-        this.circlesForRealtimeAD = new TreeMap<>();
+        this.circles = Collections.emptyNavigableMap();
+        this.circlesForRealtimeAD = Collections.emptyNavigableMap();
         this.hashRingInited = new AtomicBoolean(false);
         this.nodeChangeEvents = new ConcurrentLinkedQueue<>();
         this.modelManager = modelManager;
+        this.modelHandoff = modelHandoff;
+        this.placementSkew = placementSkew;
+        this.placementCapacityFactor = PLACEMENT_CAPACITY_FACTOR.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(PLACEMENT_CAPACITY_FACTOR, it -> placementCapacityFactor = it);
     }
 
     public boolean isHashRingInited() {
@@ -260,6 +276,7 @@ public class HashRing {
             cluster.nodesInfo(nodesInfoRequest, ActionListener.wrap(r -> {
                 Map<String, NodeInfo> nodesMap = r.getNodesMap();
                 if (nodesMap != null && nodesMap.size() > 0) {
+                    TreeMap<Version, RoutingSnapshot> newCircles = new TreeMap<>(circles);
                     for (Map.Entry<String, NodeInfo> entry : nodesMap.entrySet()) {
                         NodeInfo nodeInfo = entry.getValue();
                         PluginsAndModules plugins = nodeInfo.getInfo(PluginsAndModules.class);
@@ -267,25 +284,25 @@ public class HashRing {
                         if (plugins == null) {
                             continue;
                         }
-                        TreeMap<Integer, DiscoveryNode> circle = null;
+                        Version circleVersion = null;
                         for (PluginInfo pluginInfo : plugins.getPluginInfos()) {
                             if (AD_PLUGIN_NAME.equals(pluginInfo.getName()) || AD_PLUGIN_NAME_FOR_TEST.equals(pluginInfo.getName())) {
                                 Version version = ADVersionUtil.fromString(pluginInfo.getVersion());
                                 boolean eligibleNode = nodeFilter.isEligibleNode(curNode);
                                 if (eligibleNode) {
-                                    circle = circles.computeIfAbsent(version, key -> new TreeMap<>());
+                                    circleVersion = version;
                                     LOG.info("Add data node to AD version hash ring: {}", curNode.getId());
                                 }
                                 nodeAdVersions.put(curNode.getId(), new ADNodeInfo(version, eligibleNode));
                                 break;
                             }
                         }
-                        if (circle != null) {
-                            for (int i = 0; i < VIRTUAL_NODE_COUNT; i++) {
-                                circle.put(Murmur3HashFunction.hash(curNode.getId() + i), curNode);
-                            }
+                        if (circleVersion != null) {
+                            RoutingSnapshot circle = newCircles.getOrDefault(circleVersion, RoutingSnapshot.EMPTY);
+                            newCircles.put(circleVersion, circle.addNode(curNode, VIRTUAL_NODE_COUNT));
                         }
                     }
+                    circles = Collections.unmodifiableNavigableMap(newCircles);
                 }
                 LOG.info("All nodes with known AD version: {}", nodeAdVersions);
 
@@ -320,20 +337,18 @@ public class HashRing {
 
     private void removeNodeFromCircles(String nodeId, Version adVersion) {
         if (adVersion != null) {
-            TreeMap<Integer, DiscoveryNode> circle = this.circles.get(adVersion);
-            List<Integer> deleted = new ArrayList<>();
-            for (Map.Entry<Integer, DiscoveryNode> entry : circle.entrySet()) {
-                if (entry.getValue().getId().equals(nodeId)) {
-                    deleted.add(entry.getKey());
-                }
+            RoutingSnapshot circle = this.circles.get(adVersion);
+            if (circle == null) {
+                return;
             }
-            if (deleted.size() == circle.size()) {
-                circles.remove(adVersion);
+            TreeMap<Version, RoutingSnapshot> newCircles = new TreeMap<>(circles);
+            RoutingSnapshot newCircle = circle.removeNode(nodeId);
+            if (newCircle.isEmpty()) {
+                newCircles.remove(adVersion);
             } else {
-                for (Integer key : deleted) {
-                    circle.remove(key);
-                }
+                newCircles.put(adVersion, newCircle);
             }
+            circles = Collections.unmodifiableNavigableMap(newCircles);
         }
     }
 
@@ -342,18 +357,18 @@ public class HashRing {
         if (eligibleToRebuildCirclesForRealtimeAD()) {
             LOG.info("Rebuild AD hash ring for realtime AD with cooldown, nodeChangeEvents size {}", nodeChangeEvents.size());
             int size = nodeChangeEvents.size();
-            TreeMap<Version, TreeMap<Integer, DiscoveryNode>> newCircles = new TreeMap<>();
-            for (Map.Entry<Version, TreeMap<Integer, DiscoveryNode>> entry : circles.entrySet()) {
-                newCircles.put(entry.getKey(), new TreeMap<>(entry.getValue()));
-            }
-            circlesForRealtimeAD = newCircles;
+            // circles are immutable so we can share them
+            circlesForRealtimeAD = circles;
             lastUpdateForRealtimeAD = clock.millis();
             LOG.info("Build AD version hash ring successfully");
             String localNodeId = clusterService.localNode().getId();
-            Set<String> modelIds = modelManager.getAllModelIds();
-            for (String modelId : modelIds) {
-                Optional<DiscoveryNode> node = getOwningNodeWithSameLocalAdVersionForRealtimeAD(modelId);
-                if (node.isPresent() && !node.get().getId().equals(localNodeId)) {
+            String[] modelIds = modelManager.getAllModelIds().toArray(new String[0]);
+            RoutingSnapshot realtimeCircle = getRealtimeCircleWithSameLocalAdVersion();
+            DiscoveryNode[] owners = realtimeCircle.route(modelIds);
+            for (int i = 0; i < modelIds.length; i++) {
+                String modelId = modelIds[i];
+                DiscoveryNode node = owners[i];
+                if (node != null && !node.getId().equals(localNodeId)) {
                     LOG.info(REMOVE_MODEL_MSG + " {}", modelId);
                     modelManager
                         .stopModel(
@@ -368,6 +383,8 @@ public class HashRing {
                         );
                 }
             }
+            // send cached HC models remapped to other nodes to their new owners
+            modelHandoff.handoff(realtimeCircle);
             // It's possible that multiple threads add new event to nodeChangeEvents,
             // but this is the only place to consume/poll the event and there is only
             // one thread poll it as we are using adVersionCircleInProgress semaphore(1)
@@ -421,14 +438,11 @@ public class HashRing {
      * @return owning node
      */
     public Optional<DiscoveryNode> getOwningNodeWithHighestAdVersion(String modelId) {
-        int modelHash = Murmur3HashFunction.hash(modelId);
-        Map.Entry<Version, TreeMap<Integer, DiscoveryNode>> versionTreeMapEntry = circles.lastEntry();
-        if (versionTreeMapEntry == null) {
+        Map.Entry<Version, RoutingSnapshot> versionCircleEntry = circles.lastEntry();
+        if (versionCircleEntry == null) {
             return Optional.empty();
         }
-        TreeMap<Integer, DiscoveryNode> adVersionCircle = versionTreeMapEntry.getValue();
-        Map.Entry<Integer, DiscoveryNode> entry = adVersionCircle.higherEntry(modelHash);
-        return Optional.ofNullable(Optional.ofNullable(entry).orElse(adVersionCircle.firstEntry())).map(x -> x.getValue());
+        return Optional.ofNullable(versionCircleEntry.getValue().getOwningNode(modelId));
     }
 
     /**
@@ -465,12 +479,72 @@ public class HashRing {
         }
     }
 
+    /**
+     * Get a routing snapshot of the realtime AD hash ring with the same AD version
+     * as the local node. Used to route many entities without looking up the hash
+     * ring for each of them.
+     * @return the routing snapshot or empty if there is no eligible node
+     */
+    public Optional<RoutingSnapshot> getRoutingSnapshotWithSameLocalAdVersionForRealtimeAD() {
+        try {
+            RoutingSnapshot snapshot = getRealtimeCircleWithSameLocalAdVersion();
+            // rebuild hash ring
+            buildCirclesForRealtimeAD();
+            return snapshot.isEmpty() ? Optional.empty() : Optional.of(snapshot);
+        } catch (Exception e) {
+            LOG.error("Failed to get routing snapshot with same local AD version", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get owning nodes of a batch of models with the same AD version as the local node.
+     * Uses the realtime AD hash ring.
+     * @param modelIds model ids
+     * @return owning nodes in the same order as the model ids. Elements are null if
+     *  there is no eligible node.
+     */
+    public DiscoveryNode[] route(String[] modelIds) {
+        try {
+            DiscoveryNode[] owners = getRealtimeCircleWithSameLocalAdVersion().route(modelIds);
+            // rebuild hash ring
+            buildCirclesForRealtimeAD();
+            return owners;
+        } catch (Exception e) {
+            LOG.error("Failed to route models with same local AD version", e);
+            return new DiscoveryNode[modelIds.length];
+        }
+    }
+
+    /**
+     * Check {@link org.opensearch.ad.settings.AnomalyDetectorSettings#PLACEMENT_CAPACITY_FACTOR}
+     * @return how many times the average load a node may take when HC entities are
+     *  routed. Below 1 means entities are routed by hash only.
+     */
+    public double getPlacementCapacityFactor() {
+        return placementCapacityFactor;
+    }
+
+    /**
+     * Record the placement skew of a page of entities routed by
+     * {@link RoutingSnapshot#route(org.opensearch.ad.model.Entity[], double, Map)}
+     * @param detectorId detector id
+     * @param skew placement skew of the page
+     */
+    public void recordPlacementSkew(String detectorId, double skew) {
+        placementSkew.record(detectorId, skew);
+    }
+
+    private RoutingSnapshot getRealtimeCircleWithSameLocalAdVersion() {
+        DiscoveryNode localNode = clusterService.localNode();
+        Version adVersion = nodeAdVersions.containsKey(localNode.getId()) ? getAdVersion(localNode.getId()) : Version.CURRENT;
+        return circlesForRealtimeAD.getOrDefault(adVersion, RoutingSnapshot.EMPTY);
+    }
+
     private Optional<DiscoveryNode> getOwningNodeWithSameAdVersionDirectly(String modelId, Version adVersion, boolean forRealtime) {
-        int modelHash = Murmur3HashFunction.hash(modelId);
-        TreeMap<Integer, DiscoveryNode> adVersionCircle = forRealtime ? circlesForRealtimeAD.get(adVersion) : circles.get(adVersion);
+        RoutingSnapshot adVersionCircle = forRealtime ? circlesForRealtimeAD.get(adVersion) : circles.get(adVersion);
         if (adVersionCircle != null) {
-            Map.Entry<Integer, DiscoveryNode> entry = adVersionCircle.higherEntry(modelHash);
-            return Optional.ofNullable(Optional.ofNullable(entry).orElse(adVersionCircle.firstEntry())).map(x -> x.getValue());
+            return Optional.ofNullable(adVersionCircle.getOwningNode(modelId));
         }
         return Optional.empty();
     }
@@ -498,20 +572,11 @@ public class HashRing {
     }
 
     protected Set<DiscoveryNode> getNodesWithSameAdVersion(Version adVersion, boolean forRealtime) {
-        TreeMap<Integer, DiscoveryNode> circle = forRealtime ? circlesForRealtimeAD.get(adVersion) : circles.get(adVersion);
-        Set<String> nodeIds = new HashSet<>();
-        Set<DiscoveryNode> nodes = new HashSet<>();
+        RoutingSnapshot circle = forRealtime ? circlesForRealtimeAD.get(adVersion) : circles.get(adVersion);
         if (circle == null) {
-            return nodes;
+            return new HashSet<>();
         }
-        circle.entrySet().stream().forEach(e -> {
-            DiscoveryNode discoveryNode = e.getValue();
-            if (!nodeIds.contains(discoveryNode.getId())) {
-                nodeIds.add(discoveryNode.getId());
-                nodes.add(discoveryNode);
-            }
-        });
-        return nodes;
+        return circle.getNodes();
     }
 
     /**
@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAINTENANCE_SLICES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAINTENANCE_SPREAD;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Spreads the hourly maintenance tasks of a node over a window instead of running
+ * them back to back when the hourly cron request arrives.
+ *
+ * The cron request reaches every node at the same time. Running every task at once
+ * on every node (cache expiry and checkpoints, buffer cleanups, task index queries)
+ * shows up as a latency spike in real-time detection at the top of the hour. Here
+ * task i of n starts at i * spread / n, plus a per-node offset below spread / n
+ * derived from the node id so that nodes do not start the same task together. The
+ * offset is stable across hours so that each task still runs about once an hour.
+ *
+ * A task iterating a large data structure is sliced instead: the window is cut
+ * into ticks and each tick runs the next slice of the task, so no tick processes
+ * more than a fraction of the structure.  The slice index is the task's cursor.
+ */
+public class MaintenanceScheduler {
+    private static final Logger LOG = LogManager.getLogger(MaintenanceScheduler.class);
+
+    private final ThreadPool threadPool;
+    private final ClusterService clusterService;
+    // names of tasks scheduled but not started yet
+    private final Set<String> pendingTasks;
+    private volatile TimeValue spread;
+
+    /**
+     * A maintenance task processing a part of its work per tick
+     */
+    @FunctionalInterface
+    public interface SlicedTask {
+        /**
+         * @param slice index of the slice to process in [0, slices)
+         * @param slices number of slices in a round
+         */
+        void run(int slice, int slices);
+    }
+
+    public MaintenanceScheduler(ThreadPool threadPool, ClusterService clusterService, Settings settings) {
+        this.threadPool = threadPool;
+        this.clusterService = clusterService;
+        this.pendingTasks = ConcurrentHashMap.newKeySet();
+        this.spread = MAINTENANCE_SPREAD.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MAINTENANCE_SPREAD, it -> spread = it);
+    }
+
+    /**
+     * Schedule one round of maintenance. A task still pending from the previous
+     * round is not scheduled again.
+     *
+     * @param tasks maintenance tasks by name, in running order
+     */
+    public void schedule(Map<String, Runnable> tasks) {
+        schedule(tasks, Collections.emptyMap());
+    }
+
+    /**
+     * Schedule one round of maintenance. A task still pending from the previous
+     * round is not scheduled again.
+     *
+     * @param tasks maintenance tasks by name, in running order
+     * @param slicedTasks maintenance tasks by name that run one slice per tick
+     */
+    public void schedule(Map<String, Runnable> tasks, Map<String, SlicedTask> slicedTasks) {
+        long tickMillis = spread.getMillis() / MAINTENANCE_SLICES;
+        long tickOffset = tickMillis <= 0 ? 0 : getNodeOffset(clusterService.localNode().getId(), tickMillis);
+        for (Map.Entry<String, SlicedTask> task : slicedTasks.entrySet()) {
+            String name = task.getKey();
+            if (false == pendingTasks.add(name)) {
+                LOG.info("Skip maintenance task {} as the previous round has not finished", name);
+                continue;
+            }
+            scheduleSlice(name, task.getValue(), 0, tickMillis, tickOffset);
+        }
+
+        long slotMillis = tasks.isEmpty() ? 0 : spread.getMillis() / tasks.size();
+        if (slotMillis <= 0) {
+            tasks.forEach(this::run);
+            return;
+        }
+
+        long nodeOffset = getNodeOffset(clusterService.localNode().getId(), slotMillis);
+        int index = 0;
+        for (Map.Entry<String, Runnable> task : tasks.entrySet()) {
+            String name = task.getKey();
+            long delayMillis = index++ * slotMillis + nodeOffset;
+            if (false == pendingTasks.add(name)) {
+                LOG.info("Skip maintenance task {} as the previous one has not started", name);
+                continue;
+            }
+            try {
+                threadPool.schedule(() -> {
+                    pendingTasks.remove(name);
+                    run(name, task.getValue());
+                }, TimeValue.timeValueMillis(delayMillis), ThreadPool.Names.MANAGEMENT);
+            } catch (Exception e) {
+                pendingTasks.remove(name);
+                LOG.error(new ParameterizedMessage("Fail to schedule maintenance task [{}]", name), e);
+            }
+        }
+    }
+
+    /**
+     * Run a slice after a delay, then schedule the next slice a tick later.  The
+     * task stays pending until its last slice has run.
+     */
+    private void scheduleSlice(String name, SlicedTask task, int slice, long tickMillis, long delayMillis) {
+        if (slice >= MAINTENANCE_SLICES) {
+            pendingTasks.remove(name);
+            return;
+        }
+        Runnable runSlice = () -> {
+            run(name, () -> task.run(slice, MAINTENANCE_SLICES));
+            scheduleSlice(name, task, slice + 1, tickMillis, tickMillis);
+        };
+        if (tickMillis <= 0) {
+            runSlice.run();
+            return;
+        }
+        try {
+            threadPool.schedule(runSlice, TimeValue.timeValueMillis(delayMillis), ThreadPool.Names.MANAGEMENT);
+        } catch (Exception e) {
+            pendingTasks.remove(name);
+            LOG.error(new ParameterizedMessage("Fail to schedule slice {} of maintenance task [{}]", slice, name), e);
+        }
+    }
+
+    /**
+     * @param nodeId local node id
+     * @param slotMillis time between two tasks
+     * @return offset of the node's tasks in [0, slotMillis)
+     */
+    static long getNodeOffset(String nodeId, long slotMillis) {
+        return Math.floorMod((long) nodeId.hashCode(), slotMillis);
+    }
+
+    int getPendingTasks() {
+        return pendingTasks.size();
+    }
+
+    private void run(String name, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOG.error(new ParameterizedMessage("Fail to run maintenance task [{}]", name), e);
+        }
+    }
+}
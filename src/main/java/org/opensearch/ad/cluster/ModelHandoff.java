@@ -0,0 +1,290 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import static org.opensearch.ad.AnomalyDetectorPlugin.AD_THREAD_POOL_NAME;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.OffHeapModelStore;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.transport.HandoffModel;
+import org.opensearch.ad.transport.ModelHandoffAction;
+import org.opensearch.ad.transport.ModelHandoffNodeResponse;
+import org.opensearch.ad.transport.ModelHandoffRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Sends cached entity models to their new owner when the realtime hash ring changes.
+ *
+ * Without hand-off, a node joining the ring (e.g., a restarted node during a rolling
+ * restart) reads the checkpoint of every entity remapped to it, and the previous
+ * owners keep the in-memory models until they expire.  Here the previous owner sends
+ * the binary checkpoints of remapped models to the new owner, which keeps them off
+ * heap until the entities' next requests restore them.  Requests are at most
+ * {@link #MAX_REQUEST_BYTES} and sent one at a time, paced by
+ * {@link org.opensearch.ad.settings.AnomalyDetectorSettings#MODEL_HANDOFF_BYTES_PER_SEC}.
+ * A node that fails a request or keeps none of the models is skipped for the rest of
+ * the hand-off, and a node without an off-heap tier does not send, assuming its peers
+ * have none either.  Models not handed off are read from the checkpoint index as before.
+ *
+ * Handed-off copies are restored without reading the checkpoint index, so each must be
+ * the latest state of its model:
+ * <ul>
+ * <li>only models of entities the sender owned under its previous ring are sent;</li>
+ * <li>a request carries the version of the sender's new ring, and the new owner only
+ * keeps the models if it has built the same ring, i.e., it owns the entities now;</li>
+ * <li>the new owner does not replace a copy with a newer last checkpoint time;</li>
+ * <li>on each ring change, every node drops the off-heap copies of entities now owned
+ * by other nodes.</li>
+ * </ul>
+ * A node that has not built the new ring yet keeps none of the models and is skipped.
+ */
+public class ModelHandoff {
+    private static final Logger LOG = LogManager.getLogger(ModelHandoff.class);
+
+    // max bytes of binary checkpoints in one request
+    static final long MAX_REQUEST_BYTES = 1024 * 1024;
+
+    private final Client client;
+    private final CacheProvider cacheProvider;
+    private final CheckpointDao checkpointDao;
+    private final ThreadPool threadPool;
+    private final ClusterService clusterService;
+    private final OffHeapModelStore offHeapModelStore;
+    private volatile long bytesPerSec;
+    // models to send by new owner. Guarded by this.
+    private final Map<DiscoveryNode, Deque<ModelState<EntityModel>>> pending;
+    // version of the ring pending models are routed with. Guarded by this.
+    private int pendingRingVersion;
+    // whether a request is in flight or scheduled. Guarded by this.
+    private boolean sending;
+    // the ring of the last hand-off. Only the hash ring rebuild, which runs one at a time, uses it.
+    private volatile RoutingSnapshot lastRouting;
+
+    public ModelHandoff(
+        Client client,
+        CacheProvider cacheProvider,
+        CheckpointDao checkpointDao,
+        ThreadPool threadPool,
+        ClusterService clusterService,
+        OffHeapModelStore offHeapModelStore,
+        Settings settings
+    ) {
+        this.client = client;
+        this.cacheProvider = cacheProvider;
+        this.checkpointDao = checkpointDao;
+        this.threadPool = threadPool;
+        this.clusterService = clusterService;
+        this.offHeapModelStore = offHeapModelStore;
+        this.bytesPerSec = MODEL_HANDOFF_BYTES_PER_SEC.get(settings).getBytes();
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MODEL_HANDOFF_BYTES_PER_SEC, it -> bytesPerSec = it.getBytes());
+        this.pending = new LinkedHashMap<>();
+        this.sending = false;
+    }
+
+    /**
+     * Hand off cached entity models the routing snapshot maps to other nodes.  Models
+     * still waiting from a previous hand-off are replaced.  Off-heap copies of entities
+     * mapped to other nodes are dropped whether or not hand-off is enabled.
+     *
+     * @param routing the new realtime hash ring of the local AD version
+     */
+    @SuppressWarnings("unchecked")
+    public void handoff(RoutingSnapshot routing) {
+        if (routing.isEmpty()) {
+            return;
+        }
+        RoutingSnapshot previous = lastRouting;
+        lastRouting = routing;
+        String localNodeId = clusterService.localNode().getId();
+        int dropped = offHeapModelStore.retainOwned(entity -> isLocal(routing.getOwningNode(entity), localNodeId), routing.getVersion());
+        if (dropped > 0) {
+            LOG.info("Dropped {} off-heap models remapped to other nodes", dropped);
+        }
+        if (bytesPerSec <= 0 || false == offHeapModelStore.isEnabled() || previous == null) {
+            return;
+        }
+        Map<DiscoveryNode, Deque<ModelState<EntityModel>>> remapped = new LinkedHashMap<>();
+        int count = 0;
+        for (ModelState<?> state : cacheProvider.get().getAllModels()) {
+            Object model = state.getModel();
+            if (false == (model instanceof EntityModel)) {
+                continue;
+            }
+            Optional<Entity> entity = ((EntityModel) model).getEntity();
+            if (false == entity.isPresent()) {
+                continue;
+            }
+            DiscoveryNode owner = routing.getOwningNode(entity.get());
+            // a model cached before the local node owned the entity may be stale
+            if (owner == null || isLocal(owner, localNodeId) || false == isLocal(previous.getOwningNode(entity.get()), localNodeId)) {
+                continue;
+            }
+            remapped.computeIfAbsent(owner, k -> new ArrayDeque<>()).add((ModelState<EntityModel>) state);
+            count++;
+        }
+
+        synchronized (this) {
+            pending.clear();
+            pending.putAll(remapped);
+            pendingRingVersion = routing.getVersion();
+            if (remapped.isEmpty() || sending) {
+                return;
+            }
+            sending = true;
+        }
+        LOG.info("Hand off {} models to {} nodes", count, remapped.size());
+        schedule(TimeValue.ZERO);
+    }
+
+    private static boolean isLocal(DiscoveryNode owner, String localNodeId) {
+        return owner != null && localNodeId.equals(owner.getId());
+    }
+
+    private void sendNext() {
+        DiscoveryNode node = null;
+        int ringVersion = 0;
+        List<HandoffModel> models = new ArrayList<>();
+        long bytes = 0;
+        while (models.isEmpty()) {
+            node = nextNode();
+            if (node == null) {
+                return;
+            }
+            ringVersion = getPendingRingVersion();
+            // serialize without holding the lock so that a new hand-off does not wait for it
+            ModelState<EntityModel> state = poll(node);
+            while (state != null) {
+                Optional<HandoffModel> model = toHandoffModel(state);
+                if (model.isPresent()) {
+                    models.add(model.get());
+                    bytes += model.get().getCheckpoint().length;
+                }
+                state = bytes < MAX_REQUEST_BYTES ? poll(node) : null;
+            }
+        }
+
+        DiscoveryNode target = node;
+        long sentBytes = bytes;
+        ModelHandoffRequest request = new ModelHandoffRequest(models, ringVersion, target);
+        client.execute(ModelHandoffAction.INSTANCE, request, ActionListener.wrap(response -> {
+            int accepted = response.getNodes().stream().mapToInt(ModelHandoffNodeResponse::getAccepted).sum();
+            if (response.hasFailures() || accepted == 0) {
+                // e.g., the off-heap tier of the node is disabled or the node has not built the same ring
+                LOG.info("Stop handing off models to {} after {} of {} are kept", target.getId(), accepted, models.size());
+                skip(target);
+            }
+            scheduleNext(sentBytes);
+        }, e -> {
+            LOG.warn("Fail to hand off models to " + target.getId(), e);
+            skip(target);
+            scheduleNext(sentBytes);
+        }));
+    }
+
+    /**
+     * @return the node to send models to next; or null if no model is left, which ends the hand-off
+     */
+    private synchronized DiscoveryNode nextNode() {
+        Iterator<DiscoveryNode> nodes = pending.keySet().iterator();
+        if (false == nodes.hasNext()) {
+            sending = false;
+            return null;
+        }
+        return nodes.next();
+    }
+
+    /**
+     * @param node the new owner of models
+     * @return the next model to send to the node; or null if no model is left for the node
+     */
+    private synchronized ModelState<EntityModel> poll(DiscoveryNode node) {
+        Deque<ModelState<EntityModel>> states = pending.get(node);
+        if (states == null) {
+            return null;
+        }
+        ModelState<EntityModel> state = states.poll();
+        if (states.isEmpty()) {
+            pending.remove(node);
+        }
+        return state;
+    }
+
+    private Optional<HandoffModel> toHandoffModel(ModelState<EntityModel> state) {
+        EntityModel model = state.getModel();
+        if (model == null) {
+            return Optional.empty();
+        }
+        Entity entity = model.getEntity().orElse(null);
+        return checkpointDao
+            .toBinaryCheckpoint(state)
+            .map(bytes -> new HandoffModel(state.getModelId(), state.getDetectorId(), entity, bytes, state.getLastCheckpointTime()));
+    }
+
+    private synchronized int getPendingRingVersion() {
+        return pendingRingVersion;
+    }
+
+    private synchronized void skip(DiscoveryNode node) {
+        pending.remove(node);
+    }
+
+    // wait long enough for the sent bytes to keep the rate
+    private void scheduleNext(long sentBytes) {
+        long rate = bytesPerSec;
+        if (rate <= 0) {
+            synchronized (this) {
+                pending.clear();
+                sending = false;
+            }
+            return;
+        }
+        schedule(TimeValue.timeValueMillis(sentBytes * 1000 / rate));
+    }
+
+    private void schedule(TimeValue delay) {
+        try {
+            threadPool.schedule(this::sendNext, delay, AD_THREAD_POOL_NAME);
+        } catch (Exception e) {
+            LOG.error("Fail to schedule model hand-off", e);
+            synchronized (this) {
+                pending.clear();
+                sending = false;
+            }
+        }
+    }
+
+    synchronized int getPendingModels() {
+        return pending.values().stream().mapToInt(Deque::size).sum();
+    }
+}
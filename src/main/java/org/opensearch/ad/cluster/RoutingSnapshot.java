@@ -0,0 +1,308 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.opensearch.ad.model.Entity;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.routing.Murmur3HashFunction;
+
+/**
+ * An immutable hash ring circle. Ring hashes are kept in a sorted int array
+ * and their nodes in a parallel array so that a lookup is a binary search over
+ * primitives instead of a boxed TreeMap lookup.
+ *
+ * A key belongs to the node of the first ring hash strictly greater than the
+ * key, wrapping around to the first ring hash.
+ *
+ * Membership changes create a new circle via {@link #addNode(DiscoveryNode, int)}
+ * and {@link #removeNode(String)}, so readers never need a lock.
+ *
+ * Entities can also be routed with bounded loads via
+ * {@link #route(Entity[], double, Map)}: no node gets more than a capacity
+ * factor times the average number of models placed so far.
+ */
+public class RoutingSnapshot {
+    static final RoutingSnapshot EMPTY = new RoutingSnapshot(new int[0], new DiscoveryNode[0]);
+
+    // sorted in ascending order
+    private final int[] hashes;
+    // nodes[i] owns hashes[i]
+    private final DiscoveryNode[] nodes;
+    // distinct nodes of the circle
+    private final DiscoveryNode[] distinctNodes;
+    // distinctNodes[nodeIndexes[i]] owns hashes[i]
+    private final int[] nodeIndexes;
+    // fingerprint of the node ids
+    private final int version;
+
+    private RoutingSnapshot(int[] hashes, DiscoveryNode[] nodes) {
+        this.hashes = hashes;
+        this.nodes = nodes;
+
+        Map<String, Integer> nodeIndexById = new HashMap<>();
+        DiscoveryNode[] distinct = new DiscoveryNode[nodes.length];
+        this.nodeIndexes = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            Integer index = nodeIndexById.get(nodes[i].getId());
+            if (index == null) {
+                index = nodeIndexById.size();
+                nodeIndexById.put(nodes[i].getId(), index);
+                distinct[index] = nodes[i];
+            }
+            nodeIndexes[i] = index;
+        }
+        this.distinctNodes = Arrays.copyOf(distinct, nodeIndexById.size());
+        String[] nodeIds = nodeIndexById.keySet().toArray(new String[0]);
+        Arrays.sort(nodeIds);
+        this.version = Murmur3HashFunction.hash(String.join(",", nodeIds));
+    }
+
+    /**
+     * Copy a circle
+     * @param circle ring hash to node
+     */
+    public RoutingSnapshot(SortedMap<Integer, DiscoveryNode> circle) {
+        this(circle.keySet().stream().mapToInt(Integer::intValue).toArray(), circle.values().toArray(new DiscoveryNode[0]));
+    }
+
+    /**
+     * Get the node owning a hash ring key
+     * @param key hash ring key
+     * @return owning node or null if the circle is empty
+     */
+    public DiscoveryNode getOwningNode(int key) {
+        if (hashes.length == 0) {
+            return null;
+        }
+        return nodes[indexOf(key)];
+    }
+
+    // index of the ring hash owning a key. The circle must not be empty.
+    private int indexOf(int key) {
+        int index = Arrays.binarySearch(hashes, key);
+        // on a hit we want the next hash; on a miss binarySearch returns (-(insertion point) - 1)
+        index = index >= 0 ? index + 1 : -index - 1;
+        return index == hashes.length ? 0 : index;
+    }
+
+    /**
+     * Get the node owning a model
+     * @param modelId model id
+     * @return owning node or null if the circle is empty
+     */
+    public DiscoveryNode getOwningNode(String modelId) {
+        return getOwningNode(Murmur3HashFunction.hash(modelId));
+    }
+
+    /**
+     * Get the nodes owning a batch of models
+     * @param modelIds model ids
+     * @return owning nodes in the same order as the model ids. Elements are null if the circle is empty.
+     */
+    public DiscoveryNode[] route(String[] modelIds) {
+        DiscoveryNode[] owners = new DiscoveryNode[modelIds.length];
+        if (hashes.length == 0) {
+            return owners;
+        }
+        for (int i = 0; i < modelIds.length; i++) {
+            owners[i] = getOwningNode(Murmur3HashFunction.hash(modelIds[i]));
+        }
+        return owners;
+    }
+
+    /**
+     * Get the node owning an entity
+     * @param entity entity
+     * @return owning node or null if the circle is empty
+     */
+    public DiscoveryNode getOwningNode(Entity entity) {
+        return getOwningNode(entity.getRoutingHash());
+    }
+
+    /**
+     * Get the nodes owning a batch of entities with bounded loads.
+     *
+     * This is consistent hashing with bounded loads: an entity goes to its owning
+     * node on the circle unless the node already has ceil(capacityFactor * m / n)
+     * models, where m is the number of models placed so far including this one and
+     * n the number of nodes. A full node passes the entity to the node of the next
+     * ring hash clockwise that is not full. Entities of a batch are placed in the
+     * order of their routing hashes so that the same batch always gets the same
+     * placement.
+     *
+     * @param entities entities to route
+     * @param capacityFactor how many times the average load a node may take, e.g.,
+     *  1.25. Below 1 routes by hash only.
+     * @param loads node id to the number of models placed so far. Callers keep it
+     *  across the batches of a detector's run so that the bound covers the whole
+     *  run. Updated with the placement of this batch.
+     * @return owning nodes in the same order as the entities. Elements are null if the circle is empty.
+     */
+    public DiscoveryNode[] route(Entity[] entities, double capacityFactor, Map<String, Integer> loads) {
+        DiscoveryNode[] owners = new DiscoveryNode[entities.length];
+        if (hashes.length == 0) {
+            return owners;
+        }
+        if (capacityFactor < 1) {
+            for (int i = 0; i < entities.length; i++) {
+                owners[i] = getOwningNode(entities[i]);
+                loads.merge(owners[i].getId(), 1, Integer::sum);
+            }
+            return owners;
+        }
+
+        int[] nodeLoads = new int[distinctNodes.length];
+        long placed = 0;
+        for (int j = 0; j < distinctNodes.length; j++) {
+            nodeLoads[j] = loads.getOrDefault(distinctNodes[j].getId(), 0);
+            placed += nodeLoads[j];
+        }
+
+        // routing hash in the high bits and entity index in the low bits
+        long[] order = new long[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            order[i] = ((long) entities[i].getRoutingHash() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        for (long key : order) {
+            placed++;
+            long capacity = (long) Math.ceil(capacityFactor * placed / distinctNodes.length);
+            int start = indexOf((int) (key >> 32));
+            int chosen = nodeIndexes[start];
+            for (int step = 0; step < hashes.length; step++) {
+                int candidate = nodeIndexes[(start + step) % hashes.length];
+                if (nodeLoads[candidate] < capacity) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+            nodeLoads[chosen]++;
+            owners[(int) key] = distinctNodes[chosen];
+        }
+        for (int j = 0; j < distinctNodes.length; j++) {
+            loads.put(distinctNodes[j].getId(), nodeLoads[j]);
+        }
+        return owners;
+    }
+
+    /**
+     * Get the placement skew of a batch routed with this circle
+     * @param owners owning nodes of the batch
+     * @return the highest ratio of a node's entity count to the average count
+     *  per node, e.g., 2 if a node got twice the average. 0 if the batch is empty.
+     */
+    public double getSkew(DiscoveryNode[] owners) {
+        Map<String, Integer> loads = new HashMap<>();
+        int total = 0;
+        for (DiscoveryNode owner : owners) {
+            if (owner != null) {
+                loads.merge(owner.getId(), 1, Integer::sum);
+                total++;
+            }
+        }
+        double skew = 0;
+        if (total == 0) {
+            return skew;
+        }
+        double average = (double) total / distinctNodes.length;
+        for (int load : loads.values()) {
+            skew = Math.max(skew, load / average);
+        }
+        return skew;
+    }
+
+    /**
+     * Create a circle with a node's virtual nodes added
+     * @param node node to add
+     * @param virtualNodeCount number of virtual nodes of the node
+     * @return a new circle
+     */
+    public RoutingSnapshot addNode(DiscoveryNode node, int virtualNodeCount) {
+        TreeMap<Integer, DiscoveryNode> circle = toSortedMap();
+        for (int i = 0; i < virtualNodeCount; i++) {
+            circle.put(Murmur3HashFunction.hash(node.getId() + i), node);
+        }
+        return new RoutingSnapshot(circle);
+    }
+
+    /**
+     * Create a circle without a node's virtual nodes
+     * @param nodeId id of the node to remove
+     * @return a new circle
+     */
+    public RoutingSnapshot removeNode(String nodeId) {
+        int remaining = 0;
+        for (DiscoveryNode node : nodes) {
+            if (!node.getId().equals(nodeId)) {
+                remaining++;
+            }
+        }
+        int[] newHashes = new int[remaining];
+        DiscoveryNode[] newNodes = new DiscoveryNode[remaining];
+        int j = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (!nodes[i].getId().equals(nodeId)) {
+                newHashes[j] = hashes[i];
+                newNodes[j] = nodes[i];
+                j++;
+            }
+        }
+        return new RoutingSnapshot(newHashes, newNodes);
+    }
+
+    /**
+     * @return distinct nodes in the circle
+     */
+    public Set<DiscoveryNode> getNodes() {
+        return new HashSet<>(Arrays.asList(distinctNodes));
+    }
+
+    /**
+     * Nodes build circles of the same nodes independently and in different orders.
+     * The version tells whether two of them route keys the same way.
+     * @return a fingerprint of the nodes in the circle
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of ring hashes
+     */
+    public int size() {
+        return hashes.length;
+    }
+
+    /**
+     * @return whether the circle has no ring hash
+     */
+    public boolean isEmpty() {
+        return hashes.length == 0;
+    }
+
+    private TreeMap<Integer, DiscoveryNode> toSortedMap() {
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            circle.put(hashes[i], nodes[i]);
+        }
+        return circle;
+    }
+}
@@ -87,6 +87,8 @@ public class ADCommonName {
     public static final String DATE_HISTOGRAM = "date_histogram";
     // feature aggregation name
     public static final String FEATURE_AGGS = "feature_aggs";
+    // entity aggregation name
+    public static final String ENTITY_AGGS = "entity_aggs";
 
     // ======================================
     // Used in stats API
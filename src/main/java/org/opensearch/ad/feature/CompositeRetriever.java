@@ -30,20 +30,18 @@ import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.IndicesOptions;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.Entity;
-import org.opensearch.ad.model.Feature;
-import org.opensearch.ad.util.ParseUtils;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
-import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.RangeQueryBuilder;
 import org.opensearch.search.aggregations.Aggregation;
+import org.opensearch.search.aggregations.AggregationBuilder;
 import org.opensearch.search.aggregations.AggregationBuilders;
-import org.opensearch.search.aggregations.AggregatorFactories;
 import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
 import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation.Bucket;
 import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
@@ -66,7 +64,7 @@ public class CompositeRetriever extends AbstractRetriever {
     private final long dataStartEpoch;
     private final long dataEndEpoch;
     private final AnomalyDetector anomalyDetector;
-    private final NamedXContentRegistry xContent;
+    private final FeatureQueryCache featureQueryCache;
     private final Client client;
     private final SecurityClientUtil clientUtil;
     private int totalResults;
@@ -82,7 +80,7 @@ public class CompositeRetriever extends AbstractRetriever {
         long dataStartEpoch,
         long dataEndEpoch,
         AnomalyDetector anomalyDetector,
-        NamedXContentRegistry xContent,
+        FeatureQueryCache featureQueryCache,
         Client client,
         SecurityClientUtil clientUtil,
         long expirationEpochMs,
@@ -96,7 +94,7 @@ public class CompositeRetriever extends AbstractRetriever {
         this.dataStartEpoch = dataStartEpoch;
         this.dataEndEpoch = dataEndEpoch;
         this.anomalyDetector = anomalyDetector;
-        this.xContent = xContent;
+        this.featureQueryCache = featureQueryCache;
         this.client = client;
         this.clientUtil = clientUtil;
         this.totalResults = 0;
@@ -113,7 +111,7 @@ public class CompositeRetriever extends AbstractRetriever {
         long dataStartEpoch,
         long dataEndEpoch,
         AnomalyDetector anomalyDetector,
-        NamedXContentRegistry xContent,
+        FeatureQueryCache featureQueryCache,
         Client client,
         SecurityClientUtil clientUtil,
         long expirationEpochMs,
@@ -127,7 +125,7 @@ public class CompositeRetriever extends AbstractRetriever {
             dataStartEpoch,
             dataEndEpoch,
             anomalyDetector,
-            xContent,
+            featureQueryCache,
             client,
             clientUtil,
             expirationEpochMs,
@@ -160,10 +158,8 @@ public class CompositeRetriever extends AbstractRetriever {
                 anomalyDetector.getCategoryField().stream().map(f -> new TermsValuesSourceBuilder(f).field(f)).collect(Collectors.toList())
             )
             .size(pageSize);
-        for (Feature feature : anomalyDetector.getFeatureAttributes()) {
-            AggregatorFactories.Builder internalAgg = ParseUtils
-                .parseAggregators(feature.getAggregation().toString(), xContent, feature.getId());
-            composite.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
+        for (AggregationBuilder featureAgg : featureQueryCache.getFeatureAggregations(anomalyDetector)) {
+            composite.subAggregation(featureAgg);
         }
 
         // In order to optimize the early termination it is advised to set track_total_hits in the request to false.
@@ -46,12 +46,12 @@ import org.opensearch.ad.dataprocessor.Interpolator;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
-import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.RangeQueryBuilder;
@@ -85,7 +85,7 @@ public class SearchFeatureDao extends AbstractRetriever {
 
     // Dependencies
     private final Client client;
-    private final NamedXContentRegistry xContent;
+    private final FeatureQueryCache featureQueryCache;
     private final Interpolator interpolator;
     private final SecurityClientUtil clientUtil;
     private volatile int maxEntitiesForPreview;
@@ -97,7 +97,7 @@ public class SearchFeatureDao extends AbstractRetriever {
     // used for testing as we can mock clock
     public SearchFeatureDao(
         Client client,
-        NamedXContentRegistry xContent,
+        FeatureQueryCache featureQueryCache,
         Interpolator interpolator,
         SecurityClientUtil clientUtil,
         Settings settings,
@@ -109,7 +109,7 @@ public class SearchFeatureDao extends AbstractRetriever {
         long previewTimeoutInMilliseconds
     ) {
         this.client = client;
-        this.xContent = xContent;
+        this.featureQueryCache = featureQueryCache;
         this.interpolator = interpolator;
         this.clientUtil = clientUtil;
         this.maxEntitiesForPreview = maxEntitiesForPreview;
@@ -129,7 +129,7 @@ public class SearchFeatureDao extends AbstractRetriever {
      * Constructor injection.
      *
      * @param client ES client for queries
-     * @param xContent ES XContentRegistry
+     * @param featureQueryCache cache of parsed feature aggregations
      * @param interpolator interpolator for missing values
      * @param clientUtil utility for ES client
      * @param settings ES settings
@@ -139,7 +139,7 @@ public class SearchFeatureDao extends AbstractRetriever {
      */
     public SearchFeatureDao(
         Client client,
-        NamedXContentRegistry xContent,
+        FeatureQueryCache featureQueryCache,
         Interpolator interpolator,
         SecurityClientUtil clientUtil,
         Settings settings,
@@ -148,7 +148,7 @@ public class SearchFeatureDao extends AbstractRetriever {
     ) {
         this(
             client,
-            xContent,
+            featureQueryCache,
             interpolator,
             clientUtil,
             settings,
@@ -501,6 +501,65 @@ public class SearchFeatureDao extends AbstractRetriever {
             );
     }
 
+    /**
+     * Get the earliest timestamps of multiple entities of a detector in one search.
+     * The search buckets documents of the entities by a composite aggregation over
+     * the category fields and takes the min timestamp per bucket.
+     *
+     * @param detector detector config
+     * @param entities the entities' information
+     * @param listener listener to return back the earliest timestamp of each entity.
+     *  Entities without any document are absent from the map.
+     */
+    public void getEntityMinDataTimes(AnomalyDetector detector, List<Entity> entities, ActionListener<Map<Entity, Long>> listener) {
+        if (entities.isEmpty()) {
+            listener.onResponse(Collections.emptyMap());
+            return;
+        }
+
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+            .query(ParseUtils.entitiesQuery(entities))
+            .aggregation(
+                ParseUtils
+                    .entityCompositeAggregation(detector, entities.size())
+                    .subAggregation(AggregationBuilders.min(AGG_NAME_MIN).field(detector.getTimeField()))
+            )
+            .trackTotalHits(false)
+            .size(0);
+        SearchRequest searchRequest = new SearchRequest().indices(detector.getIndices().toArray(new String[0])).source(searchSourceBuilder);
+        final ActionListener<SearchResponse> searchResponseListener = ActionListener.wrap(response -> {
+            Map<Entity, Long> minDataTimes = new HashMap<>();
+            for (CompositeAggregation.Bucket bucket : getEntityBuckets(response)) {
+                Min min = bucket.getAggregations().get(AGG_NAME_MIN);
+                if (min != null && Double.isFinite(min.getValue())) {
+                    minDataTimes.put(Entity.createEntityByReordering(bucket.getKey()), (long) min.getValue());
+                }
+            }
+            listener.onResponse(minDataTimes);
+        }, listener::onFailure);
+        // inject user role while searching.
+        clientUtil
+            .<SearchRequest, SearchResponse>asyncRequestWithInjectedSecurity(
+                searchRequest,
+                client::search,
+                detector.getDetectorId(),
+                client,
+                searchResponseListener
+            );
+    }
+
+    private List<? extends CompositeAggregation.Bucket> getEntityBuckets(SearchResponse response) {
+        Aggregations aggs = response.getAggregations();
+        if (aggs == null) {
+            return Collections.emptyList();
+        }
+        CompositeAggregation entityAgg = aggs.get(ADCommonName.ENTITY_AGGS);
+        if (entityAgg == null) {
+            return Collections.emptyList();
+        }
+        return entityAgg.getBuckets();
+    }
+
     private Optional<Long> parseMinDataTime(SearchResponse searchResponse) {
         Optional<Map<String, Aggregation>> mapOptional = Optional
             .ofNullable(searchResponse)
@@ -541,7 +600,7 @@ public class SearchFeatureDao extends AbstractRetriever {
         long endTime,
         ActionListener<Map<Long, Optional<double[]>>> listener
     ) throws IOException {
-        SearchSourceBuilder searchSourceBuilder = batchFeatureQuery(detector, entity, startTime, endTime, xContent);
+        SearchSourceBuilder searchSourceBuilder = batchFeatureQuery(detector, entity, startTime, endTime, featureQueryCache);
         logger.debug("Batch query for detector {}: {} ", detector.getDetectorId(), searchSourceBuilder);
 
         SearchRequest searchRequest = new SearchRequest(detector.getIndices().toArray(new String[0])).source(searchSourceBuilder);
@@ -561,6 +620,84 @@ public class SearchFeatureDao extends AbstractRetriever {
             );
     }
 
+    /**
+     * Get feature data of multiple entities of an HC detector in a time range with one
+     * scan of the source index.  Pages through a composite aggregation over the category
+     * fields and the detection interval.
+     *
+     * @param detector detector config
+     * @param entities entities to fetch feature data for
+     * @param startTime start time of the range, inclusive
+     * @param endTime end time of the range, exclusive
+     * @param listener listener to return back the data points of each entity keyed by
+     *  interval start time.  Entities without any document in the range are absent from the map.
+     */
+    public void getFeaturesForPeriodByBatch(
+        AnomalyDetector detector,
+        List<Entity> entities,
+        long startTime,
+        long endTime,
+        ActionListener<Map<Entity, Map<Long, Optional<double[]>>>> listener
+    ) {
+        if (entities.isEmpty()) {
+            listener.onResponse(Collections.emptyMap());
+            return;
+        }
+        getFeaturesForPeriodByBatch(detector, entities, startTime, endTime, null, new HashMap<>(), listener);
+    }
+
+    private void getFeaturesForPeriodByBatch(
+        AnomalyDetector detector,
+        List<Entity> entities,
+        long startTime,
+        long endTime,
+        Map<String, Object> afterKey,
+        Map<Entity, Map<Long, Optional<double[]>>> dataPoints,
+        ActionListener<Map<Entity, Map<Long, Optional<double[]>>>> listener
+    ) {
+        SearchRequest searchRequest = null;
+        try {
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .batchEntitiesFeatureQuery(detector, entities, startTime, endTime, afterKey, featureQueryCache);
+            logger.debug("Batch query of {} entities for detector {}: {} ", entities.size(), detector.getDetectorId(), searchSourceBuilder);
+            searchRequest = new SearchRequest(detector.getIndices().toArray(new String[0])).source(searchSourceBuilder);
+        } catch (IOException e) {
+            logger.warn("Failed to create batch feature search request for " + detector.getDetectorId(), e);
+            listener.onFailure(new IllegalStateException(e));
+            return;
+        }
+
+        final ActionListener<SearchResponse> searchResponseListener = ActionListener.wrap(response -> {
+            Aggregations aggs = response.getAggregations();
+            CompositeAggregation featureAgg = aggs == null ? null : aggs.get(ADCommonName.FEATURE_AGGS);
+            if (featureAgg == null || featureAgg.getBuckets().isEmpty()) {
+                listener.onResponse(dataPoints);
+                return;
+            }
+            for (CompositeAggregation.Bucket bucket : featureAgg.getBuckets()) {
+                Map<String, Object> entityKey = new HashMap<>(bucket.getKey());
+                Long time = (Long) entityKey.remove(DATE_HISTOGRAM);
+                dataPoints
+                    .computeIfAbsent(Entity.createEntityByReordering(entityKey), k -> new HashMap<>())
+                    .put(time, parseBucket(bucket, detector.getEnabledFeatureIds()));
+            }
+            if (featureAgg.afterKey() == null) {
+                listener.onResponse(dataPoints);
+                return;
+            }
+            getFeaturesForPeriodByBatch(detector, entities, startTime, endTime, featureAgg.afterKey(), dataPoints, listener);
+        }, listener::onFailure);
+        // inject user role while searching.
+        clientUtil
+            .<SearchRequest, SearchResponse>asyncRequestWithInjectedSecurity(
+                searchRequest,
+                client::search,
+                detector.getDetectorId(),
+                client,
+                searchResponseListener
+            );
+    }
+
     private Map<Long, Optional<double[]>> parseBucketAggregationResponse(SearchResponse response, List<String> featureIds) {
         Map<Long, Optional<double[]>> dataPoints = new HashMap<>();
         List<Aggregation> aggregations = response.getAggregations().asList();
@@ -835,7 +972,8 @@ public class SearchFeatureDao extends AbstractRetriever {
     private SearchRequest createFeatureSearchRequest(AnomalyDetector detector, long startTime, long endTime, Optional<String> preference) {
         // TODO: FeatureQuery field is planned to be removed and search request creation will migrate to new api.
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generateInternalFeatureQuery(detector, startTime, endTime, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generateInternalFeatureQuery(detector, startTime, endTime, featureQueryCache);
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder).preference(preference.orElse(null));
         } catch (IOException e) {
             logger
@@ -849,7 +987,7 @@ public class SearchFeatureDao extends AbstractRetriever {
 
     private SearchRequest createPreviewSearchRequest(AnomalyDetector detector, List<Entry<Long, Long>> ranges) throws IOException {
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generatePreviewQuery(detector, ranges, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils.generatePreviewQuery(detector, ranges, featureQueryCache);
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
         } catch (IOException e) {
             logger.warn("Failed to create feature search request for " + detector.getDetectorId() + " for preview", e);
@@ -872,31 +1010,66 @@ public class SearchFeatureDao extends AbstractRetriever {
                 return;
             }
 
-            long docCountThreshold = includesEmptyBucket ? -1 : 0;
-
-            // Extract buckets and order by from_as_string. Currently by default it is ascending. Better not to assume it.
-            // Example responses from date range bucket aggregation:
-            // "aggregations":{"date_range":{"buckets":[{"key":"1598865166000-1598865226000","from":1.598865166E12,"
-            // from_as_string":"1598865166000","to":1.598865226E12,"to_as_string":"1598865226000","doc_count":3,
-            // "deny_max":{"value":154.0}},{"key":"1598869006000-1598869066000","from":1.598869006E12,
-            // "from_as_string":"1598869006000","to":1.598869066E12,"to_as_string":"1598869066000","doc_count":3,
-            // "deny_max":{"value":141.0}},
-            // We don't want to use default 0 for sum/count aggregation as it might cause false positives during scoring.
-            // Terms aggregation only returns non-zero count values. If we use a lot of 0s during cold start,
-            // we will see alarming very easily.
-            listener
-                .onResponse(
-                    aggs
-                        .asList()
-                        .stream()
-                        .filter(InternalDateRange.class::isInstance)
-                        .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
-                        .filter(bucket -> bucket.getFrom() != null && bucket.getFrom() instanceof ZonedDateTime)
-                        .filter(bucket -> bucket.getDocCount() > docCountThreshold)
-                        .sorted(Comparator.comparing((Bucket bucket) -> (ZonedDateTime) bucket.getFrom()))
-                        .map(bucket -> parseBucket(bucket, detector.getEnabledFeatureIds()))
-                        .collect(Collectors.toList())
-                );
+            listener.onResponse(parseColdStartSamples(aggs, detector, includesEmptyBucket));
+        }, listener::onFailure);
+
+        // inject user role while searching.
+        clientUtil
+            .<SearchRequest, SearchResponse>asyncRequestWithInjectedSecurity(
+                request,
+                client::search,
+                detector.getDetectorId(),
+                client,
+                searchResponseListener
+            );
+    }
+
+    /**
+     * Get cold start samples of multiple entities of a detector in one search.
+     *
+     * @param detector detector config
+     * @param ranges sample ranges shared by the entities
+     * @param entities the entities' information
+     * @param includesEmptyBucket whether to return samples of ranges without documents
+     * @param listener listener to return back the samples of each entity in ascending
+     *  order of time.  Entities without any document in the ranges are absent from the map.
+     */
+    public void getBatchColdStartSamplesForPeriods(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<Entity> entities,
+        boolean includesEmptyBucket,
+        ActionListener<Map<Entity, List<Optional<double[]>>>> listener
+    ) {
+        if (entities.isEmpty() || ranges.isEmpty()) {
+            listener.onResponse(Collections.emptyMap());
+            return;
+        }
+
+        SearchRequest request = null;
+        try {
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generateBatchEntityColdStartQuery(detector, ranges, entities, featureQueryCache);
+            request = new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
+        } catch (IOException e) {
+            logger.warn("Failed to create batch cold start feature search request for " + detector.getDetectorId(), e);
+            listener.onFailure(new IllegalStateException(e));
+            return;
+        }
+
+        final ActionListener<SearchResponse> searchResponseListener = ActionListener.wrap(response -> {
+            Map<Entity, List<Optional<double[]>>> samples = new HashMap<>();
+            for (CompositeAggregation.Bucket bucket : getEntityBuckets(response)) {
+                Aggregations entityAggs = bucket.getAggregations();
+                if (entityAggs != null) {
+                    samples
+                        .put(
+                            Entity.createEntityByReordering(bucket.getKey()),
+                            parseColdStartSamples(entityAggs, detector, includesEmptyBucket)
+                        );
+                }
+            }
+            listener.onResponse(samples);
         }, listener::onFailure);
 
         // inject user role while searching.
@@ -910,9 +1083,34 @@ public class SearchFeatureDao extends AbstractRetriever {
             );
     }
 
+    private List<Optional<double[]>> parseColdStartSamples(Aggregations aggs, AnomalyDetector detector, boolean includesEmptyBucket) {
+        long docCountThreshold = includesEmptyBucket ? -1 : 0;
+
+        // Extract buckets and order by from_as_string. Currently by default it is ascending. Better not to assume it.
+        // Example responses from date range bucket aggregation:
+        // "aggregations":{"date_range":{"buckets":[{"key":"1598865166000-1598865226000","from":1.598865166E12,"
+        // from_as_string":"1598865166000","to":1.598865226E12,"to_as_string":"1598865226000","doc_count":3,
+        // "deny_max":{"value":154.0}},{"key":"1598869006000-1598869066000","from":1.598869006E12,
+        // "from_as_string":"1598869006000","to":1.598869066E12,"to_as_string":"1598869066000","doc_count":3,
+        // "deny_max":{"value":141.0}},
+        // We don't want to use default 0 for sum/count aggregation as it might cause false positives during scoring.
+        // Terms aggregation only returns non-zero count values. If we use a lot of 0s during cold start,
+        // we will see alarming very easily.
+        return aggs
+            .asList()
+            .stream()
+            .filter(InternalDateRange.class::isInstance)
+            .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
+            .filter(bucket -> bucket.getFrom() != null && bucket.getFrom() instanceof ZonedDateTime)
+            .filter(bucket -> bucket.getDocCount() > docCountThreshold)
+            .sorted(Comparator.comparing((Bucket bucket) -> (ZonedDateTime) bucket.getFrom()))
+            .map(bucket -> parseBucket(bucket, detector.getEnabledFeatureIds()))
+            .collect(Collectors.toList());
+    }
+
     private SearchRequest createColdStartFeatureSearchRequest(AnomalyDetector detector, List<Entry<Long, Long>> ranges, Entity entity) {
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generateEntityColdStartQuery(detector, ranges, entity, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils.generateEntityColdStartQuery(detector, ranges, entity, featureQueryCache);
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
         } catch (IOException e) {
             logger
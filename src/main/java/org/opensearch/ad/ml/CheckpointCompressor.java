@@ -0,0 +1,301 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate codec for entity checkpoints.
+ *
+ * Checkpoints of entities in the same detector share most of their structure
+ * (same dimensions, number of trees, sample size, and protostuff field layout).
+ * A preset dictionary trained from a few checkpoints of a detector lets Deflate
+ * reference those common byte sequences from the first checkpoint byte on.
+ *
+ * This class trains and caches per-detector dictionaries and tracks codec stats.
+ * Persisting dictionaries is done by {@link CheckpointDao}: a dictionary is only
+ * used for compression after it has been saved so that any node can decompress.
+ */
+public class CheckpointCompressor {
+    // Deflate's window is 32KB. Dictionary content beyond that is never referenced.
+    static final int MAX_DICTIONARY_BYTES = 32 * 1024;
+    // number of checkpoints of a detector to sample before training a dictionary
+    static final int DICTIONARY_SAMPLE_SIZE = 8;
+    // dictionary id used when a checkpoint is compressed without a dictionary
+    static final int NO_DICTIONARY = 0;
+    // length of the byte sequences we count when training a dictionary
+    private static final int SEGMENT_BYTES = 32;
+    // distance between the start of two consecutive segments in a sample
+    private static final int SEGMENT_STEP = 8;
+
+    // detector Id -> dictionary that has been persisted
+    private final Map<String, byte[]> dictionaries;
+    // detector Id -> checkpoints sampled for training
+    private final Map<String, List<byte[]>> samples;
+    // detector Id -> epoch milliseconds when we last found there was no dictionary saved
+    private final Map<String, Long> dictionaryMisses;
+
+    private final LongAdder uncompressedBytes;
+    private final LongAdder compressedBytes;
+    private final LongAdder codecTimeNanos;
+
+    public CheckpointCompressor() {
+        this.dictionaries = new ConcurrentHashMap<>();
+        this.samples = new ConcurrentHashMap<>();
+        this.dictionaryMisses = new ConcurrentHashMap<>();
+        this.uncompressedBytes = new LongAdder();
+        this.compressedBytes = new LongAdder();
+        this.codecTimeNanos = new LongAdder();
+    }
+
+    /**
+     * Compress bytes using Deflate
+     * @param raw bytes to compress
+     * @param dictionary preset dictionary. Can be null.
+     * @return compressed bytes
+     */
+    public byte[] compress(byte[] raw, byte[] dictionary) {
+        long startNanos = System.nanoTime();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            byte[] compressed = out.toByteArray();
+            uncompressedBytes.add(raw.length);
+            compressedBytes.add(compressed.length);
+            return compressed;
+        } finally {
+            deflater.end();
+            codecTimeNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Decompress Deflate compressed bytes
+     * @param compressed byte array containing the compressed bytes
+     * @param offset start of the compressed bytes
+     * @param length length of the compressed bytes
+     * @param uncompressedLength expected length after decompression
+     * @param dictionary preset dictionary used for compression. Can be null.
+     * @return decompressed bytes
+     * @throws DataFormatException when the compressed bytes are corrupted or
+     *  do not match the dictionary
+     */
+    public byte[] decompress(byte[] compressed, int offset, int length, int uncompressedLength, byte[] dictionary)
+        throws DataFormatException {
+        long startNanos = System.nanoTime();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, offset, length);
+            byte[] raw = new byte[uncompressedLength];
+            int read = 0;
+            while (read < uncompressedLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, uncompressedLength - read);
+                if (count == 0) {
+                    if (inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsDictionary() || inflater.needsInput()) {
+                        throw new DataFormatException("Missing dictionary or truncated input");
+                    }
+                }
+                read += count;
+            }
+            if (read != uncompressedLength || !inflater.finished()) {
+                throw new DataFormatException("Unexpected uncompressed length");
+            }
+            return raw;
+        } finally {
+            inflater.end();
+            codecTimeNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Compute the id of a dictionary.  We use the same Adler-32 checksum as
+     * Deflate uses to identify preset dictionaries.
+     * @param dictionary dictionary bytes. Can be null.
+     * @return dictionary id or NO_DICTIONARY if the input is null
+     */
+    public static int getDictionaryId(byte[] dictionary) {
+        if (dictionary == null) {
+            return NO_DICTIONARY;
+        }
+        Adler32 checksum = new Adler32();
+        checksum.update(dictionary);
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Record a checkpoint of a detector as a training sample
+     * @param detectorId Detector Id
+     * @param checkpoint uncompressed checkpoint
+     * @return a trained dictionary if we have collected enough samples, otherwise empty
+     */
+    public Optional<byte[]> addSample(String detectorId, byte[] checkpoint) {
+        List<byte[]> trainingSamples = null;
+        List<byte[]> detectorSamples = samples.computeIfAbsent(detectorId, k -> new ArrayList<>());
+        synchronized (detectorSamples) {
+            detectorSamples.add(checkpoint);
+            if (detectorSamples.size() >= DICTIONARY_SAMPLE_SIZE) {
+                trainingSamples = new ArrayList<>(detectorSamples);
+                detectorSamples.clear();
+            }
+        }
+        if (trainingSamples == null) {
+            return Optional.empty();
+        }
+        samples.remove(detectorId, detectorSamples);
+        return train(trainingSamples);
+    }
+
+    /**
+     * Train a dictionary from sampled checkpoints. We count segments of the
+     * samples and keep the ones shared by most samples.  Segments are appended
+     * in ascending frequency order since Deflate encodes matches closer to the
+     * end of the dictionary with shorter distances.
+     *
+     * @param trainingSamples sampled checkpoints
+     * @return dictionary or empty if the samples have nothing in common
+     */
+    static Optional<byte[]> train(List<byte[]> trainingSamples) {
+        Map<ByteBuffer, Integer> frequency = new HashMap<>();
+        for (byte[] sample : trainingSamples) {
+            // count a segment at most once per sample
+            Set<ByteBuffer> seen = new HashSet<>();
+            for (int start = 0; start + SEGMENT_BYTES <= sample.length; start += SEGMENT_STEP) {
+                ByteBuffer segment = ByteBuffer.wrap(sample, start, SEGMENT_BYTES).slice();
+                if (seen.add(segment)) {
+                    frequency.merge(segment, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<ByteBuffer, Integer>> shared = new ArrayList<>();
+        for (Map.Entry<ByteBuffer, Integer> entry : frequency.entrySet()) {
+            if (entry.getValue() > 1) {
+                shared.add(entry);
+            }
+        }
+        if (shared.isEmpty()) {
+            return Optional.empty();
+        }
+        // most frequent first
+        shared.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+
+        int numSegments = Math.min(shared.size(), MAX_DICTIONARY_BYTES / SEGMENT_BYTES);
+        byte[] dictionary = new byte[numSegments * SEGMENT_BYTES];
+        for (int i = 0; i < numSegments; i++) {
+            // fill from the end so that the most frequent segment comes last
+            ByteBuffer segment = shared.get(i).getKey().duplicate();
+            segment.get(dictionary, (numSegments - 1 - i) * SEGMENT_BYTES, SEGMENT_BYTES);
+        }
+        return Optional.of(dictionary);
+    }
+
+    /**
+     * @param detectorId Detector Id
+     * @return the persisted dictionary of a detector or null if there is none
+     */
+    public byte[] getDictionary(String detectorId) {
+        return dictionaries.get(detectorId);
+    }
+
+    /**
+     * Cache a persisted dictionary
+     * @param detectorId Detector Id
+     * @param dictionary dictionary bytes
+     */
+    public void putDictionary(String detectorId, byte[] dictionary) {
+        dictionaries.put(detectorId, Arrays.copyOf(dictionary, dictionary.length));
+        dictionaryMisses.remove(detectorId);
+        samples.remove(detectorId);
+    }
+
+    /**
+     * Record that a detector has no persisted dictionary
+     * @param detectorId Detector Id
+     * @param epochMillis current time
+     */
+    public void recordDictionaryMiss(String detectorId, long epochMillis) {
+        dictionaryMisses.put(detectorId, epochMillis);
+    }
+
+    /**
+     * Whether we should fetch a detector's dictionary from the checkpoint index
+     * @param detectorId Detector Id
+     * @param epochMillis current time
+     * @param missTtlMillis how long we trust a previous miss
+     * @return true if the dictionary is not cached and we have not recently
+     *  confirmed it does not exist
+     */
+    public boolean shouldLoadDictionary(String detectorId, long epochMillis, long missTtlMillis) {
+        if (dictionaries.containsKey(detectorId)) {
+            return false;
+        }
+        Long missTime = dictionaryMisses.get(detectorId);
+        return missTime == null || epochMillis - missTime > missTtlMillis;
+    }
+
+    /**
+     * Forget a detector's dictionary, e.g., when the detector is deleted or
+     * we read a checkpoint compressed with a dictionary we don't have.
+     * @param detectorId Detector Id
+     */
+    public void removeDictionary(String detectorId) {
+        dictionaries.remove(detectorId);
+        dictionaryMisses.remove(detectorId);
+        samples.remove(detectorId);
+    }
+
+    /**
+     * @return compressed size over uncompressed size of all checkpoints compressed
+     *  on this node, or 1 if nothing has been compressed
+     */
+    public double getCompressionRatio() {
+        long uncompressed = uncompressedBytes.sum();
+        if (uncompressed == 0) {
+            return 1;
+        }
+        return (double) compressedBytes.sum() / uncompressed;
+    }
+
+    /**
+     * @return total time in nanoseconds spent compressing and decompressing checkpoints
+     */
+    public long getCodecTimeNanos() {
+        return codecTimeNanos.sum();
+    }
+}
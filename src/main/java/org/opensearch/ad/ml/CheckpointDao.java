@@ -12,6 +12,7 @@
 package org.opensearch.ad.ml;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.time.Clock;
@@ -30,6 +31,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.zip.DataFormatException;
 
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.logging.log4j.LogManager;
@@ -37,7 +40,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.opensearch.ExceptionsHelper;
 import org.opensearch.ResourceAlreadyExistsException;
+import org.opensearch.Version;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.bulk.BulkAction;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
@@ -60,9 +65,13 @@ import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.indices.ADIndex;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.engine.VersionConflictEngineException;
 import org.opensearch.index.query.MatchQueryBuilder;
 import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryAction;
@@ -103,7 +112,20 @@ public class CheckpointDao {
     public static final String ENTITY_THRESHOLD = "th";
     public static final String ENTITY_TRCF = "trcf";
     public static final String FIELD_MODELV2 = "modelV2";
+    // binary entity model checkpoint. See toBinaryCheckpoint for the layout.
+    public static final String FIELD_MODELV3 = "modelV3";
     public static final String DETECTOR_ID = "detectorId";
+    // version of the binary checkpoint layout stored in FIELD_MODELV3
+    static final byte BINARY_CHECKPOINT_VERSION = 1;
+    // version of a Deflate compressed binary checkpoint. See compressCheckpoint for the layout.
+    static final byte COMPRESSED_CHECKPOINT_VERSION = 2;
+    // nodes on an earlier version only read the json checkpoint in FIELD_MODELV2
+    static final Version MIN_BINARY_CHECKPOINT_NODE_VERSION = Version.V_3_0_0;
+    // compression dictionary of a detector's entity checkpoints
+    public static final String FIELD_DICTIONARY = "dictionary";
+    static final String DICTIONARY_DOC_ID_SUFFIX = "_checkpoint_dictionary";
+    // how long we wait before looking for a dictionary again after we find none
+    static final long DICTIONARY_MISS_TTL_MILLIS = Duration.ofHours(1).toMillis();
 
     // dependencies
     private final Client client;
@@ -138,6 +160,10 @@ public class CheckpointDao {
     // anomaly rate
     private double anomalyRate;
 
+    private final CheckpointCompressor compressor;
+
+    private final ClusterService clusterService;
+
     /**
      * Constructor with dependencies and configuration.
      *
@@ -155,6 +181,7 @@ public class CheckpointDao {
      * @param serializeRCFBufferPool object pool for serializing rcf models
      * @param serializeRCFBufferSize the size of the buffer for RCF serialization
      * @param anomalyRate anomaly rate
+     * @param clusterService cluster service to find the oldest node version
      */
     public CheckpointDao(
         Client client,
@@ -170,7 +197,8 @@ public class CheckpointDao {
         int maxCheckpointBytes,
         GenericObjectPool<LinkedBuffer> serializeRCFBufferPool,
         int serializeRCFBufferSize,
-        double anomalyRate
+        double anomalyRate,
+        ClusterService clusterService
     ) {
         this.client = client;
         this.clientUtil = clientUtil;
@@ -186,6 +214,8 @@ public class CheckpointDao {
         this.serializeRCFBufferPool = serializeRCFBufferPool;
         this.serializeRCFBufferSize = serializeRCFBufferSize;
         this.anomalyRate = anomalyRate;
+        this.compressor = new CheckpointCompressor();
+        this.clusterService = clusterService;
     }
 
     private void saveModelCheckpointSync(Map<String, Object> source, String modelId) {
@@ -292,15 +322,21 @@ public class CheckpointDao {
     public Map<String, Object> toIndexSource(ModelState<EntityModel> modelState) throws IOException {
         String modelId = modelState.getModelId();
         Map<String, Object> source = new HashMap<>();
-        EntityModel model = modelState.getModel();
-        Optional<String> serializedModel = toCheckpoint(model, modelId);
-        if (!serializedModel.isPresent() || serializedModel.get().length() > maxCheckpointBytes) {
+        if (false == canWriteBinaryCheckpoint()) {
+            return toJsonIndexSource(modelState);
+        }
+        Optional<byte[]> serializedModel = toBinaryCheckpoint(modelState);
+        if (serializedModel.isPresent() && EnabledSetting.isCheckpointCompressionEnabled()) {
+            // the size limit applies to what we store on disk
+            serializedModel = Optional.of(compressCheckpoint(serializedModel.get(), modelState.getDetectorId()));
+        }
+        if (!serializedModel.isPresent() || serializedModel.get().length > maxCheckpointBytes) {
             logger
                 .warn(
                     new ParameterizedMessage(
                         "[{}]'s model is empty or too large: [{}] bytes",
                         modelState.getModelId(),
-                        serializedModel.isPresent() ? serializedModel.get().length() : 0
+                        serializedModel.isPresent() ? serializedModel.get().length : 0
                     )
                 );
             return source;
@@ -308,15 +344,81 @@ public class CheckpointDao {
         String detectorId = modelState.getDetectorId();
         source.put(DETECTOR_ID, detectorId);
         // we cannot pass Optional as OpenSearch does not know how to serialize an Optional value
+        source.put(FIELD_MODELV3, serializedModel.get());
+        putCommonFields(source, modelState);
+        return source;
+    }
+
+    /**
+     * Build the write of a checkpoint source from {@link #toIndexSource(ModelState)}.
+     * A binary checkpoint is only written once every node reads it, so it replaces
+     * the whole document, dropping the json checkpoint of earlier versions, and the
+     * existing document is not read and merged.  A json checkpoint only updates its
+     * fields so that nodes with old/new logic can coexist.  A binary content type
+     * keeps the binary checkpoint from being Base64-encoded.
+     *
+     * @param indexName checkpoint index name
+     * @param modelId model Id, used as doc id in the checkpoint index
+     * @param source checkpoint source
+     * @return the write request
+     */
+    public static DocWriteRequest<?> toWriteRequest(String indexName, String modelId, Map<String, Object> source) {
+        if (source.get(FIELD_MODELV3) != null) {
+            return new IndexRequest(indexName).id(modelId).source(source, XContentType.SMILE);
+        }
+        // If the document does not already exist, the contents of the upsert element
+        // are inserted as a new document.
+        // If the document exists, update fields in the map.
+        return new UpdateRequest(indexName, modelId).docAsUpsert(true).doc(source, XContentType.SMILE);
+    }
+
+    /**
+     * Prepare for index request in the json format that nodes on an earlier
+     * version read. Used until every node reads the binary checkpoint.
+     * @param modelState an entity model state
+     * @return serialized JSON map or empty map if the state is too bloated
+     */
+    private Map<String, Object> toJsonIndexSource(ModelState<EntityModel> modelState) {
+        Map<String, Object> source = new HashMap<>();
+        Optional<String> serializedModel = toCheckpoint(modelState.getModel(), modelState.getModelId());
+        if (!serializedModel.isPresent() || serializedModel.get().length() > maxCheckpointBytes) {
+            logger
+                .warn(
+                    new ParameterizedMessage(
+                        "[{}]'s model is empty or too large: [{}] bytes",
+                        modelState.getModelId(),
+                        serializedModel.isPresent() ? serializedModel.get().length() : 0
+                    )
+                );
+            return source;
+        }
+        source.put(DETECTOR_ID, modelState.getDetectorId());
         source.put(FIELD_MODELV2, serializedModel.get());
+        // nodes on an earlier version only update FIELD_MODELV2. Clear the binary
+        // checkpoint so that a stale one does not shadow the json checkpoint.
+        source.put(FIELD_MODELV3, null);
+        putCommonFields(source, modelState);
+        return source;
+    }
+
+    private void putCommonFields(Map<String, Object> source, ModelState<EntityModel> modelState) {
         source.put(CommonName.TIMESTAMP, ZonedDateTime.now(ZoneOffset.UTC));
         source.put(CommonName.SCHEMA_VERSION_FIELD, indexUtil.getSchemaVersion(ADIndex.CHECKPOINT));
-        Optional<Entity> entity = model.getEntity();
+        EntityModel model = modelState.getModel();
+        Optional<Entity> entity = model == null ? Optional.empty() : model.getEntity();
         if (entity.isPresent()) {
             source.put(CommonName.ENTITY_KEY, entity.get());
         }
+    }
 
-        return source;
+    /**
+     * During a rolling upgrade, nodes on an earlier version read checkpoints written
+     * by upgraded nodes. Keep writing the json checkpoint until every node reads
+     * the binary one.
+     * @return whether every node in the cluster reads the binary checkpoint
+     */
+    private boolean canWriteBinaryCheckpoint() {
+        return clusterService.state().nodes().getMinNodeVersion().onOrAfter(MIN_BINARY_CHECKPOINT_NODE_VERSION);
     }
 
     /**
@@ -348,13 +450,399 @@ public class CheckpointDao {
         });
     }
 
+    /**
+     * Serialize an EntityModel into the binary checkpoint format.  Compared with
+     * the json format of {@link #toCheckpoint(EntityModel, String)}, samples are
+     * packed as raw doubles and the protostuff TRCF bytes are stored as is instead
+     * of being Base64-encoded and embedded in a json string.
+     *
+     * Layout (big-endian):
+     * <pre>
+     * byte             format version ({@link #BINARY_CHECKPOINT_VERSION})
+     * int              number of samples
+     * per sample: int  sample length, followed by that many doubles
+     * int              TRCF state length in bytes, 0 if there is no TRCF
+     * byte[]           protostuff encoded ThresholdedRandomCutForestState
+     * </pre>
+     *
+     * @param model input model
+     * @param modelId model id
+     * @return serialized bytes or empty if there is nothing to save
+     */
+    public Optional<byte[]> toBinaryCheckpoint(EntityModel model, String modelId) {
+        return AccessController.doPrivileged((PrivilegedAction<Optional<byte[]>>) () -> {
+            if (model == null) {
+                logger.warn("Empty model");
+                return Optional.empty();
+            }
+            try {
+                return toBinaryCheckpoint(new ModelSnapshot(model));
+            } catch (Exception ex) {
+                logger.warn(new ParameterizedMessage("fail to generate binary checkpoint for [{}]", modelId), ex);
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Serialize the model of a state into the binary checkpoint format of
+     * {@link #toBinaryCheckpoint(EntityModel, String)}.  Samples and the TRCF
+     * state are copied under the state's snapshot lock so that the checkpoint is
+     * consistent when the model is scored concurrently.  Encoding happens after the
+     * lock is released.
+     *
+     * @param modelState an entity model state
+     * @return serialized bytes or empty if there is nothing to save
+     */
+    public Optional<byte[]> toBinaryCheckpoint(ModelState<EntityModel> modelState) {
+        return AccessController.doPrivileged((PrivilegedAction<Optional<byte[]>>) () -> {
+            try {
+                ModelSnapshot snapshot = modelState.snapshot(model -> model == null ? null : new ModelSnapshot(model));
+                if (snapshot == null) {
+                    logger.warn("Empty model");
+                    return Optional.empty();
+                }
+                return toBinaryCheckpoint(snapshot);
+            } catch (Exception ex) {
+                logger.warn(new ParameterizedMessage("fail to generate binary checkpoint for [{}]", modelState.getModelId()), ex);
+            }
+            return Optional.empty();
+        });
+    }
+
+    private Optional<byte[]> toBinaryCheckpoint(ModelSnapshot snapshot) {
+        double[][] samples = snapshot.samples;
+        byte[] trcfBytes = null;
+        if (snapshot.trcfState != null) {
+            trcfBytes = toCheckpointBytes(snapshot.trcfState);
+        }
+        if (samples.length == 0 && trcfBytes == null) {
+            // nothing to save on disk
+            return Optional.empty();
+        }
+
+        int size = Byte.BYTES + Integer.BYTES + Integer.BYTES;
+        for (double[] sample : samples) {
+            size += Integer.BYTES + sample.length * Double.BYTES;
+        }
+        size += trcfBytes == null ? 0 : trcfBytes.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(BINARY_CHECKPOINT_VERSION);
+        buffer.putInt(samples.length);
+        for (double[] sample : samples) {
+            buffer.putInt(sample.length);
+            for (double value : sample) {
+                buffer.putDouble(value);
+            }
+        }
+        if (trcfBytes == null) {
+            buffer.putInt(0);
+        } else {
+            buffer.putInt(trcfBytes.length);
+            buffer.put(trcfBytes);
+        }
+        return Optional.of(buffer.array());
+    }
+
+    /**
+     * Copy of an entity model's samples and TRCF state.  Taking it is cheap compared
+     * with protostuff encoding and compression, so a model is only locked for the copy.
+     */
+    private class ModelSnapshot {
+        private final double[][] samples;
+        private final ThresholdedRandomCutForestState trcfState;
+
+        ModelSnapshot(EntityModel model) {
+            this.samples = model.getSamples() == null ? new double[0][] : model.getSamples().toArray(new double[0][]);
+            this.trcfState = model.getTrcf().isPresent() ? trcfMapper.toState(model.getTrcf().get()) : null;
+        }
+    }
+
+    /**
+     * Deserialize a binary checkpoint produced by {@link #toBinaryCheckpoint(EntityModel, String)}.
+     *
+     * @param binaryCheckpoint uncompressed binary checkpoint
+     * @param entity the entity the model belongs to
+     * @param modelId Model Id
+     * @return the entity model or empty if the checkpoint cannot be parsed
+     */
+    public Optional<EntityModel> fromBinaryCheckpoint(byte[] binaryCheckpoint, Entity entity, String modelId) {
+        try {
+            return AccessController
+                .doPrivileged(
+                    (PrivilegedAction<Optional<EntityModel>>) () -> Optional
+                        .ofNullable(readBinaryCheckpoint(binaryCheckpoint, entity, modelId))
+                );
+        } catch (Exception e) {
+            logger.warn("Exception while deserializing binary checkpoint " + modelId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parse the layout written by {@link #toBinaryCheckpoint(EntityModel, String)}.
+     * Caller must hold the privilege to deserialize TRCF.
+     *
+     * @param binaryModel uncompressed binary checkpoint
+     * @param entity the entity the model belongs to
+     * @param modelId Model Id
+     * @return the entity model or null if the version is unknown
+     */
+    private EntityModel readBinaryCheckpoint(byte[] binaryModel, Entity entity, String modelId) {
+        ByteBuffer buffer = ByteBuffer.wrap(binaryModel);
+        byte version = buffer.get();
+        if (version != BINARY_CHECKPOINT_VERSION) {
+            logger.warn(new ParameterizedMessage("Unknown checkpoint version [{}] for [{}]", version, modelId));
+            return null;
+        }
+        int numSamples = buffer.getInt();
+        ArrayDeque<double[]> samples = new ArrayDeque<>(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            double[] sample = new double[buffer.getInt()];
+            for (int j = 0; j < sample.length; j++) {
+                sample[j] = buffer.getDouble();
+            }
+            samples.add(sample);
+        }
+        ThresholdedRandomCutForest trcf = null;
+        int trcfLength = buffer.getInt();
+        if (trcfLength > 0) {
+            trcf = toTrcf(binaryModel, buffer.position(), trcfLength);
+        }
+        return new EntityModel(entity, samples, trcf);
+    }
+
+    /**
+     * Compress a binary checkpoint using the detector's dictionary.  If the detector
+     * does not have a dictionary yet, the checkpoint is sampled to train one and
+     * compressed without a dictionary.
+     *
+     * Layout (big-endian):
+     * <pre>
+     * byte             format version ({@link #COMPRESSED_CHECKPOINT_VERSION})
+     * int              uncompressed length
+     * int              dictionary id, {@link CheckpointCompressor#NO_DICTIONARY} if compressed without a dictionary
+     * byte[]           Deflate compressed binary checkpoint
+     * </pre>
+     *
+     * @param binaryCheckpoint checkpoint produced by {@link #toBinaryCheckpoint(EntityModel, String)}
+     * @param detectorId Detector Id
+     * @return compressed checkpoint
+     */
+    byte[] compressCheckpoint(byte[] binaryCheckpoint, String detectorId) {
+        byte[] dictionary = compressor.getDictionary(detectorId);
+        if (dictionary == null) {
+            Optional<byte[]> trainedDictionary = compressor.addSample(detectorId, binaryCheckpoint);
+            if (trainedDictionary.isPresent()) {
+                saveDictionary(detectorId, trainedDictionary.get());
+            }
+        }
+        byte[] compressed = compressor.compress(binaryCheckpoint, dictionary);
+        ByteBuffer buffer = ByteBuffer.allocate(Byte.BYTES + Integer.BYTES + Integer.BYTES + compressed.length);
+        buffer.put(COMPRESSED_CHECKPOINT_VERSION);
+        buffer.putInt(binaryCheckpoint.length);
+        buffer.putInt(CheckpointCompressor.getDictionaryId(dictionary));
+        buffer.put(compressed);
+        return buffer.array();
+    }
+
+    /**
+     * Decompress a checkpoint produced by {@link #compressCheckpoint(byte[], String)}
+     * @param compressedCheckpoint compressed checkpoint
+     * @param detectorId Detector Id
+     * @param modelId Model Id
+     * @return the binary checkpoint or empty if we cannot decompress
+     */
+    private Optional<byte[]> decompressCheckpoint(byte[] compressedCheckpoint, String detectorId, String modelId) {
+        ByteBuffer buffer = ByteBuffer.wrap(compressedCheckpoint);
+        // skip version
+        buffer.get();
+        int uncompressedLength = buffer.getInt();
+        int dictionaryId = buffer.getInt();
+        if (uncompressedLength <= 0) {
+            logger.warn(new ParameterizedMessage("Invalid uncompressed length [{}] for [{}]", uncompressedLength, modelId));
+            return Optional.empty();
+        }
+        byte[] dictionary = null;
+        if (dictionaryId != CheckpointCompressor.NO_DICTIONARY) {
+            dictionary = getDictionary(detectorId, dictionaryId);
+            if (dictionary == null) {
+                logger.warn(new ParameterizedMessage("Missing compression dictionary for [{}]", modelId));
+                if (detectorId != null && compressor.getDictionary(detectorId) != null) {
+                    // the cached dictionary is stale. Look up the dictionary again next time.
+                    compressor.removeDictionary(detectorId);
+                }
+                return Optional.empty();
+            }
+        }
+        try {
+            return Optional
+                .of(compressor.decompress(compressedCheckpoint, buffer.position(), buffer.remaining(), uncompressedLength, dictionary));
+        } catch (DataFormatException e) {
+            logger.warn(new ParameterizedMessage("Fail to decompress checkpoint for [{}]", modelId), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param detectorId Detector Id
+     * @param dictionaryId id of the dictionary a checkpoint is compressed with
+     * @return the cached dictionary of the detector or null if it is not cached or has another id
+     */
+    private byte[] getDictionary(String detectorId, int dictionaryId) {
+        byte[] dictionary = detectorId == null ? null : compressor.getDictionary(detectorId);
+        return dictionary != null && CheckpointCompressor.getDictionaryId(dictionary) == dictionaryId ? dictionary : null;
+    }
+
+    /**
+     * Whether a checkpoint cannot be read because the dictionary it is compressed with
+     * is not cached, as opposed to being too large or corrupt.
+     * @param response Checkpoint Index GetResponse
+     * @return true if the checkpoint is compressed with a dictionary we don't have
+     */
+    public boolean isMissingDictionary(GetResponse response) {
+        Optional<Map<String, Object>> checkpoint = processRawCheckpoint(response);
+        Object binaryModelObj = checkpoint.map(c -> c.get(FIELD_MODELV3)).orElse(null);
+        if (binaryModelObj == null) {
+            return false;
+        }
+        byte[] binaryModel = toBytes(binaryModelObj);
+        if (binaryModel.length > maxCheckpointBytes
+            || binaryModel.length < Byte.BYTES + Integer.BYTES + Integer.BYTES
+            || binaryModel[0] != COMPRESSED_CHECKPOINT_VERSION) {
+            return false;
+        }
+        // skip version and uncompressed length
+        int dictionaryId = ByteBuffer.wrap(binaryModel, Byte.BYTES + Integer.BYTES, Integer.BYTES).getInt();
+        return dictionaryId != CheckpointCompressor.NO_DICTIONARY
+            && getDictionary((String) checkpoint.get().get(DETECTOR_ID), dictionaryId) == null;
+    }
+
+    /**
+     * Save a trained dictionary. A dictionary is created once per detector and
+     * only used after it has been saved so that any node can read the checkpoints
+     * compressed with it.  The document has no timestamp so checkpoint retention
+     * does not delete it.  It is deleted together with the detector's checkpoints.
+     *
+     * @param detectorId Detector Id
+     * @param dictionary trained dictionary
+     */
+    private void saveDictionary(String detectorId, byte[] dictionary) {
+        Map<String, Object> source = new HashMap<>();
+        source.put(DETECTOR_ID, detectorId);
+        source.put(FIELD_DICTIONARY, dictionary);
+        source.put(CommonName.SCHEMA_VERSION_FIELD, indexUtil.getSchemaVersion(ADIndex.CHECKPOINT));
+        IndexRequest indexRequest = new IndexRequest(indexName)
+            .id(getDictionaryDocId(detectorId))
+            .opType(DocWriteRequest.OpType.CREATE)
+            .source(source, XContentType.SMILE);
+        clientUtil
+            .<IndexRequest, IndexResponse>asyncRequest(
+                indexRequest,
+                client::index,
+                ActionListener.wrap(r -> compressor.putDictionary(detectorId, dictionary), exception -> {
+                    if (ExceptionsHelper.unwrapCause(exception) instanceof VersionConflictEngineException) {
+                        // another node saved a dictionary first. Use that one.
+                        clientUtil
+                            .<GetRequest, GetResponse>asyncRequest(
+                                new GetRequest(indexName, getDictionaryDocId(detectorId)),
+                                client::get,
+                                ActionListener
+                                    .wrap(
+                                        this::processDictionaryResponse,
+                                        e -> logger.warn(new ParameterizedMessage("Fail to get dictionary for [{}]", detectorId), e)
+                                    )
+                            );
+                    } else {
+                        logger.warn(new ParameterizedMessage("Fail to save dictionary for [{}]", detectorId), exception);
+                    }
+                })
+            );
+    }
+
+    /**
+     * @param detectorId Detector Id
+     * @return the checkpoint index document id of a detector's compression dictionary
+     */
+    public static String getDictionaryDocId(String detectorId) {
+        return detectorId + DICTIONARY_DOC_ID_SUFFIX;
+    }
+
+    /**
+     * @param docId checkpoint index document id
+     * @return whether the document is a compression dictionary
+     */
+    public static boolean isDictionaryDocId(String docId) {
+        return docId != null && docId.endsWith(DICTIONARY_DOC_ID_SUFFIX);
+    }
+
+    /**
+     * Whether we need to fetch a detector's dictionary before reading its checkpoints.
+     * @param detectorId Detector Id
+     * @return true if the dictionary is not cached and we have not recently
+     *  confirmed there is none
+     */
+    public boolean shouldLoadDictionary(String detectorId) {
+        return compressor.shouldLoadDictionary(detectorId, Instant.now().toEpochMilli(), DICTIONARY_MISS_TTL_MILLIS);
+    }
+
+    /**
+     * Cache the dictionary in a get response of a dictionary document
+     * @param response Checkpoint Index GetResponse
+     */
+    public void processDictionaryResponse(GetResponse response) {
+        String docId = response.getId();
+        String detectorId = docId.substring(0, docId.length() - DICTIONARY_DOC_ID_SUFFIX.length());
+        Optional<Map<String, Object>> source = processRawCheckpoint(response);
+        Object dictionary = source.map(s -> s.get(FIELD_DICTIONARY)).orElse(null);
+        if (dictionary == null) {
+            compressor.recordDictionaryMiss(detectorId, Instant.now().toEpochMilli());
+        } else {
+            compressor.putDictionary(detectorId, toBytes(dictionary));
+        }
+    }
+
+    /**
+     * @return the codec used to compress checkpoints
+     */
+    public CheckpointCompressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * A binary field's value is raw bytes for documents stored in a binary content
+     * type and a Base64 string for documents stored as json.
+     * @param value binary field value
+     * @return bytes of the value
+     */
+    private static byte[] toBytes(Object value) {
+        return value instanceof byte[] ? (byte[]) value : Base64.getDecoder().decode((String) value);
+    }
+
     private String toCheckpoint(ThresholdedRandomCutForest trcf) {
-        String checkpoint = null;
+        byte[] bytes = toCheckpointBytes(trcf);
+        return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private byte[] toCheckpointBytes(ThresholdedRandomCutForest trcf) {
+        ThresholdedRandomCutForestState trcfState = null;
+        try {
+            trcfState = AccessController.doPrivileged((PrivilegedAction<ThresholdedRandomCutForestState>) () -> trcfMapper.toState(trcf));
+        } catch (Exception e) {
+            logger.error("Failed to serialize model", e);
+            return null;
+        }
+        return toCheckpointBytes(trcfState);
+    }
+
+    private byte[] toCheckpointBytes(ThresholdedRandomCutForestState trcfState) {
+        byte[] checkpoint = null;
         Map.Entry<LinkedBuffer, Boolean> result = checkoutOrNewBuffer();
         LinkedBuffer buffer = result.getKey();
         boolean needCheckin = result.getValue();
         try {
-            checkpoint = toCheckpoint(trcf, buffer);
+            checkpoint = toCheckpointBytes(trcfState, buffer);
         } catch (Exception e) {
             logger.error("Failed to serialize model", e);
             if (needCheckin) {
@@ -365,7 +853,7 @@ public class CheckpointDao {
                     logger.warn("Failed to invalidate buffer", x);
                 }
                 try {
-                    checkpoint = toCheckpoint(trcf, LinkedBuffer.allocate(serializeRCFBufferSize));
+                    checkpoint = toCheckpointBytes(trcfState, LinkedBuffer.allocate(serializeRCFBufferSize));
                 } catch (Exception ex) {
                     logger.warn("Failed to generate checkpoint", ex);
                 }
@@ -397,13 +885,10 @@ public class CheckpointDao {
         return new SimpleImmutableEntry<LinkedBuffer, Boolean>(buffer, isCheckout);
     }
 
-    private String toCheckpoint(ThresholdedRandomCutForest trcf, LinkedBuffer buffer) {
+    private byte[] toCheckpointBytes(ThresholdedRandomCutForestState trcfState, LinkedBuffer buffer) {
         try {
-            byte[] bytes = AccessController.doPrivileged((PrivilegedAction<byte[]>) () -> {
-                ThresholdedRandomCutForestState trcfState = trcfMapper.toState(trcf);
-                return ProtostuffIOUtil.toByteArray(trcfState, trcfSchema, buffer);
-            });
-            return Base64.getEncoder().encodeToString(bytes);
+            return AccessController
+                .doPrivileged((PrivilegedAction<byte[]>) () -> ProtostuffIOUtil.toByteArray(trcfState, trcfSchema, buffer));
         } finally {
             buffer.clear();
         }
@@ -441,6 +926,7 @@ public class CheckpointDao {
                                               // Retry in this case
             .setRequestsPerSecond(500); // throttle delete requests
         logger.info("Delete checkpoints of detector {}", detectorID);
+        compressor.removeDictionary(detectorID);
         client.execute(DeleteByQueryAction.INSTANCE, deleteRequest, ActionListener.wrap(response -> {
             if (response.isTimedOut() || !response.getBulkFailures().isEmpty() || !response.getSearchFailures().isEmpty()) {
                 logFailure(response, detectorID);
@@ -477,7 +963,8 @@ public class CheckpointDao {
     }
 
     /**
-     * Load json checkpoint into models
+     * Load checkpoint into models. Both the binary checkpoint and the json
+     * checkpoints written by earlier versions are recognized.
      *
      * @param checkpoint json checkpoint contents
      * @param modelId Model Id
@@ -487,56 +974,83 @@ public class CheckpointDao {
     public Optional<Entry<EntityModel, Instant>> fromEntityModelCheckpoint(Map<String, Object> checkpoint, String modelId) {
         try {
             return AccessController.doPrivileged((PrivilegedAction<Optional<Entry<EntityModel, Instant>>>) () -> {
-                Object modelObj = checkpoint.get(FIELD_MODELV2);
-                if (modelObj == null) {
-                    // in case there is old -format checkpoint
-                    modelObj = checkpoint.get(CommonName.FIELD_MODEL);
-                }
-                if (modelObj == null) {
-                    logger.warn(new ParameterizedMessage("Empty model for [{}]", modelId));
-                    return Optional.empty();
-                }
-                String model = (String) modelObj;
-                if (model.length() > maxCheckpointBytes) {
-                    logger.warn(new ParameterizedMessage("[{}]'s model too large: [{}] bytes", modelId, model.length()));
-                    return Optional.empty();
-                }
-                JsonObject json = parser.parse(model).getAsJsonObject();
-                ArrayDeque<double[]> samples = null;
-                if (json.has(CommonName.ENTITY_SAMPLE)) {
-                    // verified, don't need privileged call to get permission
-                    samples = new ArrayDeque<>(
-                        Arrays.asList(this.gson.fromJson(json.getAsJsonArray(CommonName.ENTITY_SAMPLE), new double[0][0].getClass()))
-                    );
-                } else {
-                    // avoid possible null pointer exception
-                    samples = new ArrayDeque<>();
-                }
+                Queue<double[]> samples = null;
                 ThresholdedRandomCutForest trcf = null;
 
-                if (json.has(ENTITY_TRCF)) {
-                    trcf = toTrcf(json.getAsJsonPrimitive(ENTITY_TRCF).getAsString());
+                Object binaryModelObj = checkpoint.get(FIELD_MODELV3);
+                if (binaryModelObj != null) {
+                    byte[] binaryModel = toBytes(binaryModelObj);
+                    if (binaryModel.length > maxCheckpointBytes) {
+                        logger.warn(new ParameterizedMessage("[{}]'s model too large: [{}] bytes", modelId, binaryModel.length));
+                        return Optional.empty();
+                    }
+                    if (binaryModel.length > 0 && binaryModel[0] == COMPRESSED_CHECKPOINT_VERSION) {
+                        Optional<byte[]> decompressedModel = decompressCheckpoint(
+                            binaryModel,
+                            (String) checkpoint.get(DETECTOR_ID),
+                            modelId
+                        );
+                        if (false == decompressedModel.isPresent()) {
+                            return Optional.empty();
+                        }
+                        binaryModel = decompressedModel.get();
+                    }
+                    EntityModel binaryEntityModel = readBinaryCheckpoint(binaryModel, null, modelId);
+                    if (binaryEntityModel == null) {
+                        return Optional.empty();
+                    }
+                    samples = binaryEntityModel.getSamples();
+                    trcf = binaryEntityModel.getTrcf().orElse(null);
                 } else {
-                    Optional<RandomCutForest> rcf = Optional.empty();
-                    Optional<ThresholdingModel> threshold = Optional.empty();
-                    if (json.has(ENTITY_RCF)) {
-                        String serializedRCF = json.getAsJsonPrimitive(ENTITY_RCF).getAsString();
-                        rcf = deserializeRCFModel(serializedRCF, modelId);
+                    Object modelObj = checkpoint.get(FIELD_MODELV2);
+                    if (modelObj == null) {
+                        // in case there is old -format checkpoint
+                        modelObj = checkpoint.get(CommonName.FIELD_MODEL);
                     }
-                    if (json.has(ENTITY_THRESHOLD)) {
+                    if (modelObj == null) {
+                        logger.warn(new ParameterizedMessage("Empty model for [{}]", modelId));
+                        return Optional.empty();
+                    }
+                    String model = (String) modelObj;
+                    if (model.length() > maxCheckpointBytes) {
+                        logger.warn(new ParameterizedMessage("[{}]'s model too large: [{}] bytes", modelId, model.length()));
+                        return Optional.empty();
+                    }
+                    JsonObject json = parser.parse(model).getAsJsonObject();
+                    if (json.has(CommonName.ENTITY_SAMPLE)) {
                         // verified, don't need privileged call to get permission
-                        threshold = Optional
-                            .ofNullable(
-                                this.gson.fromJson(json.getAsJsonPrimitive(ENTITY_THRESHOLD).getAsString(), thresholdingModelClass)
-                            );
+                        samples = new ArrayDeque<>(
+                            Arrays.asList(this.gson.fromJson(json.getAsJsonArray(CommonName.ENTITY_SAMPLE), new double[0][0].getClass()))
+                        );
+                    } else {
+                        // avoid possible null pointer exception
+                        samples = new ArrayDeque<>();
                     }
 
-                    Optional<ThresholdedRandomCutForest> convertedTRCF = convertToTRCF(rcf, threshold);
-                    // if checkpoint is corrupted (e.g., some unexpected checkpoint when we missed
-                    // the mark in backward compatibility), we are not gonna load the model part
-                    // the model will have to use live data to initialize
-                    if (convertedTRCF.isPresent()) {
-                        trcf = convertedTRCF.get();
+                    if (json.has(ENTITY_TRCF)) {
+                        trcf = toTrcf(json.getAsJsonPrimitive(ENTITY_TRCF).getAsString());
+                    } else {
+                        Optional<RandomCutForest> rcf = Optional.empty();
+                        Optional<ThresholdingModel> threshold = Optional.empty();
+                        if (json.has(ENTITY_RCF)) {
+                            String serializedRCF = json.getAsJsonPrimitive(ENTITY_RCF).getAsString();
+                            rcf = deserializeRCFModel(serializedRCF, modelId);
+                        }
+                        if (json.has(ENTITY_THRESHOLD)) {
+                            // verified, don't need privileged call to get permission
+                            threshold = Optional
+                                .ofNullable(
+                                    this.gson.fromJson(json.getAsJsonPrimitive(ENTITY_THRESHOLD).getAsString(), thresholdingModelClass)
+                                );
+                        }
+
+                        Optional<ThresholdedRandomCutForest> convertedTRCF = convertToTRCF(rcf, threshold);
+                        // if checkpoint is corrupted (e.g., some unexpected checkpoint when we missed
+                        // the mark in backward compatibility), we are not gonna load the model part
+                        // the model will have to use live data to initialize
+                        if (convertedTRCF.isPresent()) {
+                            trcf = convertedTRCF.get();
+                        }
                     }
                 }
 
@@ -567,12 +1081,7 @@ public class CheckpointDao {
         if (checkpoint != null && !checkpoint.isEmpty()) {
             try {
                 byte[] bytes = Base64.getDecoder().decode(checkpoint);
-                ThresholdedRandomCutForestState state = trcfSchema.newMessage();
-                AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
-                    ProtostuffIOUtil.mergeFrom(bytes, state, trcfSchema);
-                    return null;
-                });
-                trcf = trcfMapper.toModel(state);
+                trcf = toTrcf(bytes, 0, bytes.length);
             } catch (RuntimeException e) {
                 logger.error("Failed to deserialize TRCF model", e);
             }
@@ -580,6 +1089,28 @@ public class CheckpointDao {
         return trcf;
     }
 
+    /**
+     * Deserialize a TRCF from protostuff bytes.
+     * @param bytes byte array containing the protostuff encoded TRCF state
+     * @param offset start of the TRCF state in bytes
+     * @param length length of the TRCF state
+     * @return deserialized TRCF or null if the bytes cannot be recognized
+     */
+    ThresholdedRandomCutForest toTrcf(byte[] bytes, int offset, int length) {
+        ThresholdedRandomCutForest trcf = null;
+        try {
+            ThresholdedRandomCutForestState state = trcfSchema.newMessage();
+            AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+                ProtostuffIOUtil.mergeFrom(bytes, offset, length, state, trcfSchema);
+                return null;
+            });
+            trcf = trcfMapper.toModel(state);
+        } catch (RuntimeException e) {
+            logger.error("Failed to deserialize TRCF model", e);
+        }
+        return trcf;
+    }
+
     private Optional<RandomCutForest> deserializeRCFModel(String checkpoint, String modelId) {
         if (checkpoint == null || checkpoint.isEmpty()) {
             return Optional.empty();
@@ -663,6 +1194,17 @@ public class CheckpointDao {
         }
     }
 
+    /**
+     * Get the time a checkpoint was saved
+     * @param response Checkpoint Index GetResponse. The source may only have the timestamp field.
+     * @return the checkpoint time or empty if the checkpoint does not exist or has no time
+     */
+    public Optional<Instant> getCheckpointTime(GetResponse response) {
+        return processRawCheckpoint(response)
+            .map(source -> source.get(CommonName.TIMESTAMP))
+            .map(timestamp -> Instant.parse((String) timestamp));
+    }
+
     /**
      * Returns to listener the checkpoint for the rcf model.
      *
@@ -20,6 +20,8 @@ import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -36,6 +38,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.util.Throwables;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.action.support.ThreadedActionListener;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.CleanState;
@@ -238,76 +241,20 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
             return;
         }
 
-        if (lastThrottledColdStartTime.plus(Duration.ofMinutes(coolDownMinutes)).isAfter(clock.instant())) {
-            listener.onResponse(null);
-            return;
-        }
-
         boolean earlyExit = true;
         try {
-            DoorKeeper doorKeeper = doorKeepers
-                .computeIfAbsent(
-                    detectorId,
-                    id -> {
-                        // reset every 60 intervals
-                        return new DoorKeeper(
-                            AnomalyDetectorSettings.DOOR_KEEPER_FOR_COLD_STARTER_MAX_INSERTION,
-                            AnomalyDetectorSettings.DOOR_KEEPER_FAULSE_POSITIVE_RATE,
-                            detector.getDetectionIntervalDuration().multipliedBy(AnomalyDetectorSettings.DOOR_KEEPER_MAINTENANCE_FREQ),
-                            clock
-                        );
-                    }
-                );
-
-            // Won't retry cold start within 60 intervals for an entity
-            if (doorKeeper.mightContain(modelId)) {
+            if (false == canColdStart(modelId, detectorId, detector)) {
                 return;
             }
 
-            doorKeeper.put(modelId);
-
-            ActionListener<Optional<List<double[][]>>> coldStartCallBack = ActionListener.wrap(trainingData -> {
-                try {
-                    if (trainingData.isPresent()) {
-                        List<double[][]> dataPoints = trainingData.get();
-                        extractTrainSamples(dataPoints, modelId, modelState);
-                        Queue<double[]> samples = modelState.getModel().getSamples();
-                        // only train models if we have enough samples
-                        if (samples.size() >= numMinSamples) {
-                            // The function trainModelFromDataSegments will save a trained a model. trainModelFromDataSegments is called by
-                            // multiple places so I want to make the saving model implicit just in case I forgot.
-                            trainModelFromDataSegments(samples, entity, modelState, detector.getShingleSize());
-                            logger.info("Succeeded in training entity: {}", modelId);
-                        } else {
-                            // save to checkpoint
-                            checkpointWriteQueue.write(modelState, true, RequestPriority.MEDIUM);
-                            logger.info("Not enough data to train entity: {}, currently we have {}", modelId, samples.size());
-                        }
-                    } else {
-                        logger.info("Cannot get training data for {}", modelId);
-                    }
-                    listener.onResponse(null);
-                } catch (Exception e) {
-                    listener.onFailure(e);
-                }
-            }, exception -> {
-                try {
-                    logger.error(new ParameterizedMessage("Error while cold start {}", modelId), exception);
-                    Throwable cause = Throwables.getRootCause(exception);
-                    if (ExceptionUtil.isOverloaded(cause)) {
-                        logger.error("too many requests");
-                        lastThrottledColdStartTime = Instant.now();
-                    } else if (cause instanceof AnomalyDetectionException || exception instanceof AnomalyDetectionException) {
-                        // e.g., cannot find anomaly detector
-                        nodeStateManager.setException(detectorId, exception);
-                    } else {
-                        nodeStateManager.setException(detectorId, new AnomalyDetectionException(detectorId, cause));
-                    }
-                    listener.onFailure(exception);
-                } catch (Exception e) {
-                    listener.onFailure(e);
-                }
-            });
+            ActionListener<Optional<List<double[][]>>> coldStartCallBack = createColdStartCallBack(
+                modelId,
+                entity,
+                detectorId,
+                modelState,
+                detector,
+                listener
+            );
 
             threadPool
                 .executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME)
@@ -333,7 +280,133 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
     }
 
     /**
-     * Train model using given data points and save the trained model.
+     * Whether a model can run cold start now.  We won't cold start while
+     * OpenSearch is overloaded, and won't retry cold start within 60 intervals
+     * for an entity.
+     *
+     * @param modelId Model Id
+     * @param detectorId Detector Id
+     * @param detector Detector config
+     * @return whether to run cold start
+     */
+    private boolean canColdStart(String modelId, String detectorId, AnomalyDetector detector) {
+        if (lastThrottledColdStartTime.plus(Duration.ofMinutes(coolDownMinutes)).isAfter(clock.instant())) {
+            return false;
+        }
+
+        DoorKeeper doorKeeper = doorKeepers
+            .computeIfAbsent(
+                detectorId,
+                id -> {
+                    // reset every 60 intervals
+                    return new DoorKeeper(
+                        AnomalyDetectorSettings.DOOR_KEEPER_FOR_COLD_STARTER_MAX_INSERTION,
+                        AnomalyDetectorSettings.DOOR_KEEPER_FAULSE_POSITIVE_RATE,
+                        detector.getDetectionIntervalDuration().multipliedBy(AnomalyDetectorSettings.DOOR_KEEPER_MAINTENANCE_FREQ),
+                        clock
+                    );
+                }
+            );
+
+        // Won't retry cold start within 60 intervals for an entity
+        if (doorKeeper.mightContain(modelId)) {
+            return false;
+        }
+
+        doorKeeper.put(modelId);
+        return true;
+    }
+
+    /**
+     * Create the callback that trains a model from the cold start data of an entity.
+     *
+     * @param modelId Model Id
+     * @param entity the entity's information
+     * @param detectorId Detector Id
+     * @param modelState model state associated with the entity
+     * @param detector Detector config
+     * @param listener call back to call after cold start
+     * @return the callback
+     */
+    private ActionListener<Optional<List<double[][]>>> createColdStartCallBack(
+        String modelId,
+        Entity entity,
+        String detectorId,
+        ModelState<EntityModel> modelState,
+        AnomalyDetector detector,
+        ActionListener<Void> listener
+    ) {
+        return ActionListener.wrap(trainingData -> {
+            try {
+                if (trainingData.isPresent()) {
+                    List<double[][]> dataPoints = trainingData.get();
+                    int numSamples = modelState.update(() -> {
+                        extractTrainSamples(dataPoints, modelId, modelState);
+                        return modelState.getModel().getSamples().size();
+                    });
+                    // only train models if we have enough samples
+                    if (trainModelFromSamples(modelState, entity, detector.getShingleSize())) {
+                        logger.info("Succeeded in training entity: {}", modelId);
+                    } else {
+                        // save to checkpoint
+                        checkpointWriteQueue.write(modelState, true, RequestPriority.MEDIUM);
+                        logger.info("Not enough data to train entity: {}, currently we have {}", modelId, numSamples);
+                    }
+                } else {
+                    logger.info("Cannot get training data for {}", modelId);
+                }
+                listener.onResponse(null);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        }, exception -> {
+            try {
+                logger.error(new ParameterizedMessage("Error while cold start {}", modelId), exception);
+                Throwable cause = Throwables.getRootCause(exception);
+                if (ExceptionUtil.isOverloaded(cause)) {
+                    logger.error("too many requests");
+                    lastThrottledColdStartTime = Instant.now();
+                } else if (cause instanceof AnomalyDetectionException || exception instanceof AnomalyDetectionException) {
+                    // e.g., cannot find anomaly detector
+                    nodeStateManager.setException(detectorId, exception);
+                } else {
+                    nodeStateManager.setException(detectorId, new AnomalyDetectionException(detectorId, cause));
+                }
+                listener.onFailure(exception);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Train the model of a state from its samples if it has enough of them, and save
+     * the trained model.  Training runs in the state's update so that scoring and
+     * checkpoints see either the samples or the trained model.  The checkpoint is
+     * saved after the update as saving snapshots the state.
+     *
+     * @param modelState Entity state associated with the model Id
+     * @param entity Entity instance
+     * @param shingleSize Shingle size
+     * @return whether the model is trained
+     */
+    private boolean trainModelFromSamples(ModelState<EntityModel> modelState, Entity entity, int shingleSize) {
+        boolean trained = modelState.update(() -> {
+            EntityModel model = modelState.getModel();
+            if (model == null || model.getSamples() == null || model.getSamples().size() < numMinSamples) {
+                return false;
+            }
+            trainModelFromDataSegments(model.getSamples(), entity, modelState, shingleSize);
+            return true;
+        });
+        if (trained) {
+            checkpointWriteQueue.write(modelState, true, RequestPriority.MEDIUM);
+        }
+        return trained;
+    }
+
+    /**
+     * Train model using given data points.  Callers hold the state's update.
      *
      * @param dataPoints Queue of continuous data points, in ascending order of timestamps
      * @param entity Entity instance
@@ -391,9 +464,6 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
         model.setTrcf(trcf);
 
         entityState.setLastUsedTime(clock.instant());
-
-        // save to checkpoint
-        checkpointWriteQueue.write(entityState, true, RequestPriority.MEDIUM);
     }
 
     /**
@@ -481,71 +551,22 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
             return;
         }
 
-        ActionListener<List<Optional<double[]>>> getFeaturelistener = ActionListener.wrap(featureSamples -> {
-            // storing <index, feature vector.
-            Pair<Integer, double[]> lastSample = null;
-            List<double[][]> currentRoundColdStartData = new ArrayList<>();
-
-            // featuresSamples are in ascending order of time.
-            for (int i = 0; i < featureSamples.size(); i++) {
-                Optional<double[]> featuresOptional = featureSamples.get(i);
-                if (featuresOptional.isPresent()) {
-                    // we only need the most recent two samples
-                    // For the missing samples we use linear interpolation as well.
-                    // Denote the Samples S0, S1, ... as samples in reverse order of time.
-                    // Each [Si​,Si−1​]corresponds to strideLength * detector interval.
-                    // If we got samples for S0, S1, S4 (both S2 and S3 are missing), then
-                    // we interpolate the [S4,S1] into 3*strideLength pieces.
-                    if (lastSample != null) {
-                        // right sample has index i and feature featuresOptional.get()
-                        int numInterpolants = (i - lastSample.getLeft()) * stride + 1;
-                        double[][] points = featureManager
-                            .transpose(
-                                interpolator
-                                    .interpolate(
-                                        featureManager.transpose(new double[][] { lastSample.getRight(), featuresOptional.get() }),
-                                        numInterpolants
-                                    )
-                            );
-                        // the last point will be included in the next iteration or we process
-                        // it in the end. We don't want to repeatedly include the samples twice.
-                        currentRoundColdStartData.add(Arrays.copyOfRange(points, 0, points.length - 1));
-                    }
-                    lastSample = Pair.of(i, featuresOptional.get());
-                }
-            }
-
-            if (lastSample != null) {
-                currentRoundColdStartData.add(new double[][] { lastSample.getRight() });
-            }
-            if (lastRoundColdStartData.size() > 0) {
-                currentRoundColdStartData.addAll(lastRoundColdStartData);
-            }
-
-            // If the first round of probe provides (32+shingleSize) points (note that if S0 is
-            // missing or all Si​ for some i > N is missing then we would miss a lot of points.
-            // Otherwise we can issue another round of query — if there is any sample in the
-            // second round then we would have 32 + shingleSize points. If there is no sample
-            // in the second round then we should wait for real data.
-            if (calculateColdStartDataSize(currentRoundColdStartData) >= detector.getShingleSize() + numMinSamples
-                || round + 1 >= maxRoundofColdStart) {
-                listener.onResponse(Optional.of(currentRoundColdStartData));
-            } else {
-                // the last sample's start time is the endTimeMs of next round of probe.
-                long lastSampleStartTime = sampleRanges.get(sampleRanges.size() - 1).getKey();
-                getFeatures(
+        ActionListener<List<Optional<double[]>>> getFeaturelistener = ActionListener
+            .wrap(
+                featureSamples -> processColdStartSamples(
+                    featureSamples,
                     listener,
-                    round + 1,
-                    currentRoundColdStartData,
+                    round,
+                    lastRoundColdStartData,
                     detector,
                     entity,
                     stride,
                     numberOfSamples,
                     startTimeMs,
-                    lastSampleStartTime
-                );
-            }
-        }, listener::onFailure);
+                    sampleRanges
+                ),
+                listener::onFailure
+            );
 
         try {
             searchFeatureDao
@@ -566,6 +587,97 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
         }
     }
 
+    /**
+     * Interpolate samples of a round of probe and decide whether to issue another round.
+     *
+     * @param featureSamples samples of the round in ascending order of time
+     * @param listener listener to return training data
+     * @param round current round
+     * @param lastRoundColdStartData training data of previous rounds
+     * @param detector Detector config
+     * @param entity the entity's information
+     * @param stride the number of intervals between two samples
+     * @param numberOfSamples maximum training samples to fetch
+     * @param startTimeMs the entity's earliest timestamp
+     * @param sampleRanges sample ranges of the round in descending order of time
+     */
+    private void processColdStartSamples(
+        List<Optional<double[]>> featureSamples,
+        ActionListener<Optional<List<double[][]>>> listener,
+        int round,
+        List<double[][]> lastRoundColdStartData,
+        AnomalyDetector detector,
+        Entity entity,
+        int stride,
+        int numberOfSamples,
+        long startTimeMs,
+        List<Entry<Long, Long>> sampleRanges
+    ) {
+        // storing <index, feature vector.
+        Pair<Integer, double[]> lastSample = null;
+        List<double[][]> currentRoundColdStartData = new ArrayList<>();
+
+        // featuresSamples are in ascending order of time.
+        for (int i = 0; i < featureSamples.size(); i++) {
+            Optional<double[]> featuresOptional = featureSamples.get(i);
+            if (featuresOptional.isPresent()) {
+                // we only need the most recent two samples
+                // For the missing samples we use linear interpolation as well.
+                // Denote the Samples S0, S1, ... as samples in reverse order of time.
+                // Each [Si​,Si−1​]corresponds to strideLength * detector interval.
+                // If we got samples for S0, S1, S4 (both S2 and S3 are missing), then
+                // we interpolate the [S4,S1] into 3*strideLength pieces.
+                if (lastSample != null) {
+                    // right sample has index i and feature featuresOptional.get()
+                    int numInterpolants = (i - lastSample.getLeft()) * stride + 1;
+                    double[][] points = featureManager
+                        .transpose(
+                            interpolator
+                                .interpolate(
+                                    featureManager.transpose(new double[][] { lastSample.getRight(), featuresOptional.get() }),
+                                    numInterpolants
+                                )
+                        );
+                    // the last point will be included in the next iteration or we process
+                    // it in the end. We don't want to repeatedly include the samples twice.
+                    currentRoundColdStartData.add(Arrays.copyOfRange(points, 0, points.length - 1));
+                }
+                lastSample = Pair.of(i, featuresOptional.get());
+            }
+        }
+
+        if (lastSample != null) {
+            currentRoundColdStartData.add(new double[][] { lastSample.getRight() });
+        }
+        if (lastRoundColdStartData.size() > 0) {
+            currentRoundColdStartData.addAll(lastRoundColdStartData);
+        }
+
+        // If the first round of probe provides (32+shingleSize) points (note that if S0 is
+        // missing or all Si​ for some i > N is missing then we would miss a lot of points.
+        // Otherwise we can issue another round of query — if there is any sample in the
+        // second round then we would have 32 + shingleSize points. If there is no sample
+        // in the second round then we should wait for real data.
+        if (calculateColdStartDataSize(currentRoundColdStartData) >= detector.getShingleSize() + numMinSamples
+            || round + 1 >= maxRoundofColdStart) {
+            listener.onResponse(Optional.of(currentRoundColdStartData));
+        } else {
+            // the last sample's start time is the endTimeMs of next round of probe.
+            long lastSampleStartTime = sampleRanges.get(sampleRanges.size() - 1).getKey();
+            getFeatures(
+                listener,
+                round + 1,
+                currentRoundColdStartData,
+                detector,
+                entity,
+                stride,
+                numberOfSamples,
+                startTimeMs,
+                lastSampleStartTime
+            );
+        }
+    }
+
     private int calculateColdStartDataSize(List<double[][]> coldStartData) {
         int size = 0;
         for (int i = 0; i < coldStartData.size(); i++) {
@@ -663,24 +775,196 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
 
             AnomalyDetector detector = detectorOptional.get();
 
-            Queue<double[]> samples = modelState.getModel().getSamples();
             String modelId = modelState.getModelId();
 
-            if (samples.size() < this.numMinSamples) {
-                // we cannot get last RCF score since cold start happens asynchronously
-                coldStart(modelId, entity, detectorId, modelState, detector, listener);
-            } else {
-                try {
-                    trainModelFromDataSegments(samples, entity, modelState, detector.getShingleSize());
+            try {
+                if (trainModelFromSamples(modelState, entity, detector.getShingleSize())) {
                     listener.onResponse(null);
+                    return;
+                }
+            } catch (Exception e) {
+                listener.onFailure(e);
+                return;
+            }
+            // not enough samples. We cannot get last RCF score since cold start happens asynchronously
+            coldStart(modelId, entity, detectorId, modelState, detector, listener);
+
+        }, listener::onFailure));
+    }
+
+    /**
+     * Train models for entities of the same detector.  Models that already have
+     * enough samples are trained right away.  For the others, instead of searching
+     * per entity, we fetch the earliest timestamps of all entities in one search
+     * and the first round of samples of all entities in another search.  Models are
+     * then trained in parallel in the AD thread pool.  Entities that need more
+     * rounds of probe continue with per-entity searches.
+     *
+     * @param detectorId Detector Id
+     * @param modelStates Model states of the entities to train
+     * @param listener callback after all of the models finish training or encounter
+     *  exceptions. The listener helps notify the cold start queue to pull other
+     *  requests (if any) to execute.
+     */
+    public void trainModels(String detectorId, List<ModelState<EntityModel>> modelStates, ActionListener<Void> listener) {
+        if (modelStates.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        nodeStateManager.getAnomalyDetector(detectorId, ActionListener.wrap(detectorOptional -> {
+            if (false == detectorOptional.isPresent()) {
+                logger.warn(new ParameterizedMessage("AnomalyDetector [{}] is not available.", detectorId));
+                listener.onFailure(new AnomalyDetectionException(detectorId, "fail to find detector"));
+                return;
+            }
+
+            AnomalyDetector detector = detectorOptional.get();
+            GroupedActionListener<Void> groupListener = new GroupedActionListener<>(
+                ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure),
+                modelStates.size()
+            );
+            Map<Entity, ActionListener<Optional<List<double[][]>>>> coldStartCallBacks = new HashMap<>();
+
+            for (ModelState<EntityModel> modelState : modelStates) {
+                String modelId = modelState.getModelId();
+                Optional<Entity> entity = modelState.getModel().getEntity();
+                boolean trained = false;
+                try {
+                    trained = trainModelFromSamples(modelState, entity.orElse(null), detector.getShingleSize());
                 } catch (Exception e) {
-                    listener.onFailure(e);
+                    groupListener.onFailure(e);
+                    continue;
+                }
+                if (trained) {
+                    groupListener.onResponse(null);
+                } else if (entity.isPresent() && canColdStart(modelId, detectorId, detector)) {
+                    logger.debug("Trigger cold start for {}", modelId);
+                    coldStartCallBacks
+                        .put(
+                            entity.get(),
+                            new ThreadedActionListener<>(
+                                logger,
+                                threadPool,
+                                AnomalyDetectorPlugin.AD_THREAD_POOL_NAME,
+                                createColdStartCallBack(modelId, entity.get(), detectorId, modelState, detector, groupListener),
+                                false
+                            )
+                        );
+                } else {
+                    groupListener.onResponse(null);
                 }
             }
 
+            if (false == coldStartCallBacks.isEmpty()) {
+                threadPool
+                    .executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME)
+                    .execute(() -> getEntitiesColdStartData(detector, coldStartCallBacks));
+            }
         }, listener::onFailure));
     }
 
+    /**
+     * Get training data for entities of a detector.
+     *
+     * Sample ranges are generated backwards from the same end time with the same
+     * stride, so the ranges of an entity are a prefix of the ranges of the entity
+     * with the earliest timestamp.  We query the latter once for all entities and
+     * give each entity the samples within its own ranges.
+     *
+     * @param detector Detector config
+     * @param listeners listeners to return training data of each entity
+     */
+    private void getEntitiesColdStartData(AnomalyDetector detector, Map<Entity, ActionListener<Optional<List<double[][]>>>> listeners) {
+        ActionListener<Map<Entity, Long>> minTimeListener = ActionListener.wrap(earliestTimes -> {
+            long endTimeMs = clock.millis();
+            Pair<Integer, Integer> params = selectRangeParam(detector);
+            int stride = params.getLeft();
+            int numberOfSamples = params.getRight();
+
+            Map<Entity, List<Entry<Long, Long>>> entityRanges = new HashMap<>();
+            List<Entry<Long, Long>> sampleRanges = new ArrayList<>();
+            for (Entry<Entity, ActionListener<Optional<List<double[][]>>>> entry : listeners.entrySet()) {
+                Long startTimeMs = earliestTimes.get(entry.getKey());
+                if (startTimeMs == null) {
+                    entry.getValue().onResponse(Optional.empty());
+                    continue;
+                }
+                List<Entry<Long, Long>> ranges = Collections.emptyList();
+                if (startTimeMs < endTimeMs && endTimeMs - startTimeMs >= detector.getDetectorIntervalInMilliseconds()) {
+                    ranges = getTrainSampleRanges(detector, startTimeMs, endTimeMs, stride, numberOfSamples);
+                }
+                if (ranges.isEmpty()) {
+                    entry.getValue().onResponse(Optional.of(new ArrayList<>()));
+                    continue;
+                }
+                entityRanges.put(entry.getKey(), ranges);
+                if (ranges.size() > sampleRanges.size()) {
+                    sampleRanges = ranges;
+                }
+            }
+
+            if (entityRanges.isEmpty()) {
+                return;
+            }
+
+            ActionListener<Map<Entity, List<Optional<double[]>>>> samplesListener = ActionListener.wrap(samplesByEntity -> {
+                for (Entry<Entity, List<Entry<Long, Long>>> entry : entityRanges.entrySet()) {
+                    Entity entity = entry.getKey();
+                    List<Entry<Long, Long>> ranges = entry.getValue();
+                    ActionListener<Optional<List<double[][]>>> listener = listeners.get(entity);
+                    try {
+                        // samples are in ascending order of time, so the entity's ranges are the last ones
+                        List<Optional<double[]>> samples = samplesByEntity.get(entity);
+                        if (samples == null || samples.size() < ranges.size()) {
+                            // no document of the entity in any of the ranges
+                            samples = Collections.nCopies(ranges.size(), Optional.empty());
+                        } else {
+                            samples = samples.subList(samples.size() - ranges.size(), samples.size());
+                        }
+                        processColdStartSamples(
+                            samples,
+                            listener,
+                            0,
+                            new ArrayList<>(),
+                            detector,
+                            entity,
+                            stride,
+                            numberOfSamples,
+                            earliestTimes.get(entity),
+                            ranges
+                        );
+                    } catch (Exception e) {
+                        listener.onFailure(e);
+                    }
+                }
+            }, e -> entityRanges.keySet().forEach(entity -> listeners.get(entity).onFailure(e)));
+
+            searchFeatureDao
+                .getBatchColdStartSamplesForPeriods(
+                    detector,
+                    sampleRanges,
+                    new ArrayList<>(entityRanges.keySet()),
+                    // Accept empty bucket. Read comments in getFeatures.
+                    true,
+                    new ThreadedActionListener<>(logger, threadPool, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, samplesListener, false)
+                );
+        }, e -> listeners.values().forEach(listener -> listener.onFailure(e)));
+
+        searchFeatureDao
+            .getEntityMinDataTimes(
+                detector,
+                new ArrayList<>(listeners.keySet()),
+                new ThreadedActionListener<>(logger, threadPool, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, minTimeListener, false)
+            );
+    }
+
+    /**
+     * Train a model from the samples it has collected if there are enough of them.
+     * Called in the state's update, e.g., while scoring, or before the state is shared.
+     *
+     * @param modelState Entity state associated with the model Id
+     * @param shingleSize Shingle size
+     */
     public void trainModelFromExistingSamples(ModelState<EntityModel> modelState, int shingleSize) {
         if (modelState == null || modelState.getModel() == null || modelState.getModel().getSamples() == null) {
             return;
@@ -691,6 +975,7 @@ public class EntityColdStarter implements MaintenanceState, CleanState {
         if (samples.size() >= this.numMinSamples) {
             try {
                 trainModelFromDataSegments(samples, model.getEntity().orElse(null), modelState, shingleSize);
+                checkpointWriteQueue.write(modelState, true, RequestPriority.MEDIUM);
             } catch (Exception e) {
                 // e.g., exception from rcf. We can do nothing except logging the error
                 // We won't retry training for the same entity in the cooldown period
@@ -701,8 +701,11 @@ public class ModelManager implements DetectorModelSize {
         Entity entity,
         int shingleSize
     ) {
-        ThresholdingResult result = new ThresholdingResult(0, 0, 0);
-        if (modelState != null) {
+        if (modelState == null) {
+            return new ThresholdingResult(0, 0, 0);
+        }
+        // checkpoints snapshot the model in between updates
+        return modelState.update(() -> {
             EntityModel entityModel = modelState.getModel();
 
             if (entityModel == null) {
@@ -715,15 +718,18 @@ public class ModelManager implements DetectorModelSize {
             }
 
             if (entityModel.getTrcf().isPresent()) {
-                result = score(datapoint, modelId, modelState);
-            } else {
-                entityModel.addSample(datapoint);
+                return scoreModel(datapoint, modelId, modelState);
             }
-        }
-        return result;
+            entityModel.addSample(datapoint);
+            return new ThresholdingResult(0, 0, 0);
+        });
     }
 
     public ThresholdingResult score(double[] feature, String modelId, ModelState<EntityModel> modelState) {
+        return modelState.update(() -> scoreModel(feature, modelId, modelState));
+    }
+
+    private ThresholdingResult scoreModel(double[] feature, String modelId, ModelState<EntityModel> modelState) {
         ThresholdingResult result = new ThresholdingResult(0, 0, 0);
         EntityModel model = modelState.getModel();
         try {
@@ -16,6 +16,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.opensearch.ad.ExpiringState;
 import org.opensearch.ad.constant.ADCommonName;
@@ -39,6 +43,10 @@ public class ModelState<T> implements ExpiringState {
     private Instant lastCheckpointTime;
     private Clock clock;
     private float priority;
+    // serializes model updates with snapshots taken for checkpoints
+    private final StampedLock lock;
+    // number of updates since the last checkpoint
+    private final AtomicLong updatesSinceCheckpoint;
 
     /**
      * Constructor.
@@ -60,6 +68,8 @@ public class ModelState<T> implements ExpiringState {
         this.lastCheckpointTime = Instant.MIN;
         this.clock = clock;
         this.priority = priority;
+        this.lock = new StampedLock();
+        this.updatesSinceCheckpoint = new AtomicLong();
     }
 
     /**
@@ -153,11 +163,23 @@ public class ModelState<T> implements ExpiringState {
 
     /**
      * Sets the time when a checkpoint for the ML model was made last time.
+     * The model has no updates since the checkpoint.
      *
      * @param lastCheckpointTime time when a checkpoint for the ML model was made last time.
      */
     public void setLastCheckpointTime(Instant lastCheckpointTime) {
         this.lastCheckpointTime = lastCheckpointTime;
+        this.updatesSinceCheckpoint.set(0);
+    }
+
+    /**
+     * Returns the number of updates run by {@link #update(Supplier)} since the
+     * last checkpoint.  A model without updates does not need a new checkpoint.
+     *
+     * @return the number of updates since the last checkpoint
+     */
+    public long getUpdatesSinceCheckpoint() {
+        return updatesSinceCheckpoint.get();
     }
 
     /**
@@ -172,6 +194,44 @@ public class ModelState<T> implements ExpiringState {
         this.priority = priority;
     }
 
+    /**
+     * Run an update of the model, such as scoring or adding samples, exclusively
+     * of snapshots taken by {@link #snapshot(Function)}.  The lock is not reentrant:
+     * the update must not call {@link #update(Supplier)} or {@link #snapshot(Function)}
+     * of the same state.
+     *
+     * @param <R> result type
+     * @param update the update to run
+     * @return the update's result
+     */
+    public <R> R update(Supplier<R> update) {
+        long stamp = lock.writeLock();
+        try {
+            updatesSinceCheckpoint.incrementAndGet();
+            return update.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Capture the model's state consistently while it may be updated concurrently.
+     * Updates wait while the capture runs, so the capture should only copy what
+     * is needed and leave expensive work like encoding and compression to the caller.
+     *
+     * @param <R> captured state type
+     * @param capture function that copies the model's state.  The model may be null.
+     * @return the captured state
+     */
+    public <R> R snapshot(Function<T, R> capture) {
+        long stamp = lock.readLock();
+        try {
+            return capture.apply(model);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     /**
      * Gets the Model State as a map
      *
@@ -62,6 +62,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
     public static final String PAST_VALUES_FIELD = "past_values";
     public static final String EXPECTED_VALUES_FIELD = "expected_values";
     public static final String THRESHOLD_FIELD = "threshold";
+    public static final String ROLLUP_FIELD = "rollup";
     // unused currently. added since odfe 1.4
     public static final String IS_ANOMALY_FIELD = "is_anomaly";
 
@@ -203,6 +204,13 @@ public class AnomalyResult implements ToXContentObject, Writeable {
     // rcf score threshold at the time of writing a result
     private final Double threshold;
 
+    /*
+     * Summary of the zero-grade results this result stands for when zero-grade
+     * results are rolled up. Not mapped in the result index: custom result indices
+     * must contain every mapped field, so the summary is kept in the source only.
+     */
+    private final ResultRollup rollup;
+
     // used when indexing exception or error or an empty result
     public AnomalyResult(
         String detectorId,
@@ -263,6 +271,54 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         List<DataByFeatureId> pastValues,
         List<ExpectedValueList> expectedValuesList,
         Double threshold
+    ) {
+        this(
+            detectorId,
+            taskId,
+            anomalyScore,
+            anomalyGrade,
+            confidence,
+            featureData,
+            dataStartTime,
+            dataEndTime,
+            executionStartTime,
+            executionEndTime,
+            error,
+            entity,
+            user,
+            schemaVersion,
+            modelId,
+            approxAnomalyStartTime,
+            relevantAttribution,
+            pastValues,
+            expectedValuesList,
+            threshold,
+            null
+        );
+    }
+
+    public AnomalyResult(
+        String detectorId,
+        String taskId,
+        Double anomalyScore,
+        Double anomalyGrade,
+        Double confidence,
+        List<FeatureData> featureData,
+        Instant dataStartTime,
+        Instant dataEndTime,
+        Instant executionStartTime,
+        Instant executionEndTime,
+        String error,
+        Entity entity,
+        User user,
+        Integer schemaVersion,
+        String modelId,
+        Instant approxAnomalyStartTime,
+        List<DataByFeatureId> relevantAttribution,
+        List<DataByFeatureId> pastValues,
+        List<ExpectedValueList> expectedValuesList,
+        Double threshold,
+        ResultRollup rollup
     ) {
         this.detectorId = detectorId;
         this.taskId = taskId;
@@ -284,6 +340,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         this.pastValues = pastValues;
         this.expectedValuesList = expectedValuesList;
         this.threshold = threshold;
+        this.rollup = rollup;
     }
 
     /**
@@ -501,6 +558,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         }
 
         this.threshold = input.readOptionalDouble();
+        this.rollup = input.readOptionalWriteable(ResultRollup::new);
     }
 
     @Override
@@ -576,6 +634,9 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         if (threshold != null && !threshold.isNaN()) {
             xContentBuilder.field(THRESHOLD_FIELD, threshold);
         }
+        if (rollup != null) {
+            xContentBuilder.field(ROLLUP_FIELD, rollup);
+        }
         return xContentBuilder.endObject();
     }
 
@@ -600,6 +661,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         List<DataByFeatureId> pastValues = new ArrayList<>();
         List<ExpectedValueList> expectedValues = new ArrayList<>();
         Double threshold = null;
+        ResultRollup rollup = null;
 
         ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
         while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
@@ -679,6 +741,9 @@ public class AnomalyResult implements ToXContentObject, Writeable {
                 case THRESHOLD_FIELD:
                     threshold = parser.doubleValue();
                     break;
+                case ROLLUP_FIELD:
+                    rollup = ResultRollup.parse(parser);
+                    break;
                 default:
                     parser.skipChildren();
                     break;
@@ -705,7 +770,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             relavantAttribution,
             pastValues,
             expectedValues,
-            threshold
+            threshold,
+            rollup
         );
     }
 
@@ -734,7 +800,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             && Objects.equal(relevantAttribution, that.relevantAttribution)
             && Objects.equal(pastValues, that.pastValues)
             && Objects.equal(expectedValuesList, that.expectedValuesList)
-            && Objects.equal(threshold, that.threshold);
+            && Objects.equal(threshold, that.threshold)
+            && Objects.equal(rollup, that.rollup);
     }
 
     @Generated
@@ -759,7 +826,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
                 relevantAttribution,
                 pastValues,
                 expectedValuesList,
-                threshold
+                threshold,
+                rollup
             );
     }
 
@@ -785,6 +853,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             .append("pastValues", pastValues)
             .append("expectedValuesList", StringUtils.join(expectedValuesList, "|"))
             .append("threshold", threshold)
+            .append("rollup", rollup)
             .toString();
     }
 
@@ -860,15 +929,27 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         return threshold;
     }
 
+    public User getUser() {
+        return user;
+    }
+
+    public Integer getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public ResultRollup getRollup() {
+        return rollup;
+    }
+
     /**
      * Anomaly result index consists of overwhelmingly (99.5%) zero-grade non-error documents.
      * This function exclude the majority case.
      * @return whether the anomaly result is important when the anomaly grade is not 0
-     * or error is there.
+     * or error is there, or it is a rollup that stands for many results.
      */
     public boolean isHighPriority() {
         // AnomalyResult.toXContent won't record Double.NaN and thus make it null
-        return (getAnomalyGrade() != null && getAnomalyGrade() > 0) || getError() != null;
+        return (getAnomalyGrade() != null && getAnomalyGrade() > 0) || getError() != null || rollup != null;
     }
 
     @Override
@@ -932,6 +1013,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         }
 
         out.writeOptionalDouble(threshold);
+        out.writeOptionalWriteable(rollup);
     }
 
     public static AnomalyResult getDummyResult() {
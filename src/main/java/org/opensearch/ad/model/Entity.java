@@ -27,6 +27,7 @@ import java.util.TreeMap;
 import org.apache.lucene.util.SetOnce;
 import org.opensearch.ad.annotation.Generated;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.routing.Murmur3HashFunction;
 import org.opensearch.common.Numbers;
 import org.opensearch.common.bytes.BytesReference;
 import org.opensearch.common.hash.MurmurHash3;
@@ -60,6 +61,8 @@ public class Entity implements ToXContentObject, Writeable {
 
     // model id
     private SetOnce<String> modelId = new SetOnce<>();
+    // cached hash ring key of toString(). 0 means not computed yet.
+    private int routingHash;
     // a map from attribute name like "host" to its value like "server_1"
     // Use SortedMap so that the attributes are ordered and we can derive the unique
     // string representation used in the hash ring.
@@ -216,6 +219,21 @@ public class Entity implements ToXContentObject, Writeable {
         return normalizedAttributes(attributes);
     }
 
+    /**
+     * Hash of {@link #toString()} used to locate the entity's node in a hash ring.
+     * Computed once and cached since the attributes don't change.
+     * @return the hash ring key of the entity
+     */
+    public int getRoutingHash() {
+        // Like String.hashCode, racing threads compute the same value so we don't need to synchronize.
+        int hash = routingHash;
+        if (hash == 0) {
+            hash = Murmur3HashFunction.hash(toString());
+            routingHash = hash;
+        }
+        return hash;
+    }
+
     /**
     * Return a string of the attributes in the ascending order of attribute names
     * @return a normalized String corresponding to the Map.  The string is
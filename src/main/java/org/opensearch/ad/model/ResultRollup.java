@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.model;
+
+import static org.opensearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.core.xcontent.XContentParser;
+
+import com.google.common.base.Objects;
+
+/**
+ * Summary of consecutive zero-grade results of an entity that are written as one
+ * result document instead of one document per interval.
+ */
+public class ResultRollup implements ToXContentObject, Writeable {
+    public static final String COUNT_FIELD = "count";
+    public static final String MIN_SCORE_FIELD = "min_score";
+    public static final String MAX_SCORE_FIELD = "max_score";
+    public static final String AVG_SCORE_FIELD = "avg_score";
+    public static final String FEATURE_MIN_FIELD = "feature_min";
+    public static final String FEATURE_MAX_FIELD = "feature_max";
+
+    private final int count;
+    private final double minScore;
+    private final double maxScore;
+    private final double avgScore;
+    private final List<DataByFeatureId> featureMin;
+    private final List<DataByFeatureId> featureMax;
+
+    public ResultRollup(
+        int count,
+        double minScore,
+        double maxScore,
+        double avgScore,
+        List<DataByFeatureId> featureMin,
+        List<DataByFeatureId> featureMax
+    ) {
+        this.count = count;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+        this.avgScore = avgScore;
+        this.featureMin = featureMin;
+        this.featureMax = featureMax;
+    }
+
+    public ResultRollup(StreamInput input) throws IOException {
+        this.count = input.readVInt();
+        this.minScore = input.readDouble();
+        this.maxScore = input.readDouble();
+        this.avgScore = input.readDouble();
+        this.featureMin = input.readList(DataByFeatureId::new);
+        this.featureMax = input.readList(DataByFeatureId::new);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        return builder
+            .startObject()
+            .field(COUNT_FIELD, count)
+            .field(MIN_SCORE_FIELD, minScore)
+            .field(MAX_SCORE_FIELD, maxScore)
+            .field(AVG_SCORE_FIELD, avgScore)
+            .field(FEATURE_MIN_FIELD, featureMin.toArray())
+            .field(FEATURE_MAX_FIELD, featureMax.toArray())
+            .endObject();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(count);
+        out.writeDouble(minScore);
+        out.writeDouble(maxScore);
+        out.writeDouble(avgScore);
+        out.writeList(featureMin);
+        out.writeList(featureMax);
+    }
+
+    public static ResultRollup parse(XContentParser parser) throws IOException {
+        int count = 0;
+        double minScore = 0;
+        double maxScore = 0;
+        double avgScore = 0;
+        List<DataByFeatureId> featureMin = new ArrayList<>();
+        List<DataByFeatureId> featureMax = new ArrayList<>();
+        ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
+        while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case COUNT_FIELD:
+                    count = parser.intValue();
+                    break;
+                case MIN_SCORE_FIELD:
+                    minScore = parser.doubleValue();
+                    break;
+                case MAX_SCORE_FIELD:
+                    maxScore = parser.doubleValue();
+                    break;
+                case AVG_SCORE_FIELD:
+                    avgScore = parser.doubleValue();
+                    break;
+                case FEATURE_MIN_FIELD:
+                    ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.currentToken(), parser);
+                    while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                        featureMin.add(DataByFeatureId.parse(parser));
+                    }
+                    break;
+                case FEATURE_MAX_FIELD:
+                    ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.currentToken(), parser);
+                    while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                        featureMax.add(DataByFeatureId.parse(parser));
+                    }
+                    break;
+                default:
+                    // the unknown field and it's children should be ignored
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return new ResultRollup(count, minScore, maxScore, avgScore, featureMin, featureMax);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ResultRollup that = (ResultRollup) o;
+        return count == that.count
+            && Double.compare(minScore, that.minScore) == 0
+            && Double.compare(maxScore, that.maxScore) == 0
+            && Double.compare(avgScore, that.avgScore) == 0
+            && Objects.equal(featureMin, that.featureMin)
+            && Objects.equal(featureMax, that.featureMax);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(count, minScore, maxScore, avgScore, featureMin, featureMax);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+            .append("count", count)
+            .append("minScore", minScore)
+            .append("maxScore", maxScore)
+            .append("avgScore", avgScore)
+            .append("featureMin", featureMin)
+            .append("featureMax", featureMax)
+            .toString();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMinScore() {
+        return minScore;
+    }
+
+    public double getMaxScore() {
+        return maxScore;
+    }
+
+    public double getAvgScore() {
+        return avgScore;
+    }
+
+    public List<DataByFeatureId> getFeatureMin() {
+        return featureMin;
+    }
+
+    public List<DataByFeatureId> getFeatureMax() {
+        return featureMax;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ratelimit;
+
+/**
+ * Batch size of a batch queue controlled by additive increase and multiplicative
+ * decrease (AIMD).  A full batch that finishes within the target latency grows the
+ * batch size by a tenth of the configured size.  A slow or rejected batch halves it.
+ * The size stays within a percentage range of the configured batch size.
+ *
+ * Concurrent batches of a queue report their outcome concurrently, so methods are
+ * synchronized.
+ */
+class AdaptiveBatchSize {
+    private int configuredSize;
+    private int minPercent;
+    private int maxPercent;
+    private long targetLatencyMillis;
+    private int size;
+
+    AdaptiveBatchSize(int configuredSize, int minPercent, int maxPercent, long targetLatencyMillis) {
+        this.configuredSize = configuredSize;
+        this.minPercent = minPercent;
+        this.maxPercent = maxPercent;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.size = configuredSize;
+    }
+
+    synchronized int get() {
+        return size;
+    }
+
+    /**
+     * Start over from a new configured batch size
+     * @param configuredSize batch size setting of the queue
+     */
+    synchronized void setConfiguredSize(int configuredSize) {
+        this.configuredSize = configuredSize;
+        this.size = configuredSize;
+    }
+
+    synchronized void setMinPercent(int minPercent) {
+        this.minPercent = minPercent;
+        this.size = Math.max(size, getMin());
+    }
+
+    synchronized void setMaxPercent(int maxPercent) {
+        this.maxPercent = maxPercent;
+        this.size = Math.min(size, getMax());
+    }
+
+    synchronized void setTargetLatencyMillis(long targetLatencyMillis) {
+        this.targetLatencyMillis = targetLatencyMillis;
+    }
+
+    /**
+     * Record a batch the cluster responded to.
+     * @param requests number of requests in the batch
+     * @param latencyMillis time taken by the batch request
+     */
+    synchronized void onResponse(int requests, long latencyMillis) {
+        if (latencyMillis > targetLatencyMillis) {
+            decrease();
+        } else if (requests >= size) {
+            // a batch that was not full does not tell whether a larger one is fine
+            size = Math.min(getMax(), size + Math.max(1, configuredSize / 10));
+        }
+    }
+
+    /**
+     * Record a batch rejected due to overload
+     */
+    synchronized void onOverload() {
+        decrease();
+    }
+
+    private void decrease() {
+        size = Math.max(getMin(), size / 2);
+    }
+
+    private int getMin() {
+        return Math.max(1, (int) Math.ceil(configuredSize * minPercent / 100.0));
+    }
+
+    private int getMax() {
+        return Math.max(getMin(), configuredSize * maxPercent / 100);
+    }
+}
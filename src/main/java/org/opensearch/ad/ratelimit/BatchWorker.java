@@ -23,7 +23,10 @@ import org.opensearch.action.support.ThreadedActionListener;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.ExceptionUtil;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.threadpool.ThreadPool;
@@ -37,7 +40,7 @@ import org.opensearch.threadpool.ThreadPool;
 public abstract class BatchWorker<RequestType extends QueuedRequest, BatchRequestType, BatchResponseType> extends
     ConcurrentWorker<RequestType> {
     private static final Logger LOG = LogManager.getLogger(BatchWorker.class);
-    protected int batchSize;
+    private final AdaptiveBatchSize batchSize;
 
     public BatchWorker(
         String queueName,
@@ -80,8 +83,21 @@ public abstract class BatchWorker<RequestType extends QueuedRequest, BatchReques
             stateTtl,
             nodeStateManager
         );
-        this.batchSize = batchSizeSetting.get(settings);
-        clusterService.getClusterSettings().addSettingsUpdateConsumer(batchSizeSetting, it -> batchSize = it);
+        this.batchSize = new AdaptiveBatchSize(
+            batchSizeSetting.get(settings),
+            AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT.get(settings),
+            AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT.get(settings),
+            AnomalyDetectorSettings.BATCH_TARGET_LATENCY.get(settings).getMillis()
+        );
+        ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        clusterSettings.addSettingsUpdateConsumer(batchSizeSetting, batchSize::setConfiguredSize);
+        clusterSettings.addSettingsUpdateConsumer(AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT, batchSize::setMinPercent);
+        clusterSettings.addSettingsUpdateConsumer(AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT, batchSize::setMaxPercent);
+        clusterSettings
+            .addSettingsUpdateConsumer(
+                AnomalyDetectorSettings.BATCH_TARGET_LATENCY,
+                it -> batchSize.setTargetLatencyMillis(it.getMillis())
+            );
     }
 
     /**
@@ -99,10 +115,28 @@ public abstract class BatchWorker<RequestType extends QueuedRequest, BatchReques
      */
     protected abstract BatchRequestType toBatchRequest(List<RequestType> toProcess);
 
+    /**
+     * Whether a batch response indicates the cluster is overloaded even though the
+     * batch request succeeded, e.g., items rejected in a bulk response.  Used to
+     * shrink the batch size.
+     * @param response Batch response
+     * @return whether the response indicates overload
+     */
+    protected boolean isOverloaded(BatchResponseType response) {
+        return false;
+    }
+
+    /**
+     * @return the current adaptive batch size
+     */
+    public int getBatchSize() {
+        return batchSize.get();
+    }
+
     @Override
     protected void execute(Runnable afterProcessCallback, Runnable emptyQueueCallback) {
 
-        List<RequestType> toProcess = getRequests(batchSize);
+        List<RequestType> toProcess = getRequests(batchSize.get());
 
         // it is possible other concurrent threads have drained the queue
         if (false == toProcess.isEmpty()) {
@@ -117,7 +151,20 @@ public abstract class BatchWorker<RequestType extends QueuedRequest, BatchReques
             );
 
             final ActionListener<BatchResponseType> listenerWithRelease = ActionListener.runAfter(listener, afterProcessCallback);
-            executeBatchRequest(batchRequest, listenerWithRelease);
+            final long startMillis = clock.millis();
+            executeBatchRequest(batchRequest, ActionListener.wrap(response -> {
+                if (isOverloaded(response)) {
+                    batchSize.onOverload();
+                } else {
+                    batchSize.onResponse(toProcess.size(), clock.millis() - startMillis);
+                }
+                listenerWithRelease.onResponse(response);
+            }, exception -> {
+                if (ExceptionUtil.isOverloaded(exception)) {
+                    batchSize.onOverload();
+                }
+                listenerWithRelease.onFailure(exception);
+            }));
         } else {
             emptyQueueCallback.run();
         }
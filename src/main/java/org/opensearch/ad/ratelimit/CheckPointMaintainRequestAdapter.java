@@ -20,7 +20,6 @@ import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
-import org.opensearch.action.update.UpdateRequest;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.EntityModel;
@@ -87,21 +86,12 @@ public class CheckPointMaintainRequestAdapter {
                             request.getExpirationEpochMs(),
                             detectorId,
                             request.getPriority(),
-                            // If the document does not already exist, the contents of the upsert element
-                            // are inserted as a new document.
-                            // If the document exists, update fields in the map
-                            new UpdateRequest(indexName, modelId).docAsUpsert(true).doc(source)
+                            CheckpointDao.toWriteRequest(indexName, modelId, source)
                         )
                     );
             } catch (Exception e) {
-                // Example exception:
-                // ConcurrentModificationException when calling toIndexSource
-                // and updating rcf model at the same time. To prevent this,
-                // we need to have a deep copy of models or have a lock. Both
-                // options are costly.
-                // As we are gonna retry serializing either when the entity is
-                // evicted out of cache or during the next maintenance period,
-                // don't do anything when the exception happens.
+                // not expected since concurrent scoring waits for the model snapshot.
+                // The model is saved again on eviction or in the next maintenance period.
                 LOG.error(new ParameterizedMessage("Exception while serializing models for [{}]", modelId), e);
             }
         }
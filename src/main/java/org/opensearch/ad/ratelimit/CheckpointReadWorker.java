@@ -13,10 +13,12 @@ package org.opensearch.ad.ratelimit;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_BATCH_SIZE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_CONCURRENCY;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -55,8 +57,10 @@ import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.search.fetch.subphase.FetchSourceContext;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.timeseries.constant.CommonMessages;
+import org.opensearch.timeseries.constant.CommonName;
 import org.opensearch.timeseries.stats.StatNames;
 
 /**
@@ -74,6 +78,8 @@ import org.opensearch.timeseries.stats.StatNames;
 public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, MultiGetRequest, MultiGetResponse> {
     private static final Logger LOG = LogManager.getLogger(CheckpointReadWorker.class);
     public static final String WORKER_NAME = "checkpoint-read";
+    // with bounded-load placement, a model kept off heap needs the checkpoint time to tell whether it is stale
+    static final FetchSourceContext CHECKPOINT_TIME_ONLY = new FetchSourceContext(true, new String[] { CommonName.TIMESTAMP }, null);
     private final ModelManager modelManager;
     private final CheckpointDao checkpointDao;
     private final EntityColdStartWorker entityColdStartQueue;
@@ -82,6 +88,9 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
     private final CacheProvider cacheProvider;
     private final CheckpointWriteWorker checkpointWriteQueue;
     private final ADStats adStats;
+    // Bounded-load placement moves entities between nodes without hash ring changes,
+    // which leaves off-heap copies stale.
+    private volatile boolean boundedPlacement;
 
     public CheckpointReadWorker(
         long heapSizeInBytes,
@@ -139,10 +148,17 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
         this.cacheProvider = cacheProvider;
         this.checkpointWriteQueue = checkpointWriteQueue;
         this.adStats = adStats;
+        this.boundedPlacement = PLACEMENT_CAPACITY_FACTOR.get(settings) >= 1;
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(PLACEMENT_CAPACITY_FACTOR, it -> boundedPlacement = it >= 1);
     }
 
     @Override
     protected void executeBatchRequest(MultiGetRequest request, ActionListener<MultiGetResponse> listener) {
+        if (request.getItems().isEmpty()) {
+            // all models of the batch are kept off heap
+            listener.onResponse(new MultiGetResponse(new MultiGetItemResponse[0]));
+            return;
+        }
         checkpointDao.batchRead(request, listener);
     }
 
@@ -150,27 +166,66 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
      * Convert the input list of EntityFeatureRequest to a multi-get request.
      * RateLimitedRequestWorker.getRequests has already limited the number of
      * requests in the input list. So toBatchRequest method can take the input
-     * and send the multi-get directly.
+     * and send the multi-get directly. Models kept off heap are restored without a read:
+     * copies of entities remapped on hash ring changes are dropped, so no other node has
+     * saved a newer checkpoint.  Only with bounded-load placement, which remaps entities
+     * between runs, the checkpoint time is read to check that the copy is not stale.
      * @return The converted multi-get request
      */
     @Override
     protected MultiGetRequest toBatchRequest(List<EntityFeatureRequest> toProcess) {
         MultiGetRequest multiGetRequest = new MultiGetRequest();
+        Set<String> dictionariesToLoad = null;
         for (EntityRequest request : toProcess) {
             Optional<String> modelId = request.getModelId();
             if (false == modelId.isPresent()) {
                 continue;
             }
-            multiGetRequest.add(new MultiGetRequest.Item(ADCommonName.CHECKPOINT_INDEX_NAME, modelId.get()));
+            MultiGetRequest.Item item = new MultiGetRequest.Item(ADCommonName.CHECKPOINT_INDEX_NAME, modelId.get());
+            if (cacheProvider.get().hasOffHeapModel(modelId.get())) {
+                if (boundedPlacement) {
+                    multiGetRequest.add(item.fetchSourceContext(CHECKPOINT_TIME_ONLY));
+                }
+                continue;
+            }
+            multiGetRequest.add(item);
+            if (checkpointDao.shouldLoadDictionary(request.getDetectorId())) {
+                // lazy init since dictionaries are cached after the first read
+                if (dictionariesToLoad == null) {
+                    dictionariesToLoad = new HashSet<>();
+                }
+                dictionariesToLoad.add(request.getDetectorId());
+            }
+        }
+        // fetch compression dictionaries together with checkpoints compressed with them
+        if (dictionariesToLoad != null) {
+            for (String detectorId : dictionariesToLoad) {
+                multiGetRequest
+                    .add(new MultiGetRequest.Item(ADCommonName.CHECKPOINT_INDEX_NAME, CheckpointDao.getDictionaryDocId(detectorId)));
+            }
         }
         return multiGetRequest;
     }
 
+    @Override
+    protected boolean isOverloaded(MultiGetResponse response) {
+        if (response == null) {
+            return false;
+        }
+        for (MultiGetItemResponse itemResponse : response.getResponses()) {
+            if (itemResponse.isFailed() && ExceptionUtil.isOverloaded(itemResponse.getFailure().getFailure())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected ActionListener<MultiGetResponse> getResponseListener(List<EntityFeatureRequest> toProcess, MultiGetRequest batchRequest) {
         return ActionListener.wrap(response -> {
             final MultiGetItemResponse[] itemResponses = response.getResponses();
             Map<String, MultiGetItemResponse> successfulRequests = new HashMap<>();
+            Map<String, Instant> offHeapModels = getOffHeapModels(toProcess, batchRequest);
 
             // lazy init since we don't expect retryable requests to happen often
             Set<String> retryableRequests = null;
@@ -181,17 +236,33 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
             Map<String, Exception> stopDetectorRequests = null;
             for (MultiGetItemResponse itemResponse : itemResponses) {
                 String modelId = itemResponse.getId();
+                if (CheckpointDao.isDictionaryDocId(modelId)) {
+                    // A failed dictionary read is not fatal. We will retry
+                    // when reading the next batch of checkpoints.
+                    if (false == itemResponse.isFailed()) {
+                        checkpointDao.processDictionaryResponse(itemResponse.getResponse());
+                    }
+                    continue;
+                }
                 if (itemResponse.isFailed()) {
                     final Exception failure = itemResponse.getFailure().getFailure();
                     if (failure instanceof IndexNotFoundException) {
-                        for (EntityRequest origRequest : toProcess) {
-                            // If it is checkpoint index not found exception, I don't
-                            // need to retry as checkpoint read is bound to fail. Just
-                            // send everything to the cold start queue and return.
-                            entityColdStartQueue.put(origRequest);
+                        for (EntityFeatureRequest origRequest : toProcess) {
+                            Optional<String> origModelId = origRequest.getModelId();
+                            if (false == origModelId.isPresent() || false == offHeapModels.containsKey(origModelId.get())) {
+                                // If it is checkpoint index not found exception, I don't
+                                // need to retry as checkpoint read is bound to fail. Just
+                                // send everything to the cold start queue and return.
+                                entityColdStartQueue.put(origRequest);
+                            }
                         }
+                        // no checkpoint is newer than the models kept off heap
+                        processCheckpointIteration(0, toProcess, Collections.emptyMap(), null, offHeapModels);
                         return;
-                    } else if (ExceptionUtil.isRetryAble(failure)) {
+                    }
+                    // a model kept off heap is only restored once we know its copy is not stale
+                    offHeapModels.remove(modelId);
+                    if (ExceptionUtil.isRetryAble(failure)) {
                         if (retryableRequests == null) {
                             retryableRequests = new HashSet<>();
                         }
@@ -213,11 +284,17 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
                         stopDetectorRequests.put(modelId, failure);
                     }
                 } else if (!itemResponse.getResponse().isExists()) {
+                    if (offHeapModels.containsKey(modelId)) {
+                        // no checkpoint is newer than the copy kept off heap
+                        continue;
+                    }
                     // lazy init as we don't expect retrying happens often
                     if (notFoundModels == null) {
                         notFoundModels = new HashSet<>();
                     }
                     notFoundModels.add(modelId);
+                } else if (offHeapModels.containsKey(modelId)) {
+                    offHeapModels.put(modelId, checkpointDao.getCheckpointTime(itemResponse.getResponse()).orElse(Instant.MIN));
                 } else {
                     successfulRequests.put(modelId, itemResponse);
                 }
@@ -252,12 +329,12 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
                 }
             }
 
-            if (successfulRequests.isEmpty() && (retryableRequests == null || retryableRequests.isEmpty())) {
+            if (successfulRequests.isEmpty() && (retryableRequests == null || retryableRequests.isEmpty()) && offHeapModels.isEmpty()) {
                 // don't need to proceed further since no checkpoint is available
                 return;
             }
 
-            processCheckpointIteration(0, toProcess, successfulRequests, retryableRequests);
+            processCheckpointIteration(0, toProcess, successfulRequests, retryableRequests, offHeapModels);
         }, exception -> {
             if (ExceptionUtil.isOverloaded(exception)) {
                 LOG.error("too many get AD model checkpoint requests or shard not available");
@@ -271,11 +348,36 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
         });
     }
 
+    /**
+     * @param toProcess requests of a batch
+     * @param batchRequest the multi-get request of the batch
+     * @return model ids of the batch that are kept off heap, i.e., whose checkpoints are
+     *  not read in full, mapped to Instant.MIN. The response listener replaces the value
+     *  with the time of the checkpoint in the index if only the time is read.
+     */
+    private Map<String, Instant> getOffHeapModels(List<EntityFeatureRequest> toProcess, MultiGetRequest batchRequest) {
+        Set<String> fullReads = new HashSet<>();
+        for (MultiGetRequest.Item item : batchRequest.getItems()) {
+            if (item.fetchSourceContext() != CHECKPOINT_TIME_ONLY) {
+                fullReads.add(item.id());
+            }
+        }
+        Map<String, Instant> offHeapModels = new HashMap<>();
+        for (EntityFeatureRequest request : toProcess) {
+            Optional<String> modelId = request.getModelId();
+            if (modelId.isPresent() && false == fullReads.contains(modelId.get())) {
+                offHeapModels.put(modelId.get(), Instant.MIN);
+            }
+        }
+        return offHeapModels;
+    }
+
     private void processCheckpointIteration(
         int i,
         List<EntityFeatureRequest> toProcess,
         Map<String, MultiGetItemResponse> successfulRequests,
-        Set<String> retryableRequests
+        Set<String> retryableRequests,
+        Map<String, Instant> offHeapModels
     ) {
         if (i >= toProcess.size()) {
             return;
@@ -299,16 +401,41 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
 
             MultiGetItemResponse checkpointResponse = successfulRequests.get(modelId);
 
+            Optional<Entry<EntityModel, Instant>> checkpoint = null;
             if (checkpointResponse != null) {
                 // successful requests
-                Optional<Entry<EntityModel, Instant>> checkpoint = checkpointDao
-                    .processGetResponse(checkpointResponse.getResponse(), modelId);
+                checkpoint = checkpointDao.processGetResponse(checkpointResponse.getResponse(), modelId);
 
                 if (false == checkpoint.isPresent()) {
-                    // checkpoint is too big
+                    if (checkpointDao.isMissingDictionary(checkpointResponse.getResponse())) {
+                        if (checkpointDao.shouldLoadDictionary(detectorId)) {
+                            // the dictionary is fetched together with the checkpoint next time
+                            super.put(origRequest);
+                        } else {
+                            // the dictionary does not exist. The checkpoint can never be read.
+                            entityColdStartQueue.put(origRequest);
+                        }
+                    }
+                    // otherwise checkpoint is too big or corrupted
                     return;
                 }
+            } else if (offHeapModels.containsKey(modelId)) {
+                checkpoint = cacheProvider.get().takeOffHeapModel(modelId);
+                if (false == checkpoint.isPresent()) {
+                    // evicted from off-heap storage after the batch was built. Read the checkpoint next time.
+                    super.put(origRequest);
+                    return;
+                }
+                if (offHeapModels.get(modelId).isAfter(checkpoint.get().getValue())) {
+                    // another node saved a newer checkpoint while the copy was kept here, i.e., bounded-load
+                    // placement moved the entity to another node and back. The copy is gone now, so the
+                    // checkpoint is read next time.
+                    super.put(origRequest);
+                    return;
+                }
+            }
 
+            if (checkpoint != null) {
                 nodeStateManager
                     .getAnomalyDetector(
                         detectorId,
@@ -319,6 +446,7 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
                             toProcess,
                             successfulRequests,
                             retryableRequests,
+                            offHeapModels,
                             checkpoint,
                             entity,
                             modelId
@@ -331,7 +459,7 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
             }
         } finally {
             if (false == processNextInCallBack) {
-                processCheckpointIteration(i + 1, toProcess, successfulRequests, retryableRequests);
+                processCheckpointIteration(i + 1, toProcess, successfulRequests, retryableRequests, offHeapModels);
             }
         }
     }
@@ -343,6 +471,7 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
         List<EntityFeatureRequest> toProcess,
         Map<String, MultiGetItemResponse> successfulRequests,
         Set<String> retryableRequests,
+        Map<String, Instant> offHeapModels,
         Optional<Entry<EntityModel, Instant>> checkpoint,
         Entity entity,
         String modelId
@@ -350,7 +479,7 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
         return ActionListener.wrap(detectorOptional -> {
             if (false == detectorOptional.isPresent()) {
                 LOG.warn(new ParameterizedMessage("AnomalyDetector [{}] is not available.", detectorId));
-                processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests);
+                processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests, offHeapModels);
                 return;
             }
 
@@ -381,7 +510,7 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
                 }
 
                 entityColdStartQueue.put(origRequest);
-                processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests);
+                processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests, offHeapModels);
                 return;
             }
 
@@ -422,11 +551,11 @@ public class CheckpointReadWorker extends BatchWorker<EntityFeatureRequest, Mult
                 checkpointWriteQueue.write(modelState, true, RequestPriority.LOW);
             }
 
-            processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests);
+            processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests, offHeapModels);
         }, exception -> {
             LOG.error(new ParameterizedMessage("fail to get checkpoint [{}]", modelId, exception));
             nodeStateManager.setException(detectorId, exception);
-            processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests);
+            processCheckpointIteration(index + 1, toProcess, successfulRequests, retryableRequests, offHeapModels);
         });
     }
 }
@@ -11,17 +11,44 @@
 
 package org.opensearch.ad.ratelimit;
 
-import org.opensearch.action.update.UpdateRequest;
+import org.opensearch.action.DocWriteRequest;
 
+/**
+ * A checkpoint write. It either carries a serialized checkpoint or only the
+ * model id, in which case CheckpointWriteWorker serializes the model's latest
+ * state when sending the batch.
+ */
 public class CheckpointWriteRequest extends QueuedRequest {
-    private final UpdateRequest updateRequest;
+    private final DocWriteRequest<?> writeRequest;
+    private final String modelId;
+
+    public CheckpointWriteRequest(long expirationEpochMs, String detectorId, RequestPriority priority, DocWriteRequest<?> writeRequest) {
+        super(expirationEpochMs, detectorId, priority);
+        this.writeRequest = writeRequest;
+        this.modelId = writeRequest.id();
+    }
 
-    public CheckpointWriteRequest(long expirationEpochMs, String detectorId, RequestPriority priority, UpdateRequest updateRequest) {
+    /**
+     *
+     * @param expirationEpochMs Request expiry time in milliseconds
+     * @param detectorId Detector Id
+     * @param priority how urgent the request is
+     * @param modelId Id of the model whose state is serialized on sending
+     */
+    public CheckpointWriteRequest(long expirationEpochMs, String detectorId, RequestPriority priority, String modelId) {
         super(expirationEpochMs, detectorId, priority);
-        this.updateRequest = updateRequest;
+        this.writeRequest = null;
+        this.modelId = modelId;
+    }
+
+    /**
+     * @return the serialized checkpoint or null if the model is serialized on sending
+     */
+    public DocWriteRequest<?> getWriteRequest() {
+        return writeRequest;
     }
 
-    public UpdateRequest getUpdateRequest() {
-        return updateRequest;
+    public String getModelId() {
+        return modelId;
     }
 }
@@ -22,15 +22,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
-import org.opensearch.action.update.UpdateRequest;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.ml.CheckpointDao;
@@ -44,13 +45,36 @@ import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.threadpool.ThreadPool;
 
+/**
+ * Writes checkpoints in batches.  Most writes are queued with a reference to the
+ * model state and serialized when their batch is sent, so queued writes are small
+ * and a model written several times before its batch goes out is serialized once.
+ */
 public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, BulkRequest, BulkResponse> {
     private static final Logger LOG = LogManager.getLogger(CheckpointWriteWorker.class);
     public static final String WORKER_NAME = "checkpoint-write";
 
+    /**
+     * Model state waiting to be serialized and the queued request that sends it
+     */
+    private static class PendingWrite {
+        private volatile ModelState<EntityModel> modelState;
+        private final long expirationEpochMs;
+        private final RequestPriority priority;
+
+        PendingWrite(ModelState<EntityModel> modelState, long expirationEpochMs, RequestPriority priority) {
+            this.modelState = modelState;
+            this.expirationEpochMs = expirationEpochMs;
+            this.priority = priority;
+        }
+    }
+
     private final CheckpointDao checkpoint;
     private final String indexName;
     private final Duration checkpointInterval;
+    // key is model id. A model has at most one pending write: later writes of the model
+    // coalesce into it.
+    private final ConcurrentHashMap<String, PendingWrite> pendingWrites;
 
     public CheckpointWriteWorker(
         long heapSizeInBytes,
@@ -97,10 +121,16 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
         this.checkpoint = checkpoint;
         this.indexName = indexName;
         this.checkpointInterval = checkpointInterval;
+        this.pendingWrites = new ConcurrentHashMap<>();
     }
 
     @Override
     protected void executeBatchRequest(BulkRequest request, ActionListener<BulkResponse> listener) {
+        if (request.numberOfActions() == 0) {
+            // all models of the batch have nothing to save
+            listener.onResponse(new BulkResponse(new BulkItemResponse[0], 0));
+            return;
+        }
         checkpoint.batchWrite(request, listener);
     }
 
@@ -108,11 +138,35 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
     protected BulkRequest toBatchRequest(List<CheckpointWriteRequest> toProcess) {
         final BulkRequest bulkRequest = new BulkRequest();
         for (CheckpointWriteRequest request : toProcess) {
-            bulkRequest.add(request.getUpdateRequest());
+            DocWriteRequest<?> writeRequest = request.getWriteRequest();
+            if (writeRequest == null) {
+                PendingWrite pending = pendingWrites.remove(request.getModelId());
+                if (pending == null) {
+                    // coalesced into a write that has been sent
+                    continue;
+                }
+                writeRequest = toWriteRequest(request.getModelId(), pending.modelState);
+            }
+            if (writeRequest != null) {
+                bulkRequest.add(writeRequest);
+            }
         }
         return bulkRequest;
     }
 
+    @Override
+    protected boolean isOverloaded(BulkResponse response) {
+        if (response == null) {
+            return false;
+        }
+        for (BulkItemResponse r : response.getItems()) {
+            if (r.isFailed() && ExceptionUtil.isOverloaded(r.getFailure().getCause())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected ActionListener<BulkResponse> getResponseListener(List<CheckpointWriteRequest> toProcess, BulkRequest batchRequest) {
         return ActionListener.wrap(response -> {
@@ -140,12 +194,23 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
         });
     }
 
+    @Override
+    public void maintenance() {
+        super.maintenance();
+        // pending writes whose queued request expired or was pruned
+        long now = clock.millis();
+        pendingWrites.values().removeIf(pending -> pending.expirationEpochMs < now);
+    }
+
     /**
      * Prepare bulking the input model state to the checkpoint index.
      * We don't save checkpoints within checkpointInterval again, except this
      * is a high priority request (e.g., from cold start).
      * This method will update the input state's last checkpoint time if the
      *  checkpoint is staged (ready to be written in the next batch).
+     *
+     * The model is serialized when its batch is sent. Callers that clear the
+     * model afterwards should use {@link #writeSnapshot} instead.
      * @param modelState Model state
      * @param forceWrite whether we should write no matter what
      * @param priority how urgent the write is
@@ -167,6 +232,54 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
         }
     }
 
+    /**
+     * Serialize the input model state now and bulk it to the checkpoint index.
+     * Used when the model is cleared right after, e.g., on cache eviction, so
+     * it cannot be serialized when the batch is sent.  Otherwise the same as
+     * {@link #write}.
+     * @param modelState Model state
+     * @param forceWrite whether we should write no matter what
+     * @param priority how urgent the write is
+     */
+    public void writeSnapshot(ModelState<EntityModel> modelState, boolean forceWrite, RequestPriority priority) {
+        Instant instant = modelState.getLastCheckpointTime();
+        if (!checkpoint.shouldSave(instant, forceWrite, checkpointInterval, clock)) {
+            return;
+        }
+
+        if (modelState.getModel() != null) {
+            String detectorId = modelState.getDetectorId();
+            String modelId = modelState.getModelId();
+            if (modelId == null || detectorId == null) {
+                return;
+            }
+
+            // the snapshot is newer than any pending write of the model
+            pendingWrites.remove(modelId);
+            DocWriteRequest<?> writeRequest = toWriteRequest(modelId, modelState);
+            if (writeRequest == null) {
+                return;
+            }
+            modelState.setLastCheckpointTime(clock.instant());
+
+            nodeStateManager.getAnomalyDetector(detectorId, ActionListener.wrap(detectorOptional -> {
+                if (false == detectorOptional.isPresent()) {
+                    LOG.warn(new ParameterizedMessage("AnomalyDetector [{}] is not available.", detectorId));
+                    return;
+                }
+
+                put(
+                    new CheckpointWriteRequest(
+                        System.currentTimeMillis() + detectorOptional.get().getDetectorIntervalInMilliseconds(),
+                        detectorId,
+                        priority,
+                        writeRequest
+                    )
+                );
+            }, exception -> { LOG.error(new ParameterizedMessage("fail to get detector [{}]", detectorId), exception); }));
+        }
+    }
+
     private ActionListener<Optional<AnomalyDetector>> onGetDetector(
         String detectorId,
         String modelId,
@@ -180,38 +293,11 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
             }
 
             AnomalyDetector detector = detectorOptional.get();
-            try {
-                Map<String, Object> source = checkpoint.toIndexSource(modelState);
-
-                // the model state is bloated or we have bugs, skip
-                if (source == null || source.isEmpty()) {
-                    return;
-                }
-
-                modelState.setLastCheckpointTime(clock.instant());
-                CheckpointWriteRequest request = new CheckpointWriteRequest(
-                    System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
-                    detectorId,
-                    priority,
-                    // If the document does not already exist, the contents of the upsert element
-                    // are inserted as a new document.
-                    // If the document exists, update fields in the map
-                    new UpdateRequest(indexName, modelId).docAsUpsert(true).doc(source)
-                );
-
-                put(request);
-            } catch (Exception e) {
-                // Example exception:
-                // ConcurrentModificationException when calling toCheckpoint
-                // and updating rcf model at the same time. To prevent this,
-                // we need to have a deep copy of models or have a lock. Both
-                // options are costly.
-                // As we are gonna retry serializing either when the entity is
-                // evicted out of cache or during the next maintenance period,
-                // don't do anything when the exception happens.
-                LOG.error(new ParameterizedMessage("Exception while serializing models for [{}]", modelId), e);
+            modelState.setLastCheckpointTime(clock.instant());
+            long expirationEpochMs = System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds();
+            if (addPendingWrite(modelId, modelState, expirationEpochMs, priority)) {
+                put(new CheckpointWriteRequest(expirationEpochMs, detectorId, priority, modelId));
             }
-
         }, exception -> { LOG.error(new ParameterizedMessage("fail to get detector [{}]", detectorId), exception); });
     }
 
@@ -223,52 +309,80 @@ public class CheckpointWriteWorker extends BatchWorker<CheckpointWriteRequest, B
             }
 
             AnomalyDetector detector = detectorOptional.get();
-            try {
-                List<CheckpointWriteRequest> allRequests = new ArrayList<>();
-                for (ModelState<EntityModel> state : modelStates) {
-                    Instant instant = state.getLastCheckpointTime();
-                    if (!checkpoint.shouldSave(instant, forceWrite, checkpointInterval, clock)) {
-                        continue;
-                    }
-
-                    Map<String, Object> source = checkpoint.toIndexSource(state);
-                    String modelId = state.getModelId();
-
-                    // the model state is bloated or empty (empty samples and models), skip
-                    if (source == null || source.isEmpty() || Strings.isEmpty(modelId)) {
-                        continue;
-                    }
-
-                    state.setLastCheckpointTime(clock.instant());
-                    allRequests
-                        .add(
-                            new CheckpointWriteRequest(
-                                System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
-                                detectorId,
-                                priority,
-                                // If the document does not already exist, the contents of the upsert element
-                                // are inserted as a new document.
-                                // If the document exists, update fields in the map
-                                new UpdateRequest(indexName, modelId).docAsUpsert(true).doc(source)
-                            )
-                        );
+            List<CheckpointWriteRequest> allRequests = new ArrayList<>();
+            for (ModelState<EntityModel> state : modelStates) {
+                Instant instant = state.getLastCheckpointTime();
+                if (!checkpoint.shouldSave(instant, forceWrite, checkpointInterval, clock)) {
+                    continue;
+                }
+
+                String modelId = state.getModelId();
+                if (state.getModel() == null || Strings.isEmpty(modelId)) {
+                    continue;
                 }
 
-                putAll(allRequests);
-            } catch (Exception e) {
-                // Example exception:
-                // ConcurrentModificationException when calling toCheckpoint
-                // and updating rcf model at the same time. To prevent this,
-                // we need to have a deep copy of models or have a lock. Both
-                // options are costly.
-                // As we are gonna retry serializing either when the entity is
-                // evicted out of cache or during the next maintenance period,
-                // don't do anything when the exception happens.
-                LOG.info(new ParameterizedMessage("Exception while serializing models for [{}]", detectorId), e);
+                state.setLastCheckpointTime(clock.instant());
+                long expirationEpochMs = System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds();
+                if (addPendingWrite(modelId, state, expirationEpochMs, priority)) {
+                    allRequests.add(new CheckpointWriteRequest(expirationEpochMs, detectorId, priority, modelId));
+                }
             }
 
+            putAll(allRequests);
         }, exception -> { LOG.error(new ParameterizedMessage("fail to get detector [{}]", detectorId), exception); });
 
         nodeStateManager.getAnomalyDetector(detectorId, onGetForAll);
     }
+
+    /**
+     * Record a model state to serialize when its batch is sent.  If the model
+     * already has a pending write, the write uses the input state and no new
+     * request is needed unless the input priority is higher.
+     *
+     * @param modelId Model Id
+     * @param modelState Model state
+     * @param expirationEpochMs expiry time of the request carrying the write
+     * @param priority how urgent the write is
+     * @return whether a request needs to be queued for the write
+     */
+    private boolean addPendingWrite(String modelId, ModelState<EntityModel> modelState, long expirationEpochMs, RequestPriority priority) {
+        long now = clock.millis();
+        boolean[] needRequest = new boolean[] { false };
+        pendingWrites.compute(modelId, (k, pending) -> {
+            if (pending == null || pending.expirationEpochMs < now || pending.priority.compareTo(priority) < 0) {
+                // whichever of the queued requests is sent first writes the model
+                needRequest[0] = true;
+                return new PendingWrite(modelState, expirationEpochMs, priority);
+            }
+            pending.modelState = modelState;
+            return pending;
+        });
+        return needRequest[0];
+    }
+
+    /**
+     * Serialize a model state to a write of its checkpoint
+     * @param modelId Model Id
+     * @param modelState Model state
+     * @return the write or null if there is nothing to save
+     */
+    private DocWriteRequest<?> toWriteRequest(String modelId, ModelState<EntityModel> modelState) {
+        try {
+            Map<String, Object> source = checkpoint.toIndexSource(modelState);
+
+            // the model state is bloated or empty (empty samples and models), skip
+            if (source == null || source.isEmpty()) {
+                return null;
+            }
+
+            return CheckpointDao.toWriteRequest(indexName, modelId, source);
+        } catch (Exception e) {
+            // toIndexSource copies the model under its snapshot lock, so scoring
+            // no longer makes serialization fail. Failures left are unexpected;
+            // we retry serializing either when the entity is evicted out of cache
+            // or during the next maintenance period.
+            LOG.error(new ParameterizedMessage("Exception while serializing models for [{}]", modelId), e);
+            return null;
+        }
+    }
 }
@@ -11,11 +11,15 @@
 
 package org.opensearch.ad.ratelimit;
 
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_BATCH_SIZE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_CONCURRENCY;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Random;
@@ -46,6 +50,10 @@ import org.opensearch.threadpool.ThreadPool;
  * detectors into different segments and pulling requests from segments in a
  * round-robin fashion.
  *
+ * Up to batchSize requests of the same detector pulled together are trained in
+ * one go so that their training data are fetched with a few searches instead of
+ * a few searches per entity.
+ *
  */
 public class EntityColdStartWorker extends SingleRequestWorker<EntityRequest> {
     private static final Logger LOG = LogManager.getLogger(EntityColdStartWorker.class);
@@ -53,6 +61,7 @@ public class EntityColdStartWorker extends SingleRequestWorker<EntityRequest> {
 
     private final EntityColdStarter entityColdStarter;
     private final CacheProvider cacheProvider;
+    private volatile int batchSize;
 
     public EntityColdStartWorker(
         long heapSizeInBytes,
@@ -96,48 +105,139 @@ public class EntityColdStartWorker extends SingleRequestWorker<EntityRequest> {
         );
         this.entityColdStarter = entityColdStarter;
         this.cacheProvider = cacheProvider;
+        this.batchSize = ENTITY_COLD_START_QUEUE_BATCH_SIZE.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(ENTITY_COLD_START_QUEUE_BATCH_SIZE, it -> this.batchSize = it);
+    }
+
+    @Override
+    protected void execute(Runnable afterProcessCallback, Runnable emptyQueueCallback) {
+        if (batchSize <= 1) {
+            super.execute(afterProcessCallback, emptyQueueCallback);
+            return;
+        }
+
+        Optional<RequestQueue> queueOptional = selectNextQueue();
+        if (false == queueOptional.isPresent()) {
+            // no queue has requests
+            emptyQueueCallback.run();
+            return;
+        }
+
+        RequestQueue queue = queueOptional.get();
+        EntityRequest request = queue.poll();
+        if (request == null) {
+            emptyQueueCallback.run();
+            return;
+        }
+
+        List<EntityRequest> requests = new ArrayList<>();
+        requests.add(request);
+        List<EntityRequest> drained = new ArrayList<>();
+        queue.drainTo(drained, batchSize - 1);
+        for (EntityRequest drainedRequest : drained) {
+            // medium priority queues are per detector while low and high priority queues
+            // mix detectors. Requests of other detectors go back to the queue.
+            if (request.getDetectorId().equals(drainedRequest.getDetectorId())) {
+                requests.add(drainedRequest);
+            } else {
+                putOnly(drainedRequest);
+            }
+        }
+
+        final ActionListener<Void> handlerWithRelease = ActionListener.wrap(afterProcessCallback);
+        if (requests.size() == 1) {
+            executeRequest(request, handlerWithRelease);
+        } else {
+            executeBatchRequest(request.getDetectorId(), requests, handlerWithRelease);
+        }
     }
 
     @Override
     protected void executeRequest(EntityRequest coldStartRequest, ActionListener<Void> listener) {
         String detectorId = coldStartRequest.getDetectorId();
 
+        Optional<ModelState<EntityModel>> modelState = createModelState(coldStartRequest);
+
+        if (false == modelState.isPresent()) {
+            listener.onFailure(new RuntimeException(String.format(Locale.ROOT, "Fail to get model id for request %s", coldStartRequest)));
+            return;
+        }
+
+        entityColdStarter
+            .trainModel(
+                coldStartRequest.getEntity(),
+                detectorId,
+                modelState.get(),
+                createColdStartListener(detectorId, Collections.singletonList(modelState.get()), listener)
+            );
+    }
+
+    /**
+     * Train models of cold start requests of the same detector together.
+     * @param detectorId Detector Id
+     * @param coldStartRequests requests to execute
+     * @param listener listener to call after all of the requests finish
+     */
+    private void executeBatchRequest(String detectorId, List<EntityRequest> coldStartRequests, ActionListener<Void> listener) {
+        List<ModelState<EntityModel>> modelStates = new ArrayList<>();
+        for (EntityRequest coldStartRequest : coldStartRequests) {
+            createModelState(coldStartRequest).ifPresent(modelStates::add);
+        }
+
+        if (modelStates.isEmpty()) {
+            listener.onFailure(new RuntimeException(String.format(Locale.ROOT, "Fail to get model ids for detector %s", detectorId)));
+            return;
+        }
+
+        entityColdStarter.trainModels(detectorId, modelStates, createColdStartListener(detectorId, modelStates, listener));
+    }
+
+    private Optional<ModelState<EntityModel>> createModelState(EntityRequest coldStartRequest) {
         Optional<String> modelId = coldStartRequest.getModelId();
 
         if (false == modelId.isPresent()) {
-            String error = String.format(Locale.ROOT, "Fail to get model id for request %s", coldStartRequest);
-            LOG.warn(error);
-            listener.onFailure(new RuntimeException(error));
-            return;
+            LOG.warn(String.format(Locale.ROOT, "Fail to get model id for request %s", coldStartRequest));
+            return Optional.empty();
         }
 
-        ModelState<EntityModel> modelState = new ModelState<>(
-            new EntityModel(coldStartRequest.getEntity(), new ArrayDeque<>(), null),
-            modelId.get(),
-            detectorId,
-            ModelType.ENTITY.getName(),
-            clock,
-            0
-        );
+        return Optional
+            .of(
+                new ModelState<>(
+                    new EntityModel(coldStartRequest.getEntity(), new ArrayDeque<>(), null),
+                    modelId.get(),
+                    coldStartRequest.getDetectorId(),
+                    ModelType.ENTITY.getName(),
+                    clock,
+                    0
+                )
+            );
+    }
 
-        ActionListener<Void> coldStartListener = ActionListener.wrap(r -> {
+    private ActionListener<Void> createColdStartListener(
+        String detectorId,
+        List<ModelState<EntityModel>> modelStates,
+        ActionListener<Void> listener
+    ) {
+        return ActionListener.wrap(r -> {
             nodeStateManager.getAnomalyDetector(detectorId, ActionListener.wrap(detectorOptional -> {
                 try {
                     if (!detectorOptional.isPresent()) {
                         LOG
                             .error(
                                 new ParameterizedMessage(
-                                    "fail to load trained model [{}] to cache due to the detector not being found.",
-                                    modelState.getModelId()
+                                    "fail to load trained models of detector [{}] to cache due to the detector not being found.",
+                                    detectorId
                                 )
                             );
                         return;
                     }
                     AnomalyDetector detector = detectorOptional.get();
-                    EntityModel model = modelState.getModel();
-                    // load to cache if cold start succeeds
-                    if (model != null && model.getTrcf() != null) {
-                        cacheProvider.get().hostIfPossible(detector, modelState);
+                    for (ModelState<EntityModel> modelState : modelStates) {
+                        EntityModel model = modelState.getModel();
+                        // load to cache if cold start succeeds
+                        if (model != null && model.getTrcf() != null) {
+                            cacheProvider.get().hostIfPossible(detector, modelState);
+                        }
                     }
                 } finally {
                     listener.onResponse(null);
@@ -155,7 +255,5 @@ public class EntityColdStartWorker extends SingleRequestWorker<EntityRequest> {
                 listener.onFailure(e);
             }
         });
-
-        entityColdStarter.trainModel(coldStartRequest.getEntity(), detectorId, modelState, coldStartListener);
     }
 }
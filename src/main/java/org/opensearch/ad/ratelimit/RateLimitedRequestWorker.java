@@ -12,23 +12,26 @@
 package org.opensearch.ad.ratelimit;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_REQUEST_QUEUE_QUANTUM;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,6 +42,7 @@ import org.opensearch.ad.MaintenanceState;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
+import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
@@ -78,10 +82,40 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
         // data structure to hold requests. Cannot be reassigned. This is to
         // guarantee a RequestQueue's content cannot be null.
         private final BlockingQueue<RequestType> content;
-
-        RequestQueue() {
+        private final String id;
+        // whether the queue is in activeQueues. Only set while holding the lock of activeQueues.
+        private volatile boolean active;
+        // deficit round-robin state. Written while holding the lock of activeQueues.
+        private volatile int quantum;
+        private volatile int deficit;
+        private long windowStartMs;
+        private int lastWindowArrivals;
+        // requests added in the current window, approximately one per entity of the detector
+        private final AtomicInteger windowArrivals;
+        // service metrics
+        private final AtomicLong servedRequests;
+        private final AtomicLong expiredRequests;
+        private final AtomicLong droppedRequests;
+        private final AtomicLong turns;
+
+        RequestQueue(String id) {
             this.lastAccessTime = clock.instant();
             this.content = new LinkedBlockingQueue<RequestType>();
+            this.id = id;
+            this.active = false;
+            this.quantum = 1;
+            this.deficit = 0;
+            this.windowStartMs = clock.millis();
+            this.lastWindowArrivals = -1;
+            this.windowArrivals = new AtomicInteger();
+            this.servedRequests = new AtomicLong();
+            this.expiredRequests = new AtomicLong();
+            this.droppedRequests = new AtomicLong();
+            this.turns = new AtomicLong();
+        }
+
+        public String getId() {
+            return id;
         }
 
         @Override
@@ -91,6 +125,43 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
 
         public void put(RequestType request) throws InterruptedException {
             this.content.put(request);
+            windowArrivals.incrementAndGet();
+        }
+
+        /**
+         * Take the next request and charge it to the queue's deficit
+         * @return the next request or null if the queue is empty
+         */
+        public RequestType poll() {
+            RequestType request = content.poll();
+            if (request != null) {
+                onServed(this, 1);
+            }
+            return request;
+        }
+
+        /**
+         * Take requests and charge them to the queue's deficit
+         * @param requests where to add taken requests
+         * @param maxRequests max number of requests to take
+         * @return the number of taken requests
+         */
+        public int drainTo(Collection<? super RequestType> requests, int maxRequests) {
+            int drained = content.drainTo(requests, maxRequests);
+            if (drained > 0) {
+                onServed(this, drained);
+            }
+            return drained;
+        }
+
+        /**
+         * @return number of requests the queue can take in its current turn, at least 1
+         */
+        public int getAllowance() {
+            if (RequestPriority.LOW.name().equals(id)) {
+                return Integer.MAX_VALUE;
+            }
+            return Math.max(1, deficit);
         }
 
         public int size() {
@@ -111,6 +182,7 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
             while (removed <= numberToRemove) {
                 if (content.poll() != null) {
                     removed++;
+                    droppedRequests.incrementAndGet();
                 } else {
                     // stop if the queue is empty
                     break;
@@ -154,6 +226,7 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
                 removed++;
                 head = content.peek();
             }
+            expiredRequests.addAndGet(removed);
             return removed;
         }
     }
@@ -173,7 +246,9 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
     // is to separate requests from different detectors and fairly process requests
     // from each detector.
     protected final ConcurrentSkipListMap<String, RequestQueue> requestQueues;
-    private String lastSelectedRequestQueueId;
+    // Ring of non-empty HIGH and MEDIUM priority RequestQueues in deficit round-robin
+    // order. The head is the queue being served. Used as the lock of scheduling state.
+    private final ArrayDeque<RequestQueue> activeQueues;
     protected Random random;
     private ADCircuitBreakerService adCircuitBreakerService;
     protected ThreadPool threadPool;
@@ -225,8 +300,8 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
         this.mediumRequestQueuePruneRatio = mediumRequestQueuePruneRatio;
         this.lowRequestQueuePruneRatio = lowRequestQueuePruneRatio;
 
-        this.lastSelectedRequestQueueId = null;
         this.requestQueues = new ConcurrentSkipListMap<>();
+        this.activeQueues = new ArrayDeque<>();
         this.cooldownStart = Instant.MIN;
         this.coolDownMinutes = (int) (COOLDOWN_MINUTES.get(settings).getMinutes());
         this.maintenanceFreqConstant = maintenanceFreqConstant;
@@ -241,60 +316,149 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
     /**
      * To add fairness to multiple detectors, HCAD allocates queues at a per
      * detector granularity and pulls off requests across similar queues in a
-     * round-robin fashion.  This way, if one detector has a much higher
+     * deficit round-robin fashion.  This way, if one detector has a much higher
      * cardinality than other detectors,  the unfinished portion of that
      * detector’s workload times out, and other detectors’ workloads continue
      * operating with predictable performance. For example, for loading checkpoints,
      * HCAD pulls off 10 requests from one detector’ queues, issues a mget request
      * to ES, wait for it to finish, and then does it again for other detectors’
-     * queues.  If one queue does not have more than 10 requests, HCAD dequeues
-     * the next batches of messages in the round-robin schedule.
+     * queues.
+     *
+     * Non-empty HIGH and MEDIUM priority queues form a ring.  When a queue reaches
+     * the head of the ring, its deficit grows by its quantum (see {@link #getQuantum}).
+     * Each request taken from the queue costs one, and the queue moves to the tail
+     * once its deficit is used up, so a detector's share of a worker is proportional
+     * to its quantum.  The LOW priority queue is only served when the ring is empty.
+     * Selecting the next queue is O(1) apart from removing expired requests.
+     *
+     * Requests should be taken from the returned queue with {@link RequestQueue#poll}
+     * or {@link RequestQueue#drainTo}, up to {@link RequestQueue#getAllowance}.
      * @return next queue to fetch requests
      */
-    protected Optional<BlockingQueue<RequestType>> selectNextQueue() {
-        if (true == requestQueues.isEmpty()) {
-            return Optional.empty();
-        }
-
-        String startId = lastSelectedRequestQueueId;
-        try {
-            for (int i = 0; i < requestQueues.size(); i++) {
-                if (startId == null || requestQueues.size() == 1 || startId.equals(requestQueues.lastKey())) {
-                    startId = requestQueues.firstKey();
+    protected Optional<RequestQueue> selectNextQueue() {
+        synchronized (activeQueues) {
+            RequestQueue requestQueue = activeQueues.peekFirst();
+            while (requestQueue != null) {
+                requestQueue.clearExpiredRequests();
+                if (requestQueue.isEmpty()) {
+                    activeQueues.pollFirst();
+                    deactivate(requestQueue);
+                } else if (requestQueue.deficit > 0) {
+                    return Optional.of(requestQueue);
                 } else {
-                    startId = requestQueues.higherKey(startId);
-                }
-
-                if (startId.equals(RequestPriority.LOW.name())) {
-                    continue;
+                    // start of a turn
+                    requestQueue.quantum = getQuantum(requestQueue);
+                    requestQueue.deficit += requestQueue.quantum;
+                    requestQueue.turns.incrementAndGet();
+                    if (requestQueue.deficit > 0) {
+                        return Optional.of(requestQueue);
+                    }
+                    // still paying back requests taken beyond its allowance
+                    activeQueues.addLast(activeQueues.pollFirst());
                 }
+                requestQueue = activeQueues.peekFirst();
+            }
+        }
 
-                RequestQueue requestQueue = requestQueues.get(startId);
-                if (requestQueue == null) {
-                    continue;
-                }
+        RequestQueue requestQueue = requestQueues.get(RequestPriority.LOW.name());
+        if (requestQueue != null) {
+            requestQueue.clearExpiredRequests();
+            if (false == requestQueue.isEmpty()) {
+                return Optional.of(requestQueue);
+            }
+        }
+        // if we haven't find a non-empty queue , return empty.
+        return Optional.empty();
+    }
 
-                requestQueue.clearExpiredRequests();
+    /**
+     * The number of requests a queue can take in a deficit round-robin turn. The
+     * high priority queue gets the max quantum.  A detector's queue gets one
+     * request per entity per minute: the number of requests added to the queue
+     * in the last detector interval, which is about the number of its entities
+     * going through this worker, divided by the interval in minutes.  A detector
+     * with many entities or a short interval is served more often than a small
+     * one, while the small one still gets at least one request per turn.
+     *
+     * Subclasses can override it to weigh queues differently.
+     *
+     * @param requestQueue the queue starting its turn
+     * @return the quantum, in [1, MAX_REQUEST_QUEUE_QUANTUM]
+     */
+    protected int getQuantum(RequestQueue requestQueue) {
+        if (RequestPriority.HIGH.name().equals(requestQueue.id)) {
+            return MAX_REQUEST_QUEUE_QUANTUM;
+        }
+        long intervalMs = nodeStateManager
+            .getAnomalyDetectorIfPresent(requestQueue.id)
+            .map(AnomalyDetector::getDetectorIntervalInMilliseconds)
+            .orElse(Duration.ofMinutes(1).toMillis());
+        long nowMs = clock.millis();
+        if (nowMs - requestQueue.windowStartMs >= intervalMs) {
+            requestQueue.lastWindowArrivals = requestQueue.windowArrivals.getAndSet(0);
+            requestQueue.windowStartMs = nowMs;
+        }
+        // use the current window until a window is complete
+        int arrivals = requestQueue.lastWindowArrivals;
+        if (arrivals < 0) {
+            arrivals = requestQueue.windowArrivals.get();
+        }
+        long intervalMinutes = Math.max(1, Duration.ofMillis(intervalMs).toMinutes());
+        long quantum = (arrivals + intervalMinutes - 1) / intervalMinutes;
+        return (int) Math.max(1, Math.min(MAX_REQUEST_QUEUE_QUANTUM, quantum));
+    }
 
-                if (false == requestQueue.isEmpty()) {
-                    return Optional.of(requestQueue.content);
+    /**
+     * Charge taken requests to a queue and rotate the ring once its turn is over
+     * @param requestQueue the queue requests are taken from
+     * @param served number of taken requests
+     */
+    private void onServed(RequestQueue requestQueue, int served) {
+        requestQueue.servedRequests.addAndGet(served);
+        if (RequestPriority.LOW.name().equals(requestQueue.id)) {
+            return;
+        }
+        synchronized (activeQueues) {
+            requestQueue.deficit -= served;
+            if (requestQueue.deficit <= 0 && activeQueues.peekFirst() == requestQueue) {
+                activeQueues.pollFirst();
+                if (requestQueue.isEmpty()) {
+                    deactivate(requestQueue);
+                } else {
+                    activeQueues.addLast(requestQueue);
                 }
             }
+        }
+    }
 
-            RequestQueue requestQueue = requestQueues.get(RequestPriority.LOW.name());
-
-            if (requestQueue != null) {
-                requestQueue.clearExpiredRequests();
-                if (false == requestQueue.isEmpty()) {
-                    return Optional.of(requestQueue.content);
-                }
+    /**
+     * Add a queue to the ring if it is not there
+     * @param requestQueue queue that has requests
+     */
+    private void activate(RequestQueue requestQueue) {
+        if (requestQueue.active || RequestPriority.LOW.name().equals(requestQueue.id)) {
+            return;
+        }
+        synchronized (activeQueues) {
+            if (false == requestQueue.active) {
+                requestQueue.active = true;
+                activeQueues.addLast(requestQueue);
             }
-            // if we haven't find a non-empty queue , return empty.
-            return Optional.empty();
-        } finally {
-            // it is fine we may have race conditions. We are not trying to
-            // be precise. The objective is to select each RequestQueue with equal probability.
-            lastSelectedRequestQueueId = startId;
+        }
+    }
+
+    /**
+     * Mark a queue removed from the ring as inactive. Must hold the lock of activeQueues.
+     * @param requestQueue empty queue removed from the ring
+     */
+    private void deactivate(RequestQueue requestQueue) {
+        requestQueue.active = false;
+        // an idle queue does not keep credit
+        requestQueue.deficit = 0;
+        // a request may be added after the emptiness check but before active is reset
+        if (false == requestQueue.isEmpty()) {
+            requestQueue.active = true;
+            activeQueues.addLast(requestQueue);
         }
     }
 
@@ -306,11 +470,12 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
             RequestQueue requestQueue = requestQueues
                 .computeIfAbsent(
                     RequestPriority.MEDIUM == request.getPriority() ? request.getDetectorId() : request.getPriority().name(),
-                    k -> new RequestQueue()
+                    k -> new RequestQueue(k)
                 );
 
             requestQueue.lastAccessTime = clock.instant();
             requestQueue.put(request);
+            activate(requestQueue);
         } catch (Exception e) {
             LOG.error(new ParameterizedMessage("Failed to add requests to [{}]", this.workerName), e);
         }
@@ -463,6 +628,9 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
         try {
             maintainForMemory();
             maintainForThreadPool();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Request queues of [{}]: {}", workerName, getQueueServiceStats());
+            }
         } catch (Exception e) {
             LOG.warn("Failed to maintain", e);
         }
@@ -482,32 +650,45 @@ public abstract class RateLimitedRequestWorker<RequestType extends QueuedRequest
     protected List<RequestType> getRequests(int batchSize) {
         List<RequestType> toProcess = new ArrayList<>(batchSize);
 
-        Set<BlockingQueue<RequestType>> selectedQueue = new HashSet<>();
-
         while (toProcess.size() < batchSize) {
-            Optional<BlockingQueue<RequestType>> queue = selectNextQueue();
+            Optional<RequestQueue> queue = selectNextQueue();
             if (false == queue.isPresent()) {
                 // no queue has requests
                 break;
             }
 
-            BlockingQueue<RequestType> nextToProcess = queue.get();
-            if (selectedQueue.contains(nextToProcess)) {
-                // we have gone around all of the queues
-                break;
-            }
-            selectedQueue.add(nextToProcess);
-
-            List<RequestType> requests = new ArrayList<>();
+            RequestQueue nextToProcess = queue.get();
             // concurrent requests will wait to prevent concurrent draining.
             // This is fine since the operation is fast
-            nextToProcess.drainTo(requests, batchSize);
-            toProcess.addAll(requests);
+            int maxRequests = Math.min(batchSize - toProcess.size(), nextToProcess.getAllowance());
+            if (nextToProcess.drainTo(toProcess, maxRequests) == 0) {
+                // drained by others in the meantime
+                break;
+            }
         }
 
         return toProcess;
     }
 
+    /**
+     * @return service metrics of each RequestQueue, keyed by RequestQueue id
+     */
+    public Map<String, Map<String, Object>> getQueueServiceStats() {
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        for (Map.Entry<String, RequestQueue> entry : requestQueues.entrySet()) {
+            RequestQueue requestQueue = entry.getValue();
+            Map<String, Object> queueStats = new HashMap<>();
+            queueStats.put("size", requestQueue.size());
+            queueStats.put("quantum", requestQueue.quantum);
+            queueStats.put("turns", requestQueue.turns.get());
+            queueStats.put("served", requestQueue.servedRequests.get());
+            queueStats.put("expired", requestQueue.expiredRequests.get());
+            queueStats.put("dropped", requestQueue.droppedRequests.get());
+            stats.put(entry.getKey(), queueStats);
+        }
+        return stats;
+    }
+
     /**
      * Enqueuing runs asynchronously: we put requests in a queue, try to execute
      * them. The thread executing requests won't block the thread inserting
@@ -0,0 +1,277 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ratelimit;
+
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.RESULT_ROLLUP_INTERVAL;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ad.CleanState;
+import org.opensearch.ad.MaintenanceState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.DataByFeatureId;
+import org.opensearch.ad.model.FeatureData;
+import org.opensearch.ad.model.ResultRollup;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * Rolls up zero-grade HC results of an entity into one result per rollup interval.
+ *
+ * Almost all HC results have zero grade.  Writing each of them costs one result
+ * document per entity per detector interval.  Here zero-grade results are kept in
+ * memory per entity and written as one result when the entity's window ends: the
+ * anomaly score is the average score, and the rollup field records the count,
+ * score range, and feature ranges.  Anomalies and errors bypass the buffer.
+ *
+ * A window is written when a result of the entity falls in a later window, when
+ * the window is over and a sweep runs, or when the detector's models are cleared
+ * on the node.  A node that crashes loses at most one window of zero-grade results.
+ */
+public class ResultRollupBuffer implements MaintenanceState, CleanState {
+    private static final Logger LOG = LogManager.getLogger(ResultRollupBuffer.class);
+
+    // max entities buffered on a node; results of other entities are written one by one
+    static final int MAX_ENTITIES = 100_000;
+
+    private final Clock clock;
+    private final ResultWriteWorker resultWriteQueue;
+    // model id -> rollup of the entity's current window
+    private final Map<String, Rollup> rollups;
+    private volatile long intervalMillis;
+    private volatile long lastSweepWindow;
+
+    public ResultRollupBuffer(Clock clock, ClusterService clusterService, Settings settings, ResultWriteWorker resultWriteQueue) {
+        this.clock = clock;
+        this.resultWriteQueue = resultWriteQueue;
+        this.rollups = new ConcurrentHashMap<>();
+        this.intervalMillis = RESULT_ROLLUP_INTERVAL.get(settings).getMillis();
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(RESULT_ROLLUP_INTERVAL, it -> {
+            intervalMillis = it.getMillis();
+            if (intervalMillis <= 0) {
+                flush(rollup -> true);
+            }
+        });
+        this.lastSweepWindow = 0;
+    }
+
+    /**
+     * Buffer a zero-grade result
+     *
+     * @param result entity result
+     * @param detector detector config
+     * @return whether the result is buffered.  The caller writes the result if not.
+     */
+    public boolean add(AnomalyResult result, AnomalyDetector detector) {
+        long interval = intervalMillis;
+        if (interval <= 0 || result.isHighPriority() || result.getModelId() == null || result.getDataEndTime() == null) {
+            return false;
+        }
+        sweepIfNeeded(interval);
+
+        String modelId = result.getModelId();
+        if (rollups.size() >= MAX_ENTITIES && false == rollups.containsKey(modelId)) {
+            return false;
+        }
+
+        long window = getWindow(result.getDataEndTime().toEpochMilli(), interval);
+        Rollup[] ended = new Rollup[1];
+        rollups.compute(modelId, (k, rollup) -> {
+            if (rollup != null && rollup.window != window) {
+                ended[0] = rollup;
+                rollup = null;
+            }
+            if (rollup == null) {
+                rollup = new Rollup(window, window + interval + detector.getDetectorIntervalInMilliseconds(), detector.getResultIndex());
+            }
+            rollup.add(result);
+            return rollup;
+        });
+        if (ended[0] != null) {
+            write(ended[0]);
+        }
+        return true;
+    }
+
+    /**
+     * Write rollups whose window is over
+     */
+    @Override
+    public void maintenance() {
+        long now = clock.millis();
+        flush(rollup -> rollup.expiry <= now);
+    }
+
+    /**
+     * Write rollups of a detector
+     * @param detectorId detector id
+     */
+    @Override
+    public void clear(String detectorId) {
+        flush(rollup -> detectorId.equals(rollup.last.getDetectorId()));
+    }
+
+    /**
+     * @param time epoch millis
+     * @param interval rollup interval
+     * @return start time of the window containing the time
+     */
+    static long getWindow(long time, long interval) {
+        return time - time % interval;
+    }
+
+    int size() {
+        return rollups.size();
+    }
+
+    // write rollups whose window is over once per window
+    private void sweepIfNeeded(long interval) {
+        long currentWindow = getWindow(clock.millis(), interval);
+        if (currentWindow <= lastSweepWindow) {
+            return;
+        }
+        lastSweepWindow = currentWindow;
+        maintenance();
+    }
+
+    private void flush(Predicate<Rollup> toFlush) {
+        List<Rollup> flushed = new ArrayList<>();
+        Iterator<Map.Entry<String, Rollup>> iterator = rollups.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Rollup> entry = iterator.next();
+            Rollup rollup = entry.getValue();
+            if (toFlush.test(rollup) && rollups.remove(entry.getKey(), rollup)) {
+                flushed.add(rollup);
+            }
+        }
+        if (false == flushed.isEmpty()) {
+            LOG.debug("Write {} result rollups", flushed.size());
+        }
+        for (Rollup rollup : flushed) {
+            write(rollup);
+        }
+    }
+
+    private void write(Rollup rollup) {
+        AnomalyResult result = rollup.toAnomalyResult();
+        resultWriteQueue
+            .put(
+                new ResultWriteRequest(
+                    clock.millis() + rollup.expiry - rollup.window,
+                    result.getDetectorId(),
+                    RequestPriority.MEDIUM,
+                    result,
+                    rollup.resultIndex
+                )
+            );
+    }
+
+    /**
+     * Zero-grade results of an entity in a window.  Guarded by the compute
+     * lock of the rollup map.
+     */
+    private static class Rollup {
+        private final long window;
+        // the window is over after the rollup interval plus one detector interval for late results
+        private final long expiry;
+        private final String resultIndex;
+        private AnomalyResult first;
+        private AnomalyResult last;
+        private int count;
+        private double minScore = Double.MAX_VALUE;
+        private double maxScore = -Double.MAX_VALUE;
+        private double sumScore;
+        private double[] featureMin;
+        private double[] featureMax;
+
+        Rollup(long window, long expiry, String resultIndex) {
+            this.window = window;
+            this.expiry = expiry;
+            this.resultIndex = resultIndex;
+        }
+
+        void add(AnomalyResult result) {
+            if (first == null) {
+                first = result;
+            }
+            last = result;
+            count++;
+            double score = result.getAnomalyScore();
+            minScore = Math.min(minScore, score);
+            maxScore = Math.max(maxScore, score);
+            sumScore += score;
+
+            List<FeatureData> featureData = result.getFeatureData();
+            if (featureData == null) {
+                return;
+            }
+            if (featureMin == null) {
+                featureMin = new double[featureData.size()];
+                featureMax = new double[featureData.size()];
+                for (int i = 0; i < featureData.size(); i++) {
+                    featureMin[i] = featureData.get(i).getData();
+                    featureMax[i] = featureData.get(i).getData();
+                }
+            } else if (featureMin.length == featureData.size()) {
+                for (int i = 0; i < featureData.size(); i++) {
+                    featureMin[i] = Math.min(featureMin[i], featureData.get(i).getData());
+                    featureMax[i] = Math.max(featureMax[i], featureData.get(i).getData());
+                }
+            }
+        }
+
+        AnomalyResult toAnomalyResult() {
+            List<DataByFeatureId> mins = new ArrayList<>();
+            List<DataByFeatureId> maxes = new ArrayList<>();
+            List<FeatureData> featureData = first.getFeatureData();
+            if (featureMin != null) {
+                for (int i = 0; i < featureMin.length; i++) {
+                    mins.add(new DataByFeatureId(featureData.get(i).getFeatureId(), featureMin[i]));
+                    maxes.add(new DataByFeatureId(featureData.get(i).getFeatureId(), featureMax[i]));
+                }
+            }
+            double avgScore = sumScore / count;
+            return new AnomalyResult(
+                last.getDetectorId(),
+                last.getTaskId(),
+                avgScore,
+                0d,
+                last.getConfidence(),
+                last.getFeatureData(),
+                first.getDataStartTime(),
+                last.getDataEndTime(),
+                first.getExecutionStartTime(),
+                last.getExecutionEndTime(),
+                null,
+                last.getEntity(),
+                last.getUser(),
+                last.getSchemaVersion(),
+                last.getModelId(),
+                null,
+                null,
+                null,
+                null,
+                last.getThreshold(),
+                new ResultRollup(count, minScore, maxScore, avgScore, mins, maxes)
+            );
+        }
+    }
+}
@@ -19,6 +19,8 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -27,6 +29,7 @@ import org.opensearch.action.ActionListener;
 import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.ad.NodeStateManager;
+import org.opensearch.ad.TopAnomalySummary;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyResult;
@@ -51,6 +54,7 @@ public class ResultWriteWorker extends BatchWorker<ResultWriteRequest, ADResultB
 
     private final MultiEntityResultHandler resultHandler;
     private NamedXContentRegistry xContentRegistry;
+    private final TopAnomalySummary topAnomalySummary;
 
     public ResultWriteWorker(
         long heapSizeInBytes,
@@ -70,7 +74,8 @@ public class ResultWriteWorker extends BatchWorker<ResultWriteRequest, ADResultB
         MultiEntityResultHandler resultHandler,
         NamedXContentRegistry xContentRegistry,
         NodeStateManager stateManager,
-        Duration stateTtl
+        Duration stateTtl,
+        TopAnomalySummary topAnomalySummary
     ) {
         super(
             WORKER_NAME,
@@ -95,6 +100,7 @@ public class ResultWriteWorker extends BatchWorker<ResultWriteRequest, ADResultB
         );
         this.resultHandler = resultHandler;
         this.xContentRegistry = xContentRegistry;
+        this.topAnomalySummary = topAnomalySummary;
     }
 
     @Override
@@ -115,6 +121,15 @@ public class ResultWriteWorker extends BatchWorker<ResultWriteRequest, ADResultB
         return bulkRequest;
     }
 
+    /**
+     * Results are retried when their index requests fail in a bulk with a
+     * retryable status like 429 (too many requests).
+     */
+    @Override
+    protected boolean isOverloaded(ADResultBulkResponse response) {
+        return response != null && response.getRetryRequests().isPresent() && false == response.getRetryRequests().get().isEmpty();
+    }
+
     @Override
     protected ActionListener<ADResultBulkResponse> getResponseListener(
         List<ResultWriteRequest> toProcess,
@@ -123,10 +138,24 @@ public class ResultWriteWorker extends BatchWorker<ResultWriteRequest, ADResultB
         return ActionListener.wrap(adResultBulkResponse -> {
             if (adResultBulkResponse == null || false == adResultBulkResponse.getRetryRequests().isPresent()) {
                 // all successful
+                toProcess.forEach(request -> topAnomalySummary.record(request.getResult()));
                 return;
             }
 
-            enqueueRetryRequestIteration(adResultBulkResponse.getRetryRequests().get(), 0);
+            List<IndexRequest> retryRequests = adResultBulkResponse.getRetryRequests().get();
+            // retried results are recorded once they are written
+            Set<AnomalyResult> retriedResults = retryRequests
+                .stream()
+                .map(this::getAnomalyResult)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+            for (ResultWriteRequest request : toProcess) {
+                if (false == retriedResults.contains(request.getResult())) {
+                    topAnomalySummary.record(request.getResult());
+                }
+            }
+
+            enqueueRetryRequestIteration(retryRequests, 0);
         }, exception -> {
             if (ExceptionUtil.isRetryAble(exception)) {
                 // retry all of them
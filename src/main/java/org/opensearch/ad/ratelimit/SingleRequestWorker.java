@@ -15,7 +15,6 @@ import java.time.Clock;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.BlockingQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -76,14 +75,14 @@ public abstract class SingleRequestWorker<RequestType extends QueuedRequest> ext
     protected void execute(Runnable afterProcessCallback, Runnable emptyQueueCallback) {
         RequestType request = null;
 
-        Optional<BlockingQueue<RequestType>> queueOptional = selectNextQueue();
+        Optional<RequestQueue> queueOptional = selectNextQueue();
         if (false == queueOptional.isPresent()) {
             // no queue has requests
             emptyQueueCallback.run();
             return;
         }
 
-        BlockingQueue<RequestType> queue = queueOptional.get();
+        RequestQueue queue = queueOptional.get();
         if (false == queue.isEmpty()) {
             request = queue.poll();
         }
@@ -14,6 +14,7 @@ package org.opensearch.ad.settings;
 import java.time.Duration;
 
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.unit.ByteSizeValue;
 import org.opensearch.common.unit.TimeValue;
 
 /**
@@ -130,6 +131,20 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Consistent hashing with bounded loads for HC entities: while routing a detector's
+    // entities in an interval, a node may take at most this many times the average number
+    // of the detector's models placed per node so far. Entities over the bound go to the
+    // next node on the hash ring. Values below 1, like the default 0, route by hash only.
+    public static final Setting<Double> PLACEMENT_CAPACITY_FACTOR = Setting
+        .doubleSetting(
+            "plugins.anomaly_detection.placement_capacity_factor",
+            0,
+            0,
+            10,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
     public static final Setting<TimeValue> BACKOFF_MINUTES = Setting
         .positiveTimeSetting(
             "plugins.anomaly_detection.backoff_minutes",
@@ -180,6 +195,10 @@ public final class AnomalyDetectorSettings {
 
     public static final Duration HOURLY_MAINTENANCE = Duration.ofHours(1);
 
+    // Detector configs cached on a node are kept until an update or delete invalidates
+    // them. A config not used for this long is dropped.
+    public static final Duration DETECTOR_CONFIG_IDLE_TTL = Duration.ofDays(1);
+
     // saving checkpoint every 12 hours.
     // To support 1 million entities in 36 data nodes, each node has roughly 28K models.
     // In each hour, we roughly need to save 2400 models. Since each model saving can
@@ -193,6 +212,18 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Bytes of HC models (estimated by their in-memory size) checkpointed per hour by
+    // cache maintenance. Models updated since their last checkpoint are saved in the
+    // order of staleness times updates until the budget is used up. 0 uses the size
+    // of all cached models divided by the checkpoint saving frequency in hours.
+    public static final Setting<ByteSizeValue> CHECKPOINT_MAINTAIN_BYTES_PER_HOUR = Setting
+        .byteSizeSetting(
+            "plugins.anomaly_detection.checkpoint_maintain_bytes_per_hour",
+            ByteSizeValue.ZERO,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
     public static final Setting<TimeValue> CHECKPOINT_TTL = Setting
         .positiveTimeSetting(
             "plugins.anomaly_detection.checkpoint_ttl",
@@ -319,10 +350,61 @@ public final class AnomalyDetectorSettings {
     public static final Setting<Integer> DEDICATED_CACHE_SIZE = Setting
         .intSetting("plugins.anomaly_detection.dedicated_cache_size", 10, 0, 60_000, Setting.Property.NodeScope, Setting.Property.Dynamic);
 
+    // Percentage of heap size used as the budget of the direct memory holding serialized
+    // models evicted from the cache. A model loaded back from there skips the checkpoint
+    // index read. Direct memory is capped by -XX:MaxDirectMemorySize (half of the heap
+    // by default in OpenSearch), so the max is well below that.  0 disables the off-heap tier.
+    public static final Setting<Double> OFF_HEAP_MODEL_CACHE_PERCENT = Setting
+        .doubleSetting("plugins.anomaly_detection.off_heap_model_cache_percent", 0, 0, 0.2, Setting.Property.NodeScope);
+
+    // Disk budget in megabytes of the memory-mapped file on local disk holding serialized
+    // models dropped from the off-heap tier. The file is mapped in full so the max stays
+    // below 2 GB. 0 disables the file.
+    public static final Setting<Integer> MODEL_SPILL_FILE_SIZE_MB = Setting
+        .intSetting("plugins.anomaly_detection.model_spill_file_size_mb", 0, 0, 2047, Setting.Property.NodeScope);
+
+    // How long a model stays in the spill file after being evicted from the cache
+    public static final Setting<TimeValue> MODEL_SPILL_FILE_TTL = Setting
+        .positiveTimeSetting("plugins.anomaly_detection.model_spill_file_ttl", TimeValue.timeValueHours(6), Setting.Property.NodeScope);
+
+    // Bytes per second of cached HC models a node sends to their new owners when the
+    // hash ring changes. The new owner keeps them in its off-heap tier and restores them
+    // without reading their checkpoints, if it has built the same hash ring as the sender.
+    // Hand-off needs OFF_HEAP_MODEL_CACHE_PERCENT or MODEL_SPILL_FILE_SIZE_MB on the
+    // receiving node, and a node without either does not send. 0 (default) disables hand-off.
+    public static final Setting<ByteSizeValue> MODEL_HANDOFF_BYTES_PER_SEC = Setting
+        .byteSizeSetting(
+            "plugins.anomaly_detection.model_handoff_bytes_per_sec",
+            new ByteSizeValue(0),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    public static final String PRIORITY_CACHE_POLICY = "priority";
+    public static final String TINY_LFU_CACHE_POLICY = "tiny_lfu";
+
+    // Which entity cache a node hosts HC models in. "priority" ranks entities by a
+    // time-decayed hit count behind an optional bloom filter. "tiny_lfu" admits an
+    // entity only if it was accessed more often recently than the entity it evicts.
+    public static final Setting<String> ENTITY_CACHE_POLICY = Setting
+        .simpleString("plugins.anomaly_detection.entity_cache_policy", PRIORITY_CACHE_POLICY, value -> {
+            if (false == PRIORITY_CACHE_POLICY.equals(value) && false == TINY_LFU_CACHE_POLICY.equals(value)) {
+                throw new IllegalArgumentException("Unknown entity cache policy: " + value);
+            }
+        }, Setting.Property.NodeScope);
+
+    // A detector's frequency sketch takes 8 bytes per entity it is sized for, so
+    // one sketch takes at most 512 KB.
+    public static final int MAX_FREQUENCY_SKETCH_CAPACITY = 1 << 16;
+
     // We only keep priority (4 bytes float) in inactive cache. 1 million priorities
     // take up 4 MB.
     public static final int MAX_INACTIVE_ENTITIES = 1_000_000;
 
+    // Parsed feature aggregations are kept for at most this many detectors.
+    // MAX_DETECTOR_UPPER_LIMIT is the most detectors a cluster can have.
+    public static final int MAX_CACHED_FEATURE_QUERIES = MAX_DETECTOR_UPPER_LIMIT;
+
     // 1 million insertion costs roughly 1 MB.
     public static final int DOOR_KEEPER_FOR_CACHE_MAX_INSERTION = 1_000_000;
 
@@ -451,6 +533,26 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Max pieces of a historical analysis task in flight at once. With 2, the next
+    // piece is searched while the current piece is scored. Each extra piece lets the
+    // task move on while one more earlier piece's results are being indexed.
+    // 1 runs pieces one after another with the piece interval in between.
+    public static final Setting<Integer> BATCH_TASK_MAX_IN_FLIGHT_PIECES = Setting
+        .intSetting(
+            "plugins.anomaly_detection.batch_task_max_in_flight_pieces",
+            1,
+            1,
+            10,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Whether entity tasks of a historical HC analysis running on the same node share
+    // the scans of the source index. Pieces are aligned to multiples of the piece
+    // length so that the tasks ask for the same pieces.
+    public static final Setting<Boolean> BATCH_TASK_SHARED_SCAN = Setting
+        .boolSetting("plugins.anomaly_detection.batch_task_shared_scan", false, Setting.Property.NodeScope, Setting.Property.Dynamic);
+
     // Maximum number of entities we support for historical analysis.
     public static final int MAX_TOP_ENTITIES_LIMIT_FOR_HISTORICAL_ANALYSIS = 10_000;
     public static final Setting<Integer> MAX_TOP_ENTITIES_FOR_HISTORICAL_ANALYSIS = Setting
@@ -719,6 +821,83 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    /**
+     * Max cold start requests of the same detector trained together.  Their
+     * earliest timestamps and samples are fetched in one search each.
+     * Set it to 1 to train entities one by one.
+     */
+    public static final Setting<Integer> ENTITY_COLD_START_QUEUE_BATCH_SIZE = Setting
+        .intSetting(
+            "plugins.anomaly_detection.entity_cold_start_queue_batch_size",
+            10,
+            1,
+            100,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // A batch queue grows its batch size while batch requests finish within the
+    // target latency and halves it when a batch is slow or rejected.
+    public static final Setting<TimeValue> BATCH_TARGET_LATENCY = Setting
+        .positiveTimeSetting(
+            "plugins.anomaly_detection.batch_target_latency",
+            TimeValue.timeValueSeconds(1),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Bounds of an adaptive batch size in percent of the queue's configured batch size.
+    // Set both to 100 to use the configured batch sizes as is.
+    public static final Setting<Integer> MIN_BATCH_SIZE_PERCENT = Setting
+        .intSetting(
+            "plugins.anomaly_detection.min_batch_size_percent",
+            10,
+            1,
+            100,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    public static final Setting<Integer> MAX_BATCH_SIZE_PERCENT = Setting
+        .intSetting(
+            "plugins.anomaly_detection.max_batch_size_percent",
+            400,
+            100,
+            1000,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Zero-grade HC results of an entity within this interval are written as one
+    // rollup result (count, score and feature ranges). Anomalies and errors are
+    // still written one by one. 0 writes every result.
+    public static final Setting<TimeValue> RESULT_ROLLUP_INTERVAL = Setting
+        .timeSetting(
+            "plugins.anomaly_detection.result_rollup_interval",
+            TimeValue.ZERO,
+            TimeValue.ZERO,
+            TimeValue.timeValueDays(1),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Hourly maintenance tasks of a node start at even offsets within this window,
+    // shifted by a per-node offset, instead of all at the top of the hour on every
+    // node. 0 runs all of them at once.
+    public static final Setting<TimeValue> MAINTENANCE_SPREAD = Setting
+        .timeSetting(
+            "plugins.anomaly_detection.maintenance_spread",
+            TimeValue.timeValueMinutes(45),
+            TimeValue.ZERO,
+            TimeValue.timeValueMinutes(55),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Maintenance tasks iterating large data structures run one of this many
+    // slices per tick of the maintenance window.
+    public static final int MAINTENANCE_SLICES = 12;
+
     public static final Duration QUEUE_MAINTENANCE = Duration.ofMinutes(10);
 
     public static final float MAX_QUEUED_TASKS_RATIO = 0.5f;
@@ -730,6 +909,11 @@ public final class AnomalyDetectorSettings {
     // expensive maintenance (e.g., queue maintenance) with 1/10000 probability
     public static final int MAINTENANCE_FREQ_CONSTANT = 10000;
 
+    // Max number of requests a request queue can take in one deficit round-robin turn.
+    // The high priority queue always gets this quantum; a detector's queue gets one
+    // request per turn for each entity per minute it has queued, up to this limit.
+    public static final int MAX_REQUEST_QUEUE_QUANTUM = 32;
+
     // ======================================
     // Checkpoint setting
     // ======================================
@@ -750,6 +934,11 @@ public final class AnomalyDetectorSettings {
     // the size of the buffer used for rcf deserialization
     public static final int SERIALIZATION_BUFFER_BYTES = 512;
 
+    // We don't split an entity result request into partitions smaller than this
+    // when scoring in parallel. Scoring fewer entities does not pay for the
+    // thread hand-off.
+    public static final int MIN_ENTITIES_PER_SCORING_PARTITION = 100;
+
     // ======================================
     // pagination setting
     // ======================================
@@ -795,6 +984,18 @@ public final class AnomalyDetectorSettings {
     // ======================================
     public static final long TOP_ANOMALY_RESULT_TIMEOUT_IN_MILLIS = 60_000;
 
+    // How long real-time anomalies stay in the in-memory top anomaly summary. The
+    // top anomaly API reads the summary for time ranges within the retention and
+    // aggregates the result index otherwise. 0 disables the summary.
+    public static final Setting<TimeValue> TOP_ANOMALY_SUMMARY_RETENTION = Setting
+        .timeSetting(
+            "plugins.anomaly_detection.top_anomaly_summary_retention",
+            TimeValue.timeValueDays(7),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
     // ======================================
     // cleanup resouce setting
     // ======================================
@@ -43,6 +43,10 @@ public class EnabledSetting extends AbstractSetting {
 
     public static final String DOOR_KEEPER_IN_CACHE_ENABLED = "plugins.anomaly_detection.door_keeper_in_cache.enabled";;
 
+    public static final String CHECKPOINT_COMPRESSION_ENABLED = "plugins.anomaly_detection.checkpoint_compression.enabled";
+
+    public static final String APPROXIMATE_PRIORITY_TRACKING_ENABLED = "plugins.anomaly_detection.approximate_priority_tracking.enabled";
+
     public static final Map<String, Setting<?>> settings = unmodifiableMap(new HashMap<String, Setting<?>>() {
         {
             Setting LegacyADPluginEnabledSetting = Setting
@@ -83,6 +87,22 @@ public class EnabledSetting extends AbstractSetting {
              * than once. Whether this bloom filter is enabled or not.
              */
             put(DOOR_KEEPER_IN_CACHE_ENABLED, Setting.boolSetting(DOOR_KEEPER_IN_CACHE_ENABLED, false, NodeScope, Dynamic));
+
+            /**
+             * Whether entity checkpoints are compressed before being saved.
+             * Compressed checkpoints can be read regardless of this setting.
+             */
+            put(CHECKPOINT_COMPRESSION_ENABLED, Setting.boolSetting(CHECKPOINT_COMPRESSION_ENABLED, false, NodeScope, Dynamic));
+
+            /**
+             * Whether entity cache priorities are tracked with a sketch that makes
+             * cache hits O(1) at the cost of approximate priorities. Applies to
+             * detector caches created after the change.
+             */
+            put(
+                APPROXIMATE_PRIORITY_TRACKING_ENABLED,
+                Setting.boolSetting(APPROXIMATE_PRIORITY_TRACKING_ENABLED, false, NodeScope, Dynamic)
+            );
         }
     });
 
@@ -128,4 +148,20 @@ public class EnabledSetting extends AbstractSetting {
     public static boolean isDoorKeeperInCacheEnabled() {
         return EnabledSetting.getInstance().getSettingValue(EnabledSetting.DOOR_KEEPER_IN_CACHE_ENABLED);
     }
+
+    /**
+     * If enabled, entity checkpoints are compressed using per-detector dictionaries
+     * @return whether checkpoint compression is enabled or not.
+     */
+    public static boolean isCheckpointCompressionEnabled() {
+        return EnabledSetting.getInstance().getSettingValue(EnabledSetting.CHECKPOINT_COMPRESSION_ENABLED);
+    }
+
+    /**
+     * If enabled, entity cache priorities are tracked approximately with O(1) updates
+     * @return whether approximate priority tracking is enabled or not.
+     */
+    public static boolean isApproximatePriorityTrackingEnabled() {
+        return EnabledSetting.getInstance().getSettingValue(EnabledSetting.APPROXIMATE_PRIORITY_TRACKING_ENABLED);
+    }
 }
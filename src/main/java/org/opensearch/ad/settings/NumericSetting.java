@@ -30,6 +30,8 @@ public class NumericSetting extends AbstractSetting {
      */
     public static final String CATEGORY_FIELD_LIMIT = "plugins.anomaly_detection.category_field_limit";
 
+    public static final String ENTITY_SCORING_PARALLELISM = "plugins.anomaly_detection.entity_scoring_parallelism";
+
     private static final Map<String, Setting<?>> settings = unmodifiableMap(new HashMap<String, Setting<?>>() {
         {
             // how many categorical fields we support
@@ -42,6 +44,14 @@ public class NumericSetting extends AbstractSetting {
                 CATEGORY_FIELD_LIMIT,
                 Setting.intSetting(CATEGORY_FIELD_LIMIT, 2, 0, 5, Setting.Property.NodeScope, Setting.Property.Dynamic)
             );
+
+            // how many partitions of an entity result request we score concurrently
+            // on the AD thread pool. 1 means entities are scored one by one on the
+            // thread handling the request.
+            put(
+                ENTITY_SCORING_PARALLELISM,
+                Setting.intSetting(ENTITY_SCORING_PARALLELISM, 1, 1, 32, Setting.Property.NodeScope, Setting.Property.Dynamic)
+            );
         }
     });
 
@@ -63,4 +73,11 @@ public class NumericSetting extends AbstractSetting {
     public static int maxCategoricalFields() {
         return NumericSetting.getInstance().getSettingValue(NumericSetting.CATEGORY_FIELD_LIMIT);
     }
+
+    /**
+     * @return the max number of entity partitions scored concurrently for an entity result request
+     */
+    public static int entityScoringParallelism() {
+        return NumericSetting.getInstance().getSettingValue(NumericSetting.ENTITY_SCORING_PARALLELISM);
+    }
 }
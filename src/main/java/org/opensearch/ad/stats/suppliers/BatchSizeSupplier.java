@@ -0,0 +1,49 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.opensearch.ad.ratelimit.BatchWorker;
+
+/**
+ * BatchSizeSupplier provides the current adaptive batch size of each batch queue
+ * on a node.  Queues are registered after they are created since some of them
+ * depend on the node's stats.
+ */
+public class BatchSizeSupplier implements Supplier<Map<String, Integer>> {
+    private final Map<String, BatchWorker<?, ?, ?>> workers;
+
+    public BatchSizeSupplier() {
+        this.workers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Register a batch queue
+     *
+     * @param workerName name of the queue in stats
+     * @param worker the batch queue
+     */
+    public void register(String workerName, BatchWorker<?, ?, ?> worker) {
+        workers.put(workerName, worker);
+    }
+
+    @Override
+    public Map<String, Integer> get() {
+        Map<String, Integer> batchSizes = new HashMap<>();
+        workers.forEach((workerName, worker) -> batchSizes.put(workerName, worker.getBatchSize()));
+        return batchSizes;
+    }
+}
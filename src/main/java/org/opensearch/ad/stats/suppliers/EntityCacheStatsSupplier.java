@@ -0,0 +1,39 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.opensearch.ad.caching.CacheProvider;
+
+/**
+ * EntityCacheStatsSupplier provides the entity cache hits, misses, admissions,
+ * and rejections of each HC detector on a node
+ */
+public class EntityCacheStatsSupplier implements Supplier<Map<String, Map<String, Long>>> {
+    private CacheProvider cache;
+
+    /**
+     * Constructor
+     *
+     * @param cache object that manages multi-entity detectors' models
+     */
+    public EntityCacheStatsSupplier(CacheProvider cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> get() {
+        return cache.get().getCacheStats();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * PlacementSkewSupplier provides the placement skew of the latest page of entities
+ * each HC detector routed from this node: the highest ratio of a node's entity count
+ * to its share of the page. 1 means the page is spread as the nodes' capacities ask.
+ * Detectors that have not routed a page for a day are dropped.
+ */
+public class PlacementSkewSupplier implements Supplier<Map<String, Double>> {
+    static final Duration TTL = Duration.ofDays(1);
+
+    // detector id to skew and the epoch milliseconds it was recorded
+    private final Map<String, double[]> skews;
+    private final Clock clock;
+
+    public PlacementSkewSupplier(Clock clock) {
+        this.skews = new ConcurrentHashMap<>();
+        this.clock = clock;
+    }
+
+    /**
+     * Record the skew of a routed page
+     *
+     * @param detectorId detector id
+     * @param skew placement skew of the page
+     */
+    public void record(String detectorId, double skew) {
+        skews.put(detectorId, new double[] { skew, clock.millis() });
+    }
+
+    @Override
+    public Map<String, Double> get() {
+        long expiry = clock.millis() - TTL.toMillis();
+        skews.values().removeIf(skew -> skew[1] < expiry);
+        Map<String, Double> result = new HashMap<>();
+        skews.forEach((detectorId, skew) -> result.put(detectorId, skew[0]));
+        return result;
+    }
+}
@@ -22,8 +22,10 @@ import static org.opensearch.ad.model.ADTask.INIT_PROGRESS_FIELD;
 import static org.opensearch.ad.model.ADTask.STATE_FIELD;
 import static org.opensearch.ad.model.ADTask.TASK_PROGRESS_FIELD;
 import static org.opensearch.ad.model.ADTask.WORKER_NODE_FIELD;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_MAX_IN_FLIGHT_PIECES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_SHARED_SCAN;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_BATCH_TASK_PER_NODE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_RUNNING_ENTITIES_PER_DETECTOR_FOR_HISTORICAL_ANALYSIS;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_TOP_ENTITIES_FOR_HISTORICAL_ANALYSIS;
@@ -49,6 +51,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionListenerResponseHandler;
+import org.opensearch.action.StepListener;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ThreadedActionListener;
@@ -139,10 +142,13 @@ public class ADBatchTaskRunner {
     private final TransportRequestOptions option;
     private final HashRing hashRing;
     private final ModelManager modelManager;
+    private final SharedPieceScanner sharedPieceScanner;
 
     private volatile Integer maxAdBatchTaskPerNode;
     private volatile Integer pieceSize;
     private volatile Integer pieceIntervalSeconds;
+    private volatile int maxInFlightPieces;
+    private volatile boolean sharedScan;
     private volatile Integer maxTopEntitiesPerHcDetector;
     private volatile Integer maxRunningEntitiesPerDetector;
 
@@ -198,6 +204,13 @@ public class ADBatchTaskRunner {
         this.pieceIntervalSeconds = BATCH_TASK_PIECE_INTERVAL_SECONDS.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_PIECE_INTERVAL_SECONDS, it -> pieceIntervalSeconds = it);
 
+        this.maxInFlightPieces = BATCH_TASK_MAX_IN_FLIGHT_PIECES.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_MAX_IN_FLIGHT_PIECES, it -> maxInFlightPieces = it);
+
+        this.sharedScan = BATCH_TASK_SHARED_SCAN.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_SHARED_SCAN, it -> sharedScan = it);
+        this.sharedPieceScanner = new SharedPieceScanner(searchFeatureDao, adTaskCacheManager);
+
         this.maxTopEntitiesPerHcDetector = MAX_TOP_ENTITIES_FOR_HISTORICAL_ANALYSIS.get(settings);
         clusterService
             .getClusterSettings()
@@ -802,6 +815,7 @@ public class ADBatchTaskRunner {
         ActionListener<String> listener = ActionListener.wrap(response -> {
             // If batch task finished normally, remove task from cache and decrease executing task count by 1.
             adTaskCacheManager.remove(taskId, detectorId, detectorTaskId);
+            sharedPieceScanner.remove(adTask);
             adStats.getStat(AD_EXECUTING_BATCH_TASK_COUNT.getName()).decrement();
             if (!adTask.getDetector().isMultientityDetector()) {
                 // Set single-entity detector task as FINISHED here
@@ -819,6 +833,7 @@ public class ADBatchTaskRunner {
         }, e -> {
             // If batch task failed, remove task from cache and decrease executing task count by 1.
             adTaskCacheManager.remove(taskId, detectorId, detectorTaskId);
+            sharedPieceScanner.remove(adTask);
             adStats.getStat(AD_EXECUTING_BATCH_TASK_COUNT.getName()).decrement();
             if (!adTask.getDetector().isMultientityDetector()) {
                 adTaskManager.cleanDetectorCache(adTask, transportService, () -> handleException(adTask, e));
@@ -907,12 +922,18 @@ public class ADBatchTaskRunner {
                     ActionListener.wrap(r -> {
                         try {
                             checkIfADTaskCancelledAndCleanupCache(adTask);
+                            // null runs pieces one after another
+                            BatchTaskPiecePipeline pipeline = maxInFlightPieces > 1
+                                ? new BatchTaskPiecePipeline(maxInFlightPieces)
+                                : null;
+                            ActionListener<String> taskListener = pipeline == null
+                                ? internalListener
+                                : pipeline.notifyOnce(internalListener);
                             getDateRangeOfSourceData(adTask, (dataStartTime, dataEndTime) -> {
                                 long interval = ((IntervalTimeConfiguration) adTask.getDetector().getDetectionInterval())
                                     .toDuration()
                                     .toMillis();
-                                long expectedPieceEndTime = dataStartTime + pieceSize * interval;
-                                long firstPieceEndTime = Math.min(expectedPieceEndTime, dataEndTime);
+                                long firstPieceEndTime = getPieceEndTime(adTask, dataStartTime, dataEndTime, interval);
                                 logger
                                     .debug(
                                         "start first piece from {} to {}, interval {}, dataStartTime {}, dataEndTime {},"
@@ -933,7 +954,8 @@ public class ADBatchTaskRunner {
                                     dataEndTime,
                                     interval,
                                     executeStartTime,
-                                    internalListener
+                                    pipeline,
+                                    taskListener
                                 );
                             }, internalListener);
                         } catch (Exception e) {
@@ -1026,14 +1048,19 @@ public class ADBatchTaskRunner {
         long dataEndTime,
         long interval,
         Instant executeStartTime,
+        BatchTaskPiecePipeline pipeline,
         ActionListener<String> internalListener
     ) {
         ActionListener<Map<Long, Optional<double[]>>> actionListener = ActionListener.wrap(dataPoints -> {
             try {
+                if (pipeline != null) {
+                    // search the next piece while this one is scored
+                    prefetchNextPiece(adTask, pieceEndTime, dataEndTime, interval, pipeline);
+                }
                 if (dataPoints.size() == 0) {
                     logger.debug("No data in current piece with end time: " + pieceEndTime);
                     // Current piece end time is the next piece's start time
-                    runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, internalListener);
+                    runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, pipeline, internalListener);
                 } else {
                     detectAnomaly(
                         adTask,
@@ -1044,6 +1071,7 @@ public class ADBatchTaskRunner {
                         dataEndTime,
                         interval,
                         executeStartTime,
+                        pipeline,
                         internalListener
                     );
                 }
@@ -1056,6 +1084,15 @@ public class ADBatchTaskRunner {
             // and skip current piece if error caused by bad data.
             internalListener.onFailure(exception);
         });
+
+        if (pipeline != null) {
+            Optional<StepListener<Map<Long, Optional<double[]>>>> prefetched = pipeline.takePrefetch(pieceStartTime, pieceEndTime);
+            if (prefetched.isPresent()) {
+                prefetched.get().whenComplete(actionListener::onResponse, actionListener::onFailure);
+                return;
+            }
+        }
+
         ThreadedActionListener<Map<Long, Optional<double[]>>> threadedActionListener = new ThreadedActionListener<>(
             logger,
             threadPool,
@@ -1064,8 +1101,55 @@ public class ADBatchTaskRunner {
             false
         );
 
-        featureManager
-            .getFeatureDataPointsByBatch(adTask.getDetector(), adTask.getEntity(), pieceStartTime, pieceEndTime, threadedActionListener);
+        searchFeatureData(adTask, pieceStartTime, pieceEndTime, interval, threadedActionListener);
+    }
+
+    private boolean isSharedScan(ADTask adTask) {
+        return sharedScan && adTask.isEntityTask() && adTask.getEntity() != null;
+    }
+
+    private long getPieceEndTime(ADTask adTask, long pieceStartTime, long dataEndTime, long interval) {
+        long pieceLength = pieceSize * interval;
+        long expectedPieceEndTime = isSharedScan(adTask)
+            ? SharedPieceScanner.getAlignedPieceEndTime(pieceStartTime, pieceLength)
+            : pieceStartTime + pieceLength;
+        return Math.min(expectedPieceEndTime, dataEndTime);
+    }
+
+    private void searchFeatureData(
+        ADTask adTask,
+        long pieceStartTime,
+        long pieceEndTime,
+        long interval,
+        ActionListener<Map<Long, Optional<double[]>>> listener
+    ) {
+        if (isSharedScan(adTask)) {
+            sharedPieceScanner.getFeatureData(adTask, pieceStartTime, pieceEndTime, pieceSize * interval, listener);
+            return;
+        }
+        featureManager.getFeatureDataPointsByBatch(adTask.getDetector(), adTask.getEntity(), pieceStartTime, pieceEndTime, listener);
+    }
+
+    private void prefetchNextPiece(
+        ADTask adTask,
+        long nextPieceStartTime,
+        long dataEndTime,
+        long interval,
+        BatchTaskPiecePipeline pipeline
+    ) {
+        if (nextPieceStartTime >= dataEndTime) {
+            return;
+        }
+        long nextPieceEndTime = getPieceEndTime(adTask, nextPieceStartTime, dataEndTime, interval);
+        StepListener<Map<Long, Optional<double[]>>> prefetch = new StepListener<>();
+        pipeline.setPrefetch(nextPieceStartTime, nextPieceEndTime, prefetch);
+        searchFeatureData(
+            adTask,
+            nextPieceStartTime,
+            nextPieceEndTime,
+            interval,
+            new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, prefetch, false)
+        );
     }
 
     private void detectAnomaly(
@@ -1077,6 +1161,7 @@ public class ADBatchTaskRunner {
         long dataEndTime,
         long interval,
         Instant executeStartTime,
+        BatchTaskPiecePipeline pipeline,
         ActionListener<String> internalListener
     ) {
         String taskId = adTask.getTaskId();
@@ -1175,6 +1260,7 @@ public class ADBatchTaskRunner {
                 dataStartTime,
                 dataEndTime,
                 interval,
+                pipeline,
                 internalListener,
                 anomalyResults,
                 resultIndex,
@@ -1192,6 +1278,7 @@ public class ADBatchTaskRunner {
                 dataStartTime,
                 dataEndTime,
                 interval,
+                pipeline,
                 internalListener,
                 anomalyResults,
                 resultIndex,
@@ -1209,24 +1296,36 @@ public class ADBatchTaskRunner {
         long dataStartTime,
         long dataEndTime,
         long interval,
+        BatchTaskPiecePipeline pipeline,
         ActionListener<String> internalListener,
         List<AnomalyResult> anomalyResults,
         String resultIndex,
         CheckedRunnable<?> runBefore
     ) {
+        if (pipeline != null) {
+            pipeline.onWriteStarted();
+        }
         ActionListener actionListener = new ThreadedActionListener<>(
             logger,
             threadPool,
             AD_BATCH_TASK_THREAD_POOL_NAME,
             ActionListener.wrap(r -> {
+                if (pipeline != null) {
+                    // the next piece is already running
+                    pipeline.onWriteDone();
+                    return;
+                }
                 try {
-                    runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, internalListener);
+                    runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, null, internalListener);
                 } catch (Exception e) {
                     internalListener.onFailure(e);
                 }
             }, e -> {
                 logger.error("Fail to bulk index anomaly result", e);
                 internalListener.onFailure(e);
+                if (pipeline != null) {
+                    pipeline.onWriteDone();
+                }
             }),
             false
         );
@@ -1237,6 +1336,17 @@ public class ADBatchTaskRunner {
                 anomalyResults,
                 runBefore == null ? actionListener : ActionListener.runBefore(actionListener, runBefore)
             );
+
+        if (pipeline != null) {
+            // move on while earlier pieces' results are being indexed
+            pipeline.runWhenPendingWritesAtMost(pipeline.getMaxPendingWrites(), () -> {
+                try {
+                    runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, pipeline, internalListener);
+                } catch (Exception e) {
+                    internalListener.onFailure(e);
+                }
+            });
+        }
     }
 
     private void runNextPiece(
@@ -1245,8 +1355,13 @@ public class ADBatchTaskRunner {
         long dataStartTime,
         long dataEndTime,
         long interval,
+        BatchTaskPiecePipeline pipeline,
         ActionListener<String> internalListener
     ) {
+        if (pipeline != null && pipeline.isDone()) {
+            // another piece failed
+            return;
+        }
         String taskId = adTask.getTaskId();
         String detectorId = adTask.getDetectorId();
         String detectorTaskId = adTask.getDetectorLevelTaskId();
@@ -1260,10 +1375,10 @@ public class ADBatchTaskRunner {
 
         if (pieceStartTime < dataEndTime) {
             checkIfADTaskCancelledAndCleanupCache(adTask);
+            // the in-flight piece bound paces a pipelined task instead of the piece interval
             threadPool.schedule(() -> {
                 checkClusterState(adTask);
-                long expectedPieceEndTime = pieceStartTime + pieceSize * interval;
-                long pieceEndTime = expectedPieceEndTime > dataEndTime ? dataEndTime : expectedPieceEndTime;
+                long pieceEndTime = getPieceEndTime(adTask, pieceStartTime, dataEndTime, interval);
                 logger
                     .debug(
                         "task id: {}, start next piece start from {} to {}, interval {}",
@@ -1298,36 +1413,55 @@ public class ADBatchTaskRunner {
                                     dataEndTime,
                                     interval,
                                     Instant.now(),
+                                    pipeline,
                                     internalListener
                                 ),
                                 e -> internalListener.onFailure(e)
                             )
                     );
-            }, TimeValue.timeValueSeconds(pieceIntervalSeconds), AD_BATCH_TASK_THREAD_POOL_NAME);
-        } else {
-            logger.info("AD task finished for detector {}, task id: {}", detectorId, taskId);
-            adTaskCacheManager.remove(taskId, detectorId, detectorTaskId);
-            adTaskManager
-                .updateADTask(
-                    taskId,
-                    ImmutableMap
-                        .of(
-                            CURRENT_PIECE_FIELD,
-                            dataEndTime,
-                            TASK_PROGRESS_FIELD,
-                            1.0f,
-                            EXECUTION_END_TIME_FIELD,
-                            Instant.now().toEpochMilli(),
-                            INIT_PROGRESS_FIELD,
-                            initProgress,
-                            STATE_FIELD,
-                            ADTaskState.FINISHED
-                        ),
-                    ActionListener.wrap(r -> internalListener.onResponse("task execution done"), e -> internalListener.onFailure(e))
+            }, pipeline == null ? TimeValue.timeValueSeconds(pieceIntervalSeconds) : TimeValue.ZERO, AD_BATCH_TASK_THREAD_POOL_NAME);
+        } else if (pipeline != null) {
+            // finish after all results are indexed
+            pipeline
+                .runWhenPendingWritesAtMost(
+                    0,
+                    () -> finishTask(taskId, detectorId, detectorTaskId, dataEndTime, initProgress, internalListener)
                 );
+        } else {
+            finishTask(taskId, detectorId, detectorTaskId, dataEndTime, initProgress, internalListener);
         }
     }
 
+    private void finishTask(
+        String taskId,
+        String detectorId,
+        String detectorTaskId,
+        long dataEndTime,
+        float initProgress,
+        ActionListener<String> internalListener
+    ) {
+        logger.info("AD task finished for detector {}, task id: {}", detectorId, taskId);
+        adTaskCacheManager.remove(taskId, detectorId, detectorTaskId);
+        adTaskManager
+            .updateADTask(
+                taskId,
+                ImmutableMap
+                    .of(
+                        CURRENT_PIECE_FIELD,
+                        dataEndTime,
+                        TASK_PROGRESS_FIELD,
+                        1.0f,
+                        EXECUTION_END_TIME_FIELD,
+                        Instant.now().toEpochMilli(),
+                        INIT_PROGRESS_FIELD,
+                        initProgress,
+                        STATE_FIELD,
+                        ADTaskState.FINISHED
+                    ),
+                ActionListener.wrap(r -> internalListener.onResponse("task execution done"), e -> internalListener.onFailure(e))
+            );
+    }
+
     private void updateDetectorLevelTaskState(String detectorId, String detectorTaskId, String newState) {
         AnomalyDetectorFunction function = () -> adTaskManager
             .updateADTask(detectorTaskId, ImmutableMap.of(STATE_FIELD, newState), ActionListener.wrap(r -> {
@@ -201,6 +201,9 @@ public class ADTaskManager {
     private final ThreadPool threadPool;
     private static int DEFAULT_MAINTAIN_INTERVAL_IN_SECONDS = 5;
     private final Semaphore checkingTaskSlot;
+    // sort values of the last historical task maintained in the current maintenance round.
+    // null before the first slice; empty once the round has seen every running task.
+    private volatile Object[] historicalTaskCursor;
 
     private volatile Integer maxAdBatchTaskPerNode;
     private volatile Integer maxRunningEntitiesPerDetector;
@@ -2997,8 +3000,31 @@ public class ADTaskManager {
      * @param size return how many tasks
      */
     public void maintainRunningHistoricalTasks(TransportService transportService, int size) {
-        // Clean expired HC batch task run state cache.
-        adTaskCacheManager.cleanExpiredHCBatchTaskRunStates();
+        maintainRunningHistoricalTasks(transportService, size, 0, 1);
+    }
+
+    /**
+     * Maintain one slice of running historical tasks.  The slices of a round page
+     * through running tasks from the most recently updated one and maintain at most
+     * size tasks in total.  A task reset as STOPPED gets a newer update time, so a
+     * later slice of the same round does not see it again.
+     *
+     * @param transportService transport service
+     * @param size max number of tasks to maintain in a round
+     * @param slice index of the slice in [0, slices)
+     * @param slices number of slices in a round
+     */
+    public void maintainRunningHistoricalTasks(TransportService transportService, int size, int slice, int slices) {
+        if (slice == 0) {
+            // Clean expired HC batch task run state cache.
+            adTaskCacheManager.cleanExpiredHCBatchTaskRunStates();
+            historicalTaskCursor = null;
+        }
+        Object[] cursor = historicalTaskCursor;
+        if (cursor != null && cursor.length == 0) {
+            // no running task left in this round
+            return;
+        }
 
         // Find owning node with highest AD version to make sure we only have 1 node maintain running historical tasks
         // and we use the latest logic.
@@ -3006,23 +3032,31 @@ public class ADTaskManager {
         if (!owningNode.isPresent() || !clusterService.localNode().getId().equals(owningNode.get().getId())) {
             return;
         }
-        logger.info("Start to maintain running historical tasks");
+        logger.info("Start to maintain running historical tasks of slice {}", slice);
 
+        int pageSize = Math.max(1, (size + slices - 1) / slices);
         BoolQueryBuilder query = new BoolQueryBuilder();
         query.filter(new TermQueryBuilder(IS_LATEST_FIELD, true));
         query.filter(new TermsQueryBuilder(TASK_TYPE_FIELD, taskTypeToString(HISTORICAL_DETECTOR_TASK_TYPES)));
         query.filter(new TermsQueryBuilder(STATE_FIELD, NOT_ENDED_STATES));
         SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
         // default maintain interval is 5 seconds, so maintain 10 tasks will take at least 50 seconds.
-        sourceBuilder.query(query).sort(LAST_UPDATE_TIME_FIELD, SortOrder.DESC).size(size);
+        sourceBuilder.query(query).sort(LAST_UPDATE_TIME_FIELD, SortOrder.DESC).size(pageSize);
+        if (cursor != null) {
+            sourceBuilder.searchAfter(cursor);
+        }
         SearchRequest searchRequest = new SearchRequest();
         searchRequest.source(sourceBuilder);
         searchRequest.indices(DETECTION_STATE_INDEX);
 
         client.search(searchRequest, ActionListener.wrap(r -> {
             if (r == null || r.getHits().getTotalHits() == null || r.getHits().getTotalHits().value == 0) {
+                historicalTaskCursor = new Object[0];
                 return;
             }
+            SearchHit[] hits = r.getHits().getHits();
+            // the next slice continues after the last task of this page
+            historicalTaskCursor = hits.length < pageSize ? new Object[0] : hits[hits.length - 1].getSortValues();
             ConcurrentLinkedQueue<ADTask> taskQueue = new ConcurrentLinkedQueue<>();
             Iterator<SearchHit> iterator = r.getHits().iterator();
             while (iterator.hasNext()) {
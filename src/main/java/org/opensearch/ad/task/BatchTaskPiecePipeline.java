@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.task;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.StepListener;
+
+/**
+ * Pieces of a historical analysis task in flight in pipelined mode.  The feature
+ * data of the next piece is searched while the current piece is scored, and
+ * results of up to maxPendingWrites earlier pieces are indexed while later pieces
+ * run.  RCF still scores pieces one after another in time order.
+ */
+class BatchTaskPiecePipeline {
+    private final int maxPendingWrites;
+    private final AtomicBoolean done;
+
+    private StepListener<Map<Long, Optional<double[]>>> prefetch;
+    private long prefetchStartTime;
+    private long prefetchEndTime;
+
+    private int pendingWrites;
+    // next step waiting for pending writes to go down to parkedUntilWrites
+    private Runnable parked;
+    private int parkedUntilWrites;
+
+    /**
+     * @param maxInFlightPieces max pieces of the task in flight at once: one searched
+     *  ahead, one scored, and the rest indexed.  Must be at least 2.
+     */
+    BatchTaskPiecePipeline(int maxInFlightPieces) {
+        this.maxPendingWrites = Math.max(0, maxInFlightPieces - 2);
+        this.done = new AtomicBoolean();
+    }
+
+    /**
+     * Remember the search of a piece issued ahead of time
+     * @param pieceStartTime piece start time
+     * @param pieceEndTime piece end time
+     * @param listener listener of the search
+     */
+    synchronized void setPrefetch(long pieceStartTime, long pieceEndTime, StepListener<Map<Long, Optional<double[]>>> listener) {
+        this.prefetch = listener;
+        this.prefetchStartTime = pieceStartTime;
+        this.prefetchEndTime = pieceEndTime;
+    }
+
+    /**
+     * Take the search issued ahead of time for a piece.  Empty if the piece was
+     * not searched ahead, e.g., the piece size changed in between.
+     * @param pieceStartTime piece start time
+     * @param pieceEndTime piece end time
+     * @return the search's listener
+     */
+    synchronized Optional<StepListener<Map<Long, Optional<double[]>>>> takePrefetch(long pieceStartTime, long pieceEndTime) {
+        StepListener<Map<Long, Optional<double[]>>> result = prefetch;
+        prefetch = null;
+        if (result == null || prefetchStartTime != pieceStartTime || prefetchEndTime != pieceEndTime) {
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    int getMaxPendingWrites() {
+        return maxPendingWrites;
+    }
+
+    synchronized void onWriteStarted() {
+        pendingWrites++;
+    }
+
+    void onWriteDone() {
+        Runnable next = null;
+        synchronized (this) {
+            pendingWrites--;
+            if (parked != null && pendingWrites <= parkedUntilWrites) {
+                next = parked;
+                parked = null;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    /**
+     * Run the next step once at most the given number of writes are pending.
+     * @param maxWrites max pending writes
+     * @param next next step
+     */
+    void runWhenPendingWritesAtMost(int maxWrites, Runnable next) {
+        synchronized (this) {
+            if (pendingWrites > maxWrites) {
+                parked = next;
+                parkedUntilWrites = maxWrites;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    /**
+     * Several pieces may fail concurrently.  Notify the task listener only once
+     * and stop running pieces afterwards.
+     * @param listener task listener
+     * @return listener notified at most once
+     */
+    ActionListener<String> notifyOnce(ActionListener<String> listener) {
+        return ActionListener.wrap(r -> {
+            if (done.compareAndSet(false, true)) {
+                listener.onResponse(r);
+            }
+        }, e -> {
+            if (done.compareAndSet(false, true)) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    boolean isDone() {
+        return done.get();
+    }
+}
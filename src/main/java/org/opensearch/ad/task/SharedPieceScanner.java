@@ -0,0 +1,272 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.StepListener;
+import org.opensearch.ad.feature.SearchFeatureDao;
+import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.model.Entity;
+
+/**
+ * Shares scans of the source index among the entity tasks of a historical HC
+ * analysis running on this node.
+ *
+ * Without sharing, each entity task searches its own feature data piece by piece,
+ * so N entity tasks scan every piece N times.  Here pieces are aligned to multiples
+ * of the piece length.  The first entity task asking for a piece searches it for all
+ * the entity tasks of the detector on this node that have not gone past the piece,
+ * with one composite aggregation over (entity, interval).  The result is kept until
+ * each of those entity tasks takes its points or goes past the piece.
+ *
+ * An entity task that was not running when its piece was searched searches the piece
+ * on its own, and joins shared scans from the next piece on.
+ */
+class SharedPieceScanner {
+    private static final Logger LOG = LogManager.getLogger(SharedPieceScanner.class);
+
+    // max pieces kept per detector task; entity tasks on a node progress at similar
+    // speed, so they rarely need more than a couple
+    static final int MAX_PIECES_PER_DETECTOR_TASK = 4;
+
+    private final SearchFeatureDao searchFeatureDao;
+    private final ADTaskCacheManager adTaskCacheManager;
+    // detector level task id -> pieces of the detector task
+    private final Map<String, DetectorTaskPieces> pieces;
+
+    SharedPieceScanner(SearchFeatureDao searchFeatureDao, ADTaskCacheManager adTaskCacheManager) {
+        this.searchFeatureDao = searchFeatureDao;
+        this.adTaskCacheManager = adTaskCacheManager;
+        this.pieces = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param pieceStartTime piece start time
+     * @param pieceLength length of an aligned piece
+     * @return end time of the aligned piece containing the piece start time
+     */
+    static long getAlignedPieceEndTime(long pieceStartTime, long pieceLength) {
+        return pieceStartTime - pieceStartTime % pieceLength + pieceLength;
+    }
+
+    /**
+     * Get feature data of an entity task's piece.
+     *
+     * @param adTask entity task
+     * @param pieceStartTime piece start time, inclusive
+     * @param pieceEndTime piece end time, exclusive.  The piece must be within one aligned piece.
+     * @param pieceLength length of an aligned piece
+     * @param listener listener to return back the data points keyed by interval start time
+     */
+    void getFeatureData(
+        ADTask adTask,
+        long pieceStartTime,
+        long pieceEndTime,
+        long pieceLength,
+        ActionListener<Map<Long, Optional<double[]>>> listener
+    ) {
+        String detectorTaskId = adTask.getDetectorLevelTaskId();
+        Entity entity = adTask.getEntity();
+        long alignedStartTime = pieceStartTime - pieceStartTime % pieceLength;
+
+        SharedPiece piece = null;
+        List<Entity> entities = null;
+        // the piece length changed after the piece was cut
+        boolean aligned = pieceEndTime <= alignedStartTime + pieceLength;
+        synchronized (this) {
+            DetectorTaskPieces detectorTaskPieces = pieces.computeIfAbsent(detectorTaskId, k -> new DetectorTaskPieces());
+            detectorTaskPieces.advance(entity, alignedStartTime);
+            piece = aligned ? detectorTaskPieces.pieces.get(alignedStartTime) : null;
+            if (aligned && piece == null) {
+                entities = detectorTaskPieces.getEntitiesToScan(entity, getRunningEntities(adTask), alignedStartTime);
+                piece = new SharedPiece(entities);
+                detectorTaskPieces.add(alignedStartTime, piece);
+            } else if (piece != null && false == piece.remaining.contains(entity)) {
+                piece = null;
+            }
+        }
+
+        if (piece == null) {
+            // not running yet when the piece was searched, or the piece is not aligned
+            try {
+                searchFeatureDao.getFeaturesForPeriodByBatch(adTask.getDetector(), entity, pieceStartTime, pieceEndTime, listener);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+            return;
+        }
+
+        final SharedPiece sharedPiece = piece;
+        sharedPiece.result.whenComplete(dataPoints -> {
+            taken(detectorTaskId, alignedStartTime, sharedPiece, entity);
+            Map<Long, Optional<double[]>> entityDataPoints = new HashMap<>();
+            dataPoints.getOrDefault(entity, Map.of()).forEach((time, point) -> {
+                if (time >= pieceStartTime && time < pieceEndTime) {
+                    entityDataPoints.put(time, point);
+                }
+            });
+            listener.onResponse(entityDataPoints);
+        }, e -> {
+            discard(detectorTaskId, alignedStartTime, sharedPiece);
+            listener.onFailure(e);
+        });
+
+        if (entities != null) {
+            LOG.debug("Search piece from {} for {} entities of detector task {}", alignedStartTime, entities.size(), detectorTaskId);
+            searchFeatureDao
+                .getFeaturesForPeriodByBatch(
+                    adTask.getDetector(),
+                    entities,
+                    alignedStartTime,
+                    alignedStartTime + pieceLength,
+                    sharedPiece.result
+                );
+        }
+    }
+
+    /**
+     * Stop keeping pieces for an entity task that is done
+     * @param adTask entity task
+     */
+    synchronized void remove(ADTask adTask) {
+        String detectorTaskId = adTask.getDetectorLevelTaskId();
+        DetectorTaskPieces detectorTaskPieces = pieces.get(detectorTaskId);
+        if (detectorTaskPieces == null) {
+            return;
+        }
+        detectorTaskPieces.remove(adTask.getEntity());
+        if (detectorTaskPieces.isEmpty()) {
+            pieces.remove(detectorTaskId);
+        }
+    }
+
+    /**
+     * @return number of pieces kept on this node
+     */
+    synchronized int size() {
+        return pieces.values().stream().mapToInt(p -> p.pieces.size()).sum();
+    }
+
+    private List<Entity> getRunningEntities(ADTask adTask) {
+        List<Entity> entities = new ArrayList<>();
+        for (String taskId : adTaskCacheManager.getTasksOfDetector(adTask.getDetectorId())) {
+            try {
+                entities.add(adTaskCacheManager.getEntity(taskId));
+            } catch (IllegalArgumentException e) {
+                // task removed in between
+            }
+        }
+        return entities;
+    }
+
+    private synchronized void taken(String detectorTaskId, long alignedStartTime, SharedPiece piece, Entity entity) {
+        DetectorTaskPieces detectorTaskPieces = pieces.get(detectorTaskId);
+        piece.remaining.remove(entity);
+        if (detectorTaskPieces != null && piece.remaining.isEmpty()) {
+            detectorTaskPieces.pieces.remove(alignedStartTime, piece);
+        }
+    }
+
+    private synchronized void discard(String detectorTaskId, long alignedStartTime, SharedPiece piece) {
+        DetectorTaskPieces detectorTaskPieces = pieces.get(detectorTaskId);
+        if (detectorTaskPieces != null) {
+            // let a retry search the piece again
+            detectorTaskPieces.pieces.remove(alignedStartTime, piece);
+        }
+    }
+
+    private static class SharedPiece {
+        // entities the piece was searched for and that have not taken their points
+        private final Set<Entity> remaining;
+        private final StepListener<Map<Entity, Map<Long, Optional<double[]>>>> result;
+
+        SharedPiece(List<Entity> entities) {
+            this.remaining = new HashSet<>(entities);
+            this.result = new StepListener<>();
+        }
+    }
+
+    /**
+     * Pieces of a detector task on this node.  Guarded by the scanner's lock.
+     */
+    private static class DetectorTaskPieces {
+        // aligned piece start time -> piece
+        private final TreeMap<Long, SharedPiece> pieces = new TreeMap<>();
+        // entity -> aligned start time of the latest piece the entity task asked for
+        private final Map<Entity, Long> progress = new HashMap<>();
+
+        void advance(Entity entity, long alignedStartTime) {
+            progress.put(entity, alignedStartTime);
+            // the entity task won't ask for earlier pieces
+            Iterator<SharedPiece> earlierPieces = pieces.headMap(alignedStartTime).values().iterator();
+            while (earlierPieces.hasNext()) {
+                SharedPiece piece = earlierPieces.next();
+                piece.remaining.remove(entity);
+                if (piece.remaining.isEmpty()) {
+                    earlierPieces.remove();
+                }
+            }
+        }
+
+        // the asking entity and the running entities that will ask for the piece later
+        List<Entity> getEntitiesToScan(Entity askingEntity, List<Entity> runningEntities, long alignedStartTime) {
+            List<Entity> entities = new ArrayList<>();
+            for (Entity entity : runningEntities) {
+                Long entityProgress = progress.get(entity);
+                if (entity.equals(askingEntity) || entityProgress == null || entityProgress < alignedStartTime) {
+                    entities.add(entity);
+                }
+            }
+            if (false == entities.contains(askingEntity)) {
+                entities.add(askingEntity);
+            }
+            return entities;
+        }
+
+        void add(long alignedStartTime, SharedPiece piece) {
+            pieces.put(alignedStartTime, piece);
+            while (pieces.size() > MAX_PIECES_PER_DETECTOR_TASK) {
+                // entity tasks far behind search on their own
+                pieces.pollFirstEntry();
+            }
+        }
+
+        void remove(Entity entity) {
+            progress.remove(entity);
+            Iterator<SharedPiece> allPieces = pieces.values().iterator();
+            while (allPieces.hasNext()) {
+                SharedPiece piece = allPieces.next();
+                piece.remaining.remove(entity);
+                if (piece.remaining.isEmpty()) {
+                    allPieces.remove();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return pieces.isEmpty() && progress.isEmpty();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import static org.opensearch.timeseries.constant.CommonMessages.INVALID_SEARCH_Q
 
 import java.net.ConnectException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -26,7 +27,6 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,6 +47,7 @@ import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.cluster.HashRing;
+import org.opensearch.ad.cluster.RoutingSnapshot;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.common.exception.ClientException;
 import org.opensearch.ad.common.exception.EndRunException;
@@ -71,6 +72,7 @@ import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.task.ADTaskManager;
 import org.opensearch.ad.util.ExceptionUtil;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
@@ -86,7 +88,6 @@ import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.transport.NetworkExceptionHelper;
 import org.opensearch.common.util.concurrent.ThreadContext;
-import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.node.NodeClosedException;
 import org.opensearch.rest.RestStatus;
@@ -133,7 +134,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
     // detector id to this field when start to run realtime detection and remove detector
     // id once realtime detection done.
     private final Set<String> hcDetectors;
-    private NamedXContentRegistry xContentRegistry;
+    private FeatureQueryCache featureQueryCache;
     private Settings settings;
     // within an interval, how many percents are used to process requests.
     // 1.0 means we use all of the detection interval to process requests.
@@ -158,7 +159,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         ADCircuitBreakerService adCircuitBreakerService,
         ADStats adStats,
         ThreadPool threadPool,
-        NamedXContentRegistry xContentRegistry,
+        FeatureQueryCache featureQueryCache,
         ADTaskManager adTaskManager
     ) {
         super(AnomalyResultAction.NAME, transportService, actionFilters, AnomalyResultRequest::new);
@@ -181,7 +182,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         this.adStats = adStats;
         this.threadPool = threadPool;
         this.hcDetectors = new HashSet<>();
-        this.xContentRegistry = xContentRegistry;
+        this.featureQueryCache = featureQueryCache;
         this.intervalRatioForRequest = AnomalyDetectorSettings.INTERVAL_RATIO_FOR_REQUESTS;
 
         this.maxEntitiesPerInterval = MAX_ENTITIES_PER_QUERY.get(settings);
@@ -296,12 +297,15 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         private String detectorId;
         private long dataStartTime;
         private long dataEndTime;
+        // node id to the number of the detector's models routed to it in this run
+        private final Map<String, Integer> placementLoads;
 
         PageListener(PageIterator pageIterator, String detectorId, long dataStartTime, long dataEndTime) {
             this.pageIterator = pageIterator;
             this.detectorId = detectorId;
             this.dataStartTime = dataStartTime;
             this.dataEndTime = dataEndTime;
+            this.placementLoads = new HashMap<>();
         }
 
         @Override
@@ -313,21 +317,28 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                 // wrap expensive operation inside ad threadpool
                 threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(() -> {
                     try {
-
-                        Set<Entry<DiscoveryNode, Map<Entity, double[]>>> node2Entities = entityFeatures
-                            .getResults()
-                            .entrySet()
-                            .stream()
-                            .filter(e -> hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(e.getKey().toString()).isPresent())
-                            .collect(
-                                Collectors
-                                    .groupingBy(
-                                        // from entity name to its node
-                                        e -> hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(e.getKey().toString()).get(),
-                                        Collectors.toMap(Entry::getKey, Entry::getValue)
-                                    )
-                            )
-                            .entrySet();
+                        // route the whole page using one snapshot of the hash ring
+                        Map<DiscoveryNode, Map<Entity, double[]>> node2EntityMap = new HashMap<>();
+                        Optional<RoutingSnapshot> routingSnapshot = hashRing.getRoutingSnapshotWithSameLocalAdVersionForRealtimeAD();
+                        if (routingSnapshot.isPresent()) {
+                            RoutingSnapshot routing = routingSnapshot.get();
+                            Map<Entity, double[]> results = entityFeatures.getResults();
+                            Entity[] entities = results.keySet().toArray(new Entity[0]);
+                            // from entity name to its node, keeping each node within the load bound if asked
+                            DiscoveryNode[] owners = null;
+                            synchronized (placementLoads) {
+                                owners = routing.route(entities, hashRing.getPlacementCapacityFactor(), placementLoads);
+                            }
+                            for (int i = 0; i < entities.length; i++) {
+                                if (owners[i] != null) {
+                                    node2EntityMap
+                                        .computeIfAbsent(owners[i], k -> new HashMap<>())
+                                        .put(entities[i], results.get(entities[i]));
+                                }
+                            }
+                            hashRing.recordPlacementSkew(detectorId, routing.getSkew(owners));
+                        }
+                        Set<Entry<DiscoveryNode, Map<Entity, double[]>>> node2Entities = node2EntityMap.entrySet();
 
                         Iterator<Entry<DiscoveryNode, Map<Entity, double[]>>> iterator = node2Entities.iterator();
 
@@ -467,7 +478,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                 dataStartTime,
                 dataEndTime,
                 anomalyDetector,
-                xContentRegistry,
+                featureQueryCache,
                 client,
                 clientUtil,
                 nextDetectionStartTime,
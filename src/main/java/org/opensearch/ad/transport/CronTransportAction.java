@@ -12,7 +12,9 @@
 package org.opensearch.ad.transport;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,9 +24,12 @@ import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.nodes.TransportNodesAction;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.cluster.MaintenanceScheduler;
+import org.opensearch.ad.cluster.MaintenanceScheduler.SlicedTask;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.task.ADTaskManager;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.inject.Inject;
@@ -40,6 +45,8 @@ public class CronTransportAction extends TransportNodesAction<CronRequest, CronR
     private CacheProvider cacheProvider;
     private EntityColdStarter entityColdStarter;
     private ADTaskManager adTaskManager;
+    private ResultRollupBuffer resultRollupBuffer;
+    private MaintenanceScheduler maintenanceScheduler;
 
     @Inject
     public CronTransportAction(
@@ -52,7 +59,9 @@ public class CronTransportAction extends TransportNodesAction<CronRequest, CronR
         FeatureManager featureManager,
         CacheProvider cacheProvider,
         EntityColdStarter entityColdStarter,
-        ADTaskManager adTaskManager
+        ADTaskManager adTaskManager,
+        ResultRollupBuffer resultRollupBuffer,
+        MaintenanceScheduler maintenanceScheduler
     ) {
         super(
             CronAction.NAME,
@@ -71,6 +80,8 @@ public class CronTransportAction extends TransportNodesAction<CronRequest, CronR
         this.cacheProvider = cacheProvider;
         this.entityColdStarter = entityColdStarter;
         this.adTaskManager = adTaskManager;
+        this.resultRollupBuffer = resultRollupBuffer;
+        this.maintenanceScheduler = maintenanceScheduler;
     }
 
     @Override
@@ -90,7 +101,8 @@ public class CronTransportAction extends TransportNodesAction<CronRequest, CronR
 
     /**
      * Delete unused models and save checkpoints before deleting (including both RCF
-     * and thresholding model), buffered shingle data, and transport state
+     * and thresholding model), buffered shingle data, and transport state. The tasks
+     * are spread over the hour by {@link MaintenanceScheduler}.
      *
      * @param request delete request
      * @return delete response including local node Id.
@@ -98,32 +110,48 @@ public class CronTransportAction extends TransportNodesAction<CronRequest, CronR
     @Override
     protected CronNodeResponse nodeOperation(CronNodeRequest request) {
         LOG.info("Start running AD hourly cron.");
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        // tasks iterating large data structures run a slice per tick
+        Map<String, SlicedTask> slicedTasks = new LinkedHashMap<>();
         // makes checkpoints for hosted models and stop hosting models not actively
         // used.
         // for single-entity detector
-        modelManager
-            .maintenance(ActionListener.wrap(v -> LOG.debug("model maintenance done"), e -> LOG.error("Error maintaining model", e)));
+        tasks
+            .put(
+                "model",
+                () -> modelManager
+                    .maintenance(
+                        ActionListener.wrap(v -> LOG.debug("model maintenance done"), e -> LOG.error("Error maintaining model", e))
+                    )
+            );
         // for multi-entity detector
-        cacheProvider.get().maintenance();
+        slicedTasks.put("entity_cache", (slice, slices) -> cacheProvider.get().maintenance(slice, slices));
 
         // delete unused buffered shingle data
-        featureManager.maintenance();
+        tasks.put("feature", featureManager::maintenance);
 
         // delete unused transport state
-        transportStateManager.maintenance();
+        tasks.put("node_state", transportStateManager::maintenance);
+
+        tasks.put("cold_start", entityColdStarter::maintenance);
+
+        // write result rollups of entities that stopped getting results
+        tasks.put("result_rollup", resultRollupBuffer::maintenance);
 
-        entityColdStarter.maintenance();
         // clean child tasks and AD results of deleted detector level task
-        adTaskManager.cleanChildTasksAndADResultsOfDeletedTask();
+        tasks.put("deleted_task", adTaskManager::cleanChildTasksAndADResultsOfDeletedTask);
 
         // clean AD results of deleted detector
-        adTaskManager.cleanADResultOfDeletedDetector();
+        tasks.put("deleted_detector", adTaskManager::cleanADResultOfDeletedDetector);
 
         // maintain running historical tasks: reset task state as stopped if not running and clean stale running entities
-        adTaskManager.maintainRunningHistoricalTasks(transportService, 100);
+        slicedTasks
+            .put("historical_task", (slice, slices) -> adTaskManager.maintainRunningHistoricalTasks(transportService, 100, slice, slices));
 
         // maintain running realtime tasks: clean stale running realtime task cache
-        adTaskManager.maintainRunningRealtimeTasks();
+        tasks.put("realtime_task", adTaskManager::maintainRunningRealtimeTasks);
+
+        maintenanceScheduler.schedule(tasks, slicedTasks);
 
         return new CronNodeResponse(clusterService.localNode());
     }
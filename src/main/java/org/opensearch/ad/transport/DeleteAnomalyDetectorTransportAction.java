@@ -181,7 +181,7 @@ public class DeleteAnomalyDetectorTransportAction extends HandledTransportAction
         client.delete(deleteRequest, new ActionListener<DeleteResponse>() {
             @Override
             public void onResponse(DeleteResponse deleteResponse) {
-                listener.onResponse(deleteResponse);
+                invalidateDetectorConfig(detectorId, deleteResponse.getSeqNo(), () -> listener.onResponse(deleteResponse));
             }
 
             @Override
@@ -191,6 +191,20 @@ public class DeleteAnomalyDetectorTransportAction extends HandledTransportAction
         });
     }
 
+    private void invalidateDetectorConfig(String detectorId, long seqNo, Runnable function) {
+        InvalidateDetectorConfigRequest request = new InvalidateDetectorConfigRequest(detectorId, seqNo);
+        client.execute(InvalidateDetectorConfigAction.INSTANCE, request, ActionListener.wrap(response -> {
+            if (response.hasFailures()) {
+                LOG.warn("Failed to invalidate config of detector {} on some nodes", detectorId);
+            }
+            function.run();
+        }, exception -> {
+            // the detector is deleted anyway; nodes that missed the invalidation drop the config once idle
+            LOG.warn("Failed to invalidate config of detector " + detectorId, exception);
+            function.run();
+        }));
+    }
+
     private void getDetectorJob(String detectorId, ActionListener<DeleteResponse> listener, AnomalyDetectorFunction function) {
         if (clusterService.state().metadata().indices().containsKey(CommonName.JOB_INDEX)) {
             GetRequest request = new GetRequest(CommonName.JOB_INDEX).id(detectorId);
@@ -25,6 +25,7 @@ import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.task.ADTaskCacheManager;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.inject.Inject;
@@ -41,6 +42,7 @@ public class DeleteModelTransportAction extends
     private CacheProvider cache;
     private ADTaskCacheManager adTaskCacheManager;
     private EntityColdStarter coldStarter;
+    private ResultRollupBuffer resultRollupBuffer;
 
     @Inject
     public DeleteModelTransportAction(
@@ -53,7 +55,8 @@ public class DeleteModelTransportAction extends
         FeatureManager featureManager,
         CacheProvider cache,
         ADTaskCacheManager adTaskCacheManager,
-        EntityColdStarter coldStarter
+        EntityColdStarter coldStarter,
+        ResultRollupBuffer resultRollupBuffer
     ) {
         super(
             DeleteModelAction.NAME,
@@ -72,6 +75,7 @@ public class DeleteModelTransportAction extends
         this.cache = cache;
         this.adTaskCacheManager = adTaskCacheManager;
         this.coldStarter = coldStarter;
+        this.resultRollupBuffer = resultRollupBuffer;
     }
 
     @Override
@@ -127,6 +131,9 @@ public class DeleteModelTransportAction extends
 
         coldStarter.clear(adID);
 
+        // write buffered zero-grade results
+        resultRollupBuffer.clear(adID);
+
         // delete realtime task cache
         adTaskCacheManager.removeRealtimeTaskCache(adID);
 
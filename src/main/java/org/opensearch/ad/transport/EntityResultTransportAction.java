@@ -13,6 +13,8 @@ package org.opensearch.ad.transport;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.action.support.HandledTransportAction;
 import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.ad.AnomalyDetectorPlugin;
@@ -48,12 +51,16 @@ import org.opensearch.ad.ratelimit.ColdEntityWorker;
 import org.opensearch.ad.ratelimit.EntityColdStartWorker;
 import org.opensearch.ad.ratelimit.EntityFeatureRequest;
 import org.opensearch.ad.ratelimit.RequestPriority;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.ratelimit.ResultWriteRequest;
 import org.opensearch.ad.ratelimit.ResultWriteWorker;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.settings.NumericSetting;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.util.ExceptionUtil;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.common.inject.Inject;
+import org.opensearch.core.concurrency.OpenSearchRejectedExecutionException;
 import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.timeseries.constant.CommonMessages;
@@ -93,6 +100,7 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
     private ThreadPool threadPool;
     private EntityColdStartWorker entityColdStartWorker;
     private ADStats adStats;
+    private ResultRollupBuffer resultRollupBuffer;
 
     @Inject
     public EntityResultTransportAction(
@@ -108,7 +116,8 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
         ColdEntityWorker coldEntityQueue,
         ThreadPool threadPool,
         EntityColdStartWorker entityColdStartWorker,
-        ADStats adStats
+        ADStats adStats,
+        ResultRollupBuffer resultRollupBuffer
     ) {
         super(EntityResultAction.NAME, transportService, actionFilters, EntityResultRequest::new);
         this.modelManager = manager;
@@ -122,6 +131,7 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
         this.threadPool = threadPool;
         this.entityColdStartWorker = entityColdStartWorker;
         this.adStats = adStats;
+        this.resultRollupBuffer = resultRollupBuffer;
     }
 
     @Override
@@ -178,154 +188,267 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
             }
 
             Instant executionStartTime = Instant.now();
-            Map<Entity, double[]> cacheMissEntities = new HashMap<>();
-            for (Entry<Entity, double[]> entityEntry : request.getEntities().entrySet()) {
-                Entity categoricalValues = entityEntry.getKey();
-
-                if (isEntityFromOldNodeMsg(categoricalValues)
-                    && detector.getCategoryField() != null
-                    && detector.getCategoryField().size() == 1) {
-                    Map<String, String> attrValues = categoricalValues.getAttributes();
-                    // handle a request from a version before OpenSearch 1.1.
-                    categoricalValues = Entity
-                        .createSingleAttributeEntity(detector.getCategoryField().get(0), attrValues.get(ADCommonName.EMPTY_FIELD));
-                }
+            List<Entry<Entity, double[]>> entities = new ArrayList<>(request.getEntities().entrySet());
+            int numPartitions = getNumScoringPartitions(entities.size());
+            if (numPartitions <= 1) {
+                ScoringResult result = scoreEntities(entities, detector, request, executionStartTime);
+                onScored(listener, detector, request, prevException, Collections.singletonList(result));
+                return;
+            }
 
-                Optional<String> modelIdOptional = categoricalValues.getModelId(detectorId);
-                if (false == modelIdOptional.isPresent()) {
-                    continue;
+            GroupedActionListener<ScoringResult> partitionListener = new GroupedActionListener<>(
+                ActionListener
+                    .wrap(
+                        results -> onScored(listener, detector, request, prevException, results),
+                        exception -> onFailure(listener, detectorId, request, exception)
+                    ),
+                numPartitions
+            );
+            int partitionSize = (entities.size() + numPartitions - 1) / numPartitions;
+            for (int i = 0; i < numPartitions; i++) {
+                List<Entry<Entity, double[]>> partition = entities
+                    .subList(i * partitionSize, Math.min(entities.size(), (i + 1) * partitionSize));
+                Runnable scoring = () -> {
+                    try {
+                        partitionListener.onResponse(scoreEntities(partition, detector, request, executionStartTime));
+                    } catch (Exception e) {
+                        partitionListener.onFailure(e);
+                    }
+                };
+                if (i == numPartitions - 1) {
+                    // the current thread scores the last partition instead of waiting
+                    scoring.run();
+                } else {
+                    try {
+                        threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(scoring);
+                    } catch (OpenSearchRejectedExecutionException e) {
+                        scoring.run();
+                    }
                 }
+            }
+        }, exception -> onFailure(listener, detectorId, request, exception));
+    }
 
-                String modelId = modelIdOptional.get();
-                double[] datapoint = entityEntry.getValue();
-                ModelState<EntityModel> entityModel = cache.get().get(modelId, detector);
-                if (entityModel == null) {
-                    // cache miss
-                    cacheMissEntities.put(categoricalValues, datapoint);
-                    continue;
-                }
-                try {
-                    ThresholdingResult result = modelManager
-                        .getAnomalyResultForEntity(datapoint, entityModel, modelId, categoricalValues, detector.getShingleSize());
-                    // result.getRcfScore() = 0 means the model is not initialized
-                    // result.getGrade() = 0 means it is not an anomaly
-                    // So many OpenSearchRejectedExecutionException if we write no matter what
-                    if (result.getRcfScore() > 0) {
-                        AnomalyResult resultToSave = result
-                            .toAnomalyResult(
-                                detector,
-                                Instant.ofEpochMilli(request.getStart()),
-                                Instant.ofEpochMilli(request.getEnd()),
-                                executionStartTime,
-                                Instant.now(),
-                                ParseUtils.getFeatureData(datapoint, detector),
-                                categoricalValues,
-                                indexUtil.getSchemaVersion(ADIndex.RESULT),
-                                modelId,
-                                null,
-                                null
-                            );
-
-                        resultWriteQueue
-                            .put(
-                                new ResultWriteRequest(
-                                    System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
-                                    detectorId,
-                                    result.getGrade() > 0 ? RequestPriority.HIGH : RequestPriority.MEDIUM,
-                                    resultToSave,
-                                    detector.getResultIndex()
-                                )
-                            );
+    /**
+     * Decide how many partitions we split a request's entities into.  Each partition
+     * has at least MIN_ENTITIES_PER_SCORING_PARTITION entities.
+     * @param numEntities the number of entities in the request
+     * @return the number of partitions to score concurrently
+     */
+    private int getNumScoringPartitions(int numEntities) {
+        int maxPartitions = numEntities / AnomalyDetectorSettings.MIN_ENTITIES_PER_SCORING_PARTITION;
+        return Math.max(1, Math.min(NumericSetting.entityScoringParallelism(), maxPartitions));
+    }
+
+    /**
+     * Score entities whose models are in the cache.  Can run concurrently on
+     * different partitions of a request's entities.
+     * @param entities entities and their features
+     * @param detector detector config
+     * @param request entity result request
+     * @param executionStartTime when we start to process the request
+     * @return cache miss entities and results to save
+     */
+    private ScoringResult scoreEntities(
+        List<Entry<Entity, double[]>> entities,
+        AnomalyDetector detector,
+        EntityResultRequest request,
+        Instant executionStartTime
+    ) {
+        String detectorId = request.getDetectorId();
+        ScoringResult scoringResult = new ScoringResult();
+        for (Entry<Entity, double[]> entityEntry : entities) {
+            Entity categoricalValues = entityEntry.getKey();
+
+            if (isEntityFromOldNodeMsg(categoricalValues)
+                && detector.getCategoryField() != null
+                && detector.getCategoryField().size() == 1) {
+                Map<String, String> attrValues = categoricalValues.getAttributes();
+                // handle a request from a version before OpenSearch 1.1.
+                categoricalValues = Entity
+                    .createSingleAttributeEntity(detector.getCategoryField().get(0), attrValues.get(ADCommonName.EMPTY_FIELD));
+            }
+
+            Optional<String> modelIdOptional = categoricalValues.getModelId(detectorId);
+            if (false == modelIdOptional.isPresent()) {
+                continue;
+            }
+
+            String modelId = modelIdOptional.get();
+            double[] datapoint = entityEntry.getValue();
+            ModelState<EntityModel> entityModel = cache.get().get(modelId, detector);
+            if (entityModel == null) {
+                // cache miss
+                scoringResult.cacheMissEntities.put(categoricalValues, datapoint);
+                continue;
+            }
+            try {
+                ThresholdingResult result = modelManager
+                    .getAnomalyResultForEntity(datapoint, entityModel, modelId, categoricalValues, detector.getShingleSize());
+                // result.getRcfScore() = 0 means the model is not initialized
+                // result.getGrade() = 0 means it is not an anomaly
+                // So many OpenSearchRejectedExecutionException if we write no matter what
+                if (result.getRcfScore() > 0) {
+                    AnomalyResult resultToSave = result
+                        .toAnomalyResult(
+                            detector,
+                            Instant.ofEpochMilli(request.getStart()),
+                            Instant.ofEpochMilli(request.getEnd()),
+                            executionStartTime,
+                            Instant.now(),
+                            ParseUtils.getFeatureData(datapoint, detector),
+                            categoricalValues,
+                            indexUtil.getSchemaVersion(ADIndex.RESULT),
+                            modelId,
+                            null,
+                            null
+                        );
+
+                    if (resultRollupBuffer.add(resultToSave, detector)) {
+                        // zero-grade result written later as part of the entity's rollup
+                        continue;
                     }
-                } catch (IllegalArgumentException e) {
-                    // fail to score likely due to model corruption. Re-cold start to recover.
-                    LOG.error(new ParameterizedMessage("Likely model corruption for [{}]", modelId), e);
-                    adStats.getStat(StatNames.MODEL_CORRUTPION_COUNT.getName()).increment();
-                    cache.get().removeEntityModel(detectorId, modelId);
-                    entityColdStartWorker
-                        .put(
-                            new EntityFeatureRequest(
+                    scoringResult.resultWriteRequests
+                        .add(
+                            new ResultWriteRequest(
                                 System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
                                 detectorId,
-                                RequestPriority.MEDIUM,
-                                categoricalValues,
-                                datapoint,
-                                request.getStart()
+                                result.getGrade() > 0 ? RequestPriority.HIGH : RequestPriority.MEDIUM,
+                                resultToSave,
+                                detector.getResultIndex()
                             )
                         );
                 }
-            }
-
-            // split hot and cold entities
-            Pair<List<Entity>, List<Entity>> hotColdEntities = cache
-                .get()
-                .selectUpdateCandidate(cacheMissEntities.keySet(), detectorId, detector);
-
-            List<EntityFeatureRequest> hotEntityRequests = new ArrayList<>();
-            List<EntityFeatureRequest> coldEntityRequests = new ArrayList<>();
-
-            for (Entity hotEntity : hotColdEntities.getLeft()) {
-                double[] hotEntityValue = cacheMissEntities.get(hotEntity);
-                if (hotEntityValue == null) {
-                    LOG.error(new ParameterizedMessage("feature value should not be null: [{}]", hotEntity));
-                    continue;
-                }
-                hotEntityRequests
-                    .add(
+            } catch (IllegalArgumentException e) {
+                // fail to score likely due to model corruption. Re-cold start to recover.
+                LOG.error(new ParameterizedMessage("Likely model corruption for [{}]", modelId), e);
+                adStats.getStat(StatNames.MODEL_CORRUTPION_COUNT.getName()).increment();
+                cache.get().removeEntityModel(detectorId, modelId);
+                entityColdStartWorker
+                    .put(
                         new EntityFeatureRequest(
                             System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
                             detectorId,
-                            // hot entities has MEDIUM priority
                             RequestPriority.MEDIUM,
-                            hotEntity,
-                            hotEntityValue,
+                            categoricalValues,
+                            datapoint,
                             request.getStart()
                         )
                     );
             }
+        }
+        return scoringResult;
+    }
 
-            for (Entity coldEntity : hotColdEntities.getRight()) {
-                double[] coldEntityValue = cacheMissEntities.get(coldEntity);
-                if (coldEntityValue == null) {
-                    LOG.error(new ParameterizedMessage("feature value should not be null: [{}]", coldEntity));
-                    continue;
-                }
-                coldEntityRequests
-                    .add(
-                        new EntityFeatureRequest(
-                            System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
-                            detectorId,
-                            // cold entities has LOW priority
-                            RequestPriority.LOW,
-                            coldEntity,
-                            coldEntityValue,
-                            request.getStart()
-                        )
-                    );
+    /**
+     * Save results of all partitions, send cache miss entities to the checkpoint
+     * read or cold entity queue, and respond back.
+     * @param listener listener to respond back
+     * @param detector detector config
+     * @param request entity result request
+     * @param prevException previous exception of the detector
+     * @param scoringResults scoring results of all partitions
+     */
+    private void onScored(
+        ActionListener<AcknowledgedResponse> listener,
+        AnomalyDetector detector,
+        EntityResultRequest request,
+        Optional<Exception> prevException,
+        Collection<ScoringResult> scoringResults
+    ) {
+        String detectorId = request.getDetectorId();
+        Map<Entity, double[]> cacheMissEntities = new HashMap<>();
+        for (ScoringResult scoringResult : scoringResults) {
+            cacheMissEntities.putAll(scoringResult.cacheMissEntities);
+            for (ResultWriteRequest resultWriteRequest : scoringResult.resultWriteRequests) {
+                resultWriteQueue.put(resultWriteRequest);
             }
+        }
 
-            checkpointReadQueue.putAll(hotEntityRequests);
-            coldEntityQueue.putAll(coldEntityRequests);
+        // split hot and cold entities
+        Pair<List<Entity>, List<Entity>> hotColdEntities = cache
+            .get()
+            .selectUpdateCandidate(cacheMissEntities.keySet(), detectorId, detector);
 
-            // respond back
-            if (prevException.isPresent()) {
-                listener.onFailure(prevException.get());
-            } else {
-                listener.onResponse(new AcknowledgedResponse(true));
+        List<EntityFeatureRequest> hotEntityRequests = new ArrayList<>();
+        List<EntityFeatureRequest> coldEntityRequests = new ArrayList<>();
+
+        for (Entity hotEntity : hotColdEntities.getLeft()) {
+            double[] hotEntityValue = cacheMissEntities.get(hotEntity);
+            if (hotEntityValue == null) {
+                LOG.error(new ParameterizedMessage("feature value should not be null: [{}]", hotEntity));
+                continue;
             }
-        }, exception -> {
-            LOG
-                .error(
-                    new ParameterizedMessage(
-                        "fail to get entity's anomaly grade for detector [{}]: start: [{}], end: [{}]",
+            hotEntityRequests
+                .add(
+                    new EntityFeatureRequest(
+                        System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
                         detectorId,
-                        request.getStart(),
-                        request.getEnd()
-                    ),
-                    exception
+                        // hot entities has MEDIUM priority
+                        RequestPriority.MEDIUM,
+                        hotEntity,
+                        hotEntityValue,
+                        request.getStart()
+                    )
                 );
-            listener.onFailure(exception);
-        });
+        }
+
+        for (Entity coldEntity : hotColdEntities.getRight()) {
+            double[] coldEntityValue = cacheMissEntities.get(coldEntity);
+            if (coldEntityValue == null) {
+                LOG.error(new ParameterizedMessage("feature value should not be null: [{}]", coldEntity));
+                continue;
+            }
+            coldEntityRequests
+                .add(
+                    new EntityFeatureRequest(
+                        System.currentTimeMillis() + detector.getDetectorIntervalInMilliseconds(),
+                        detectorId,
+                        // cold entities has LOW priority
+                        RequestPriority.LOW,
+                        coldEntity,
+                        coldEntityValue,
+                        request.getStart()
+                    )
+                );
+        }
+
+        checkpointReadQueue.putAll(hotEntityRequests);
+        coldEntityQueue.putAll(coldEntityRequests);
+
+        // respond back
+        if (prevException.isPresent()) {
+            listener.onFailure(prevException.get());
+        } else {
+            listener.onResponse(new AcknowledgedResponse(true));
+        }
+    }
+
+    private void onFailure(
+        ActionListener<AcknowledgedResponse> listener,
+        String detectorId,
+        EntityResultRequest request,
+        Exception exception
+    ) {
+        LOG
+            .error(
+                new ParameterizedMessage(
+                    "fail to get entity's anomaly grade for detector [{}]: start: [{}], end: [{}]",
+                    detectorId,
+                    request.getStart(),
+                    request.getEnd()
+                ),
+                exception
+            );
+        listener.onFailure(exception);
+    }
+
+    /**
+     * Cache miss entities and results to save of a partition of entities
+     */
+    private static class ScoringResult {
+        private final Map<Entity, double[]> cacheMissEntities = new HashMap<>();
+        private final List<ResultWriteRequest> resultWriteRequests = new ArrayList<>();
     }
 
     /**
@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import org.opensearch.ad.model.Entity;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.io.stream.Writeable;
+
+/**
+ * An entity model sent from its previous owner node to its new owner, in the
+ * binary checkpoint format of CheckpointDao.
+ */
+public class HandoffModel implements Writeable {
+    private final String modelId;
+    private final String detectorId;
+    private final Entity entity;
+    private final byte[] checkpoint;
+    private final Instant lastCheckpointTime;
+
+    public HandoffModel(String modelId, String detectorId, Entity entity, byte[] checkpoint, Instant lastCheckpointTime) {
+        this.modelId = modelId;
+        this.detectorId = detectorId;
+        this.entity = entity;
+        this.checkpoint = checkpoint;
+        this.lastCheckpointTime = lastCheckpointTime;
+    }
+
+    public HandoffModel(StreamInput in) throws IOException {
+        this.modelId = in.readString();
+        this.detectorId = in.readString();
+        this.entity = in.readOptionalWriteable(Entity::new);
+        this.checkpoint = in.readByteArray();
+        this.lastCheckpointTime = in.readInstant();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(modelId);
+        out.writeString(detectorId);
+        out.writeOptionalWriteable(entity);
+        out.writeByteArray(checkpoint);
+        out.writeInstant(lastCheckpointTime);
+    }
+
+    public String getModelId() {
+        return modelId;
+    }
+
+    public String getDetectorId() {
+        return detectorId;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public byte[] getCheckpoint() {
+        return checkpoint;
+    }
+
+    public Instant getLastCheckpointTime() {
+        return lastCheckpointTime;
+    }
+}
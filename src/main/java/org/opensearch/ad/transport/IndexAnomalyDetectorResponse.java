@@ -60,6 +60,10 @@ public class IndexAnomalyDetectorResponse extends ActionResponse implements ToXC
         return id;
     }
 
+    public long getSeqNo() {
+        return seqNo;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(id);
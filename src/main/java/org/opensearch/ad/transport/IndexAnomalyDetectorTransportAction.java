@@ -155,6 +155,10 @@ public class IndexAnomalyDetectorTransportAction extends HandledTransportAction<
         Integer maxMultiEntityAnomalyDetectors = request.getMaxMultiEntityAnomalyDetectors();
         Integer maxAnomalyFeatures = request.getMaxAnomalyFeatures();
 
+        ActionListener<IndexAnomalyDetectorResponse> indexListener = method == RestRequest.Method.PUT
+            ? invalidateDetectorConfigOnUpdate(listener)
+            : listener;
+
         storedContext.restore();
         checkIndicesAndExecute(detector.getIndices(), () -> {
             // Don't replace detector's user when update detector
@@ -165,7 +169,7 @@ public class IndexAnomalyDetectorTransportAction extends HandledTransportAction<
                 client,
                 clientUtil,
                 transportService,
-                listener,
+                indexListener,
                 anomalyDetectionIndices,
                 detectorId,
                 seqNo,
@@ -187,6 +191,32 @@ public class IndexAnomalyDetectorTransportAction extends HandledTransportAction<
         }, listener);
     }
 
+    /**
+     * Let all nodes drop their cached config of the detector before responding to an update
+     *
+     * @param listener listener to respond to
+     * @return a listener invalidating the cached configs on success
+     */
+    private ActionListener<IndexAnomalyDetectorResponse> invalidateDetectorConfigOnUpdate(
+        ActionListener<IndexAnomalyDetectorResponse> listener
+    ) {
+        return ActionListener.wrap(response -> {
+            InvalidateDetectorConfigRequest request = new InvalidateDetectorConfigRequest(response.getId(), response.getSeqNo());
+            try (ThreadContext.StoredContext context = client.threadPool().getThreadContext().stashContext()) {
+                client.execute(InvalidateDetectorConfigAction.INSTANCE, request, ActionListener.wrap(r -> {
+                    if (r.hasFailures()) {
+                        LOG.warn("Failed to invalidate config of detector {} on some nodes", response.getId());
+                    }
+                    listener.onResponse(response);
+                }, e -> {
+                    // the update is done anyway; nodes that missed the invalidation drop the config once idle
+                    LOG.warn("Failed to invalidate config of detector " + response.getId(), e);
+                    listener.onResponse(response);
+                }));
+            }
+        }, listener::onFailure);
+    }
+
     private void checkIndicesAndExecute(
         List<String> indices,
         AnomalyDetectorFunction function,
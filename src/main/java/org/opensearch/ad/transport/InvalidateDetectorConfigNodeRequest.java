@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.transport.TransportRequest;
+
+/**
+ * Config invalidation request sent to a node
+ */
+public class InvalidateDetectorConfigNodeRequest extends TransportRequest {
+    private final InvalidateDetectorConfigRequest request;
+
+    public InvalidateDetectorConfigNodeRequest(StreamInput in) throws IOException {
+        super(in);
+        this.request = new InvalidateDetectorConfigRequest(in);
+    }
+
+    public InvalidateDetectorConfigNodeRequest(InvalidateDetectorConfigRequest request) {
+        this.request = request;
+    }
+
+    public InvalidateDetectorConfigRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        request.writeTo(out);
+    }
+}
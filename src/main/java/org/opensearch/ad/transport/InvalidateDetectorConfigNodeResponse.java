@@ -0,0 +1,29 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.StreamInput;
+
+public class InvalidateDetectorConfigNodeResponse extends BaseNodeResponse {
+
+    public InvalidateDetectorConfigNodeResponse(StreamInput in) throws IOException {
+        super(in);
+    }
+
+    public InvalidateDetectorConfigNodeResponse(DiscoveryNode node) {
+        super(node);
+    }
+}
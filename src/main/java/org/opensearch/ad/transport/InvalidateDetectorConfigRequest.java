@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import static org.opensearch.action.ValidateActions.addValidationError;
+
+import java.io.IOException;
+
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.ad.constant.ADCommonMessages;
+import org.opensearch.common.Strings;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+/**
+ * Request sent to all nodes after a detector config is updated or deleted
+ */
+public class InvalidateDetectorConfigRequest extends BaseNodesRequest<InvalidateDetectorConfigRequest> {
+    private final String detectorId;
+    private final long seqNo;
+
+    public InvalidateDetectorConfigRequest(StreamInput in) throws IOException {
+        super(in);
+        this.detectorId = in.readString();
+        this.seqNo = in.readLong();
+    }
+
+    /**
+     * Constructor.  Sends to all nodes.
+     *
+     * @param detectorId detector id
+     * @param seqNo sequence number of the update or delete of the config doc
+     */
+    public InvalidateDetectorConfigRequest(String detectorId, long seqNo) {
+        super((String[]) null);
+        this.detectorId = detectorId;
+        this.seqNo = seqNo;
+    }
+
+    public String getDetectorId() {
+        return detectorId;
+    }
+
+    public long getSeqNo() {
+        return seqNo;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(detectorId);
+        out.writeLong(seqNo);
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (Strings.isEmpty(detectorId)) {
+            validationException = addValidationError(ADCommonMessages.AD_ID_MISSING_MSG, validationException);
+        }
+        return validationException;
+    }
+}
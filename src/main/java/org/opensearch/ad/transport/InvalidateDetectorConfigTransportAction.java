@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.ad.NodeStateManager;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+public class InvalidateDetectorConfigTransportAction extends
+    TransportNodesAction<
+        InvalidateDetectorConfigRequest,
+        InvalidateDetectorConfigResponse,
+        InvalidateDetectorConfigNodeRequest,
+        InvalidateDetectorConfigNodeResponse> {
+    private final NodeStateManager nodeStateManager;
+
+    @Inject
+    public InvalidateDetectorConfigTransportAction(
+        ThreadPool threadPool,
+        ClusterService clusterService,
+        TransportService transportService,
+        ActionFilters actionFilters,
+        NodeStateManager nodeStateManager
+    ) {
+        super(
+            InvalidateDetectorConfigAction.NAME,
+            threadPool,
+            clusterService,
+            transportService,
+            actionFilters,
+            InvalidateDetectorConfigRequest::new,
+            InvalidateDetectorConfigNodeRequest::new,
+            ThreadPool.Names.MANAGEMENT,
+            InvalidateDetectorConfigNodeResponse.class
+        );
+        this.nodeStateManager = nodeStateManager;
+    }
+
+    @Override
+    protected InvalidateDetectorConfigResponse newResponse(
+        InvalidateDetectorConfigRequest request,
+        List<InvalidateDetectorConfigNodeResponse> responses,
+        List<FailedNodeException> failures
+    ) {
+        return new InvalidateDetectorConfigResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected InvalidateDetectorConfigNodeRequest newNodeRequest(InvalidateDetectorConfigRequest request) {
+        return new InvalidateDetectorConfigNodeRequest(request);
+    }
+
+    @Override
+    protected InvalidateDetectorConfigNodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new InvalidateDetectorConfigNodeResponse(in);
+    }
+
+    @Override
+    protected InvalidateDetectorConfigNodeResponse nodeOperation(InvalidateDetectorConfigNodeRequest nodeRequest) {
+        InvalidateDetectorConfigRequest request = nodeRequest.getRequest();
+        nodeStateManager.invalidateAnomalyDetector(request.getDetectorId(), request.getSeqNo());
+        return new InvalidateDetectorConfigNodeResponse(clusterService.localNode());
+    }
+}
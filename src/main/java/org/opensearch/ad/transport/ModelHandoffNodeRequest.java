@@ -0,0 +1,50 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.transport.TransportRequest;
+
+public class ModelHandoffNodeRequest extends TransportRequest {
+    private List<HandoffModel> models;
+    private int ringVersion;
+
+    public ModelHandoffNodeRequest(StreamInput in) throws IOException {
+        super(in);
+        this.models = in.readList(HandoffModel::new);
+        this.ringVersion = in.readInt();
+    }
+
+    public ModelHandoffNodeRequest(ModelHandoffRequest request) {
+        this.models = request.getModels();
+        this.ringVersion = request.getRingVersion();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeList(models);
+        out.writeInt(ringVersion);
+    }
+
+    public List<HandoffModel> getModels() {
+        return models;
+    }
+
+    public int getRingVersion() {
+        return ringVersion;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+public class ModelHandoffNodeResponse extends BaseNodeResponse {
+    // number of models the node keeps
+    private int accepted;
+
+    public ModelHandoffNodeResponse(StreamInput in) throws IOException {
+        super(in);
+        this.accepted = in.readVInt();
+    }
+
+    public ModelHandoffNodeResponse(DiscoveryNode node, int accepted) {
+        super(node);
+        this.accepted = accepted;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(accepted);
+    }
+
+    public static ModelHandoffNodeResponse readNodeResponse(StreamInput in) throws IOException {
+        return new ModelHandoffNodeResponse(in);
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+public class ModelHandoffRequest extends BaseNodesRequest<ModelHandoffRequest> {
+    private List<HandoffModel> models;
+    // version of the realtime hash ring the sender routes the models with
+    private int ringVersion;
+
+    public ModelHandoffRequest(StreamInput in) throws IOException {
+        super(in);
+        this.models = in.readList(HandoffModel::new);
+        this.ringVersion = in.readInt();
+    }
+
+    public ModelHandoffRequest(List<HandoffModel> models, int ringVersion, DiscoveryNode... nodes) {
+        super(nodes);
+        this.models = models;
+        this.ringVersion = ringVersion;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeList(models);
+        out.writeInt(ringVersion);
+    }
+
+    public List<HandoffModel> getModels() {
+        return models;
+    }
+
+    public int getRingVersion() {
+        return ringVersion;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Receives entity models from their previous owner after a hash ring change and
+ * keeps them off heap.  CheckpointReadWorker restores a model from there on the
+ * entity's next request instead of reading the checkpoint index.  Models are only
+ * kept if the local node has built the same realtime hash ring as the sender.
+ */
+public class ModelHandoffTransportAction extends
+    TransportNodesAction<ModelHandoffRequest, ModelHandoffResponse, ModelHandoffNodeRequest, ModelHandoffNodeResponse> {
+    private static final Logger LOG = LogManager.getLogger(ModelHandoffTransportAction.class);
+    private CacheProvider cacheProvider;
+
+    @Inject
+    public ModelHandoffTransportAction(
+        ThreadPool threadPool,
+        ClusterService clusterService,
+        TransportService transportService,
+        ActionFilters actionFilters,
+        CacheProvider cacheProvider
+    ) {
+        super(
+            ModelHandoffAction.NAME,
+            threadPool,
+            clusterService,
+            transportService,
+            actionFilters,
+            ModelHandoffRequest::new,
+            ModelHandoffNodeRequest::new,
+            ThreadPool.Names.MANAGEMENT,
+            ModelHandoffNodeResponse.class
+        );
+        this.cacheProvider = cacheProvider;
+    }
+
+    @Override
+    protected ModelHandoffResponse newResponse(
+        ModelHandoffRequest request,
+        List<ModelHandoffNodeResponse> responses,
+        List<FailedNodeException> failures
+    ) {
+        return new ModelHandoffResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected ModelHandoffNodeRequest newNodeRequest(ModelHandoffRequest request) {
+        return new ModelHandoffNodeRequest(request);
+    }
+
+    @Override
+    protected ModelHandoffNodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new ModelHandoffNodeResponse(in);
+    }
+
+    @Override
+    protected ModelHandoffNodeResponse nodeOperation(ModelHandoffNodeRequest request) {
+        EntityCache cache = cacheProvider.get();
+        int accepted = 0;
+        for (HandoffModel model : request.getModels()) {
+            // a hosted model is the latest one
+            if (cache.isActive(model.getDetectorId(), model.getModelId())) {
+                continue;
+            }
+            if (cache
+                .putOffHeapModel(
+                    model.getModelId(),
+                    model.getDetectorId(),
+                    model.getEntity(),
+                    model.getCheckpoint(),
+                    model.getLastCheckpointTime(),
+                    request.getRingVersion()
+                )) {
+                accepted++;
+            }
+        }
+        LOG.debug("Received {} models, kept {}", request.getModels().size(), accepted);
+        return new ModelHandoffNodeResponse(clusterService.localNode(), accepted);
+    }
+}
@@ -17,8 +17,10 @@ import static org.opensearch.ad.settings.AnomalyDetectorSettings.TOP_ANOMALY_RES
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.HandledTransportAction;
+import org.opensearch.ad.TopAnomalySummary;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.common.exception.ResourceNotFoundException;
 import org.opensearch.ad.model.ADTask;
@@ -321,18 +324,75 @@ public class SearchTopAnomalyResultTransportAction extends
             // returned as a failure in this Listener.
             // This same method is used for security handling for the search results action. Since this action
             // is doing fundamentally the same thing, we can reuse the security logic here.
-            searchHandler
-                .search(
-                    searchRequest,
-                    new TopAnomalyResultListener(
-                        listener,
-                        searchRequest.source(),
-                        clock.millis() + TOP_ANOMALY_RESULT_TIMEOUT_IN_MILLIS,
-                        request.getSize(),
-                        orderType,
-                        customResultIndex
-                    )
-                );
+            long startTime = request.getStartTime().toEpochMilli();
+            long endTime = request.getEndTime().toEpochMilli();
+            // whole hours within the range; real-time results in them are in the top anomaly summaries of the nodes
+            long summaryStartTime = TopAnomalySummary.getBucket(startTime + TopAnomalySummary.BUCKET_MILLIS - 1);
+            long summaryEndTime = TopAnomalySummary.getBucket(endTime + 1);
+            if (request.getHistorical() == true || summaryStartTime >= summaryEndTime) {
+                searchHandler
+                    .search(
+                        searchRequest,
+                        new TopAnomalyResultListener(
+                            listener,
+                            searchRequest.source(),
+                            clock.millis() + TOP_ANOMALY_RESULT_TIMEOUT_IN_MILLIS,
+                            request.getSize(),
+                            orderType,
+                            customResultIndex
+                        )
+                    );
+                return;
+            }
+
+            TopAnomalySummaryRequest summaryRequest = new TopAnomalySummaryRequest(
+                request.getDetectorId(),
+                summaryStartTime,
+                summaryEndTime,
+                request.getCategoryFields()
+            );
+            client.execute(TopAnomalySummaryAction.INSTANCE, summaryRequest, ActionListener.wrap(summaryResponse -> {
+                Map<Map<String, Object>, AnomalyResultBucket> summaryBuckets = null;
+                if (summaryResponse.getCoverageStart() <= summaryStartTime) {
+                    summaryBuckets = summaryResponse.getBuckets();
+                    // only the partial hours at both ends are left for the result indices
+                    QueryBuilder dataEndTimeFilter = QueryBuilders
+                        .boolQuery()
+                        .should(QueryBuilders.rangeQuery(CommonName.DATA_END_TIME_FIELD).gte(startTime).lt(summaryStartTime))
+                        .should(QueryBuilders.rangeQuery(CommonName.DATA_END_TIME_FIELD).gte(summaryEndTime).lte(endTime))
+                        .minimumShouldMatch(1);
+                    searchRequest.source().query(generateQuery(request, dataEndTimeFilter));
+                } else {
+                    logger.debug("Top anomaly summaries don't cover detector {} from {}", request.getDetectorId(), summaryStartTime);
+                }
+                searchHandler
+                    .search(
+                        searchRequest,
+                        new TopAnomalyResultListener(
+                            listener,
+                            searchRequest.source(),
+                            clock.millis() + TOP_ANOMALY_RESULT_TIMEOUT_IN_MILLIS,
+                            request.getSize(),
+                            orderType,
+                            customResultIndex,
+                            summaryBuckets
+                        )
+                    );
+            }, exception -> {
+                logger.warn("Failed to get top anomaly summaries, search result indices instead", exception);
+                searchHandler
+                    .search(
+                        searchRequest,
+                        new TopAnomalyResultListener(
+                            listener,
+                            searchRequest.source(),
+                            clock.millis() + TOP_ANOMALY_RESULT_TIMEOUT_IN_MILLIS,
+                            request.getSize(),
+                            orderType,
+                            customResultIndex
+                        )
+                    );
+            }));
 
         }, exception -> {
             logger.error("Failed to get top anomaly results", exception);
@@ -357,6 +417,8 @@ public class SearchTopAnomalyResultTransportAction extends
         private int maxResults;
         private PriorityQueue<AnomalyResultBucket> topResultsHeap;
         private String customResultIndex;
+        // buckets of the same key from the summaries and the searched pages to merge; null if only searching
+        private Map<Map<String, Object>, AnomalyResultBucket> mergedBuckets;
 
         TopAnomalyResultListener(
             ActionListener<SearchTopAnomalyResultResponse> listener,
@@ -365,6 +427,18 @@ public class SearchTopAnomalyResultTransportAction extends
             int maxResults,
             OrderType orderType,
             String customResultIndex
+        ) {
+            this(listener, searchSourceBuilder, expirationEpochMs, maxResults, orderType, customResultIndex, null);
+        }
+
+        TopAnomalyResultListener(
+            ActionListener<SearchTopAnomalyResultResponse> listener,
+            SearchSourceBuilder searchSourceBuilder,
+            long expirationEpochMs,
+            int maxResults,
+            OrderType orderType,
+            String customResultIndex,
+            Map<Map<String, Object>, AnomalyResultBucket> summaryBuckets
         ) {
             this.listener = listener;
             this.searchSourceBuilder = searchSourceBuilder;
@@ -382,6 +456,7 @@ public class SearchTopAnomalyResultTransportAction extends
                 }
             });
             this.customResultIndex = customResultIndex;
+            this.mergedBuckets = summaryBuckets == null ? null : new HashMap<>(summaryBuckets);
         }
 
         @Override
@@ -410,19 +485,22 @@ public class SearchTopAnomalyResultTransportAction extends
                     .map(bucket -> AnomalyResultBucket.createAnomalyResultBucket(bucket))
                     .collect(Collectors.toList());
 
-                // Add all of the results to the heap, and only keep the top maxResults buckets.
-                // Note that the top results heap is implemented as a min heap, so by polling
-                // the lowest values from the heap, only the top values remain.
-                topResultsHeap.addAll(bucketResults);
-                while (topResultsHeap.size() > maxResults) {
-                    topResultsHeap.poll();
+                // A key in the summaries can show up in any page, so merged buckets go to the heap at the end
+                if (mergedBuckets != null) {
+                    for (AnomalyResultBucket bucket : bucketResults) {
+                        mergedBuckets.merge(bucket.getKey(), bucket, TopAnomalySummary::merge);
+                    }
+                } else {
+                    addToHeap(bucketResults);
                 }
 
                 // If afterKey is null: we've hit the end of results. Return the results
                 Map<String, Object> afterKey = compositeAgg.afterKey();
                 if (afterKey == null) {
+                    addMergedBucketsToHeap();
                     listener.onResponse(new SearchTopAnomalyResultResponse(getDescendingOrderListFromHeap(topResultsHeap)));
                 } else if (expirationEpochMs < clock.millis()) {
+                    addMergedBucketsToHeap();
                     if (topResultsHeap.isEmpty()) {
                         listener.onFailure(new AnomalyDetectionException("Timed out getting all top anomaly results. Please retry later."));
                     } else {
@@ -449,6 +527,22 @@ public class SearchTopAnomalyResultTransportAction extends
             }
         }
 
+        // Add the results to the heap, and only keep the top maxResults buckets.
+        // Note that the top results heap is implemented as a min heap, so by polling
+        // the lowest values from the heap, only the top values remain.
+        private void addToHeap(Collection<AnomalyResultBucket> bucketResults) {
+            topResultsHeap.addAll(bucketResults);
+            while (topResultsHeap.size() > maxResults) {
+                topResultsHeap.poll();
+            }
+        }
+
+        private void addMergedBucketsToHeap() {
+            if (mergedBuckets != null) {
+                addToHeap(mergedBuckets.values());
+            }
+        }
+
         @Override
         public void onFailure(Exception e) {
             logger.error("Failed to paginate top anomaly results", e);
@@ -483,13 +577,24 @@ public class SearchTopAnomalyResultTransportAction extends
      * @return the generated query as a QueryBuilder
      */
     private QueryBuilder generateQuery(SearchTopAnomalyResultRequest request) {
-        BoolQueryBuilder query = new BoolQueryBuilder();
-
-        // Adding the date range and anomaly grade filters (needed regardless of real-time or historical)
         RangeQueryBuilder dateRangeFilter = QueryBuilders
             .rangeQuery(CommonName.DATA_END_TIME_FIELD)
             .gte(request.getStartTime().toEpochMilli())
             .lte(request.getEndTime().toEpochMilli());
+        return generateQuery(request, dateRangeFilter);
+    }
+
+    /**
+     * Generates the query with the given filter on data end time in place of the requested range.
+     *
+     * @param request the request containing the necessary fields to generate the query
+     * @param dateRangeFilter filter on data end time
+     * @return the generated query as a QueryBuilder
+     */
+    private QueryBuilder generateQuery(SearchTopAnomalyResultRequest request, QueryBuilder dateRangeFilter) {
+        BoolQueryBuilder query = new BoolQueryBuilder();
+
+        // Adding the date range and anomaly grade filters (needed regardless of real-time or historical)
         RangeQueryBuilder anomalyGradeFilter = QueryBuilders.rangeQuery(AnomalyResult.ANOMALY_GRADE_FIELD).gt(0);
         query.filter(dateRangeFilter).filter(anomalyGradeFilter);
 
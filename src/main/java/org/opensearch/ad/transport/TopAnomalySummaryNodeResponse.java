@@ -0,0 +1,63 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.ad.model.AnomalyResultBucket;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+/**
+ * Anomalies of a detector in the top anomaly summary of a node
+ */
+public class TopAnomalySummaryNodeResponse extends BaseNodeResponse {
+    private final long coverageStart;
+    private final List<AnomalyResultBucket> buckets;
+
+    public TopAnomalySummaryNodeResponse(StreamInput in) throws IOException {
+        super(in);
+        this.coverageStart = in.readLong();
+        this.buckets = in.readList(AnomalyResultBucket::new);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param node node
+     * @param coverageStart results with data end time at or after it are in the node's summary
+     * @param buckets anomalies grouped by the requested category fields
+     */
+    public TopAnomalySummaryNodeResponse(DiscoveryNode node, long coverageStart, List<AnomalyResultBucket> buckets) {
+        super(node);
+        this.coverageStart = coverageStart;
+        this.buckets = buckets;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(coverageStart);
+        out.writeList(buckets);
+    }
+
+    public long getCoverageStart() {
+        return coverageStart;
+    }
+
+    public List<AnomalyResultBucket> getBuckets() {
+        return buckets;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+/**
+ * Request for the anomalies of a detector in whole hours from the top anomaly
+ * summaries of all nodes
+ */
+public class TopAnomalySummaryRequest extends BaseNodesRequest<TopAnomalySummaryRequest> {
+    private final String detectorId;
+    private final long startTime;
+    private final long endTime;
+    private final List<String> categoryFields;
+
+    public TopAnomalySummaryRequest(StreamInput in) throws IOException {
+        super(in);
+        this.detectorId = in.readString();
+        this.startTime = in.readLong();
+        this.endTime = in.readLong();
+        this.categoryFields = in.readStringList();
+    }
+
+    /**
+     * Constructor.  Asks all nodes.
+     *
+     * @param detectorId detector id
+     * @param startTime start of the first hour, inclusive
+     * @param endTime end of the last hour, exclusive
+     * @param categoryFields category fields to group anomalies by
+     */
+    public TopAnomalySummaryRequest(String detectorId, long startTime, long endTime, List<String> categoryFields) {
+        super((String[]) null);
+        this.detectorId = detectorId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.categoryFields = categoryFields;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(detectorId);
+        out.writeLong(startTime);
+        out.writeLong(endTime);
+        out.writeStringCollection(categoryFields);
+    }
+
+    public String getDetectorId() {
+        return detectorId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public List<String> getCategoryFields() {
+        return categoryFields;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.ad.TopAnomalySummary;
+import org.opensearch.ad.model.AnomalyResultBucket;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+/**
+ * Anomalies of a detector in the top anomaly summaries of the nodes
+ */
+public class TopAnomalySummaryResponse extends BaseNodesResponse<TopAnomalySummaryNodeResponse> {
+
+    public TopAnomalySummaryResponse(StreamInput in) throws IOException {
+        super(in);
+    }
+
+    public TopAnomalySummaryResponse(
+        ClusterName clusterName,
+        List<TopAnomalySummaryNodeResponse> nodes,
+        List<FailedNodeException> failures
+    ) {
+        super(clusterName, nodes, failures);
+    }
+
+    @Override
+    public void writeNodesTo(StreamOutput out, List<TopAnomalySummaryNodeResponse> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    @Override
+    public List<TopAnomalySummaryNodeResponse> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(TopAnomalySummaryNodeResponse::new);
+    }
+
+    /**
+     * @return results with data end time at or after it are in the summaries.
+     *  Long.MAX_VALUE if a node failed to answer.
+     */
+    public long getCoverageStart() {
+        if (hasFailures()) {
+            return Long.MAX_VALUE;
+        }
+        long coverageStart = Long.MIN_VALUE;
+        for (TopAnomalySummaryNodeResponse node : getNodes()) {
+            coverageStart = Math.max(coverageStart, node.getCoverageStart());
+        }
+        return coverageStart;
+    }
+
+    /**
+     * Entities may have moved between nodes, so the same group can come from several nodes.
+     *
+     * @return anomalies of the nodes merged by group
+     */
+    public Map<Map<String, Object>, AnomalyResultBucket> getBuckets() {
+        Map<Map<String, Object>, AnomalyResultBucket> buckets = new HashMap<>();
+        for (TopAnomalySummaryNodeResponse node : getNodes()) {
+            for (AnomalyResultBucket bucket : node.getBuckets()) {
+                buckets.merge(bucket.getKey(), bucket, TopAnomalySummary::merge);
+            }
+        }
+        return buckets;
+    }
+}
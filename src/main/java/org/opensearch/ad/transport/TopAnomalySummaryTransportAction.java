@@ -0,0 +1,85 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.ad.TopAnomalySummary;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Reads the top anomaly summary of each node
+ */
+public class TopAnomalySummaryTransportAction extends
+    TransportNodesAction<TopAnomalySummaryRequest, TopAnomalySummaryResponse, TopAnomalySummaryNodeRequest, TopAnomalySummaryNodeResponse> {
+    private final TopAnomalySummary topAnomalySummary;
+
+    @Inject
+    public TopAnomalySummaryTransportAction(
+        ThreadPool threadPool,
+        ClusterService clusterService,
+        TransportService transportService,
+        ActionFilters actionFilters,
+        TopAnomalySummary topAnomalySummary
+    ) {
+        super(
+            TopAnomalySummaryAction.NAME,
+            threadPool,
+            clusterService,
+            transportService,
+            actionFilters,
+            TopAnomalySummaryRequest::new,
+            TopAnomalySummaryNodeRequest::new,
+            ThreadPool.Names.MANAGEMENT,
+            TopAnomalySummaryNodeResponse.class
+        );
+        this.topAnomalySummary = topAnomalySummary;
+    }
+
+    @Override
+    protected TopAnomalySummaryResponse newResponse(
+        TopAnomalySummaryRequest request,
+        List<TopAnomalySummaryNodeResponse> responses,
+        List<FailedNodeException> failures
+    ) {
+        return new TopAnomalySummaryResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected TopAnomalySummaryNodeRequest newNodeRequest(TopAnomalySummaryRequest request) {
+        return new TopAnomalySummaryNodeRequest(request);
+    }
+
+    @Override
+    protected TopAnomalySummaryNodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new TopAnomalySummaryNodeResponse(in);
+    }
+
+    @Override
+    protected TopAnomalySummaryNodeResponse nodeOperation(TopAnomalySummaryNodeRequest nodeRequest) {
+        TopAnomalySummaryRequest request = nodeRequest.getRequest();
+        String detectorId = request.getDetectorId();
+        return new TopAnomalySummaryNodeResponse(
+            clusterService.localNode(),
+            topAnomalySummary.getCoverageStart(detectorId),
+            topAnomalySummary.getBuckets(detectorId, request.getStartTime(), request.getEndTime(), request.getCategoryFields())
+        );
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.util;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Feature;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.aggregations.AggregatorFactories;
+import org.opensearch.search.builder.SearchSourceBuilder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Parsed feature aggregations per detector.  Feature queries are built on every
+ * detector run, preview and cold start round.  Without the cache, each of them
+ * serializes every feature aggregation to JSON and parses it back.
+ *
+ * An entry is keyed by detector id and is only used while the detector's last
+ * update time and features match, so an updated detector is parsed again.
+ * Entries are also dropped when NodeStateManager learns of a detector update
+ * or delete.
+ *
+ * Cached builders are shared by concurrent searches and must not be modified.
+ * Callers add them to new parent aggregations or use a shallow copy of the
+ * feature query skeleton.
+ */
+public class FeatureQueryCache {
+    private final Cache<String, CompiledFeatures> cache;
+    private final NamedXContentRegistry xContentRegistry;
+
+    private static class CompiledFeatures {
+        private final Instant lastUpdateTime;
+        private final List<Feature> features;
+        // in the same order as the detector's features
+        private final List<AggregationBuilder> aggregations;
+        // aggregations of all features and no query
+        private final SearchSourceBuilder featureQuerySkeleton;
+
+        CompiledFeatures(Instant lastUpdateTime, List<Feature> features, List<AggregationBuilder> aggregations) {
+            this.lastUpdateTime = lastUpdateTime;
+            this.features = features;
+            this.aggregations = aggregations;
+            this.featureQuerySkeleton = new SearchSourceBuilder();
+            for (AggregationBuilder aggregation : aggregations) {
+                featureQuerySkeleton.aggregation(aggregation);
+            }
+        }
+
+        boolean matches(AnomalyDetector detector) {
+            if (false == Objects.equals(lastUpdateTime, detector.getLastUpdateTime())) {
+                return false;
+            }
+            List<Feature> current = detector.getFeatureAttributes();
+            return current == null ? features.isEmpty() : features.equals(current);
+        }
+    }
+
+    /**
+     * @param xContentRegistry registry to parse feature aggregations
+     */
+    public FeatureQueryCache(NamedXContentRegistry xContentRegistry) {
+        this.cache = CacheBuilder
+            .newBuilder()
+            .expireAfterAccess(AnomalyDetectorSettings.HOURLY_MAINTENANCE.toHours(), TimeUnit.HOURS)
+            .maximumSize(AnomalyDetectorSettings.MAX_CACHED_FEATURE_QUERIES)
+            .build();
+        this.xContentRegistry = xContentRegistry;
+    }
+
+    /**
+     * Get parsed aggregations of a detector's features.  Each aggregation is named
+     * after its feature id.
+     *
+     * @param detector Detector config
+     * @return aggregations in the same order as the detector's features
+     * @throws IOException when failing to parse feature aggregations
+     */
+    public List<AggregationBuilder> getFeatureAggregations(AnomalyDetector detector) throws IOException {
+        return getCompiledFeatures(detector).aggregations;
+    }
+
+    /**
+     * Get a search source holding aggregations of all of a detector's features.
+     * Callers take a shallow copy and set the query of a run on it.
+     *
+     * @param detector Detector config
+     * @return the shared search source. Must not be modified.
+     * @throws IOException when failing to parse feature aggregations
+     */
+    public SearchSourceBuilder getFeatureQuerySkeleton(AnomalyDetector detector) throws IOException {
+        return getCompiledFeatures(detector).featureQuerySkeleton;
+    }
+
+    /**
+     * Drop the cached aggregations of a detector
+     * @param detectorId Detector Id
+     */
+    public void invalidate(String detectorId) {
+        cache.invalidate(detectorId);
+    }
+
+    private CompiledFeatures getCompiledFeatures(AnomalyDetector detector) throws IOException {
+        String detectorId = detector.getDetectorId();
+        if (detectorId != null) {
+            CompiledFeatures cached = cache.getIfPresent(detectorId);
+            if (cached != null && cached.matches(detector)) {
+                return cached;
+            }
+        }
+
+        List<Feature> features = getFeatures(detector);
+        List<AggregationBuilder> aggregations = new ArrayList<>();
+        for (Feature feature : features) {
+            AggregatorFactories.Builder internalAgg = ParseUtils
+                .parseAggregators(feature.getAggregation().toString(), xContentRegistry, feature.getId());
+            aggregations.add(internalAgg.getAggregatorFactories().iterator().next());
+        }
+        CompiledFeatures compiled = new CompiledFeatures(
+            detector.getLastUpdateTime(),
+            features,
+            Collections.unmodifiableList(aggregations)
+        );
+        // detectors being created or validated have no id or update time yet
+        if (detectorId != null && detector.getLastUpdateTime() != null) {
+            cache.put(detectorId, compiled);
+        }
+        return compiled;
+    }
+
+    private static List<Feature> getFeatures(AnomalyDetector detector) {
+        if (detector.getFeatureAttributes() == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(detector.getFeatureAttributes());
+    }
+}
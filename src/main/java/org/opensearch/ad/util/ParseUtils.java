@@ -14,6 +14,7 @@ package org.opensearch.ad.util;
 import static org.opensearch.ad.constant.ADCommonMessages.FAIL_TO_GET_USER_INFO;
 import static org.opensearch.ad.constant.ADCommonMessages.NO_PERMISSION_TO_ACCESS_DETECTOR;
 import static org.opensearch.ad.constant.ADCommonName.DATE_HISTOGRAM;
+import static org.opensearch.ad.constant.ADCommonName.ENTITY_AGGS;
 import static org.opensearch.ad.constant.ADCommonName.EPOCH_MILLIS_FORMAT;
 import static org.opensearch.ad.constant.ADCommonName.FEATURE_AGGS;
 import static org.opensearch.ad.model.AnomalyDetector.QUERY_PARAM_PERIOD_END;
@@ -78,6 +79,7 @@ import org.opensearch.search.aggregations.PipelineAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
 import org.opensearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.opensearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.opensearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
 import org.opensearch.search.aggregations.metrics.Max;
@@ -307,11 +309,22 @@ public final class ParseUtils {
         return factories;
     }
 
+    /**
+     * Generate the feature query of a detector run.  Aggregations of the returned
+     * search source are shared with other runs of the detector and must not be modified.
+     *
+     * @param detector Detector config
+     * @param startTime start of the range, inclusive
+     * @param endTime end of the range, exclusive
+     * @param featureQueryCache cache of parsed feature aggregations
+     * @return the search source
+     * @throws IOException when failing to parse feature aggregations
+     */
     public static SearchSourceBuilder generateInternalFeatureQuery(
         AnomalyDetector detector,
         long startTime,
         long endTime,
-        NamedXContentRegistry xContentRegistry
+        FeatureQueryCache featureQueryCache
     ) throws IOException {
         RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
             .from(startTime)
@@ -322,25 +335,13 @@ public final class ParseUtils {
 
         BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().must(rangeQuery).must(detector.getFilterQuery());
 
-        SearchSourceBuilder internalSearchSourceBuilder = new SearchSourceBuilder().query(internalFilterQuery);
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                internalSearchSourceBuilder.aggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
-        }
-
-        return internalSearchSourceBuilder;
+        return featureQueryCache.getFeatureQuerySkeleton(detector).shallowCopy().query(internalFilterQuery);
     }
 
     public static SearchSourceBuilder generatePreviewQuery(
         AnomalyDetector detector,
         List<Entry<Long, Long>> ranges,
-        NamedXContentRegistry xContentRegistry
+        FeatureQueryCache featureQueryCache
     ) throws IOException {
 
         DateRangeAggregationBuilder dateRangeBuilder = dateRange("date_range").field(detector.getTimeField()).format("epoch_millis");
@@ -348,15 +349,8 @@ public final class ParseUtils {
             dateRangeBuilder.addRange(range.getKey(), range.getValue());
         }
 
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                dateRangeBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : featureQueryCache.getFeatureAggregations(detector)) {
+            dateRangeBuilder.subAggregation(featureAgg);
         }
 
         return new SearchSourceBuilder().query(detector.getFilterQuery()).size(0).aggregation(dateRangeBuilder);
@@ -389,7 +383,7 @@ public final class ParseUtils {
         AnomalyDetector detector,
         List<Entry<Long, Long>> ranges,
         Entity entity,
-        NamedXContentRegistry xContentRegistry
+        FeatureQueryCache featureQueryCache
     ) throws IOException {
 
         BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().filter(detector.getFilterQuery());
@@ -398,23 +392,82 @@ public final class ParseUtils {
             internalFilterQuery.filter(term);
         }
 
+        return new SearchSourceBuilder()
+            .query(internalFilterQuery)
+            .size(0)
+            .aggregation(coldStartDateRange(detector, ranges, featureQueryCache));
+    }
+
+    /**
+     * Generate a query to get cold start samples of multiple entities of a detector
+     * in one search.  Entities are bucketed by a composite aggregation over the
+     * detector's category fields. Each entity bucket has the same date range and
+     * feature aggregations as {@link #generateEntityColdStartQuery}.
+     *
+     * @param detector Detector config
+     * @param ranges sample ranges shared by the entities
+     * @param entities entities to fetch samples for
+     * @param featureQueryCache cache of parsed feature aggregations
+     * @return the search source
+     * @throws IOException when failing to parse feature aggregations
+     */
+    public static SearchSourceBuilder generateBatchEntityColdStartQuery(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<Entity> entities,
+        FeatureQueryCache featureQueryCache
+    ) throws IOException {
+        BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().filter(detector.getFilterQuery()).filter(entitiesQuery(entities));
+
+        CompositeAggregationBuilder entityAgg = entityCompositeAggregation(detector, entities.size())
+            .subAggregation(coldStartDateRange(detector, ranges, featureQueryCache));
+
+        return new SearchSourceBuilder().query(internalFilterQuery).size(0).aggregation(entityAgg);
+    }
+
+    /**
+     * @param entities entities to match
+     * @return a query matching documents of any of the entities
+     */
+    public static BoolQueryBuilder entitiesQuery(List<Entity> entities) {
+        BoolQueryBuilder entitiesQuery = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        for (Entity entity : entities) {
+            BoolQueryBuilder entityQuery = QueryBuilders.boolQuery();
+            for (TermQueryBuilder term : entity.getTermQueryBuilders()) {
+                entityQuery.filter(term);
+            }
+            entitiesQuery.should(entityQuery);
+        }
+        return entitiesQuery;
+    }
+
+    /**
+     * @param detector Detector config
+     * @param size max number of entity buckets
+     * @return a composite aggregation bucketing documents by entity
+     */
+    public static CompositeAggregationBuilder entityCompositeAggregation(AnomalyDetector detector, int size) {
+        List<CompositeValuesSourceBuilder<?>> sources = new ArrayList<>();
+        for (String categoryField : detector.getCategoryField()) {
+            sources.add(new TermsValuesSourceBuilder(categoryField).field(categoryField));
+        }
+        return new CompositeAggregationBuilder(ENTITY_AGGS, sources).size(size);
+    }
+
+    private static DateRangeAggregationBuilder coldStartDateRange(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        FeatureQueryCache featureQueryCache
+    ) throws IOException {
         DateRangeAggregationBuilder dateRangeBuilder = dateRange("date_range").field(detector.getTimeField()).format("epoch_millis");
         for (Entry<Long, Long> range : ranges) {
             dateRangeBuilder.addRange(range.getKey(), range.getValue());
         }
 
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                dateRangeBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : featureQueryCache.getFeatureAggregations(detector)) {
+            dateRangeBuilder.subAggregation(featureAgg);
         }
-
-        return new SearchSourceBuilder().query(internalFilterQuery).size(0).aggregation(dateRangeBuilder);
+        return dateRangeBuilder;
     }
 
     /**
@@ -645,7 +698,7 @@ public final class ParseUtils {
      * @param entity entity
      * @param startTime start time
      * @param endTime end time
-     * @param xContentRegistry content registry
+     * @param featureQueryCache cache of parsed feature aggregations
      * @return search source builder
      * @throws IOException throw IO exception if fail to parse feature aggregation
      * @throws AnomalyDetectionException throw AD exception if no enabled feature
@@ -655,7 +708,7 @@ public final class ParseUtils {
         Entity entity,
         long startTime,
         long endTime,
-        NamedXContentRegistry xContentRegistry
+        FeatureQueryCache featureQueryCache
     ) throws IOException {
         RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
             .from(startTime)
@@ -685,21 +738,7 @@ public final class ParseUtils {
 
         CompositeAggregationBuilder aggregationBuilder = new CompositeAggregationBuilder(FEATURE_AGGS, sources)
             .size(MAX_BATCH_TASK_PIECE_SIZE);
-
-        if (detector.getEnabledFeatureIds().size() == 0) {
-            throw new AnomalyDetectionException("No enabled feature configured").countedInStats(false);
-        }
-
-        for (Feature feature : detector.getFeatureAttributes()) {
-            if (feature.getEnabled()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                aggregationBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
-        }
+        addEnabledFeatureAggregations(aggregationBuilder, detector, featureQueryCache);
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.aggregation(aggregationBuilder);
@@ -709,6 +748,83 @@ public final class ParseUtils {
         return searchSourceBuilder;
     }
 
+    /**
+     * Generate a query to get feature data of multiple entities of an HC detector
+     * in a time range in one search.  Documents are bucketed by a composite
+     * aggregation over the detector's category fields and the detection interval,
+     * so one scan of the source index returns the points of all the entities.
+     *
+     * @param detector Detector config
+     * @param entities entities to fetch feature data for
+     * @param startTime start time of the range, inclusive
+     * @param endTime end time of the range, exclusive
+     * @param afterKey composite key of the last bucket of the previous page, null for the first page
+     * @param featureQueryCache cache of parsed feature aggregations
+     * @return the search source
+     * @throws IOException when failing to parse feature aggregations
+     */
+    public static SearchSourceBuilder batchEntitiesFeatureQuery(
+        AnomalyDetector detector,
+        List<Entity> entities,
+        long startTime,
+        long endTime,
+        Map<String, Object> afterKey,
+        FeatureQueryCache featureQueryCache
+    ) throws IOException {
+        RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
+            .from(startTime)
+            .to(endTime)
+            .format(EPOCH_MILLIS_FORMAT)
+            .includeLower(true)
+            .includeUpper(false);
+
+        BoolQueryBuilder internalFilterQuery = QueryBuilders
+            .boolQuery()
+            .must(rangeQuery)
+            .must(detector.getFilterQuery())
+            .filter(entitiesQuery(entities));
+
+        long intervalSeconds = ((IntervalTimeConfiguration) detector.getDetectionInterval()).toDuration().getSeconds();
+
+        List<CompositeValuesSourceBuilder<?>> sources = new ArrayList<>();
+        for (String categoryField : detector.getCategoryField()) {
+            sources.add(new TermsValuesSourceBuilder(categoryField).field(categoryField));
+        }
+        sources
+            .add(
+                new DateHistogramValuesSourceBuilder(DATE_HISTOGRAM)
+                    .field(detector.getTimeField())
+                    .fixedInterval(DateHistogramInterval.seconds((int) intervalSeconds))
+            );
+
+        CompositeAggregationBuilder aggregationBuilder = new CompositeAggregationBuilder(FEATURE_AGGS, sources)
+            .size(MAX_BATCH_TASK_PIECE_SIZE);
+        if (afterKey != null) {
+            aggregationBuilder.aggregateAfter(afterKey);
+        }
+        addEnabledFeatureAggregations(aggregationBuilder, detector, featureQueryCache);
+
+        return new SearchSourceBuilder().query(internalFilterQuery).aggregation(aggregationBuilder).trackTotalHits(false).size(0);
+    }
+
+    private static void addEnabledFeatureAggregations(
+        CompositeAggregationBuilder aggregationBuilder,
+        AnomalyDetector detector,
+        FeatureQueryCache featureQueryCache
+    ) throws IOException {
+        if (detector.getEnabledFeatureIds().size() == 0) {
+            throw new AnomalyDetectionException("No enabled feature configured").countedInStats(false);
+        }
+
+        List<Feature> features = detector.getFeatureAttributes();
+        List<AggregationBuilder> featureAggs = featureQueryCache.getFeatureAggregations(detector);
+        for (int i = 0; i < features.size(); i++) {
+            if (features.get(i).getEnabled()) {
+                aggregationBuilder.subAggregation(featureAggs.get(i));
+            }
+        }
+    }
+
     public static <T> boolean isNullOrEmpty(Collection<T> collection) {
         return collection == null || collection.size() == 0;
     }
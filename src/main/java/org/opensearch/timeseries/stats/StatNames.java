@@ -37,7 +37,12 @@ public enum StatNames {
     AD_TOTAL_BATCH_TASK_EXECUTION_COUNT("ad_total_batch_task_execution_count"),
     AD_BATCH_TASK_FAILURE_COUNT("ad_batch_task_failure_count"),
     MODEL_COUNT("model_count"),
-    MODEL_CORRUTPION_COUNT("model_corruption_count");
+    MODEL_CORRUTPION_COUNT("model_corruption_count"),
+    CHECKPOINT_COMPRESSION_RATIO("checkpoint_compression_ratio"),
+    CHECKPOINT_CODEC_TIME_NANOS("checkpoint_codec_time_nanos"),
+    QUEUE_BATCH_SIZES("queue_batch_sizes"),
+    PLACEMENT_SKEW("placement_skew"),
+    ENTITY_CACHE_STATS("entity_cache_stats");
 
     private String name;
 
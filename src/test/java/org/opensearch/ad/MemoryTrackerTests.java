@@ -293,6 +293,14 @@ public class MemoryTrackerTests extends OpenSearchTestCase {
         expectThrows(IllegalArgumentException.class, () -> tracker.estimateTRCFModelSize(rcf10));
     }
 
+    public void testEstimateEntityModelStateSize() {
+        setUpBigHeap();
+
+        long trcfSize = tracker.estimateTRCFModelSize(12, 30, AnomalyDetectorSettings.REAL_TIME_BOUNDING_BOX_CACHE_RATIO, 4, true);
+        // the state's lock is counted besides the model
+        assertEquals(trcfSize + MemoryTracker.MODEL_STATE_LOCK_BYTES, tracker.estimateEntityModelStateSize(12, 30, 4));
+    }
+
     public void testCanAllocate() {
         setUpBigHeap();
 
@@ -324,4 +332,16 @@ public class MemoryTrackerTests extends OpenSearchTestCase {
         assertEquals(bytesToUse, tracker.memoryToShed());
         assertTrue(!tracker.syncMemoryState(MemoryTracker.Origin.HC_DETECTOR, 2 * bytesToUse, bytesToUse));
     }
+
+    public void testOffHeapNotCountedInHeapLimit() {
+        setUpBigHeap();
+        long bytesToUse = 100_000;
+        tracker.consumeMemory(bytesToUse, false, MemoryTracker.Origin.HC_DETECTOR_OFF_HEAP);
+        assertEquals(0, tracker.getTotalMemoryBytes());
+        assertEquals(bytesToUse, tracker.getOffHeapMemoryBytes());
+        assertTrue(tracker.canAllocate((long) (largeHeapSize * modelMaxPercen)));
+
+        tracker.releaseMemory(bytesToUse, false, MemoryTracker.Origin.HC_DETECTOR_OFF_HEAP);
+        assertEquals(0, tracker.getOffHeapMemoryBytes());
+    }
 }
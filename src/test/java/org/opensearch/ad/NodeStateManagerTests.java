@@ -32,6 +32,7 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import org.junit.After;
@@ -48,16 +49,22 @@ import org.opensearch.ad.model.AnomalyDetectorJob;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.transport.AnomalyResultTests;
 import org.opensearch.ad.util.ClientUtil;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.Throttler;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterChangedEvent;
 import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.node.DiscoveryNodeRole;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.bytes.BytesReference;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.index.get.GetResult;
 import org.opensearch.search.SearchModule;
 import org.opensearch.test.ClusterServiceUtils;
 import org.opensearch.test.OpenSearchTestCase;
@@ -83,6 +90,7 @@ public class NodeStateManagerTests extends AbstractADTest {
     private ClusterService clusterService;
     private ClusterSettings clusterSettings;
     private AnomalyDetectorJob jobToCheck;
+    private FeatureQueryCache featureQueryCache;
 
     @Override
     protected NamedXContentRegistry xContentRegistry() {
@@ -130,7 +138,17 @@ public class NodeStateManagerTests extends AbstractADTest {
         );
 
         clusterService = ClusterServiceUtils.createClusterService(threadPool, discoveryNode, clusterSettings);
-        stateManager = new NodeStateManager(client, xContentRegistry(), settings, clientUtil, clock, duration, clusterService);
+        featureQueryCache = mock(FeatureQueryCache.class);
+        stateManager = new NodeStateManager(
+            client,
+            xContentRegistry(),
+            settings,
+            clientUtil,
+            clock,
+            duration,
+            clusterService,
+            featureQueryCache
+        );
 
         checkpointResponse = mock(GetResponse.class);
         jobToCheck = TestHelpers.randomAnomalyDetectorJob(true, Instant.ofEpochMilli(1602401500000L), null);
@@ -241,7 +259,8 @@ public class NodeStateManagerTests extends AbstractADTest {
             new ClientUtil(settings, client, throttler, context),
             clock,
             duration,
-            clusterService
+            clusterService,
+            featureQueryCache
         );
 
         AnomalyDetector detector = TestHelpers.randomAnomalyDetector(ImmutableMap.of(), null);
@@ -449,4 +468,92 @@ public class NodeStateManagerTests extends AbstractADTest {
 
         verify(client, times(1)).get(any(), any(ActionListener.class));
     }
+
+    @SuppressWarnings("unchecked")
+    private String setupDetector(AtomicLong seqNo) throws IOException {
+        detectorToCheck = TestHelpers.randomAnomalyDetector(TestHelpers.randomUiMetadata(), null, true);
+        BytesReference source = BytesReference.bytes(detectorToCheck.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS));
+
+        doAnswer(invocation -> {
+            ActionListener<GetResponse> listener = (ActionListener<GetResponse>) invocation.getArguments()[1];
+            GetResult result = new GetResult(
+                CommonName.CONFIG_INDEX,
+                detectorToCheck.getDetectorId(),
+                seqNo.get(),
+                1,
+                1,
+                true,
+                source,
+                Collections.emptyMap(),
+                Collections.emptyMap()
+            );
+            listener.onResponse(new GetResponse(result));
+            return null;
+        }).when(client).get(any(), any(ActionListener.class));
+        return detectorToCheck.getDetectorId();
+    }
+
+    private void getAnomalyDetector(String detectorId) {
+        stateManager
+            .getAnomalyDetector(
+                detectorId,
+                ActionListener.wrap(asDetector -> assertEquals(detectorToCheck, asDetector.get()), exception -> assertTrue(false))
+            );
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testInvalidateAnomalyDetector() throws IOException {
+        AtomicLong seqNo = new AtomicLong(3);
+        String detectorId = setupDetector(seqNo);
+        getAnomalyDetector(detectorId);
+        getAnomalyDetector(detectorId);
+        verify(client, times(1)).get(any(), any(ActionListener.class));
+
+        stateManager.invalidateAnomalyDetector(detectorId, 5);
+        assertTrue(stateManager.getAnomalyDetectorIfPresent(detectorId).isEmpty());
+        verify(featureQueryCache).invalidate(detectorId);
+        // a get that doesn't see the change yet is not cached
+        getAnomalyDetector(detectorId);
+        getAnomalyDetector(detectorId);
+        verify(client, times(3)).get(any(), any(ActionListener.class));
+
+        seqNo.set(5);
+        getAnomalyDetector(detectorId);
+        getAnomalyDetector(detectorId);
+        verify(client, times(4)).get(any(), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testIgnoreOutdatedInvalidation() throws IOException {
+        String detectorId = setupDetector(new AtomicLong(5));
+        getAnomalyDetector(detectorId);
+        stateManager.invalidateAnomalyDetector(detectorId, 4);
+        getAnomalyDetector(detectorId);
+        verify(client, times(1)).get(any(), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testClearConfigsWhenNodesChange() throws IOException {
+        String detectorId = setupDetector(new AtomicLong(5));
+        getAnomalyDetector(detectorId);
+
+        ClusterChangedEvent event = mock(ClusterChangedEvent.class);
+        when(event.nodesChanged()).thenReturn(true);
+        stateManager.clusterChanged(event);
+        getAnomalyDetector(detectorId);
+        verify(client, times(2)).get(any(), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMaintenanceRemovesIdleConfigs() throws IOException {
+        String detectorId = setupDetector(new AtomicLong(5));
+        when(clock.millis()).thenReturn(0L);
+        when(clock.instant()).thenReturn(Instant.ofEpochMilli(0));
+        getAnomalyDetector(detectorId);
+
+        when(clock.millis()).thenReturn(AnomalyDetectorSettings.DETECTOR_CONFIG_IDLE_TTL.toMillis() + 1);
+        when(clock.instant()).thenReturn(Instant.ofEpochMilli(AnomalyDetectorSettings.DETECTOR_CONFIG_IDLE_TTL.toMillis() + 1));
+        stateManager.maintenance();
+        assertTrue(stateManager.getAnomalyDetectorIfPresent(detectorId).isEmpty());
+    }
 }
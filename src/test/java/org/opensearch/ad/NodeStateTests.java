@@ -37,7 +37,7 @@ public class NodeStateTests extends OpenSearchTestCase {
 
     public void testMaintenanceNotRemoveSingle() throws IOException {
         when(clock.instant()).thenReturn(Instant.ofEpochMilli(1000));
-        state.setDetectorDef(TestHelpers.randomAnomalyDetector(TestHelpers.randomUiMetadata(), null));
+        state.setPartitonNumber(1);
 
         when(clock.instant()).thenReturn(Instant.MIN);
         assertTrue(!state.expired(duration));
@@ -45,7 +45,7 @@ public class NodeStateTests extends OpenSearchTestCase {
 
     public void testMaintenanceNotRemove() throws IOException {
         when(clock.instant()).thenReturn(Instant.ofEpochSecond(1000));
-        state.setDetectorDef(TestHelpers.randomAnomalyDetector(TestHelpers.randomUiMetadata(), null));
+        state.setPartitonNumber(1);
         state.setLastDetectionError(null);
 
         when(clock.instant()).thenReturn(Instant.ofEpochSecond(3700));
@@ -54,11 +54,7 @@ public class NodeStateTests extends OpenSearchTestCase {
 
     public void testMaintenanceRemoveLastError() throws IOException {
         when(clock.instant()).thenReturn(Instant.ofEpochMilli(1000));
-        state
-            .setDetectorDef(
-
-                TestHelpers.randomAnomalyDetector(TestHelpers.randomUiMetadata(), null)
-            );
+        state.setPartitonNumber(1);
         state.setLastDetectionError(null);
 
         when(clock.instant()).thenReturn(Instant.ofEpochSecond(3700));
@@ -67,7 +63,7 @@ public class NodeStateTests extends OpenSearchTestCase {
 
     public void testMaintenancRemoveDetector() throws IOException {
         when(clock.instant()).thenReturn(Instant.MIN);
-        state.setDetectorDef(TestHelpers.randomAnomalyDetector(TestHelpers.randomUiMetadata(), null));
+        state.setPartitonNumber(1);
         when(clock.instant()).thenReturn(Instant.MAX);
         assertTrue(state.expired(duration));
 
@@ -0,0 +1,142 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.AnomalyResultBucket;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class TopAnomalySummaryTests extends OpenSearchTestCase {
+    private static final String DETECTOR_ID = "123";
+    private static final long HOUR = TopAnomalySummary.BUCKET_MILLIS;
+
+    private Clock clock;
+    private ClusterSettings clusterSettings;
+    private TopAnomalySummary summary;
+    private Map<String, Object> attributes1;
+    private Map<String, Object> attributes2;
+    private Entity entity1;
+    private Entity entity2;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(10 * HOUR);
+        ClusterService clusterService = mock(ClusterService.class);
+        clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.TOP_ANOMALY_SUMMARY_RETENTION)))
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+        summary = new TopAnomalySummary(clock, clusterService, Settings.EMPTY);
+
+        attributes1 = new HashMap<>();
+        attributes1.put("host", "server_1");
+        attributes1.put("service", "app_1");
+        entity1 = Entity.createEntityByReordering(attributes1);
+        attributes2 = new HashMap<>();
+        attributes2.put("host", "server_1");
+        attributes2.put("service", "app_2");
+        entity2 = Entity.createEntityByReordering(attributes2);
+    }
+
+    private AnomalyResult result(Entity entity, double grade, long dataEndTime, String taskId) {
+        AnomalyResult result = mock(AnomalyResult.class);
+        when(result.getDetectorId()).thenReturn(DETECTOR_ID);
+        when(result.getEntity()).thenReturn(entity);
+        when(result.getAnomalyGrade()).thenReturn(grade);
+        when(result.getDataEndTime()).thenReturn(Instant.ofEpochMilli(dataEndTime));
+        when(result.getTaskId()).thenReturn(taskId);
+        return result;
+    }
+
+    public void testGroupByCategoryFields() {
+        summary.record(result(entity1, 0.5, 10 * HOUR + 1, null));
+        summary.record(result(entity1, 0.8, 10 * HOUR + 2, null));
+        summary.record(result(entity2, 0.3, 10 * HOUR + 3, null));
+        // not anomalies, historical results, or out of the range
+        summary.record(result(entity2, 0, 10 * HOUR + 4, null));
+        summary.record(result(entity2, 0.9, 10 * HOUR + 5, "task"));
+        summary.record(result(entity2, 0.9, 11 * HOUR, null));
+        assertEquals(3, summary.getCellCount());
+
+        List<AnomalyResultBucket> buckets = summary.getBuckets(DETECTOR_ID, 10 * HOUR, 11 * HOUR, Arrays.asList("host"));
+        assertEquals(1, buckets.size());
+        assertEquals(new AnomalyResultBucket(Collections.singletonMap("host", "server_1"), 3, 0.8), buckets.get(0));
+
+        buckets = summary.getBuckets(DETECTOR_ID, 10 * HOUR, 11 * HOUR, Arrays.asList("host", "service"));
+        assertEquals(2, buckets.size());
+        assertTrue(buckets.contains(new AnomalyResultBucket(attributes1, 2, 0.8)));
+        assertTrue(buckets.contains(new AnomalyResultBucket(attributes2, 1, 0.3)));
+    }
+
+    public void testCoverageRestartsWhenNodeLeaves() {
+        assertEquals(10 * HOUR, summary.getCoverageStart(DETECTOR_ID));
+
+        ClusterChangedEvent event = mock(ClusterChangedEvent.class);
+        when(event.nodesRemoved()).thenReturn(true);
+        when(clock.millis()).thenReturn(10 * HOUR + 5);
+        summary.clusterChanged(event);
+        assertEquals(10 * HOUR + 5, summary.getCoverageStart(DETECTOR_ID));
+    }
+
+    public void testDropExpiredHours() {
+        summary.record(result(entity1, 0.5, 10 * HOUR, null));
+        summary.record(result(entity1, 0.5, 11 * HOUR, null));
+        assertEquals(2, summary.getCellCount());
+
+        // the default retention is 7 days
+        when(clock.millis()).thenReturn(11 * HOUR + 7 * 24 * HOUR);
+        assertEquals(11 * HOUR, summary.getCoverageStart(DETECTOR_ID));
+        assertEquals(1, summary.getCellCount());
+    }
+
+    public void testDisabled() {
+        String retention = AnomalyDetectorSettings.TOP_ANOMALY_SUMMARY_RETENTION.getKey();
+        clusterSettings.applySettings(Settings.builder().put(retention, "0s").build());
+        summary.record(result(entity1, 0.5, 10 * HOUR, null));
+        assertEquals(0, summary.getCellCount());
+        assertEquals(Long.MAX_VALUE, summary.getCoverageStart(DETECTOR_ID));
+
+        when(clock.millis()).thenReturn(12 * HOUR);
+        clusterSettings.applySettings(Settings.builder().put(retention, TimeValue.timeValueDays(1)).build());
+        assertEquals(12 * HOUR, summary.getCoverageStart(DETECTOR_ID));
+    }
+
+    public void testMerge() {
+        Map<String, Object> key = Collections.singletonMap("host", "server_1");
+        assertEquals(
+            new AnomalyResultBucket(key, 5, 0.7),
+            TopAnomalySummary.merge(new AnomalyResultBucket(key, 2, 0.7), new AnomalyResultBucket(key, 3, 0.4))
+        );
+    }
+}
@@ -47,6 +47,7 @@ public class AbstractCacheTest extends AbstractADTest {
     protected MemoryTracker memoryTracker;
     protected CheckpointWriteWorker checkpointWriteQueue;
     protected CheckpointMaintainWorker checkpointMaintainQueue;
+    protected OffHeapModelStore offHeapModelStore;
     protected Random random;
     protected int shingleSize;
 
@@ -87,6 +88,7 @@ public class AbstractCacheTest extends AbstractADTest {
 
         checkpointWriteQueue = mock(CheckpointWriteWorker.class);
         checkpointMaintainQueue = mock(CheckpointMaintainWorker.class);
+        offHeapModelStore = mock(OffHeapModelStore.class);
 
         cacheBuffer = new CacheBuffer(
             1,
@@ -97,8 +99,7 @@ public class AbstractCacheTest extends AbstractADTest {
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
             detectorId,
             checkpointWriteQueue,
-            checkpointMaintainQueue,
-            Duration.ofHours(12).toHoursPart()
+            offHeapModelStore
         );
 
         initialPriority = cacheBuffer.getPriorityTracker().getUpdatedPriority(0);
@@ -0,0 +1,178 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.Before;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class ApproximatePriorityTrackerTests extends OpenSearchTestCase {
+    Clock clock;
+    ApproximatePriorityTracker tracker;
+    Instant now;
+    String entity1, entity2, entity3;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenReturn(now);
+        tracker = new ApproximatePriorityTracker(clock, 1, now.getEpochSecond(), 3);
+        entity1 = "entity1";
+        entity2 = "entity2";
+        entity3 = "entity3";
+    }
+
+    public void testNormal() {
+        // first interval entity 1 and 3
+        tracker.updatePriority(entity1);
+        tracker.updatePriority(entity3);
+        when(clock.instant()).thenReturn(now.plusSeconds(60L));
+        // second interval entity 1 and 2
+        tracker.updatePriority(entity1);
+        tracker.updatePriority(entity2);
+        // we should have entity 1, 2, 3 in order. 2 comes before 3 because it happens later
+        List<String> top3 = tracker.getTopNEntities(3);
+        assertEquals(entity1, top3.get(0));
+        assertEquals(entity2, top3.get(1));
+        assertEquals(entity3, top3.get(2));
+
+        List<String> top4 = tracker.getTopNEntities(4);
+        assertEquals(3, top4.size());
+
+        assertEquals(entity3, tracker.getMinimumPriorityEntityId().get());
+        assertEquals(entity1, tracker.getHighestPriorityEntityId().get());
+    }
+
+    public void testMinimumFollowsUpdates() {
+        tracker.updatePriority(entity1);
+        tracker.updatePriority(entity2);
+        tracker.updatePriority(entity3);
+        // all tie at the same priority; ties are broken by key
+        assertEquals(entity1, tracker.getMinimumPriorityEntityId().get());
+
+        tracker.updatePriority(entity1);
+        assertEquals(entity2, tracker.getMinimumPriorityEntityId().get());
+
+        tracker.updatePriority(entity2);
+        assertEquals(entity3, tracker.getMinimumPriorityEntityId().get());
+
+        tracker.removePriority(entity3);
+        assertEquals(2, tracker.size());
+        assertNotEquals(entity3, tracker.getMinimumPriorityEntityId().get());
+    }
+
+    public void testMinimumWithManyEntities() {
+        tracker = new ApproximatePriorityTracker(clock, 1, now.getEpochSecond(), 1000);
+        int numEntities = 3 * ApproximatePriorityTracker.MAX_CANDIDATES;
+        for (int i = 0; i < numEntities; i++) {
+            String entity = "entity" + i;
+            // entity i is hit i + 1 times
+            for (int j = 0; j <= i; j++) {
+                tracker.updatePriority(entity);
+            }
+        }
+        assertEquals(numEntities, tracker.size());
+        // evicting the minimum repeatedly walks entities in priority order
+        for (int i = 0; i < numEntities; i++) {
+            String minimum = tracker.getMinimumPriorityEntityId().get();
+            assertEquals("entity" + i, minimum);
+            tracker.removePriority(minimum);
+        }
+        assertFalse(tracker.getMinimumPriority().isPresent());
+    }
+
+    public void testTrimCandidates() {
+        tracker = new ApproximatePriorityTracker(clock, 1, now.getEpochSecond(), 1000);
+        tracker.addPriority(entity1, 1000f);
+        // refill with a single entity: every new entity becomes a candidate
+        assertEquals(entity1, tracker.getMinimumPriorityEntityId().get());
+
+        int numEntities = 3 * ApproximatePriorityTracker.MAX_CANDIDATES;
+        for (int i = 0; i < numEntities; i++) {
+            // later entities have lower priorities so that trimming drops earlier ones
+            tracker.addPriority("key" + i, numEntities - i);
+        }
+        assertEquals(numEntities + 1, tracker.size());
+        for (int i = numEntities - 1; i >= 0; i--) {
+            String minimum = tracker.getMinimumPriorityEntityId().get();
+            assertEquals("key" + i, minimum);
+            tracker.removePriority(minimum);
+        }
+        assertEquals(entity1, tracker.getMinimumPriorityEntityId().get());
+    }
+
+    public void testTooManyEntitiesWithoutCandidates() {
+        tracker = new ApproximatePriorityTracker(clock, 1, now.getEpochSecond(), 2);
+        // no refill yet, so no candidate to evict from
+        tracker.addPriority(entity1, 10f);
+        tracker.addPriority(entity2, 5f);
+        tracker.addPriority(entity3, 20f);
+        assertEquals(2, tracker.size());
+        assertEquals(entity1, tracker.getMinimumPriorityEntityId().get());
+        assertEquals(entity3, tracker.getHighestPriorityEntityId().get());
+    }
+
+    public void testOverflow() {
+        tracker.updatePriority(entity1);
+        float priority1 = tracker.getMinimumScaledPriority().get().getValue();
+
+        tracker.updatePriority(entity1);
+        float priority2 = tracker.getMinimumScaledPriority().get().getValue();
+        // we incremented the priority
+        assertTrue("The following is expected: " + priority2 + " > " + priority1, priority2 > priority1);
+
+        when(clock.instant()).thenReturn(now.plus(3, ChronoUnit.DAYS));
+        tracker.updatePriority(entity1);
+        // overflow happens, we use increment as the new priority
+        assertEquals(0, tracker.getMinimumScaledPriority().get().getValue().floatValue(), 0.001);
+    }
+
+    public void testTooManyEntities() {
+        tracker = new ApproximatePriorityTracker(clock, 1, now.getEpochSecond(), 2);
+        tracker.updatePriority(entity1);
+        tracker.updatePriority(entity3);
+        assertEquals(2, tracker.size());
+        tracker.updatePriority(entity2);
+        // one entity is kicked out due to the size limit is reached.
+        assertEquals(2, tracker.size());
+    }
+
+    public void testAddAndClear() {
+        tracker.addPriority(entity1, 10f);
+        tracker.addPriority(entity2, 5f);
+        assertEquals(entity2, tracker.getMinimumPriorityEntityId().get());
+        assertEquals(5f, tracker.getMinimumPriority().get().getValue(), 0.001);
+
+        tracker.clearPriority();
+        assertEquals(0, tracker.size());
+        assertFalse(tracker.getMinimumPriority().isPresent());
+        assertEquals(0f, tracker.estimate(entity1), 0.001);
+    }
+
+    public void testEmptyTracker() {
+        assertTrue(!tracker.getMinimumScaledPriority().isPresent());
+        assertTrue(!tracker.getMinimumPriority().isPresent());
+        assertTrue(!tracker.getMinimumPriorityEntityId().isPresent());
+        assertTrue(!tracker.getHighestPriorityEntityId().isPresent());
+        assertTrue(tracker.getTopNEntities(3).isEmpty());
+    }
+}
@@ -11,6 +11,7 @@
 
 package org.opensearch.ad.caching;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -124,50 +125,42 @@ public class CacheBufferTests extends AbstractCacheTest {
         assertEquals(0, cacheBuffer.getActiveEntities());
     }
 
-    @SuppressWarnings("unchecked")
-    public void testMaintainByHourNothingToSave() {
-        // hash code 49 % 6 = 1
+    public void testSlicedMaintenance() {
         String modelId1 = "1";
-        // hash code 50 % 6 = 2
         String modelId2 = "2";
-        // hash code 51 % 6 = 3
-        String modelId3 = "3";
-        // hour 17. 17 % 6 (check point frequency) = 5
-        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1658854904L));
         cacheBuffer.put(modelId1, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
         cacheBuffer.put(modelId2, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
-        cacheBuffer.put(modelId3, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
-
-        ArgumentCaptor<List<CheckpointMaintainRequest>> savedStates = ArgumentCaptor.forClass(List.class);
-        cacheBuffer.maintenance();
-        verify(checkpointMaintainQueue, times(1)).putAll(savedStates.capture());
-        assertTrue(savedStates.getValue().isEmpty());
-
-        // hour 13. 13 % 6 (check point frequency) = 1
-        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1658928080L));
-
+        when(clock.instant()).thenReturn(Instant.ofEpochSecond(4814540761L));
+        int slice = Math.floorMod(modelId1.hashCode(), 2);
+        // "1" and "2" hash to different slices
+        assertEquals(1, cacheBuffer.maintenance(slice, 2).size());
+        assertFalse(cacheBuffer.isActive(modelId1));
+        assertTrue(cacheBuffer.isActive(modelId2));
+        cacheBuffer.maintenance(1 - slice, 2);
+        assertEquals(0, cacheBuffer.getActiveEntities());
     }
 
-    @SuppressWarnings("unchecked")
-    public void testMaintainByHourSaveOne() {
-        // hash code 49 % 6 = 1
-        String modelId1 = "1";
-        // hash code 50 % 6 = 2
-        String modelId2 = "2";
-        // hash code 51 % 6 = 3
-        String modelId3 = "3";
-        // hour 13. 13 % 6 (check point frequency) = 1
-        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1658928080L));
-        cacheBuffer.put(modelId1, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
-        cacheBuffer.put(modelId2, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
-        cacheBuffer.put(modelId3, MLUtil.randomModelState(new RandomModelStateConfig.Builder().priority(initialPriority).build()));
-
-        ArgumentCaptor<List<CheckpointMaintainRequest>> savedStates = ArgumentCaptor.forClass(List.class);
-        cacheBuffer.maintenance();
-        verify(checkpointMaintainQueue, times(1)).putAll(savedStates.capture());
-        List<CheckpointMaintainRequest> toSave = savedStates.getValue();
+    public void testOfferCheckpoints() {
+        Instant now = clock.instant();
+        cacheBuffer.put(modelId1, modelState1);
+        cacheBuffer.put(modelId2, modelState2);
+        cacheBuffer.put(modelId3, modelState3);
+        // stale and updated
+        modelState1.setLastCheckpointTime(now.minus(Duration.ofHours(13)));
+        modelState1.update(() -> null);
+        // stale but not updated since the checkpoint
+        modelState2.setLastCheckpointTime(now.minus(Duration.ofHours(13)));
+        // updated but checkpointed recently
+        modelState3.setLastCheckpointTime(now.minus(Duration.ofHours(1)));
+        modelState3.update(() -> null);
+
+        CheckpointScheduler scheduler = new CheckpointScheduler(now, Duration.ofHours(12));
+        cacheBuffer.offerCheckpoints(scheduler);
+        assertEquals(1, scheduler.getDueModels());
+        List<CheckpointMaintainRequest> toSave = scheduler.schedule(0, now.toEpochMilli());
         assertEquals(1, toSave.size());
         assertEquals(modelId1, toSave.get(0).getEntityModelId());
+        assertEquals(detectorId, toSave.get(0).getDetectorId());
     }
 
     /**
@@ -176,4 +169,15 @@ public class CacheBufferTests extends AbstractCacheTest {
     public void testRemovedNull() {
         assertEquals(null, cacheBuffer.remove("foo"));
     }
+
+    public void testRemoveKeepsModelOffHeap() {
+        cacheBuffer.put(modelId1, modelState1);
+        cacheBuffer.put(modelId2, modelState2);
+        cacheBuffer.remove(modelId1);
+        verify(offHeapModelStore, times(1)).put(modelState1);
+
+        // no checkpoint, no off-heap copy
+        cacheBuffer.remove(modelId2, false);
+        verify(offHeapModelStore, never()).put(modelState2);
+    }
 }
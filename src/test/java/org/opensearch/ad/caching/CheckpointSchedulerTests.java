@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.ratelimit.CheckpointMaintainRequest;
+import org.opensearch.ad.ratelimit.RequestPriority;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CheckpointSchedulerTests extends OpenSearchTestCase {
+    private static final String DETECTOR_ID = "123";
+    private static final long MODEL_BYTES = 1000;
+
+    private Instant now;
+    private CheckpointScheduler scheduler;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        now = Instant.ofEpochSecond(1658928080L);
+        scheduler = new CheckpointScheduler(now, Duration.ofHours(12));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ModelState<EntityModel> modelState(String modelId, Duration sinceCheckpoint, long updates) {
+        ModelState<EntityModel> state = mock(ModelState.class);
+        when(state.getModelId()).thenReturn(modelId);
+        when(state.getLastCheckpointTime()).thenReturn(sinceCheckpoint == null ? Instant.MIN : now.minus(sinceCheckpoint));
+        when(state.getUpdatesSinceCheckpoint()).thenReturn(updates);
+        return state;
+    }
+
+    public void testSkipIdleAndRecentModels() {
+        scheduler.offer(DETECTOR_ID, modelState("idle", Duration.ofHours(20), 0), MODEL_BYTES);
+        scheduler.offer(DETECTOR_ID, modelState("recent", Duration.ofHours(2), 10), MODEL_BYTES);
+        scheduler.offer(DETECTOR_ID, modelState("noCheckpoint", null, 10), MODEL_BYTES);
+        assertEquals(0, scheduler.getDueModels());
+        assertTrue(scheduler.schedule(Long.MAX_VALUE, 0).isEmpty());
+    }
+
+    public void testOrderByStalenessAndUpdates() {
+        // 13 hours * 1 update
+        scheduler.offer(DETECTOR_ID, modelState("a", Duration.ofHours(13), 1), MODEL_BYTES);
+        // 24 hours * 1 update
+        scheduler.offer(DETECTOR_ID, modelState("b", Duration.ofHours(24), 1), MODEL_BYTES);
+        // 13 hours * 10 updates
+        scheduler.offer(DETECTOR_ID, modelState("c", Duration.ofHours(13), 10), MODEL_BYTES);
+        assertEquals(3, scheduler.getDueModels());
+
+        List<CheckpointMaintainRequest> requests = scheduler.schedule(Long.MAX_VALUE, 10);
+        assertEquals(3, requests.size());
+        assertEquals("c", requests.get(0).getEntityModelId());
+        assertEquals("b", requests.get(1).getEntityModelId());
+        assertEquals("a", requests.get(2).getEntityModelId());
+        for (CheckpointMaintainRequest request : requests) {
+            assertEquals(DETECTOR_ID, request.getDetectorId());
+            assertEquals(RequestPriority.LOW, request.getPriority());
+            assertEquals(10, request.getExpirationEpochMs());
+        }
+    }
+
+    public void testBudget() {
+        scheduler.offer(DETECTOR_ID, modelState("a", Duration.ofHours(13), 1), MODEL_BYTES);
+        scheduler.offer(DETECTOR_ID, modelState("b", Duration.ofHours(13), 2), MODEL_BYTES);
+        scheduler.offer(DETECTOR_ID, modelState("c", Duration.ofHours(13), 3), MODEL_BYTES);
+
+        List<CheckpointMaintainRequest> requests = scheduler.schedule(2 * MODEL_BYTES, 0);
+        assertEquals(2, requests.size());
+        assertEquals("c", requests.get(0).getEntityModelId());
+        assertEquals("b", requests.get(1).getEntityModelId());
+        assertEquals(2 * MODEL_BYTES, scheduler.getScheduledBytes());
+    }
+
+    public void testAtLeastOneModel() {
+        scheduler.offer(DETECTOR_ID, modelState("a", Duration.ofHours(13), 1), MODEL_BYTES);
+        scheduler.offer(DETECTOR_ID, modelState("b", Duration.ofHours(13), 2), MODEL_BYTES);
+
+        List<CheckpointMaintainRequest> requests = scheduler.schedule(1, 0);
+        assertEquals(1, requests.size());
+        assertEquals("b", requests.get(0).getEntityModelId());
+    }
+
+    public void testDerivedBudget() {
+        // 24 cached models with a 12-hour checkpoint frequency: 2 models per run
+        for (int i = 0; i < 24; i++) {
+            long updates = i < 4 ? 1 : 0;
+            scheduler.offer(DETECTOR_ID, modelState(String.valueOf(i), Duration.ofHours(13), updates), MODEL_BYTES);
+        }
+        assertEquals(4, scheduler.getDueModels());
+        assertEquals(2, scheduler.schedule(0, 0).size());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CountMinSketchTests extends OpenSearchTestCase {
+    public void testRaise() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        sketch.raise("a", 3);
+        sketch.raise("b", 1.5f);
+        assertEquals(3, sketch.estimate("a"), 0.001);
+        assertEquals(1.5, sketch.estimate("b"), 0.001);
+        assertEquals(0, sketch.estimate("c"), 0.001);
+
+        // counters are never lowered
+        sketch.raise("a", 2);
+        assertEquals(3, sketch.estimate("a"), 0.001);
+    }
+
+    public void testWidthRoundedUpToPowerOfTwo() {
+        assertEquals(1024, new CountMinSketch(1000).getWidth());
+        assertEquals(1024, new CountMinSketch(1024).getWidth());
+        assertEquals(2, new CountMinSketch(1).getWidth());
+    }
+
+    public void testCollisionsOnlyOverestimate() {
+        // more keys than counters per row
+        CountMinSketch sketch = new CountMinSketch(256);
+        for (int i = 0; i < 1000; i++) {
+            sketch.raise("entity" + i, i % 2 + 1);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sketch.estimate("entity" + i) >= i % 2 + 1);
+        }
+    }
+
+    public void testHalve() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        sketch.raise("a", 8);
+        sketch.raise("b", 3);
+        sketch.halve();
+        assertEquals(4, sketch.estimate("a"), 0.001);
+        assertEquals(1, sketch.estimate("b"), 0.001);
+    }
+
+    public void testClear() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        sketch.raise("a", 8);
+        sketch.clear();
+        assertEquals(0, sketch.estimate("a"), 0.001);
+    }
+}
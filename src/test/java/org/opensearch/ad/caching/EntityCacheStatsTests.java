@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.Map;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class EntityCacheStatsTests extends OpenSearchTestCase {
+    public void testRecordAndRemove() {
+        EntityCacheStats stats = new EntityCacheStats();
+        stats.recordLookup("a", true);
+        stats.recordLookup("a", false);
+        stats.recordLookup("a", false);
+        stats.recordAdmission("a", true);
+        stats.recordAdmission("a", false);
+        stats.recordLookup("b", true);
+
+        Map<String, Map<String, Long>> detectorStats = stats.getStats();
+        assertEquals(2, detectorStats.size());
+        assertEquals(1L, detectorStats.get("a").get(EntityCacheStats.HITS).longValue());
+        assertEquals(2L, detectorStats.get("a").get(EntityCacheStats.MISSES).longValue());
+        assertEquals(1L, detectorStats.get("a").get(EntityCacheStats.ADMISSIONS).longValue());
+        assertEquals(1L, detectorStats.get("a").get(EntityCacheStats.REJECTIONS).longValue());
+        assertEquals(0L, detectorStats.get("b").get(EntityCacheStats.MISSES).longValue());
+
+        stats.remove("a");
+        assertEquals(1, stats.getStats().size());
+        assertTrue(stats.getStats().containsKey("b"));
+    }
+}
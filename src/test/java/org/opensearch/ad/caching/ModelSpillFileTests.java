@@ -0,0 +1,194 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.opensearch.ad.caching.OffHeapModelStore.StoredModel;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class ModelSpillFileTests extends OpenSearchTestCase {
+    Path directory;
+    Clock clock;
+    Instant now;
+    Duration ttl;
+    ModelSpillFile spillFile;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        directory = createTempDir();
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenReturn(now);
+        ttl = Duration.ofHours(6);
+        spillFile = new ModelSpillFile(directory, 100, ttl, clock);
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        spillFile.close();
+        super.tearDown();
+    }
+
+    private StoredModel model(String detectorId, int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return new StoredModel(detectorId, null, ByteBuffer.wrap(bytes), now, clock.instant());
+    }
+
+    private byte[] take(String modelId) {
+        Optional<StoredModel> taken = spillFile.take(modelId);
+        assertTrue(taken.isPresent());
+        ByteBuffer checkpoint = taken.get().getCheckpoint();
+        byte[] bytes = new byte[checkpoint.remaining()];
+        checkpoint.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private int countFiles() throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void testAppendAndTake() {
+        assertTrue(spillFile.append("a", model("1", 30, (byte) 1)));
+        assertTrue(spillFile.append("b", model("1", 40, (byte) 2)));
+        assertEquals(2, spillFile.size());
+        assertEquals(70, spillFile.getLiveBytes());
+
+        byte[] expected = new byte[40];
+        Arrays.fill(expected, (byte) 2);
+        assertArrayEquals(expected, take("b"));
+        assertFalse(spillFile.contains("b"));
+        assertFalse(spillFile.take("b").isPresent());
+        assertEquals(30, spillFile.getLiveBytes());
+        assertEquals(Optional.of(now), spillFile.getLastCheckpointTime("a"));
+        assertEquals(Optional.empty(), spillFile.getLastCheckpointTime("b"));
+    }
+
+    public void testCompactKeepsLiveModels() throws Exception {
+        spillFile.append("a", model("1", 40, (byte) 1));
+        spillFile.append("b", model("1", 40, (byte) 2));
+        take("a");
+        // does not fit after b; a's space is reclaimed by compaction
+        assertTrue(spillFile.append("c", model("1", 50, (byte) 3)));
+        assertTrue(spillFile.contains("b"));
+        assertTrue(spillFile.contains("c"));
+        assertEquals(90, spillFile.getLiveBytes());
+        // compaction reuses the file instead of mapping a second one
+        assertEquals(1, countFiles());
+        assertEquals(100, Files.size(directory.resolve("models.spill")));
+
+        byte[] expected = new byte[40];
+        Arrays.fill(expected, (byte) 2);
+        assertArrayEquals(expected, take("b"));
+        expected = new byte[50];
+        Arrays.fill(expected, (byte) 3);
+        assertArrayEquals(expected, take("c"));
+    }
+
+    public void testCompactOverlappingModels() throws Exception {
+        spillFile.append("a", model("1", 10, (byte) 1));
+        spillFile.append("b", model("1", 60, (byte) 2));
+        take("a");
+        // b moves 10 bytes down over its own old range
+        assertTrue(spillFile.append("c", model("1", 40, (byte) 3)));
+
+        byte[] expected = new byte[60];
+        Arrays.fill(expected, (byte) 2);
+        assertArrayEquals(expected, take("b"));
+        expected = new byte[40];
+        Arrays.fill(expected, (byte) 3);
+        assertArrayEquals(expected, take("c"));
+    }
+
+    public void testDropOldestWhenFull() {
+        spillFile.append("a", model("1", 40, (byte) 1));
+        spillFile.append("b", model("1", 40, (byte) 2));
+        assertTrue(spillFile.append("c", model("1", 40, (byte) 3)));
+        assertFalse(spillFile.contains("a"));
+        assertTrue(spillFile.contains("b"));
+        assertTrue(spillFile.contains("c"));
+    }
+
+    public void testReplace() {
+        spillFile.append("a", model("1", 40, (byte) 1));
+        spillFile.append("a", model("1", 20, (byte) 2));
+        assertEquals(1, spillFile.size());
+        assertEquals(20, spillFile.getLiveBytes());
+    }
+
+    public void testTooLarge() {
+        assertFalse(spillFile.append("a", model("1", 101, (byte) 1)));
+        assertEquals(0, spillFile.size());
+    }
+
+    public void testDisabled() throws Exception {
+        spillFile = new ModelSpillFile(directory, 0, ttl, clock);
+        assertFalse(spillFile.isEnabled());
+        assertFalse(spillFile.append("a", model("1", 10, (byte) 1)));
+        assertEquals(0, countFiles());
+    }
+
+    public void testExpiry() {
+        spillFile.append("a", model("1", 10, (byte) 1));
+        when(clock.instant()).thenReturn(now.plus(ttl).plusSeconds(1));
+        spillFile.append("b", model("1", 10, (byte) 2));
+        spillFile.maintenance();
+        assertFalse(spillFile.contains("a"));
+        assertTrue(spillFile.contains("b"));
+        assertEquals(10, spillFile.getLiveBytes());
+    }
+
+    public void testClearDetector() {
+        spillFile.append("a", model("1", 10, (byte) 1));
+        spillFile.append("b", model("2", 10, (byte) 2));
+        spillFile.clear("1");
+        assertFalse(spillFile.contains("a"));
+        assertTrue(spillFile.contains("b"));
+
+        spillFile.remove("b");
+        assertEquals(0, spillFile.size());
+        assertEquals(0, spillFile.getLiveBytes());
+    }
+
+    public void testDeleteStaleFiles() throws Exception {
+        Files.write(directory.resolve("models-0.spill"), new byte[] { 1 });
+        spillFile.append("a", model("1", 10, (byte) 1));
+        assertEquals(1, countFiles());
+
+        spillFile.close();
+        assertEquals(0, countFiles());
+        assertFalse(spillFile.contains("a"));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.MemoryTracker.Origin;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class OffHeapModelStoreTests extends OpenSearchTestCase {
+    String detectorId;
+    Clock clock;
+    Instant now;
+    CheckpointDao checkpointDao;
+    MemoryTracker memoryTracker;
+    Duration modelTtl;
+    ModelSpillFile spillFile;
+    OffHeapModelStore store;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        detectorId = "123";
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenReturn(now);
+        checkpointDao = mock(CheckpointDao.class);
+        // 10 bytes per model
+        when(checkpointDao.toBinaryCheckpoint(any(), anyString())).thenReturn(Optional.of(new byte[10]));
+        when(checkpointDao.fromBinaryCheckpoint(any(), any(), anyString()))
+            .thenAnswer(invocation -> Optional.of(new EntityModel(invocation.getArgument(1), new ArrayDeque<>(), null)));
+        memoryTracker = mock(MemoryTracker.class);
+        modelTtl = Duration.ofHours(1);
+        spillFile = mock(ModelSpillFile.class);
+        store = new OffHeapModelStore(checkpointDao, memoryTracker, clock, modelTtl, 25, spillFile);
+    }
+
+    private ModelState<EntityModel> createState(String value, String detector) {
+        Entity entity = Entity.createSingleAttributeEntity("host", value);
+        ModelState<EntityModel> state = new ModelState<>(
+            new EntityModel(entity, new ArrayDeque<>(), null),
+            entity.getModelId(detector).get(),
+            detector,
+            ModelType.ENTITY.getName(),
+            clock,
+            0
+        );
+        state.setLastCheckpointTime(now.minusSeconds(60));
+        return state;
+    }
+
+    public void testPutAndTake() {
+        ModelState<EntityModel> state = createState("server_1", detectorId);
+        assertTrue(store.put(state));
+        assertTrue(store.contains(state.getModelId()));
+        assertEquals(10, store.getUsedBytes());
+        verify(memoryTracker).consumeMemory(10, false, Origin.HC_DETECTOR_OFF_HEAP);
+
+        Optional<Entry<EntityModel, Instant>> restored = store.take(state.getModelId());
+        assertTrue(restored.isPresent());
+        assertEquals(state.getModel().getEntity().get(), restored.get().getKey().getEntity().get());
+        assertEquals(now.minusSeconds(60), restored.get().getValue());
+        verify(memoryTracker).releaseMemory(10, false, Origin.HC_DETECTOR_OFF_HEAP);
+
+        // a model is taken only once
+        assertFalse(store.contains(state.getModelId()));
+        assertFalse(store.take(state.getModelId()).isPresent());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    public void testPutHandedOffModel() {
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1");
+        String modelId = entity.getModelId(detectorId).get();
+        assertTrue(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(60), 0));
+        assertEquals(10, store.getUsedBytes());
+
+        Optional<Entry<EntityModel, Instant>> restored = store.take(modelId);
+        assertTrue(restored.isPresent());
+        assertEquals(entity, restored.get().getKey().getEntity().get());
+        assertEquals(now.minusSeconds(60), restored.get().getValue());
+    }
+
+    public void testRejectModelHandedOffUnderAnotherRing() {
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1");
+        String modelId = entity.getModelId(detectorId).get();
+        assertFalse(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(60), 1));
+        assertFalse(store.contains(modelId));
+
+        // the local node builds the sender's ring
+        store.retainOwned(owned -> true, 1);
+        assertTrue(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(60), 1));
+        assertFalse(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(30), 0));
+    }
+
+    public void testKeepNewerHandedOffModel() {
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1");
+        String modelId = entity.getModelId(detectorId).get();
+        assertTrue(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(60), 0));
+        // an older copy does not replace the kept one
+        assertFalse(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(120), 0));
+        assertTrue(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(30), 0));
+        assertEquals(now.minusSeconds(30), store.take(modelId).get().getValue());
+
+        // same for a copy in the spill file
+        when(spillFile.getLastCheckpointTime(modelId)).thenReturn(Optional.of(now.minusSeconds(60)));
+        assertFalse(store.put(modelId, detectorId, entity, new byte[10], now.minusSeconds(120), 0));
+        assertFalse(store.contains(modelId));
+    }
+
+    public void testEvictOldestOverBudget() {
+        ModelState<EntityModel> state1 = createState("server_1", detectorId);
+        ModelState<EntityModel> state2 = createState("server_2", detectorId);
+        ModelState<EntityModel> state3 = createState("server_3", detectorId);
+        store.put(state1);
+        store.put(state2);
+        store.put(state3);
+        assertEquals(2, store.size());
+        assertEquals(20, store.getUsedBytes());
+        assertFalse(store.contains(state1.getModelId()));
+        assertTrue(store.contains(state2.getModelId()));
+        assertTrue(store.contains(state3.getModelId()));
+        // the evicted model goes to disk
+        verify(spillFile).append(eq(state1.getModelId()), any());
+    }
+
+    public void testTakeFromSpillFile() throws Exception {
+        spillFile = new ModelSpillFile(createTempDir(), 100, Duration.ofHours(6), clock);
+        store = new OffHeapModelStore(checkpointDao, memoryTracker, clock, modelTtl, 0, spillFile);
+        assertTrue(store.isEnabled());
+
+        ModelState<EntityModel> state = createState("server_1", detectorId);
+        assertTrue(store.put(state));
+        // nothing in direct buffers
+        assertEquals(0, store.size());
+        assertTrue(spillFile.contains(state.getModelId()));
+        assertTrue(store.contains(state.getModelId()));
+
+        Optional<Entry<EntityModel, Instant>> restored = store.take(state.getModelId());
+        assertTrue(restored.isPresent());
+        assertEquals(now.minusSeconds(60), restored.get().getValue());
+        assertFalse(store.contains(state.getModelId()));
+        spillFile.close();
+    }
+
+    public void testRetainOwned() throws Exception {
+        spillFile = new ModelSpillFile(createTempDir(), 100, Duration.ofHours(6), clock);
+        store = new OffHeapModelStore(checkpointDao, memoryTracker, clock, modelTtl, 15, spillFile);
+        ModelState<EntityModel> spilled = createState("server_1", detectorId);
+        ModelState<EntityModel> remapped = createState("server_2", detectorId);
+        ModelState<EntityModel> owned = createState("server_3", detectorId);
+        store.put(spilled);
+        store.put(remapped);
+        store.put(owned);
+        assertTrue(spillFile.contains(spilled.getModelId()));
+        assertTrue(spillFile.contains(remapped.getModelId()));
+
+        Entity ownedEntity = owned.getModel().getEntity().get();
+        Entity spilledEntity = spilled.getModel().getEntity().get();
+        assertEquals(1, store.retainOwned(entity -> entity.equals(ownedEntity) || entity.equals(spilledEntity), 0));
+        assertTrue(store.contains(spilled.getModelId()));
+        assertFalse(store.contains(remapped.getModelId()));
+        assertTrue(store.contains(owned.getModelId()));
+
+        assertEquals(2, store.retainOwned(entity -> false, 0));
+        assertEquals(0, store.size());
+        assertEquals(0, store.getUsedBytes());
+        assertEquals(0, spillFile.size());
+        spillFile.close();
+    }
+
+    public void testReplaceSameModel() {
+        ModelState<EntityModel> state = createState("server_1", detectorId);
+        store.put(state);
+        store.put(state);
+        assertEquals(1, store.size());
+        assertEquals(10, store.getUsedBytes());
+    }
+
+    public void testDisabled() {
+        store = new OffHeapModelStore(checkpointDao, memoryTracker, clock, modelTtl, 0, spillFile);
+        assertFalse(store.isEnabled());
+        ModelState<EntityModel> state = createState("server_1", detectorId);
+        assertFalse(store.put(state));
+        assertFalse(store.contains(state.getModelId()));
+        verify(checkpointDao, never()).toBinaryCheckpoint(any(), anyString());
+    }
+
+    public void testNothingToSerialize() {
+        when(checkpointDao.toBinaryCheckpoint(any(), anyString())).thenReturn(Optional.empty());
+        ModelState<EntityModel> state = createState("server_1", detectorId);
+        assertFalse(store.put(state));
+        assertEquals(0, store.size());
+    }
+
+    public void testClearDetector() {
+        ModelState<EntityModel> state1 = createState("server_1", detectorId);
+        ModelState<EntityModel> state2 = createState("server_2", "456");
+        store.put(state1);
+        store.put(state2);
+        store.clear(detectorId);
+        assertFalse(store.contains(state1.getModelId()));
+        assertTrue(store.contains(state2.getModelId()));
+
+        store.remove(state2.getModelId());
+        assertEquals(0, store.size());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    public void testMaintenance() {
+        ModelState<EntityModel> state1 = createState("server_1", detectorId);
+        store.put(state1);
+        when(clock.instant()).thenReturn(now.plus(modelTtl).plusSeconds(1));
+        ModelState<EntityModel> state2 = createState("server_2", detectorId);
+        store.put(state2);
+
+        store.maintenance();
+        assertEquals(1, store.size());
+        verify(spillFile).append(eq(state1.getModelId()), any());
+        assertTrue(store.contains(state2.getModelId()));
+        verify(memoryTracker).releaseMemory(eq(10L), eq(false), eq(Origin.HC_DETECTOR_OFF_HEAP));
+    }
+}
@@ -13,7 +13,6 @@ package org.opensearch.ad.caching;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
-import static org.mockito.Mockito.anyDouble;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doAnswer;
@@ -35,6 +34,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -102,7 +102,8 @@ public class PriorityCacheTests extends AbstractCacheTest {
                                 AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE,
                                 AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE,
                                 AnomalyDetectorSettings.CHECKPOINT_TTL,
-                                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ
+                                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                                AnomalyDetectorSettings.CHECKPOINT_MAINTAIN_BYTES_PER_HOUR
                             )
                     )
                 )
@@ -129,14 +130,15 @@ public class PriorityCacheTests extends AbstractCacheTest {
             AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
             checkpointMaintainQueue,
             Settings.EMPTY,
-            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ
+            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+            mock(OffHeapModelStore.class)
         );
 
         CacheProvider cacheProvider = new CacheProvider();
         cacheProvider.set(cache);
         entityCache = cacheProvider.get();
 
-        when(memoryTracker.estimateTRCFModelSize(anyInt(), anyInt(), anyDouble(), anyInt(), anyBoolean())).thenReturn(memoryPerEntity);
+        when(memoryTracker.estimateEntityModelStateSize(anyInt(), anyInt(), anyInt())).thenReturn(memoryPerEntity);
         when(memoryTracker.canAllocateReserved(anyLong())).thenReturn(true);
 
         detector2 = mock(AnomalyDetector.class);
@@ -184,7 +186,8 @@ public class PriorityCacheTests extends AbstractCacheTest {
             AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
             checkpointMaintainQueue,
             Settings.EMPTY,
-            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ
+            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+            mock(OffHeapModelStore.class)
         );
 
         CacheProvider cacheProvider = new CacheProvider();
@@ -211,7 +214,7 @@ public class PriorityCacheTests extends AbstractCacheTest {
         ArgumentCaptor<MemoryTracker.Origin> origin = ArgumentCaptor.forClass(MemoryTracker.Origin.class);
 
         // input dimension: 3, shingle: 4
-        long expectedMemoryPerEntity = 436828L;
+        long expectedMemoryPerEntity = 436828L + MemoryTracker.MODEL_STATE_LOCK_BYTES;
         verify(memoryTracker, times(1)).consumeMemory(memoryConsumed.capture(), reserved.capture(), origin.capture());
         assertEquals(dedicatedCacheSize * expectedMemoryPerEntity, memoryConsumed.getValue().intValue());
         assertEquals(true, reserved.getValue().booleanValue());
@@ -346,6 +349,32 @@ public class PriorityCacheTests extends AbstractCacheTest {
         }
     }
 
+    public void testSlicedMaintenance() {
+        when(clock.instant()).thenReturn(Instant.MIN);
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+        for (int i = 0; i < 3; i++) {
+            entityCache.get(modelId1, detector);
+        }
+        entityCache.hostIfPossible(detector, modelState1);
+
+        // the buffer is used recently, so only modelId1 expires
+        when(clock.instant()).thenReturn(Instant.now());
+        for (int i = 0; i < 3; i++) {
+            entityCache.get(modelId2, detector);
+        }
+        entityCache.hostIfPossible(detector, modelState2);
+        assertEquals(2, entityCache.getTotalActiveEntities());
+
+        int slice = Math.floorMod(modelId1.hashCode(), 2);
+        // modelId1 belongs to the other slice
+        entityCache.maintenance(1 - slice, 2);
+        assertEquals(2, entityCache.getTotalActiveEntities());
+
+        entityCache.maintenance(slice, 2);
+        assertEquals(1, entityCache.getTotalActiveEntities());
+        assertTrue(entityCache.isActive(detectorId, modelId2));
+    }
+
     public void testClear() {
         when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
 
@@ -729,5 +758,23 @@ public class PriorityCacheTests extends AbstractCacheTest {
 
         verify(checkpoint, times(1)).deleteModelCheckpoint(eq(entity2.getModelId(detectorId).get()), any());
         verify(checkpointWriteQueue, never()).write(any(), anyBoolean(), any());
+        verify(checkpointWriteQueue, never()).writeSnapshot(any(), anyBoolean(), any());
+    }
+
+    public void testCacheStats() {
+        assertEquals(null, entityCache.get(modelId1, detector));
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+        assertTrue(null != entityCache.get(modelId1, detector));
+        // never seen by the cache
+        assertTrue(false == entityCache.hostIfPossible(detector, modelState2));
+
+        Map<String, Long> stats = entityCache.getCacheStats().get(detectorId);
+        assertEquals(1L, stats.get(EntityCacheStats.HITS).longValue());
+        assertEquals(1L, stats.get(EntityCacheStats.MISSES).longValue());
+        assertEquals(1L, stats.get(EntityCacheStats.ADMISSIONS).longValue());
+        assertEquals(1L, stats.get(EntityCacheStats.REJECTIONS).longValue());
+
+        entityCache.clear(detectorId);
+        assertTrue(entityCache.getCacheStats().isEmpty());
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.threadpool.ThreadPool;
+
+public class TinyLfuCacheTests extends AbstractCacheTest {
+    EntityCache entityCache;
+    CheckpointDao checkpoint;
+    String detectorId2;
+    AnomalyDetector detector2;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        checkpoint = mock(CheckpointDao.class);
+
+        ClusterService clusterService = mock(ClusterService.class);
+        ClusterSettings settings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections
+                .unmodifiableSet(
+                    new HashSet<>(
+                        Arrays
+                            .asList(
+                                AnomalyDetectorSettings.DEDICATED_CACHE_SIZE,
+                                AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE,
+                                AnomalyDetectorSettings.CHECKPOINT_TTL,
+                                AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+                                AnomalyDetectorSettings.CHECKPOINT_MAINTAIN_BYTES_PER_HOUR
+                            )
+                    )
+                )
+        );
+        when(clusterService.getClusterSettings()).thenReturn(settings);
+
+        threadPool = mock(ThreadPool.class);
+        setUpADThreadPool(threadPool);
+
+        entityCache = new TinyLfuCache(
+            checkpoint,
+            1,
+            AnomalyDetectorSettings.CHECKPOINT_TTL,
+            AnomalyDetectorSettings.MAX_INACTIVE_ENTITIES,
+            memoryTracker,
+            AnomalyDetectorSettings.NUM_TREES,
+            clock,
+            clusterService,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            threadPool,
+            checkpointWriteQueue,
+            AnomalyDetectorSettings.MAINTENANCE_FREQ_CONSTANT,
+            checkpointMaintainQueue,
+            Settings.EMPTY,
+            AnomalyDetectorSettings.CHECKPOINT_SAVING_FREQ,
+            offHeapModelStore
+        );
+
+        when(memoryTracker.estimateEntityModelStateSize(anyInt(), anyInt(), anyInt())).thenReturn(memoryPerEntity);
+        when(memoryTracker.canAllocateReserved(anyLong())).thenReturn(true);
+        when(memoryTracker.getHeapLimit()).thenReturn(1L << 30);
+
+        detector2 = mock(AnomalyDetector.class);
+        detectorId2 = "456";
+        when(detector2.getDetectorId()).thenReturn(detectorId2);
+        when(detector2.getDetectionIntervalDuration()).thenReturn(detectorDuration);
+        when(detector2.getDetectorIntervalInSeconds()).thenReturn(detectorDuration.getSeconds());
+    }
+
+    private ModelState<EntityModel> createState(Entity entity, String modelId, String detectorId) {
+        return new ModelState<>(
+            new EntityModel(entity, new ArrayDeque<>(), null),
+            modelId,
+            detectorId,
+            ModelType.ENTITY.getName(),
+            clock,
+            0
+        );
+    }
+
+    private void access(String modelId, AnomalyDetector detector, int times) {
+        for (int i = 0; i < times; i++) {
+            entityCache.get(modelId, detector);
+        }
+    }
+
+    public void testCacheStats() {
+        // no door keeper: the first miss can be hosted
+        assertNull(entityCache.get(modelId1, detector));
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+        assertEquals(modelId1, entityCache.get(modelId1, detector).getModelId());
+
+        Map<String, Long> stats = entityCache.getCacheStats().get(detectorId);
+        assertEquals(1L, stats.get(EntityCacheStats.HITS).longValue());
+        assertEquals(1L, stats.get(EntityCacheStats.MISSES).longValue());
+        assertEquals(1L, stats.get(EntityCacheStats.ADMISSIONS).longValue());
+        assertEquals(0L, stats.get(EntityCacheStats.REJECTIONS).longValue());
+
+        entityCache.clear(detectorId);
+        assertEquals(0, entityCache.getTotalActiveEntities());
+        assertTrue(entityCache.getCacheStats().isEmpty());
+        verify(checkpoint).deleteModelCheckpointByDetectorId(detectorId);
+    }
+
+    public void testWindowCandidateCompetesWithMainVictim() {
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+        access(modelId1, detector, 3);
+        access(modelId2, detector, 3);
+        access(modelId3, detector, 1);
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+        assertTrue(entityCache.hostIfPossible(detector, modelState2));
+        assertTrue(entityCache.hostIfPossible(detector, modelState3));
+
+        // window: modelId3; probation: modelId1, modelId2
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(false);
+        access(modelId4, detector, 1);
+        // the one-hit wonder enters the window and pushes out modelId3, which loses against modelId1
+        assertTrue(entityCache.hostIfPossible(detector, modelState4));
+        assertFalse(entityCache.isActive(detectorId, modelId3));
+        assertTrue(entityCache.isActive(detectorId, modelId1));
+        // the profile API knows when modelId3 is evicted
+        assertEquals(clock.instant().toEpochMilli(), entityCache.getLastActiveMs(detectorId, modelId3));
+
+        // modelId4 becomes more frequent than modelId1 and enters the main region in its place
+        access(modelId4, detector, 4);
+        access(modelId3, detector, 1);
+        assertTrue(entityCache.hostIfPossible(detector, modelState3));
+        assertFalse(entityCache.isActive(detectorId, modelId1));
+        assertTrue(entityCache.isActive(detectorId, modelId2));
+        assertTrue(entityCache.isActive(detectorId, modelId3));
+        assertTrue(entityCache.isActive(detectorId, modelId4));
+        assertEquals(3, entityCache.getActiveEntities(detectorId));
+    }
+
+    public void testReplaceInOtherDetector() {
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+        access(modelId2, detector, 1);
+        access(modelId1, detector, 1);
+        // modelId2 in dedicated and modelId1 in shared cache
+        assertTrue(entityCache.hostIfPossible(detector, modelState2));
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+
+        access(modelId3, detector2, 10);
+        assertTrue(entityCache.hostIfPossible(detector2, createState(entity3, modelId3, detectorId2)));
+
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(false);
+        access(modelId4, detector2, 4);
+        // the window candidate modelId3 has nothing to compete with in detector2, but is
+        // more frequent than the victim in the other detector's shared cache
+        assertTrue(entityCache.hostIfPossible(detector2, createState(entity4, modelId4, detectorId2)));
+        assertEquals(2, entityCache.getActiveEntities(detectorId2));
+        assertEquals(1, entityCache.getActiveEntities(detectorId));
+        // modelId1 is the window candidate of detector and loses the tie against modelId2
+        assertFalse(entityCache.isActive(detectorId, modelId1));
+        assertTrue(entityCache.isActive(detectorId, modelId2));
+    }
+
+    public void testSelectUpdateCandidate() {
+        access(modelId1, detector, 5);
+        // dedicated cache available
+        Pair<List<Entity>, List<Entity>> hotAndCold = entityCache
+            .selectUpdateCandidate(Collections.singletonList(entity1), detectorId, detector);
+        assertEquals(Collections.singletonList(entity1), hotAndCold.getLeft());
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+
+        access(modelId2, detector, 10);
+        access(modelId3, detector, 1);
+        hotAndCold = entityCache.selectUpdateCandidate(Arrays.asList(entity2, entity3), detectorId, detector);
+        assertEquals(Collections.singletonList(entity2), hotAndCold.getLeft());
+        assertEquals(Collections.singletonList(entity3), hotAndCold.getRight());
+
+        assertEquals(0, entityCache.selectUpdateCandidate(Collections.singletonList(entity1), detectorId2, detector2).getLeft().size());
+    }
+
+    public void testClearMemory() {
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+        access(modelId1, detector, 10);
+        access(modelId2, detector, 2);
+        assertTrue(entityCache.hostIfPossible(detector, modelState2));
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+
+        // creating a CacheBuffer triggers clearMemory
+        when(memoryTracker.memoryToShed()).thenReturn(memoryPerEntity);
+        access(modelId3, detector2, 1);
+
+        assertEquals(1, entityCache.getActiveEntities(detectorId));
+        assertTrue(entityCache.isActive(detectorId, modelId1));
+    }
+
+    public void testReleaseMemoryForOpenCircuitBreaker() {
+        when(memoryTracker.canAllocate(anyLong())).thenReturn(true);
+        access(modelId1, detector, 1);
+        access(modelId2, detector, 1);
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+        assertTrue(entityCache.hostIfPossible(detector, modelState2));
+
+        entityCache.releaseMemoryForOpenCircuitBreaker();
+        assertEquals(1, entityCache.getTotalActiveEntities());
+    }
+
+    public void testRemoveEntityModel() {
+        access(modelId1, detector, 1);
+        assertTrue(entityCache.hostIfPossible(detector, modelState1));
+        entityCache.removeEntityModel(detectorId, modelId1);
+        assertEquals(0, entityCache.getActiveEntities(detectorId));
+        verify(offHeapModelStore).remove(modelId1);
+    }
+}
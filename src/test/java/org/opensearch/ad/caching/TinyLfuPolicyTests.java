@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.Optional;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class TinyLfuPolicyTests extends OpenSearchTestCase {
+    public void testWindowOverflowsToProbation() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(100);
+        assertEquals(Optional.empty(), policy.getVictim());
+
+        policy.onAdmit("a");
+        assertTrue(policy.inWindow("a"));
+        // nothing in the main region to compete with
+        assertEquals(Optional.of("a"), policy.getVictim());
+
+        policy.onAdmit("b");
+        assertTrue(policy.inWindow("b"));
+        assertFalse(policy.inWindow("a"));
+        // the window candidate b loses a tie against the probation victim a
+        assertEquals(Optional.of("b"), policy.getVictim());
+        assertEquals(2, policy.size());
+    }
+
+    public void testPromoteAndDemote() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(100);
+        for (String modelId : new String[] { "a", "b", "c", "d" }) {
+            policy.onAdmit(modelId);
+        }
+        // window: d; probation: a, b, c
+        policy.recordAccess("a");
+        policy.recordAccess("b");
+        assertTrue(policy.isProtected("a"));
+        assertTrue(policy.isProtected("b"));
+        assertFalse(policy.isProtected("c"));
+
+        // protected can hold 80% of the main region: 2 of 3
+        policy.recordAccess("c");
+        assertTrue(policy.isProtected("c"));
+        assertFalse(policy.isProtected("a"));
+
+        // a hit in protected refreshes recency
+        policy.recordAccess("b");
+        policy.onRemove("a");
+        policy.onRemove("d");
+        // probation is empty: the least recently used protected entity is the only victim
+        assertEquals(Optional.of("c"), policy.getVictim());
+        assertEquals(2, policy.size());
+    }
+
+    public void testWindowCandidateCompetesWithMainVictim() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(100);
+        policy.recordAccess("a");
+        policy.onAdmit("a");
+        policy.onAdmit("b");
+        // window: b; probation: a
+        policy.recordAccess("b");
+        // tie: the main region keeps its victim
+        assertEquals(Optional.of("b"), policy.getVictim());
+
+        policy.recordAccess("b");
+        assertEquals(2, policy.frequency("b"));
+        // the more frequent candidate wins and a is evicted
+        assertEquals(Optional.of("a"), policy.getVictim());
+        policy.onRemove("a");
+        policy.onAdmit("c");
+        // the winner moves to probation as the new entity enters the window
+        assertFalse(policy.inWindow("b"));
+        assertTrue(policy.inWindow("c"));
+
+        // removal keeps the frequency
+        assertEquals(1, policy.frequency("a"));
+        assertEquals(2, policy.size());
+    }
+
+    public void testSaturation() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(1024);
+        for (int i = 0; i < 20; i++) {
+            policy.recordAccess("a");
+        }
+        assertEquals(TinyLfuPolicy.MAX_FREQUENCY, policy.frequency("a"));
+        // saturated accesses are not sampled
+        assertEquals(TinyLfuPolicy.MAX_FREQUENCY, policy.getSampleCount());
+    }
+
+    public void testAging() {
+        // sample size 10
+        TinyLfuPolicy policy = new TinyLfuPolicy(1);
+        for (int i = 0; i < 9; i++) {
+            policy.recordAccess("a");
+        }
+        assertEquals(9, policy.frequency("a"));
+        assertEquals(9, policy.getSampleCount());
+
+        // the 10th access halves the counters
+        policy.recordAccess("a");
+        assertEquals(5, policy.frequency("a"));
+        assertEquals(5, policy.getSampleCount());
+    }
+
+    public void testReadBuffer() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(1024);
+        for (int i = 0; i < TinyLfuPolicy.READ_BUFFER_DRAIN_THRESHOLD - 1; i++) {
+            policy.recordAccess("key" + i);
+        }
+        // below the threshold accesses wait in the buffer
+        assertEquals(TinyLfuPolicy.READ_BUFFER_DRAIN_THRESHOLD - 1, policy.getPendingReads());
+
+        // reaching the threshold drains the buffer
+        policy.recordAccess("key0");
+        assertEquals(0, policy.getPendingReads());
+        assertEquals(TinyLfuPolicy.READ_BUFFER_DRAIN_THRESHOLD, policy.getSampleCount());
+
+        // reads drain pending accesses first
+        policy.recordAccess("key0");
+        assertEquals(1, policy.getPendingReads());
+        assertEquals(3, policy.frequency("key0"));
+        assertEquals(0, policy.getPendingReads());
+    }
+}
@@ -18,8 +18,11 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR;
 
 import java.net.UnknownHostException;
 import java.time.Clock;
@@ -39,6 +42,7 @@ import org.opensearch.action.admin.cluster.node.info.PluginsAndModules;
 import org.opensearch.ad.ADUnitTestCase;
 import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.stats.suppliers.PlacementSkewSupplier;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
 import org.opensearch.client.AdminClient;
 import org.opensearch.client.Client;
@@ -74,6 +78,9 @@ public class HashRingTests extends ADUnitTestCase {
     private DiscoveryNode newNode;
     private DiscoveryNode warmNode;
     private ModelManager modelManager;
+    private ModelHandoff modelHandoff;
+    private ClusterSettings clusterSettings;
+    private PlacementSkewSupplier placementSkew;
 
     @Override
     @Before
@@ -88,7 +95,7 @@ public class HashRingTests extends ADUnitTestCase {
         warmNode = createNode(warmNodeId, "127.0.0.3", 9202, ImmutableMap.of(ADCommonName.BOX_TYPE_KEY, ADCommonName.WARM_BOX_TYPE));
 
         settings = Settings.builder().put(COOLDOWN_MINUTES.getKey(), TimeValue.timeValueSeconds(5)).build();
-        ClusterSettings clusterSettings = clusterSetting(settings, COOLDOWN_MINUTES);
+        clusterSettings = clusterSetting(settings, COOLDOWN_MINUTES, PLACEMENT_CAPACITY_FACTOR);
         clusterService = spy(new ClusterService(settings, clusterSettings, null));
 
         nodeFilter = spy(new DiscoveryNodeFilterer(clusterService));
@@ -112,8 +119,23 @@ public class HashRingTests extends ADUnitTestCase {
             res.add(modelId);
             return res;
         }).when(modelManager).getAllModelIds();
+        modelHandoff = mock(ModelHandoff.class);
+        placementSkew = new PlacementSkewSupplier(clock);
 
-        hashRing = spy(new HashRing(nodeFilter, clock, settings, client, clusterService, dataMigrator, modelManager));
+        hashRing = spy(
+            new HashRing(nodeFilter, clock, settings, client, clusterService, dataMigrator, modelManager, modelHandoff, placementSkew)
+        );
+    }
+
+    public void testPlacementCapacityFactor() {
+        assertEquals(0, hashRing.getPlacementCapacityFactor(), 0.001);
+        clusterSettings.applySettings(Settings.builder().put(PLACEMENT_CAPACITY_FACTOR.getKey(), 1.25).build());
+        assertEquals(1.25, hashRing.getPlacementCapacityFactor(), 0.001);
+    }
+
+    public void testRecordPlacementSkew() {
+        hashRing.recordPlacementSkew("123", 1.5);
+        assertEquals(1.5, placementSkew.get().get("123"), 0.001);
     }
 
     public void testGetOwningNodeWithEmptyResult() throws UnknownHostException {
@@ -189,6 +211,8 @@ public class HashRingTests extends ADUnitTestCase {
             logger.error("building hash ring failed", e);
             assertFalse("Failed to build hash ring", true);
         }));
+        // models are handed off whenever the realtime circles change
+        verify(modelHandoff, times(2)).handoff(any());
     }
 
     public void testGetAllEligibleDataNodesWithKnownAdVersionAndGetNodeByAddress() {
@@ -0,0 +1,159 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.ArgumentCaptor;
+import org.opensearch.Version;
+import org.opensearch.ad.AbstractADTest;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+
+public class MaintenanceSchedulerTests extends AbstractADTest {
+    private static final String NODE_ID = "foo";
+
+    private ThreadPool threadPool;
+    private ClusterSettings clusterSettings;
+    private MaintenanceScheduler scheduler;
+    private List<String> ran;
+    private Map<String, Runnable> tasks;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = mock(ThreadPool.class);
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.localNode()).thenReturn(new DiscoveryNode(NODE_ID, buildNewFakeTransportAddress(), Version.CURRENT));
+        clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.MAINTENANCE_SPREAD)))
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+        Settings settings = Settings.builder().put(AnomalyDetectorSettings.MAINTENANCE_SPREAD.getKey(), "30m").build();
+        scheduler = new MaintenanceScheduler(threadPool, clusterService, settings);
+
+        ran = new ArrayList<>();
+        tasks = new LinkedHashMap<>();
+        tasks.put("a", () -> ran.add("a"));
+        tasks.put("b", () -> { throw new IllegalStateException("b"); });
+        tasks.put("c", () -> ran.add("c"));
+    }
+
+    public void testSpreadTasks() {
+        scheduler.schedule(tasks);
+        assertTrue(ran.isEmpty());
+        assertEquals(3, scheduler.getPendingTasks());
+
+        ArgumentCaptor<Runnable> runnables = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<TimeValue> delays = ArgumentCaptor.forClass(TimeValue.class);
+        verify(threadPool, times(3)).schedule(runnables.capture(), delays.capture(), eq(ThreadPool.Names.MANAGEMENT));
+
+        long slotMillis = TimeValue.timeValueMinutes(10).getMillis();
+        long offset = MaintenanceScheduler.getNodeOffset(NODE_ID, slotMillis);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i * slotMillis + offset, delays.getAllValues().get(i).getMillis());
+        }
+
+        // a failing task does not stop the others
+        runnables.getAllValues().forEach(Runnable::run);
+        assertEquals(Arrays.asList("a", "c"), ran);
+        assertEquals(0, scheduler.getPendingTasks());
+    }
+
+    public void testSkipPendingTasks() {
+        scheduler.schedule(tasks);
+        scheduler.schedule(tasks);
+        verify(threadPool, times(3)).schedule(any(), any(), any());
+        assertEquals(3, scheduler.getPendingTasks());
+    }
+
+    public void testRunAtOnce() {
+        clusterSettings.applySettings(Settings.builder().put(AnomalyDetectorSettings.MAINTENANCE_SPREAD.getKey(), "0s").build());
+        scheduler.schedule(tasks);
+        verify(threadPool, never()).schedule(any(), any(), any());
+        assertEquals(Arrays.asList("a", "c"), ran);
+    }
+
+    public void testSlicedTask() {
+        List<Integer> slices = new ArrayList<>();
+        Map<String, MaintenanceScheduler.SlicedTask> slicedTasks = new LinkedHashMap<>();
+        slicedTasks.put("sliced", (slice, total) -> {
+            assertEquals(AnomalyDetectorSettings.MAINTENANCE_SLICES, total);
+            slices.add(slice);
+        });
+        scheduler.schedule(Collections.emptyMap(), slicedTasks);
+        assertEquals(1, scheduler.getPendingTasks());
+
+        long tickMillis = TimeValue.timeValueMinutes(30).getMillis() / AnomalyDetectorSettings.MAINTENANCE_SLICES;
+        ArgumentCaptor<Runnable> runnables = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<TimeValue> delays = ArgumentCaptor.forClass(TimeValue.class);
+        // each tick runs a slice and schedules the next one
+        for (int i = 0; i < AnomalyDetectorSettings.MAINTENANCE_SLICES; i++) {
+            verify(threadPool, times(i + 1)).schedule(runnables.capture(), delays.capture(), eq(ThreadPool.Names.MANAGEMENT));
+            long expectedDelay = i == 0 ? MaintenanceScheduler.getNodeOffset(NODE_ID, tickMillis) : tickMillis;
+            assertEquals(expectedDelay, delays.getValue().getMillis());
+            runnables.getValue().run();
+            assertEquals(i + 1, slices.size());
+            assertEquals(i, slices.get(i).intValue());
+        }
+        verify(threadPool, times(AnomalyDetectorSettings.MAINTENANCE_SLICES)).schedule(any(), any(), any());
+        assertEquals(0, scheduler.getPendingTasks());
+    }
+
+    public void testSkipUnfinishedSlicedTask() {
+        Map<String, MaintenanceScheduler.SlicedTask> slicedTasks = new LinkedHashMap<>();
+        slicedTasks.put("sliced", (slice, total) -> {});
+        scheduler.schedule(Collections.emptyMap(), slicedTasks);
+        scheduler.schedule(Collections.emptyMap(), slicedTasks);
+        verify(threadPool, times(1)).schedule(any(), any(), any());
+        assertEquals(1, scheduler.getPendingTasks());
+    }
+
+    public void testSlicedTaskAtOnce() {
+        clusterSettings.applySettings(Settings.builder().put(AnomalyDetectorSettings.MAINTENANCE_SPREAD.getKey(), "0s").build());
+        List<Integer> slices = new ArrayList<>();
+        Map<String, MaintenanceScheduler.SlicedTask> slicedTasks = new LinkedHashMap<>();
+        slicedTasks.put("sliced", (slice, total) -> slices.add(slice));
+        scheduler.schedule(Collections.emptyMap(), slicedTasks);
+        verify(threadPool, never()).schedule(any(), any(), any());
+        assertEquals(AnomalyDetectorSettings.MAINTENANCE_SLICES, slices.size());
+        assertEquals(0, scheduler.getPendingTasks());
+    }
+
+    public void testNodeOffset() {
+        long slotMillis = 1000;
+        for (int i = 0; i < 100; i++) {
+            long offset = MaintenanceScheduler.getNodeOffset(randomAlphaOfLength(20), slotMillis);
+            assertTrue(offset >= 0 && offset < slotMillis);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.mockito.ArgumentCaptor;
+import org.opensearch.Version;
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.AbstractADTest;
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.caching.OffHeapModelStore;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.ml.EntityModel;
+import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.transport.HandoffModel;
+import org.opensearch.ad.transport.ModelHandoffAction;
+import org.opensearch.ad.transport.ModelHandoffNodeResponse;
+import org.opensearch.ad.transport.ModelHandoffRequest;
+import org.opensearch.ad.transport.ModelHandoffResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.threadpool.ThreadPool;
+
+public class ModelHandoffTests extends AbstractADTest {
+    private static final String DETECTOR_ID = "123";
+
+    private Client client;
+    private EntityCache cache;
+    private CheckpointDao checkpointDao;
+    private OffHeapModelStore offHeapModelStore;
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+    private ClusterSettings clusterSettings;
+    private DiscoveryNode localNode;
+    private DiscoveryNode remoteNode;
+    // ring before the remote node joins
+    private RoutingSnapshot localRouting;
+    private RoutingSnapshot routing;
+    private ModelHandoff handoff;
+    // model ids the routing maps to the remote node
+    private Set<String> remappedModelIds;
+    private List<ModelState<?>> cachedModels;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        cache = mock(EntityCache.class);
+        CacheProvider cacheProvider = new CacheProvider();
+        cacheProvider.set(cache);
+        checkpointDao = mock(CheckpointDao.class);
+        offHeapModelStore = mock(OffHeapModelStore.class);
+        when(offHeapModelStore.isEnabled()).thenReturn(true);
+        threadPool = mock(ThreadPool.class);
+        // run scheduled sends at once
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(threadPool).schedule(any(), any(), any());
+
+        localNode = new DiscoveryNode("local", buildNewFakeTransportAddress(), Version.CURRENT);
+        remoteNode = new DiscoveryNode("remote", buildNewFakeTransportAddress(), Version.CURRENT);
+        clusterService = mock(ClusterService.class);
+        when(clusterService.localNode()).thenReturn(localNode);
+        clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC)))
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+
+        Settings settings = Settings.builder().put(AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC.getKey(), "10mb").build();
+        handoff = new ModelHandoff(client, cacheProvider, checkpointDao, threadPool, clusterService, offHeapModelStore, settings);
+        localRouting = RoutingSnapshot.EMPTY.addNode(localNode, 100);
+        routing = localRouting.addNode(remoteNode, 100);
+
+        cachedModels = new ArrayList<>();
+        remappedModelIds = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            Entity entity = Entity.createSingleAttributeEntity("host", "server_" + i);
+            String modelId = entity.getModelId(DETECTOR_ID).get();
+            cachedModels
+                .add(
+                    new ModelState<>(
+                        new EntityModel(entity, new ArrayDeque<>(), null),
+                        modelId,
+                        DETECTOR_ID,
+                        ModelType.ENTITY.getName(),
+                        Clock.systemUTC(),
+                        0
+                    )
+                );
+            if (routing.getOwningNode(entity).equals(remoteNode)) {
+                remappedModelIds.add(modelId);
+            }
+        }
+        assertTrue(remappedModelIds.size() > 1);
+        when(cache.getAllModels()).thenReturn(cachedModels);
+        handoff.handoff(localRouting);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(int accepted) {
+        doAnswer(invocation -> {
+            ActionListener<ModelHandoffResponse> listener = invocation.getArgument(2);
+            listener
+                .onResponse(
+                    new ModelHandoffResponse(
+                        new ClusterName("test"),
+                        Arrays.asList(new ModelHandoffNodeResponse(remoteNode, accepted)),
+                        Collections.emptyList()
+                    )
+                );
+            return null;
+        }).when(client).execute(eq(ModelHandoffAction.INSTANCE), any(), any());
+    }
+
+    public void testHandoffRemappedModels() {
+        when(checkpointDao.toBinaryCheckpoint(any(ModelState.class))).thenReturn(Optional.of(new byte[10]));
+        respond(1);
+        handoff.handoff(routing);
+
+        ArgumentCaptor<ModelHandoffRequest> requests = ArgumentCaptor.forClass(ModelHandoffRequest.class);
+        verify(client, times(1)).execute(eq(ModelHandoffAction.INSTANCE), requests.capture(), any());
+        ModelHandoffRequest request = requests.getValue();
+        assertArrayEquals(new String[] { remoteNode.getId() }, request.nodesIds());
+        assertEquals(routing.getVersion(), request.getRingVersion());
+        Set<String> sent = new HashSet<>();
+        for (HandoffModel model : request.getModels()) {
+            sent.add(model.getModelId());
+            assertEquals(DETECTOR_ID, model.getDetectorId());
+            assertEquals(Instant.MIN, model.getLastCheckpointTime());
+        }
+        assertEquals(remappedModelIds, sent);
+        assertEquals(0, handoff.getPendingModels());
+    }
+
+    public void testRequestSize() {
+        // one model per request
+        when(checkpointDao.toBinaryCheckpoint(any(ModelState.class)))
+            .thenReturn(Optional.of(new byte[(int) ModelHandoff.MAX_REQUEST_BYTES]));
+        respond(1);
+        handoff.handoff(routing);
+        verify(client, times(remappedModelIds.size())).execute(eq(ModelHandoffAction.INSTANCE), any(), any());
+        verify(threadPool, times(remappedModelIds.size() + 1)).schedule(any(), any(), any());
+    }
+
+    public void testStopWhenNodeKeepsNothing() {
+        when(checkpointDao.toBinaryCheckpoint(any(ModelState.class)))
+            .thenReturn(Optional.of(new byte[(int) ModelHandoff.MAX_REQUEST_BYTES]));
+        respond(0);
+        handoff.handoff(routing);
+        verify(client, times(1)).execute(eq(ModelHandoffAction.INSTANCE), any(), any());
+        assertEquals(0, handoff.getPendingModels());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testDisabled() {
+        clusterSettings.applySettings(Settings.builder().put(AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC.getKey(), "0b").build());
+        handoff.handoff(routing);
+        verify(client, never()).execute(any(), any(), any());
+
+        // off-heap copies of remapped entities are still dropped
+        ArgumentCaptor<Predicate<Entity>> ownedLocally = ArgumentCaptor.forClass(Predicate.class);
+        verify(offHeapModelStore, times(1)).retainOwned(ownedLocally.capture(), eq(routing.getVersion()));
+        for (ModelState<?> state : cachedModels) {
+            EntityModel model = (EntityModel) state.getModel();
+            assertEquals(false == remappedModelIds.contains(state.getModelId()), ownedLocally.getValue().test(model.getEntity().get()));
+        }
+    }
+
+    public void testSendOnlyModelsOwnedBefore() {
+        when(checkpointDao.toBinaryCheckpoint(any(ModelState.class))).thenReturn(Optional.of(new byte[10]));
+        respond(1);
+        handoff.handoff(routing);
+        DiscoveryNode otherNode = new DiscoveryNode("other", buildNewFakeTransportAddress(), Version.CURRENT);
+        handoff.handoff(routing.addNode(otherNode, 100));
+
+        ArgumentCaptor<ModelHandoffRequest> requests = ArgumentCaptor.forClass(ModelHandoffRequest.class);
+        verify(client, atLeastOnce()).execute(eq(ModelHandoffAction.INSTANCE), requests.capture(), any());
+        for (ModelHandoffRequest request : requests.getAllValues()) {
+            if (request.nodesIds()[0].equals(otherNode.getId())) {
+                for (HandoffModel model : request.getModels()) {
+                    // the remote node owned these entities before, so the cached models may be stale
+                    assertFalse(remappedModelIds.contains(model.getModelId()));
+                }
+            }
+        }
+    }
+
+    public void testNothingToSendOnFirstRing() {
+        ModelHandoff newHandoff = new ModelHandoff(
+            client,
+            new CacheProvider(),
+            checkpointDao,
+            threadPool,
+            clusterService,
+            offHeapModelStore,
+            Settings.builder().put(AnomalyDetectorSettings.MODEL_HANDOFF_BYTES_PER_SEC.getKey(), "10mb").build()
+        );
+        newHandoff.handoff(routing);
+        verify(client, never()).execute(any(), any(), any());
+    }
+
+    public void testDisabledByDefault() {
+        ModelHandoff defaultHandoff = new ModelHandoff(
+            client,
+            new CacheProvider(),
+            checkpointDao,
+            threadPool,
+            clusterService,
+            offHeapModelStore,
+            Settings.EMPTY
+        );
+        defaultHandoff.handoff(routing);
+        verify(client, never()).execute(any(), any(), any());
+    }
+
+    public void testDisabledWithoutOffHeapTier() {
+        // peers cannot keep the models either
+        when(offHeapModelStore.isEnabled()).thenReturn(false);
+        handoff.handoff(routing);
+        verify(client, never()).execute(any(), any(), any());
+        verify(cache, never()).getAllModels();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.cluster;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.opensearch.ad.ADUnitTestCase;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.routing.Murmur3HashFunction;
+
+public class RoutingSnapshotTests extends ADUnitTestCase {
+
+    public void testEmptyCircle() {
+        RoutingSnapshot snapshot = new RoutingSnapshot(new TreeMap<>());
+        assertEquals(0, snapshot.size());
+        assertNull(snapshot.getOwningNode(randomInt()));
+    }
+
+    public void testSameOwnerAsCircle() {
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        for (int i = 0; i < 3; i++) {
+            DiscoveryNode node = createNode(Integer.toString(i));
+            for (int j = 0; j < 100; j++) {
+                circle.put(randomInt(), node);
+            }
+        }
+        // boundaries
+        circle.put(Integer.MIN_VALUE, createNode("min"));
+        circle.put(Integer.MAX_VALUE, createNode("max"));
+
+        RoutingSnapshot snapshot = new RoutingSnapshot(circle);
+        assertEquals(circle.size(), snapshot.size());
+
+        for (int key : circle.keySet()) {
+            // a ring hash itself belongs to the next ring hash
+            assertEquals(getOwningNode(circle, key), snapshot.getOwningNode(key));
+            assertEquals(getOwningNode(circle, key - 1), snapshot.getOwningNode(key - 1));
+        }
+        for (int i = 0; i < 1000; i++) {
+            int key = randomInt();
+            assertEquals(getOwningNode(circle, key), snapshot.getOwningNode(key));
+        }
+        // wrap around
+        assertEquals(circle.firstEntry().getValue(), snapshot.getOwningNode(Integer.MAX_VALUE));
+    }
+
+    public void testEntityRoutingHash() {
+        Entity entity = Entity.createSingleAttributeEntity("host", "server_1");
+        int hash = entity.getRoutingHash();
+        // cached value is stable
+        assertEquals(hash, entity.getRoutingHash());
+        assertEquals(hash, Entity.createSingleAttributeEntity("host", "server_1").getRoutingHash());
+
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        DiscoveryNode owner = createNode("owner");
+        circle.put(hash - 1, createNode("before"));
+        circle.put(hash + 1, owner);
+        assertEquals(owner, new RoutingSnapshot(circle).getOwningNode(entity));
+    }
+
+    public void testAddAndRemoveNode() {
+        DiscoveryNode node1 = createNode("1");
+        DiscoveryNode node2 = createNode("2");
+        RoutingSnapshot snapshot = RoutingSnapshot.EMPTY.addNode(node1, 10).addNode(node2, 10);
+        assertEquals(20, snapshot.size());
+        assertEquals(new HashSet<>(Arrays.asList(node1, node2)), snapshot.getNodes());
+
+        // same as adding virtual nodes to a TreeMap
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        for (DiscoveryNode node : Arrays.asList(node1, node2)) {
+            for (int i = 0; i < 10; i++) {
+                circle.put(Murmur3HashFunction.hash(node.getId() + i), node);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            String modelId = randomAlphaOfLength(10);
+            assertEquals(getOwningNode(circle, Murmur3HashFunction.hash(modelId)), snapshot.getOwningNode(modelId));
+        }
+
+        RoutingSnapshot removed = snapshot.removeNode(node1.getId());
+        assertEquals(10, removed.size());
+        assertEquals(Collections.singleton(node2), removed.getNodes());
+        // the original circle is not changed
+        assertEquals(20, snapshot.size());
+
+        assertTrue(removed.removeNode(node2.getId()).isEmpty());
+    }
+
+    public void testRoute() {
+        RoutingSnapshot snapshot = RoutingSnapshot.EMPTY.addNode(createNode("1"), 10).addNode(createNode("2"), 10);
+        String[] modelIds = new String[] { "a", "b", "c" };
+        DiscoveryNode[] owners = snapshot.route(modelIds);
+        assertEquals(modelIds.length, owners.length);
+        for (int i = 0; i < modelIds.length; i++) {
+            assertEquals(snapshot.getOwningNode(modelIds[i]), owners[i]);
+        }
+
+        DiscoveryNode[] noOwners = RoutingSnapshot.EMPTY.route(modelIds);
+        assertEquals(modelIds.length, noOwners.length);
+        assertNull(noOwners[0]);
+    }
+
+    public void testBoundedLoads() {
+        DiscoveryNode node1 = createNode("1");
+        DiscoveryNode node2 = createNode("2");
+        DiscoveryNode node3 = createNode("3");
+        RoutingSnapshot snapshot = RoutingSnapshot.EMPTY.addNode(node1, 100).addNode(node2, 100).addNode(node3, 100);
+        Entity[] entities = createEntities(290);
+
+        // no bound: same as hashing
+        Map<String, Integer> hashedLoads = new HashMap<>();
+        DiscoveryNode[] hashed = snapshot.route(entities, 0, hashedLoads);
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(snapshot.getOwningNode(entities[i]), hashed[i]);
+        }
+        assertEquals(290, hashedLoads.values().stream().mapToInt(Integer::intValue).sum());
+
+        DiscoveryNode[] owners = snapshot.route(entities, 1.1, new HashMap<>());
+        Map<DiscoveryNode, Integer> loads = countLoads(owners);
+        assertEquals(3, loads.size());
+        for (int load : loads.values()) {
+            // ceil(1.1 * 290 / 3)
+            assertTrue(load <= 107);
+        }
+        assertTrue(snapshot.getSkew(owners) <= 1.11);
+        assertTrue(snapshot.getSkew(owners) <= snapshot.getSkew(hashed));
+
+        // the same batch in any order gets the same placement
+        Entity[] reversed = new Entity[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            reversed[i] = entities[entities.length - 1 - i];
+        }
+        DiscoveryNode[] reversedOwners = snapshot.route(reversed, 1.1, new HashMap<>());
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(owners[i], reversedOwners[entities.length - 1 - i]);
+        }
+
+        // the bound covers all batches sharing the loads
+        Map<String, Integer> runLoads = new HashMap<>();
+        snapshot.route(Arrays.copyOfRange(entities, 0, 145), 1.1, runLoads);
+        snapshot.route(Arrays.copyOfRange(entities, 145, 290), 1.1, runLoads);
+        assertEquals(290, runLoads.values().stream().mapToInt(Integer::intValue).sum());
+        for (int load : runLoads.values()) {
+            assertTrue(load <= 107);
+        }
+
+        assertNull(RoutingSnapshot.EMPTY.route(entities, 1.1, new HashMap<>())[0]);
+    }
+
+    public void testSkew() {
+        DiscoveryNode node1 = createNode("1");
+        DiscoveryNode node2 = createNode("2");
+        RoutingSnapshot snapshot = RoutingSnapshot.EMPTY.addNode(node1, 10).addNode(node2, 10);
+        // 3 of 4 on node1 is 1.5 times the average
+        assertEquals(1.5, snapshot.getSkew(new DiscoveryNode[] { node1, node1, node1, node2 }), 0.001);
+        assertEquals(1, snapshot.getSkew(new DiscoveryNode[] { node1, node2 }), 0.001);
+    }
+
+    public void testVersion() {
+        DiscoveryNode node1 = createNode("1");
+        DiscoveryNode node2 = createNode("2");
+        RoutingSnapshot snapshot = RoutingSnapshot.EMPTY.addNode(node1, 10).addNode(node2, 10);
+        // same nodes added in another order
+        assertEquals(snapshot.getVersion(), RoutingSnapshot.EMPTY.addNode(node2, 10).addNode(node1, 10).getVersion());
+        assertNotEquals(snapshot.getVersion(), snapshot.removeNode(node2.getId()).getVersion());
+        assertNotEquals(snapshot.getVersion(), snapshot.addNode(createNode("3"), 10).getVersion());
+    }
+
+    public void testAddNodeToCopiedCircle() {
+        DiscoveryNode node1 = createNode("1");
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        circle.put(0, node1);
+        RoutingSnapshot snapshot = new RoutingSnapshot(circle).addNode(createNode("2"), 10);
+        assertEquals(11, snapshot.size());
+        assertEquals(10, snapshot.removeNode(node1.getId()).size());
+    }
+
+    public void testNoSkew() {
+        assertEquals(0, RoutingSnapshot.EMPTY.getSkew(new DiscoveryNode[1]), 0.001);
+    }
+
+    private Entity[] createEntities(int count) {
+        Entity[] entities = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = Entity.createSingleAttributeEntity("host", "server_" + i);
+        }
+        return entities;
+    }
+
+    private Map<DiscoveryNode, Integer> countLoads(DiscoveryNode[] owners) {
+        Map<DiscoveryNode, Integer> loads = new HashMap<>();
+        for (DiscoveryNode owner : owners) {
+            loads.merge(owner, 1, Integer::sum);
+        }
+        return loads;
+    }
+
+    private DiscoveryNode getOwningNode(TreeMap<Integer, DiscoveryNode> circle, int key) {
+        Map.Entry<Integer, DiscoveryNode> entry = circle.higherEntry(key);
+        if (entry == null) {
+            entry = circle.firstEntry();
+        }
+        return entry.getValue();
+    }
+}
@@ -65,6 +65,7 @@ import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.Feature;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
@@ -177,7 +178,7 @@ public class NoPowermockSearchFeatureDaoTests extends AbstractADTest {
 
         searchFeatureDao = new SearchFeatureDao(
             client,
-            xContentRegistry(), // Important. Without this, ParseUtils cannot parse anything
+            new FeatureQueryCache(xContentRegistry()), // Important. Without this, ParseUtils cannot parse anything
             interpolator,
             clientUtil,
             settings,
@@ -364,7 +365,7 @@ public class NoPowermockSearchFeatureDaoTests extends AbstractADTest {
 
         searchFeatureDao = new SearchFeatureDao(
             client,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             interpolator,
             clientUtil,
             settings,
@@ -410,7 +411,7 @@ public class NoPowermockSearchFeatureDaoTests extends AbstractADTest {
         long timeoutMillis = 60_000L;
         searchFeatureDao = new SearchFeatureDao(
             client,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             interpolator,
             clientUtil,
             settings,
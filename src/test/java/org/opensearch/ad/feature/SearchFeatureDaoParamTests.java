@@ -61,6 +61,7 @@ import org.opensearch.ad.dataprocessor.SingleFeatureLinearUniformInterpolator;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
@@ -110,6 +111,8 @@ public class SearchFeatureDaoParamTests {
     private ScriptService scriptService;
     @Mock
     private NamedXContentRegistry xContent;
+    @Mock
+    private FeatureQueryCache featureQueryCache;
     private SecurityClientUtil clientUtil;
 
     @Mock
@@ -179,7 +182,15 @@ public class SearchFeatureDaoParamTests {
         }).when(nodeStateManager).getAnomalyDetector(any(String.class), any(ActionListener.class));
         clientUtil = new SecurityClientUtil(nodeStateManager, settings);
         searchFeatureDao = spy(
-            new SearchFeatureDao(client, xContent, interpolator, clientUtil, settings, null, AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE)
+            new SearchFeatureDao(
+                client,
+                featureQueryCache,
+                interpolator,
+                clientUtil,
+                settings,
+                null,
+                AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE
+            )
         );
 
         detectionInterval = new IntervalTimeConfiguration(1, ChronoUnit.MINUTES);
@@ -233,7 +244,8 @@ public class SearchFeatureDaoParamTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(featureQueryCache)))
+            .thenReturn(searchSourceBuilder);
         when(searchResponse.getAggregations()).thenReturn(new Aggregations(aggs));
         when(detector.getEnabledFeatureIds()).thenReturn(featureIds);
         doAnswer(invocation -> {
@@ -18,9 +18,11 @@ import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -67,6 +69,7 @@ import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
@@ -90,6 +93,9 @@ import org.opensearch.search.aggregations.Aggregations;
 import org.opensearch.search.aggregations.AggregatorFactories;
 import org.opensearch.search.aggregations.InternalAggregations;
 import org.opensearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.opensearch.search.aggregations.metrics.InternalMin;
 import org.opensearch.search.aggregations.metrics.InternalTDigestPercentiles;
 import org.opensearch.search.aggregations.metrics.Max;
@@ -115,6 +121,8 @@ public class SearchFeatureDaoTests {
     private ScriptService scriptService;
     @Mock
     private NamedXContentRegistry xContent;
+    @Mock
+    private FeatureQueryCache featureQueryCache;
     private SecurityClientUtil clientUtil;
 
     @Mock
@@ -182,7 +190,15 @@ public class SearchFeatureDaoTests {
         }).when(nodeStateManager).getAnomalyDetector(any(String.class), any(ActionListener.class));
         clientUtil = new SecurityClientUtil(nodeStateManager, settings);
         searchFeatureDao = spy(
-            new SearchFeatureDao(client, xContent, interpolator, clientUtil, settings, null, AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE)
+            new SearchFeatureDao(
+                client,
+                featureQueryCache,
+                interpolator,
+                clientUtil,
+                settings,
+                null,
+                AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE
+            )
         );
 
         detectionInterval = new IntervalTimeConfiguration(1, ChronoUnit.MINUTES);
@@ -296,7 +312,8 @@ public class SearchFeatureDaoTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(featureQueryCache)))
+            .thenReturn(searchSourceBuilder);
         when(detector.getEnabledFeatureIds()).thenReturn(null);
         doAnswer(invocation -> {
             ActionListener<SearchResponse> listener = invocation.getArgument(1);
@@ -316,7 +333,8 @@ public class SearchFeatureDaoTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(featureQueryCache)))
+            .thenReturn(searchSourceBuilder);
         doAnswer(invocation -> {
             ActionListener<SearchResponse> listener = invocation.getArgument(1);
             listener.onFailure(new RuntimeException());
@@ -386,4 +404,59 @@ public class SearchFeatureDaoTests {
         Optional<Long> result = captor.getValue();
         assertEquals((long) earliest, result.get().longValue());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetEntityMinDataTimes() {
+        DocValueFormat dateFormat = new DocValueFormat.DateTime(
+            DateFormatter.forPattern("strict_date_optional_time||epoch_millis"),
+            ZoneId.of("UTC"),
+            DateFieldMapper.Resolution.MILLISECONDS
+        );
+        double earliest = 1.602211285E12;
+        Entity entity1 = Entity.createSingleAttributeEntity("a", "app_1");
+        Entity entity2 = Entity.createSingleAttributeEntity("a", "app_2");
+
+        PowerMockito.when(ParseUtils.entitiesQuery(any())).thenReturn(QueryBuilders.boolQuery());
+        CompositeAggregationBuilder compositeBuilder = new CompositeAggregationBuilder(
+            ADCommonName.ENTITY_AGGS,
+            Collections.singletonList(new TermsValuesSourceBuilder("a").field("a"))
+        );
+        PowerMockito.when(ParseUtils.entityCompositeAggregation(any(), anyInt())).thenReturn(compositeBuilder);
+
+        // only app_1 has data
+        CompositeAggregation.Bucket bucket = mock(CompositeAggregation.Bucket.class);
+        when(bucket.getKey()).thenReturn(Collections.singletonMap("a", "app_1"));
+        InternalMin minInternal = new InternalMin("min_timefield", earliest, dateFormat, new HashMap<>());
+        when(bucket.getAggregations()).thenReturn(InternalAggregations.from(Arrays.asList(minInternal)));
+        CompositeAggregation entityAgg = mock(CompositeAggregation.class);
+        doReturn(Collections.singletonList(bucket)).when(entityAgg).getBuckets();
+        Aggregations entityAggs = mock(Aggregations.class);
+        doReturn(entityAgg).when(entityAggs).get(ADCommonName.ENTITY_AGGS);
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getAggregations()).thenReturn(entityAggs);
+
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            // one search for all entities
+            Collection<AggregationBuilder> factory = request.source().aggregations().getAggregatorFactories();
+            assertEquals(1, factory.size());
+            AggregationBuilder agg = factory.iterator().next();
+            assertThat(agg, instanceOf(CompositeAggregationBuilder.class));
+            assertThat(agg.getSubAggregations().iterator().next(), instanceOf(MinAggregationBuilder.class));
+
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+
+        ActionListener<Map<Entity, Long>> listener = mock(ActionListener.class);
+        searchFeatureDao.getEntityMinDataTimes(detector, Arrays.asList(entity1, entity2), listener);
+
+        ArgumentCaptor<Map<Entity, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(listener).onResponse(captor.capture());
+        Map<Entity, Long> result = captor.getValue();
+        assertEquals(1, result.size());
+        assertEquals((long) earliest, result.get(entity1).longValue());
+    }
 }
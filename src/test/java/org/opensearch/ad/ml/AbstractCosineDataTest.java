@@ -50,6 +50,7 @@ import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.ratelimit.CheckpointWriteWorker;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.util.ClientUtil;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.node.DiscoveryNodeRole;
@@ -149,7 +150,8 @@ public class AbstractCosineDataTest extends AbstractADTest {
             clientUtil,
             clock,
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
-            clusterService
+            clusterService,
+            new FeatureQueryCache(xContentRegistry())
         );
 
         SingleFeatureLinearUniformInterpolator singleFeatureLinearUniformInterpolator =
@@ -0,0 +1,117 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CheckpointCompressorTests extends OpenSearchTestCase {
+    private CheckpointCompressor compressor;
+    private String detectorId;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        compressor = new CheckpointCompressor();
+        detectorId = "123";
+    }
+
+    // checkpoints sharing a common header and differing in the rest
+    private byte[] randomCheckpoint(byte[] header) {
+        ByteBuffer buffer = ByteBuffer.allocate(header.length + 800);
+        buffer.put(header);
+        for (int i = 0; i < 100; i++) {
+            buffer.putDouble(randomDouble());
+        }
+        return buffer.array();
+    }
+
+    private byte[] randomHeader() {
+        byte[] header = new byte[2048];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = randomByte();
+        }
+        return header;
+    }
+
+    public void testRoundTripWithoutDictionary() throws DataFormatException {
+        byte[] raw = new byte[4096];
+        Arrays.fill(raw, (byte) 7);
+        byte[] compressed = compressor.compress(raw, null);
+        assertTrue(compressed.length < raw.length);
+        assertArrayEquals(raw, compressor.decompress(compressed, 0, compressed.length, raw.length, null));
+        assertTrue(compressor.getCompressionRatio() < 1);
+        assertTrue(compressor.getCodecTimeNanos() > 0);
+    }
+
+    public void testRoundTripWithDictionary() throws DataFormatException {
+        byte[] header = randomHeader();
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < CheckpointCompressor.DICTIONARY_SAMPLE_SIZE; i++) {
+            samples.add(randomCheckpoint(header));
+        }
+        byte[] dictionary = CheckpointCompressor.train(samples).get();
+        assertTrue(dictionary.length <= CheckpointCompressor.MAX_DICTIONARY_BYTES);
+
+        byte[] raw = randomCheckpoint(header);
+        byte[] withDictionary = compressor.compress(raw, dictionary);
+        byte[] withoutDictionary = compressor.compress(raw, null);
+        // the random header is not compressible without a dictionary
+        assertTrue(withDictionary.length < withoutDictionary.length);
+        assertArrayEquals(raw, compressor.decompress(withDictionary, 0, withDictionary.length, raw.length, dictionary));
+
+        expectThrows(DataFormatException.class, () -> compressor.decompress(withDictionary, 0, withDictionary.length, raw.length, null));
+    }
+
+    public void testAddSample() {
+        byte[] header = randomHeader();
+        for (int i = 0; i < CheckpointCompressor.DICTIONARY_SAMPLE_SIZE - 1; i++) {
+            assertFalse(compressor.addSample(detectorId, randomCheckpoint(header)).isPresent());
+        }
+        Optional<byte[]> dictionary = compressor.addSample(detectorId, randomCheckpoint(header));
+        assertTrue(dictionary.isPresent());
+        // samples are cleared after training
+        assertFalse(compressor.addSample(detectorId, randomCheckpoint(header)).isPresent());
+    }
+
+    public void testTrainWithoutCommonSegments() {
+        byte[] sample1 = new byte[] { 1, 2, 3 };
+        byte[] sample2 = new byte[] { 4, 5, 6 };
+        assertFalse(CheckpointCompressor.train(Arrays.asList(sample1, sample2)).isPresent());
+    }
+
+    public void testDictionaryId() {
+        assertEquals(CheckpointCompressor.NO_DICTIONARY, CheckpointCompressor.getDictionaryId(null));
+        assertNotEquals(CheckpointCompressor.NO_DICTIONARY, CheckpointCompressor.getDictionaryId(new byte[] { 0 }));
+    }
+
+    public void testShouldLoadDictionary() {
+        assertTrue(compressor.shouldLoadDictionary(detectorId, 1000, 100));
+
+        compressor.recordDictionaryMiss(detectorId, 1000);
+        assertFalse(compressor.shouldLoadDictionary(detectorId, 1050, 100));
+        assertTrue(compressor.shouldLoadDictionary(detectorId, 1101, 100));
+
+        compressor.putDictionary(detectorId, new byte[] { 1 });
+        assertFalse(compressor.shouldLoadDictionary(detectorId, 1101, 100));
+
+        compressor.removeDictionary(detectorId);
+        assertNull(compressor.getDictionary(detectorId));
+        assertTrue(compressor.shouldLoadDictionary(detectorId, 1101, 100));
+    }
+}
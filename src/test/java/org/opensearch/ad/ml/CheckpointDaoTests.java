@@ -45,6 +45,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -57,6 +58,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 
@@ -73,6 +75,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opensearch.ResourceAlreadyExistsException;
+import org.opensearch.Version;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.DocWriteRequest;
@@ -97,8 +100,11 @@ import org.opensearch.action.update.UpdateResponse;
 import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.engine.VersionConflictEngineException;
 import org.opensearch.index.shard.ShardId;
@@ -145,6 +151,9 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
     @Mock
     private AnomalyDetectionIndices indexUtil;
 
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private ClusterService clusterService;
+
     private Schema<ThresholdedRandomCutForestState> trcfSchema;
 
     // configuration
@@ -225,10 +234,12 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             maxCheckpointBytes,
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
 
         when(indexUtil.doesCheckpointIndexExist()).thenReturn(true);
+        when(clusterService.state().nodes().getMinNodeVersion()).thenReturn(Version.CURRENT);
 
         modelId = "testModelId";
     }
@@ -689,7 +700,8 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             1, // make the max checkpoint size 1 byte only
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
 
         ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).build());
@@ -726,7 +738,8 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             1, // make the max checkpoint size 1 byte only
             mockSerializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
 
         ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).build());
@@ -751,7 +764,8 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             1, // make the max checkpoint size 1 byte only
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
 
         // make sure sample size is not 0 otherwise sample size won't be written to checkpoint
@@ -799,7 +813,8 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             maxCheckpointBytes,
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
     }
 
@@ -867,6 +882,254 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
         assertFalse(entityModel.getTrcf().isPresent());
     }
 
+    public void testFromBinaryCheckpoint() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(3).build());
+        Map<String, Object> source = checkpointDao.toIndexSource(state);
+        assertTrue(source.get(CheckpointDao.FIELD_MODELV3) instanceof byte[]);
+        assertFalse(source.containsKey(FIELD_MODELV2));
+        // mimic what we get from a GetResponse
+        source.put(CommonName.TIMESTAMP, Instant.now().toString());
+        source.remove(CommonName.ENTITY_KEY);
+
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(source, this.modelId);
+
+        assertTrue(result.isPresent());
+        EntityModel entityModel = result.get().getKey();
+        assertTrue(entityModel.getTrcf().isPresent());
+        assertEquals(3, entityModel.getSamples().size());
+        Queue<double[]> expectedSamples = state.getModel().getSamples();
+        Queue<double[]> actualSamples = entityModel.getSamples();
+        while (!expectedSamples.isEmpty()) {
+            assertArrayEquals(expectedSamples.poll(), actualSamples.poll(), 0.0d);
+        }
+    }
+
+    public void testToWriteRequest() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(3).build());
+        // a binary checkpoint replaces the whole document, including a json checkpoint of an earlier version
+        DocWriteRequest<?> binaryWrite = CheckpointDao.toWriteRequest(indexName, modelId, checkpointDao.toIndexSource(state));
+        assertTrue(binaryWrite instanceof IndexRequest);
+        assertEquals(modelId, binaryWrite.id());
+        assertEquals(XContentType.SMILE, ((IndexRequest) binaryWrite).getContentType());
+
+        when(clusterService.state().nodes().getMinNodeVersion()).thenReturn(Version.fromString("2.0.0"));
+        DocWriteRequest<?> jsonWrite = CheckpointDao.toWriteRequest(indexName, modelId, checkpointDao.toIndexSource(state));
+        assertTrue(jsonWrite instanceof UpdateRequest);
+        assertTrue(((UpdateRequest) jsonWrite).docAsUpsert());
+    }
+
+    public void testToJsonIndexSourceInMixedCluster() throws Exception {
+        // a node on an earlier version cannot read the binary checkpoint
+        when(clusterService.state().nodes().getMinNodeVersion()).thenReturn(Version.fromString("2.0.0"));
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(3).build());
+        Map<String, Object> source = checkpointDao.toIndexSource(state);
+        assertEquals(checkpointDao.toCheckpoint(state.getModel(), modelId).get(), source.get(FIELD_MODELV2));
+        assertTrue(source.containsKey(CheckpointDao.FIELD_MODELV3));
+        assertNull(source.get(CheckpointDao.FIELD_MODELV3));
+        source.put(CommonName.TIMESTAMP, Instant.now().toString());
+        source.remove(CommonName.ENTITY_KEY);
+
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(source, this.modelId);
+        assertTrue(result.isPresent());
+        assertEquals(3, result.get().getKey().getSamples().size());
+    }
+
+    public void testFromBase64BinaryCheckpoint() throws Exception {
+        // a binary checkpoint merged into a json document is stored as a Base64 string
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(1).build());
+        byte[] model = checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get();
+
+        Map<String, Object> entity = new HashMap<>();
+        entity.put(CheckpointDao.FIELD_MODELV3, Base64.getEncoder().encodeToString(model));
+        // stale json checkpoint should be ignored
+        entity.put(FIELD_MODELV2, "{}");
+        entity.put(CommonName.TIMESTAMP, Instant.now().toString());
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(entity, this.modelId);
+
+        assertTrue(result.isPresent());
+        EntityModel entityModel = result.get().getKey();
+        assertTrue(entityModel.getTrcf().isPresent());
+        assertEquals(1, entityModel.getSamples().size());
+    }
+
+    public void testFromBinaryCheckpointSamplesOnly() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(false).sampleSize(2).build());
+        byte[] model = checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get();
+
+        Map<String, Object> entity = new HashMap<>();
+        entity.put(CheckpointDao.FIELD_MODELV3, model);
+        entity.put(CommonName.TIMESTAMP, Instant.now().toString());
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(entity, this.modelId);
+
+        assertTrue(result.isPresent());
+        EntityModel entityModel = result.get().getKey();
+        assertFalse(entityModel.getTrcf().isPresent());
+        assertEquals(2, entityModel.getSamples().size());
+    }
+
+    public void testFromBinaryCheckpointUnknownVersion() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).build());
+        byte[] model = checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get();
+        model[0] = (byte) (CheckpointDao.BINARY_CHECKPOINT_VERSION + 1);
+
+        Map<String, Object> entity = new HashMap<>();
+        entity.put(CheckpointDao.FIELD_MODELV3, model);
+        entity.put(CommonName.TIMESTAMP, Instant.now().toString());
+        assertFalse(checkpointDao.fromEntityModelCheckpoint(entity, this.modelId).isPresent());
+    }
+
+    public void testEmptyBinaryCheckpoint() {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(false).sampleSize(0).build());
+        assertFalse(checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).isPresent());
+        assertFalse(checkpointDao.toBinaryCheckpoint(null, modelId).isPresent());
+    }
+
+    public void testSnapshotWhileScoring() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(1).build());
+        ThresholdedRandomCutForest trcf = state.getModel().getTrcf().get();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread scorer = new Thread(() -> {
+            Random rand = new Random(0);
+            while (false == done.get()) {
+                state.update(() -> trcf.process(new double[] { rand.nextDouble() }, 0));
+            }
+        });
+        scorer.start();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Optional<byte[]> checkpoint = checkpointDao.toBinaryCheckpoint(state);
+                assertTrue(checkpoint.isPresent());
+                Optional<EntityModel> restored = checkpointDao.fromBinaryCheckpoint(checkpoint.get(), null, modelId);
+                assertTrue(restored.isPresent());
+                assertTrue(restored.get().getTrcf().isPresent());
+            }
+        } finally {
+            done.set(true);
+            scorer.join();
+        }
+    }
+
+    public void testFromCompressedCheckpoint() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(2).build());
+        Map<String, Object> source = null;
+        try {
+            EnabledSetting.getInstance().setSettingValue(EnabledSetting.CHECKPOINT_COMPRESSION_ENABLED, true);
+            source = checkpointDao.toIndexSource(state);
+        } finally {
+            EnabledSetting.getInstance().setSettingValue(EnabledSetting.CHECKPOINT_COMPRESSION_ENABLED, false);
+        }
+        byte[] compressed = (byte[]) source.get(CheckpointDao.FIELD_MODELV3);
+        assertEquals(CheckpointDao.COMPRESSED_CHECKPOINT_VERSION, compressed[0]);
+        assertTrue(compressed.length < checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get().length);
+        source.put(CommonName.TIMESTAMP, Instant.now().toString());
+        source.remove(CommonName.ENTITY_KEY);
+
+        // compressed checkpoints are readable when compression is disabled
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(source, this.modelId);
+
+        assertTrue(result.isPresent());
+        EntityModel entityModel = result.get().getKey();
+        assertTrue(entityModel.getTrcf().isPresent());
+        assertEquals(2, entityModel.getSamples().size());
+    }
+
+    public void testFromCompressedCheckpointWithDictionary() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(1).build());
+        String detectorId = state.getDetectorId();
+        byte[] model = checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get();
+        byte[] dictionary = CheckpointCompressor.train(Arrays.asList(model, model)).get();
+        checkpointDao.getCompressor().putDictionary(detectorId, dictionary);
+
+        Map<String, Object> source = new HashMap<>();
+        source.put(CheckpointDao.DETECTOR_ID, detectorId);
+        source.put(CheckpointDao.FIELD_MODELV3, checkpointDao.compressCheckpoint(model, detectorId));
+        source.put(CommonName.TIMESTAMP, Instant.now().toString());
+
+        GetResponse response = mock(GetResponse.class);
+        when(response.isExists()).thenReturn(true);
+        when(response.getSource()).thenReturn(source);
+
+        Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(source, this.modelId);
+        assertTrue(result.isPresent());
+        assertTrue(result.get().getKey().getTrcf().isPresent());
+        assertFalse(checkpointDao.isMissingDictionary(response));
+
+        // cannot decompress without the dictionary
+        checkpointDao.getCompressor().removeDictionary(detectorId);
+        assertFalse(checkpointDao.fromEntityModelCheckpoint(source, this.modelId).isPresent());
+        assertTrue(checkpointDao.isMissingDictionary(response));
+        assertTrue(checkpointDao.shouldLoadDictionary(detectorId));
+
+        // a stale dictionary is dropped so that it is looked up again
+        checkpointDao.getCompressor().putDictionary(detectorId, new byte[] { 1, 2, 3 });
+        assertFalse(checkpointDao.fromEntityModelCheckpoint(source, this.modelId).isPresent());
+        assertTrue(checkpointDao.isMissingDictionary(response));
+        assertTrue(checkpointDao.shouldLoadDictionary(detectorId));
+
+        // a dictionary confirmed missing is not looked up again
+        checkpointDao.getCompressor().recordDictionaryMiss(detectorId, Instant.now().toEpochMilli());
+        assertFalse(checkpointDao.fromEntityModelCheckpoint(source, this.modelId).isPresent());
+        assertTrue(checkpointDao.isMissingDictionary(response));
+        assertFalse(checkpointDao.shouldLoadDictionary(detectorId));
+    }
+
+    public void testProcessDictionaryResponse() {
+        String detectorId = "123";
+        byte[] dictionary = new byte[] { 1, 2, 3 };
+        Map<String, Object> source = new HashMap<>();
+        source.put(CheckpointDao.DETECTOR_ID, detectorId);
+        source.put(CheckpointDao.FIELD_DICTIONARY, Base64.getEncoder().encodeToString(dictionary));
+        GetResponse response = mock(GetResponse.class);
+        when(response.getId()).thenReturn(CheckpointDao.getDictionaryDocId(detectorId));
+        when(response.isExists()).thenReturn(true);
+        when(response.getSource()).thenReturn(source);
+
+        assertTrue(CheckpointDao.isDictionaryDocId(response.getId()));
+        assertTrue(checkpointDao.shouldLoadDictionary(detectorId));
+        checkpointDao.processDictionaryResponse(response);
+        assertArrayEquals(dictionary, checkpointDao.getCompressor().getDictionary(detectorId));
+        assertFalse(checkpointDao.shouldLoadDictionary(detectorId));
+    }
+
+    public void testProcessMissingDictionaryResponse() {
+        String detectorId = "123";
+        GetResponse response = mock(GetResponse.class);
+        when(response.getId()).thenReturn(CheckpointDao.getDictionaryDocId(detectorId));
+        when(response.isExists()).thenReturn(false);
+
+        checkpointDao.processDictionaryResponse(response);
+        assertNull(checkpointDao.getCompressor().getDictionary(detectorId));
+        // don't look up again until the miss expires
+        assertFalse(checkpointDao.shouldLoadDictionary(detectorId));
+    }
+
+    public void testTooLargeCheckpointIsNotMissingDictionary() throws Exception {
+        ModelState<EntityModel> state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).sampleSize(1).build());
+        Map<String, Object> source = new HashMap<>();
+        source.put(CheckpointDao.DETECTOR_ID, state.getDetectorId());
+        source.put(CheckpointDao.FIELD_MODELV3, checkpointDao.toBinaryCheckpoint(state.getModel(), modelId).get());
+        GetResponse response = mock(GetResponse.class);
+        when(response.isExists()).thenReturn(true);
+        when(response.getSource()).thenReturn(source);
+        assertFalse(checkpointDao.isMissingDictionary(response));
+
+        when(response.isExists()).thenReturn(false);
+        assertFalse(checkpointDao.isMissingDictionary(response));
+    }
+
+    public void testGetCheckpointTime() {
+        Instant checkpointTime = Instant.ofEpochSecond(1_600_000_000L);
+        Map<String, Object> source = new HashMap<>();
+        source.put(CommonName.TIMESTAMP, checkpointTime.toString());
+        GetResponse response = mock(GetResponse.class);
+        when(response.isExists()).thenReturn(true);
+        when(response.getSource()).thenReturn(source);
+        assertEquals(Optional.of(checkpointTime), checkpointDao.getCheckpointTime(response));
+
+        when(response.isExists()).thenReturn(false);
+        assertEquals(Optional.empty(), checkpointDao.getCheckpointTime(response));
+    }
+
     private Pair<Map<String, Object>, Instant> setUp1_0Model(String checkpointFileName) throws FileNotFoundException,
         IOException,
         URISyntaxException {
@@ -938,7 +1201,8 @@ public class CheckpointDaoTests extends OpenSearchTestCase {
             100_000, // checkpoint_2.json is of 224603 bytes.
             serializeRCFBufferPool,
             AnomalyDetectorSettings.SERIALIZATION_BUFFER_BYTES,
-            anomalyRate
+            anomalyRate,
+            clusterService
         );
         Optional<Entry<EntityModel, Instant>> result = checkpointDao.fromEntityModelCheckpoint(modelPair.getLeft(), this.modelId);
         // checkpoint is only configured to take in 1 MB checkpoint at most. But the checkpoint here is of 1408047 bytes.
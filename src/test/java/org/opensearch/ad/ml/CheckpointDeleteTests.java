@@ -32,6 +32,7 @@ import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryAction;
@@ -111,7 +112,8 @@ public class CheckpointDeleteTests extends AbstractADTest {
             maxCheckpointBytes,
             objectPool,
             deserializeRCFBufferSize,
-            anomalyRate
+            anomalyRate,
+            mock(ClusterService.class)
         );
     }
 
@@ -26,9 +26,11 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Queue;
@@ -48,6 +50,7 @@ import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.ModelManager.ModelType;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.settings.EnabledSetting;
@@ -175,6 +178,55 @@ public class EntityColdStarterTests extends AbstractCosineDataTest {
         diffTesting(modelState, expectedColdStartData);
     }
 
+    public void testBatchColdStart() throws InterruptedException {
+        EntityModel model = new EntityModel(entity, MLUtil.createQueueSamples(1), null);
+        modelState = new ModelState<>(model, modelId, detectorId, ModelType.ENTITY.getName(), clock, priority);
+        Entity entity2 = Entity.createSingleAttributeEntity("field", "def");
+        EntityModel model2 = new EntityModel(entity2, new ArrayDeque<>(), null);
+        ModelState<EntityModel> modelState2 = new ModelState<>(
+            model2,
+            entity2.getModelId(detectorId).get(),
+            detectorId,
+            ModelType.ENTITY.getName(),
+            clock,
+            priority
+        );
+
+        doAnswer(invocation -> {
+            ActionListener<Map<Entity, Long>> listener = invocation.getArgument(2);
+            // entity2 has no data
+            listener.onResponse(Collections.singletonMap(entity, 1602269260000L));
+            return null;
+        }).when(searchFeatureDao).getEntityMinDataTimes(any(), any(), any());
+
+        // there are 36 ranges between the min time and now. Only the latest 3 have data.
+        List<Optional<double[]>> coldStartSamples = new ArrayList<>(Collections.nCopies(33, Optional.empty()));
+        coldStartSamples.add(Optional.of(new double[] { 57.0 }));
+        coldStartSamples.add(Optional.of(new double[] { 1.0 }));
+        coldStartSamples.add(Optional.of(new double[] { -19.0 }));
+        doAnswer(invocation -> {
+            List<Entity> entities = invocation.getArgument(2);
+            assertEquals(Collections.singletonList(entity), entities);
+            ActionListener<Map<Entity, List<Optional<double[]>>>> listener = invocation.getArgument(4);
+            listener.onResponse(Collections.singletonMap(entity, coldStartSamples));
+            return null;
+        }).when(searchFeatureDao).getBatchColdStartSamplesForPeriods(any(), any(), any(), anyBoolean(), any());
+
+        entityColdStarter.trainModels(detectorId, Arrays.asList(modelState, modelState2), listener);
+        checkSemaphoreRelease();
+
+        assertTrue(model.getTrcf().isPresent());
+        // same as testColdStart: stride * (samples - 1) + 1 = 60 * 2 + 1 = 121
+        assertEquals(121, model.getTrcf().get().getForest().getTotalUpdates());
+        assertFalse(model2.getTrcf().isPresent());
+
+        // one search for all entities instead of one per entity
+        verify(searchFeatureDao, times(1)).getEntityMinDataTimes(any(), any(), any());
+        verify(searchFeatureDao, times(1)).getBatchColdStartSamplesForPeriods(any(), any(), any(), anyBoolean(), any());
+        verify(searchFeatureDao, never()).getEntityMinDataTime(any(), any(), any());
+        verify(searchFeatureDao, never()).getColdStartSamplesForPeriods(any(), any(), any(), anyBoolean(), any());
+    }
+
     // min max: miss one
     public void testMissMin() throws IOException, InterruptedException {
         Queue<double[]> samples = MLUtil.createQueueSamples(1);
@@ -41,6 +41,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -257,6 +258,7 @@ public class ModelManagerTests {
         thresholdModelId = "detectorId_model_threshold";
 
         when(this.modelState.getModel()).thenReturn(this.entityModel);
+        when(this.modelState.update(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
         when(this.entityModel.getTrcf()).thenReturn(Optional.of(this.trcf));
 
         when(anomalyDetector.getShingleSize()).thenReturn(shingleSize);
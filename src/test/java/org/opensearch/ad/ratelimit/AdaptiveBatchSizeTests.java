@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ratelimit;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class AdaptiveBatchSizeTests extends OpenSearchTestCase {
+
+    public void testGrowWhenFastAndFull() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(20, 10, 200, 1000);
+        assertEquals(20, batchSize.get());
+        batchSize.onResponse(20, 100);
+        assertEquals(22, batchSize.get());
+        // not full
+        batchSize.onResponse(5, 100);
+        assertEquals(22, batchSize.get());
+        for (int i = 0; i < 100; i++) {
+            batchSize.onResponse(batchSize.get(), 100);
+        }
+        // at most 200% of the configured size
+        assertEquals(40, batchSize.get());
+    }
+
+    public void testShrinkWhenSlowOrOverloaded() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(20, 10, 200, 1000);
+        batchSize.onResponse(20, 1001);
+        assertEquals(10, batchSize.get());
+        batchSize.onOverload();
+        assertEquals(5, batchSize.get());
+        batchSize.onOverload();
+        batchSize.onOverload();
+        // at least 10% of the configured size
+        assertEquals(2, batchSize.get());
+        batchSize.onResponse(2, 100);
+        assertEquals(4, batchSize.get());
+    }
+
+    public void testSettingUpdates() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(20, 10, 200, 1000);
+        batchSize.onResponse(20, 100);
+        batchSize.setConfiguredSize(30);
+        assertEquals(30, batchSize.get());
+
+        batchSize.setMaxPercent(100);
+        batchSize.onResponse(30, 100);
+        assertEquals(30, batchSize.get());
+
+        batchSize.setMinPercent(100);
+        batchSize.onOverload();
+        assertEquals(30, batchSize.get());
+
+        batchSize.setMinPercent(10);
+        batchSize.setTargetLatencyMillis(50);
+        batchSize.onResponse(30, 100);
+        assertEquals(15, batchSize.get());
+    }
+
+    public void testSmallestBatchSize() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1, 10, 400, 1000);
+        batchSize.onOverload();
+        assertEquals(1, batchSize.get());
+        batchSize.onResponse(1, 100);
+        assertEquals(2, batchSize.get());
+    }
+}
@@ -115,7 +115,8 @@ public class CheckPointMaintainRequestAdapterTests extends AbstractRateLimitingT
         when(checkpointDao.toIndexSource(any())).thenReturn(content);
         Optional<CheckpointWriteRequest> converted = adapter.convert(request);
         assertTrue(!converted.isEmpty());
-        UpdateRequest updateRequest = converted.get().getUpdateRequest();
+        // a json checkpoint updates its fields only
+        UpdateRequest updateRequest = (UpdateRequest) converted.get().getWriteRequest();
         UpdateRequest expectedRequest = new UpdateRequest(indexName, entity.getModelId(detectorId).get()).docAsUpsert(true).doc(content);
         assertEquals(updateRequest.docAsUpsert(), expectedRequest.docAsUpsert());
         assertEquals(updateRequest.detectNoop(), expectedRequest.detectNoop());
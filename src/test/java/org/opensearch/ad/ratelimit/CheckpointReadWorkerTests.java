@@ -27,6 +27,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -45,6 +46,7 @@ import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.get.GetResponse;
 import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
 import org.opensearch.action.get.MultiGetResponse;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.TestHelpers;
@@ -73,6 +75,7 @@ import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.get.GetResult;
 import org.opensearch.index.seqno.SequenceNumbers;
 import org.opensearch.rest.RestStatus;
+import org.opensearch.search.fetch.subphase.FetchSourceContext;
 import org.opensearch.threadpool.ThreadPoolStats;
 import org.opensearch.threadpool.ThreadPoolStats.Stats;
 import org.opensearch.timeseries.stats.StatNames;
@@ -114,7 +117,11 @@ public class CheckpointReadWorkerTests extends AbstractRateLimitingTest {
                             .asList(
                                 AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_MAX_HEAP_PERCENT,
                                 AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_CONCURRENCY,
-                                AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_BATCH_SIZE
+                                AnomalyDetectorSettings.CHECKPOINT_READ_QUEUE_BATCH_SIZE,
+                                AnomalyDetectorSettings.BATCH_TARGET_LATENCY,
+                                AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT,
+                                AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT,
+                                AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR
                             )
                     )
                 )
@@ -264,6 +271,119 @@ public class CheckpointReadWorkerTests extends AbstractRateLimitingTest {
         verify(checkpointWriteQueue, never()).write(any(), anyBoolean(), any());
     }
 
+    public void testRetryMissingDictionary() {
+        Map.Entry<EntityModel, Instant> entry = new SimpleImmutableEntry<EntityModel, Instant>(state.getModel(), Instant.now());
+        when(checkpoint.processGetResponse(any(), anyString())).thenReturn(Optional.empty(), Optional.of(entry));
+        when(checkpoint.isMissingDictionary(any())).thenReturn(true);
+        when(checkpoint.shouldLoadDictionary(detectorId)).thenReturn(true);
+        regularTestSetUp(new RegularSetUpConfig.Builder().build());
+
+        // the checkpoint is read again together with the dictionary
+        verify(checkpoint, times(2)).batchRead(any(), any());
+        verify(resultWriteQueue, times(1)).put(any());
+        verify(coldstartQueue, never()).put(any());
+    }
+
+    public void testColdStartWithoutDictionary() {
+        when(checkpoint.processGetResponse(any(), anyString())).thenReturn(Optional.empty());
+        when(checkpoint.isMissingDictionary(any())).thenReturn(true);
+        when(checkpoint.shouldLoadDictionary(detectorId)).thenReturn(false);
+        regularTestSetUp(new RegularSetUpConfig.Builder().build());
+
+        verify(checkpoint, times(1)).batchRead(any(), any());
+        verify(resultWriteQueue, never()).put(any());
+        verify(coldstartQueue, times(1)).put(any());
+    }
+
+    public void testDropTooLargeCheckpoint() {
+        when(checkpoint.processGetResponse(any(), anyString())).thenReturn(Optional.empty());
+        regularTestSetUp(new RegularSetUpConfig.Builder().build());
+
+        verify(checkpoint, times(1)).batchRead(any(), any());
+        verify(resultWriteQueue, never()).put(any());
+        verify(coldstartQueue, never()).put(any());
+    }
+
+    private List<FetchSourceContext> offHeapTestSetUp(boolean boundedPlacement, boolean checkpointExists, Instant offHeapCheckpointTime) {
+        if (boundedPlacement) {
+            clusterSettings.applySettings(Settings.builder().put(AnomalyDetectorSettings.PLACEMENT_CAPACITY_FACTOR.getKey(), 1.25).build());
+        }
+        String modelId = entity.getModelId(detectorId).get();
+        List<FetchSourceContext> fetchSourceContexts = new ArrayList<>();
+        doAnswer(invocation -> {
+            MultiGetRequest multiGet = invocation.getArgument(0);
+            fetchSourceContexts.add(multiGet.getItems().get(0).fetchSourceContext());
+            MultiGetItemResponse[] items = new MultiGetItemResponse[1];
+            items[0] = new MultiGetItemResponse(
+                new GetResponse(new GetResult(ADCommonName.CHECKPOINT_INDEX_NAME, modelId, 1, 1, 0, checkpointExists, null, null, null)),
+                null
+            );
+            ActionListener<MultiGetResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new MultiGetResponse(items));
+            return null;
+        }).when(checkpoint).batchRead(any(), any());
+        when(checkpoint.getCheckpointTime(any())).thenReturn(Optional.of(Instant.ofEpochMilli(1000)));
+
+        // the copy is removed once taken
+        when(entityCache.hasOffHeapModel(modelId)).thenReturn(true, false);
+        EntityModel offHeapModel = new EntityModel(entity, new ArrayDeque<>(), null);
+        when(entityCache.takeOffHeapModel(modelId))
+            .thenReturn(Optional.of(new SimpleImmutableEntry<>(offHeapModel, offHeapCheckpointTime)));
+
+        state = MLUtil.randomModelState(new RandomModelStateConfig.Builder().fullModel(true).build());
+        when(modelManager.processEntityCheckpoint(any(), any(), anyString(), anyString(), anyInt())).thenReturn(state);
+        when(modelManager.getAnomalyResultForEntity(any(), any(), anyString(), any(), anyInt()))
+            .thenReturn(new ThresholdingResult(0, 1, 1));
+
+        worker.put(request);
+        return fetchSourceContexts;
+    }
+
+    public void testRestoreOffHeapModel() {
+        List<FetchSourceContext> fetchSourceContexts = offHeapTestSetUp(false, true, Instant.ofEpochMilli(1000));
+
+        // the copy is restored without reading the checkpoint index
+        assertTrue(fetchSourceContexts.isEmpty());
+        verify(checkpoint, never()).batchRead(any(), any());
+        verify(entityCache, times(1)).takeOffHeapModel(entity.getModelId(detectorId).get());
+        verify(resultWriteQueue, times(1)).put(any());
+        verify(entityCache, times(1)).hostIfPossible(any(), any());
+        verify(coldstartQueue, never()).put(any());
+    }
+
+    public void testRestoreOffHeapModelWithBoundedPlacement() {
+        List<FetchSourceContext> fetchSourceContexts = offHeapTestSetUp(true, true, Instant.ofEpochMilli(1000));
+
+        // only the checkpoint time is read
+        assertEquals(Collections.singletonList(CheckpointReadWorker.CHECKPOINT_TIME_ONLY), fetchSourceContexts);
+        verify(entityCache, times(1)).takeOffHeapModel(entity.getModelId(detectorId).get());
+        verify(checkpoint, never()).processGetResponse(any(), anyString());
+        verify(resultWriteQueue, times(1)).put(any());
+        verify(entityCache, times(1)).hostIfPossible(any(), any());
+        verify(coldstartQueue, never()).put(any());
+    }
+
+    public void testRestoreOffHeapModelWithoutCheckpoint() {
+        offHeapTestSetUp(true, false, Instant.MIN);
+
+        verify(checkpoint, never()).getCheckpointTime(any());
+        verify(resultWriteQueue, times(1)).put(any());
+        verify(coldstartQueue, never()).put(any());
+    }
+
+    public void testDropStaleOffHeapModel() {
+        // another node saved a checkpoint after the copy was kept off heap as bounded-load placement moved the entity
+        List<FetchSourceContext> fetchSourceContexts = offHeapTestSetUp(true, true, Instant.ofEpochMilli(999));
+
+        verify(entityCache, times(1)).takeOffHeapModel(entity.getModelId(detectorId).get());
+        // the request is retried with the checkpoint read in full
+        assertEquals(2, fetchSourceContexts.size());
+        assertNull(fetchSourceContexts.get(1));
+        verify(checkpoint, times(1)).processGetResponse(any(), anyString());
+        verify(resultWriteQueue, never()).put(any());
+        verify(entityCache, never()).hostIfPossible(any(), any());
+    }
+
     public void testIndexNotFound() {
         doAnswer(invocation -> {
             MultiGetItemResponse[] items = new MultiGetItemResponse[1];
@@ -814,4 +934,33 @@ public class CheckpointReadWorkerTests extends AbstractRateLimitingTest {
         Object val = adStats.getStat(StatNames.MODEL_CORRUTPION_COUNT.getName()).getValue();
         assertEquals(1L, ((Long) val).longValue());
     }
+
+    public void testDeficitRoundRobin() {
+        String detectorId2 = "456";
+        // 40 entities of the large detector are queued before one of the small detector
+        for (int i = 0; i < 40; i++) {
+            Entity largeEntity = Entity.createSingleAttributeEntity(categoryField, "value" + i);
+            worker
+                .putOnly(new EntityFeatureRequest(Integer.MAX_VALUE, detectorId, RequestPriority.MEDIUM, largeEntity, new double[] { 0 }, 0));
+        }
+        worker.putOnly(new EntityFeatureRequest(Integer.MAX_VALUE, detectorId2, RequestPriority.MEDIUM, entity, new double[] { 0 }, 0));
+
+        List<EntityFeatureRequest> served = new ArrayList<>();
+        List<EntityFeatureRequest> batch = worker.getRequests(10);
+        while (false == batch.isEmpty()) {
+            assertTrue(batch.size() <= 10);
+            served.addAll(batch);
+            batch = worker.getRequests(10);
+        }
+        assertEquals(41, served.size());
+        // the large detector's turn ends after MAX_REQUEST_QUEUE_QUANTUM requests
+        assertEquals(detectorId2, served.get(AnomalyDetectorSettings.MAX_REQUEST_QUEUE_QUANTUM).getDetectorId());
+        assertTrue(worker.isQueueEmpty());
+
+        Map<String, Map<String, Object>> stats = worker.getQueueServiceStats();
+        assertEquals(40L, stats.get(detectorId).get("served"));
+        assertEquals(2L, stats.get(detectorId).get("turns"));
+        assertEquals(1L, stats.get(detectorId2).get("served"));
+        assertEquals(1, stats.get(detectorId2).get("quantum"));
+    }
 }
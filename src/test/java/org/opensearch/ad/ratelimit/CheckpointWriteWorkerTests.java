@@ -39,11 +39,13 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkItemResponse.Failure;
+import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
 import org.opensearch.action.index.IndexResponse;
 import org.opensearch.ad.AnomalyDetectorPlugin;
@@ -90,7 +92,10 @@ public class CheckpointWriteWorkerTests extends AbstractRateLimitingTest {
                             .asList(
                                 AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_MAX_HEAP_PERCENT,
                                 AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_CONCURRENCY,
-                                AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_BATCH_SIZE
+                                AnomalyDetectorSettings.CHECKPOINT_WRITE_QUEUE_BATCH_SIZE,
+                                AnomalyDetectorSettings.BATCH_TARGET_LATENCY,
+                                AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT,
+                                AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT
                             )
                     )
                 )
@@ -429,4 +434,44 @@ public class CheckpointWriteWorkerTests extends AbstractRateLimitingTest {
         worker.write(state, true, RequestPriority.MEDIUM);
         verify(checkpoint, never()).batchWrite(any(), any());
     }
+
+    public void testSerializeOnSending() throws IOException {
+        doAnswer(invocation -> {
+            ActionListener<BulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+            return null;
+        }).when(checkpoint).batchWrite(any(), any());
+
+        // requests stay in the queue
+        worker.setCoolDownStart();
+        worker.write(state, true, RequestPriority.MEDIUM);
+        worker.write(state, true, RequestPriority.MEDIUM);
+        verify(checkpoint, never()).toIndexSource(any());
+
+        ModelState<EntityModel> state2 = MLUtil.randomModelState(new RandomModelStateConfig.Builder().build());
+        List<ModelState<EntityModel>> states = new ArrayList<>();
+        states.add(state);
+        states.add(state2);
+        worker.writeAll(states, detectorId, true, RequestPriority.MEDIUM);
+        verify(checkpoint, never()).toIndexSource(any());
+
+        ArgumentCaptor<BulkRequest> bulkCaptor = ArgumentCaptor.forClass(BulkRequest.class);
+        worker.cooldownStart = Instant.MIN;
+        worker.process();
+
+        // pending writes of the same model coalesce into one
+        verify(checkpoint, times(1)).toIndexSource(state);
+        verify(checkpoint, times(1)).toIndexSource(state2);
+        verify(checkpoint, times(1)).batchWrite(bulkCaptor.capture(), any());
+        assertEquals(2, bulkCaptor.getValue().numberOfActions());
+        assertTrue(worker.isQueueEmpty());
+    }
+
+    public void testSnapshot() throws IOException {
+        worker.setCoolDownStart();
+        worker.writeSnapshot(state, true, RequestPriority.MEDIUM);
+        // serialized before the model is cleared
+        verify(checkpoint, times(1)).toIndexSource(state);
+        verify(checkpoint, never()).batchWrite(any(), any());
+    }
 }
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.when;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
@@ -31,6 +32,7 @@ import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelState;
@@ -61,7 +63,8 @@ public class EntityColdStartWorkerTests extends AbstractRateLimitingTest {
                         Arrays
                             .asList(
                                 AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_MAX_HEAP_PERCENT,
-                                AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_CONCURRENCY
+                                AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_CONCURRENCY,
+                                AnomalyDetectorSettings.ENTITY_COLD_START_QUEUE_BATCH_SIZE
                             )
                     )
                 )
@@ -162,4 +165,31 @@ public class EntityColdStartWorkerTests extends AbstractRateLimitingTest {
 
         verify(cacheProvider, times(1)).get();
     }
+
+    @SuppressWarnings("unchecked")
+    public void testBatchOfSameDetector() {
+        EntityRequest request = new EntityRequest(Integer.MAX_VALUE, detectorId, RequestPriority.MEDIUM, entity);
+        EntityRequest request2 = new EntityRequest(Integer.MAX_VALUE, detectorId, RequestPriority.MEDIUM, entity2);
+
+        EntityCache entityCache = mock(EntityCache.class);
+        when(cacheProvider.get()).thenReturn(entityCache);
+
+        doAnswer(invocation -> {
+            List<ModelState<EntityModel>> states = invocation.getArgument(1);
+            assertEquals(2, states.size());
+            for (ModelState<EntityModel> state : states) {
+                state.setModel(MLUtil.createNonEmptyModel(detectorId));
+            }
+            ActionListener<Void> listener = invocation.getArgument(2);
+            listener.onResponse(null);
+
+            return null;
+        }).when(entityColdStarter).trainModels(anyString(), any(List.class), any());
+
+        worker.putAll(Arrays.asList(request, request2));
+
+        verify(entityColdStarter, times(1)).trainModels(anyString(), any(List.class), any());
+        verify(entityColdStarter, never()).trainModel(any(), anyString(), any(), any());
+        verify(entityCache, times(2)).hostIfPossible(any(), any());
+    }
 }
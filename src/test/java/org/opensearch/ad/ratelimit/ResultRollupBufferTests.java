@@ -0,0 +1,191 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.ratelimit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.mockito.ArgumentCaptor;
+import org.opensearch.ad.TestHelpers;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.DataByFeatureId;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.model.FeatureData;
+import org.opensearch.ad.model.ResultRollup;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class ResultRollupBufferTests extends OpenSearchTestCase {
+    private static final String DETECTOR_ID = "123";
+    private static final long INTERVAL = 600_000L;
+    private static final long DETECTOR_INTERVAL = 60_000L;
+
+    private Clock clock;
+    private ClusterSettings clusterSettings;
+    private ResultWriteWorker resultWriteQueue;
+    private ResultRollupBuffer buffer;
+    private AnomalyDetector detector;
+    private Entity entity1;
+    private Entity entity2;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(10 * INTERVAL);
+        ClusterService clusterService = mock(ClusterService.class);
+        clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.RESULT_ROLLUP_INTERVAL)))
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+        Settings settings = Settings.builder().put(AnomalyDetectorSettings.RESULT_ROLLUP_INTERVAL.getKey(), INTERVAL + "ms").build();
+        resultWriteQueue = mock(ResultWriteWorker.class);
+        buffer = new ResultRollupBuffer(clock, clusterService, settings, resultWriteQueue);
+
+        detector = mock(AnomalyDetector.class);
+        when(detector.getDetectorIntervalInMilliseconds()).thenReturn(DETECTOR_INTERVAL);
+        when(detector.getResultIndex()).thenReturn(null);
+
+        entity1 = Entity.createSingleAttributeEntity("host", "server_1");
+        entity2 = Entity.createSingleAttributeEntity("host", "server_2");
+    }
+
+    private AnomalyResult result(Entity entity, double score, double grade, long dataEndTime, double feature) {
+        return new AnomalyResult(
+            DETECTOR_ID,
+            null,
+            score,
+            grade,
+            0.9,
+            Arrays.asList(new FeatureData("f1", "feature1", feature)),
+            Instant.ofEpochMilli(dataEndTime - DETECTOR_INTERVAL),
+            Instant.ofEpochMilli(dataEndTime),
+            Instant.ofEpochMilli(dataEndTime),
+            Instant.ofEpochMilli(dataEndTime + 1),
+            null,
+            entity,
+            null,
+            1,
+            entity.getModelId(DETECTOR_ID).get(),
+            null,
+            null,
+            null,
+            null,
+            1.0
+        );
+    }
+
+    private AnomalyResult writtenResult() {
+        ArgumentCaptor<ResultWriteRequest> captor = ArgumentCaptor.forClass(ResultWriteRequest.class);
+        verify(resultWriteQueue, times(1)).put(captor.capture());
+        return captor.getValue().getResult();
+    }
+
+    public void testRollUpUntilNextWindow() {
+        assertTrue(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        assertTrue(buffer.add(result(entity1, 1.5, 0, 10 * INTERVAL + 2, 1), detector));
+        assertTrue(buffer.add(result(entity1, 1.0, 0, 10 * INTERVAL + 3, 2), detector));
+        assertEquals(1, buffer.size());
+        verify(resultWriteQueue, never()).put(any());
+
+        // the next window writes the rollup of the previous window
+        assertTrue(buffer.add(result(entity1, 1.0, 0, 11 * INTERVAL, 2), detector));
+        AnomalyResult rollupResult = writtenResult();
+        assertEquals(1.0, rollupResult.getAnomalyScore(), 1e-9);
+        assertEquals(0, rollupResult.getAnomalyGrade(), 1e-9);
+        assertEquals(Instant.ofEpochMilli(10 * INTERVAL + 1 - DETECTOR_INTERVAL), rollupResult.getDataStartTime());
+        assertEquals(Instant.ofEpochMilli(10 * INTERVAL + 3), rollupResult.getDataEndTime());
+        assertEquals(entity1, rollupResult.getEntity());
+        assertTrue(rollupResult.isHighPriority());
+
+        ResultRollup rollup = rollupResult.getRollup();
+        assertEquals(3, rollup.getCount());
+        assertEquals(0.5, rollup.getMinScore(), 1e-9);
+        assertEquals(1.5, rollup.getMaxScore(), 1e-9);
+        assertEquals(Arrays.asList(new DataByFeatureId("f1", 1.0)), rollup.getFeatureMin());
+        assertEquals(Arrays.asList(new DataByFeatureId("f1", 3.0)), rollup.getFeatureMax());
+    }
+
+    public void testAnomaliesAreNotBuffered() {
+        assertFalse(buffer.add(result(entity1, 2.0, 0.5, 10 * INTERVAL + 1, 3), detector));
+        assertEquals(0, buffer.size());
+    }
+
+    public void testDisabled() {
+        assertTrue(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        clusterSettings.applySettings(Settings.builder().put(AnomalyDetectorSettings.RESULT_ROLLUP_INTERVAL.getKey(), "0ms").build());
+        // buffered results are written once disabled
+        writtenResult();
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 2, 3), detector));
+    }
+
+    public void testMaintenanceWritesEndedWindows() {
+        assertTrue(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        buffer.maintenance();
+        assertEquals(1, buffer.size());
+
+        when(clock.millis()).thenReturn(11 * INTERVAL + DETECTOR_INTERVAL);
+        buffer.maintenance();
+        assertEquals(0, buffer.size());
+        assertEquals(1, writtenResult().getRollup().getCount());
+    }
+
+    public void testClearWritesDetectorRollups() {
+        assertTrue(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        assertTrue(buffer.add(result(entity2, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        assertEquals(2, buffer.size());
+        buffer.clear("456");
+        assertEquals(2, buffer.size());
+
+        buffer.clear(DETECTOR_ID);
+        assertEquals(0, buffer.size());
+        verify(resultWriteQueue, times(2)).put(any());
+    }
+
+    public void testSerializeRollupResult() throws IOException {
+        assertTrue(buffer.add(result(entity1, 0.5, 0, 10 * INTERVAL + 1, 3), detector));
+        assertTrue(buffer.add(result(entity1, 1.5, 0, 10 * INTERVAL + 2, 1), detector));
+        buffer.clear(DETECTOR_ID);
+        AnomalyResult rollupResult = writtenResult();
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        rollupResult.writeTo(output);
+        assertEquals(rollupResult, new AnomalyResult(output.bytes().streamInput()));
+
+        String resultString = TestHelpers.xContentBuilderToString(rollupResult.toXContent(TestHelpers.builder(), ToXContent.EMPTY_PARAMS));
+        assertEquals(rollupResult.getRollup(), AnomalyResult.parse(TestHelpers.parser(resultString)).getRollup());
+    }
+
+    public void testWindow() {
+        assertEquals(INTERVAL, ResultRollupBuffer.getWindow(INTERVAL, INTERVAL));
+        assertEquals(INTERVAL, ResultRollupBuffer.getWindow(2 * INTERVAL - 1, INTERVAL));
+    }
+}
@@ -35,6 +35,7 @@ import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.ad.TestHelpers;
+import org.opensearch.ad.TopAnomalySummary;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.constant.ADCommonName;
 import org.opensearch.ad.model.AnomalyResult;
@@ -71,7 +72,10 @@ public class ResultWriteWorkerTests extends AbstractRateLimitingTest {
                             .asList(
                                 AnomalyDetectorSettings.RESULT_WRITE_QUEUE_MAX_HEAP_PERCENT,
                                 AnomalyDetectorSettings.RESULT_WRITE_QUEUE_CONCURRENCY,
-                                AnomalyDetectorSettings.RESULT_WRITE_QUEUE_BATCH_SIZE
+                                AnomalyDetectorSettings.RESULT_WRITE_QUEUE_BATCH_SIZE,
+                                AnomalyDetectorSettings.BATCH_TARGET_LATENCY,
+                                AnomalyDetectorSettings.MIN_BATCH_SIZE_PERCENT,
+                                AnomalyDetectorSettings.MAX_BATCH_SIZE_PERCENT
                             )
                     )
                 )
@@ -101,7 +105,8 @@ public class ResultWriteWorkerTests extends AbstractRateLimitingTest {
             resultHandler,
             xContentRegistry(),
             nodeStateManager,
-            AnomalyDetectorSettings.HOURLY_MAINTENANCE
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            mock(TopAnomalySummary.class)
         );
 
         detectResult = TestHelpers.randomHCADAnomalyDetectResult(0.8, Double.NaN, null);
@@ -205,4 +210,28 @@ public class ResultWriteWorkerTests extends AbstractRateLimitingTest {
         verify(resultHandler, times(1)).flush(any(), any());
         verify(nodeStateManager, times(1)).setException(eq(detectorId), any(OpenSearchRejectedExecutionException.class));
     }
+
+    public void testShrinkBatchSize() {
+        int batchSize = AnomalyDetectorSettings.RESULT_WRITE_QUEUE_BATCH_SIZE.getDefault(Settings.EMPTY);
+        assertEquals(batchSize, resultWriteQueue.getBatchSize());
+
+        doAnswer(invocation -> {
+            ActionListener<ADResultBulkResponse> listener = invocation.getArgument(1);
+            listener.onFailure(new OpenSearchRejectedExecutionException("blah", true));
+            return null;
+        }).when(resultHandler).flush(any(), any());
+        resultWriteQueue.put(new ResultWriteRequest(Long.MAX_VALUE, detectorId, RequestPriority.MEDIUM, detectResult, null));
+        assertEquals(batchSize / 2, resultWriteQueue.getBatchSize());
+
+        // rejected index requests to retry
+        List<IndexRequest> retryRequests = new ArrayList<>();
+        retryRequests.add(new IndexRequest(ADCommonName.ANOMALY_RESULT_INDEX_ALIAS));
+        doAnswer(invocation -> {
+            ActionListener<ADResultBulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new ADResultBulkResponse(retryRequests));
+            return null;
+        }).when(resultHandler).flush(any(), any());
+        resultWriteQueue.put(new ResultWriteRequest(Long.MAX_VALUE, detectorId, RequestPriority.MEDIUM, detectResult, null));
+        assertEquals(batchSize / 4, resultWriteQueue.getBatchSize());
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.caching.EntityCacheStats;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class EntityCacheStatsSupplierTests extends OpenSearchTestCase {
+    public void testGet() {
+        Map<String, Map<String, Long>> stats = Collections.singletonMap("a", Collections.singletonMap(EntityCacheStats.HITS, 3L));
+        EntityCache cache = mock(EntityCache.class);
+        when(cache.getCacheStats()).thenReturn(stats);
+        CacheProvider cacheProvider = new CacheProvider();
+        cacheProvider.set(cache);
+
+        assertEquals(stats, new EntityCacheStatsSupplier(cacheProvider).get());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Map;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class PlacementSkewSupplierTests extends OpenSearchTestCase {
+    public void testRecordAndExpire() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+        PlacementSkewSupplier supplier = new PlacementSkewSupplier(clock);
+        supplier.record("a", 2.0);
+        supplier.record("a", 1.2);
+
+        when(clock.millis()).thenReturn(2000L);
+        supplier.record("b", 1.0);
+
+        Map<String, Double> skews = supplier.get();
+        assertEquals(2, skews.size());
+        assertEquals(1.2, skews.get("a"), 0.001);
+        assertEquals(1.0, skews.get("b"), 0.001);
+
+        // a has not routed a page within the TTL
+        when(clock.millis()).thenReturn(1001L + PlacementSkewSupplier.TTL.toMillis());
+        skews = supplier.get();
+        assertEquals(1, skews.size());
+        assertTrue(skews.containsKey("b"));
+    }
+}
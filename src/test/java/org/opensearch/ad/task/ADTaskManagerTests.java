@@ -931,6 +931,45 @@ public class ADTaskManagerTests extends ADUnitTestCase {
         verify(client, times(1)).search(any(), any());
     }
 
+    public void testMaintainRunningHistoricalTasksSlicesStopAfterLastTask() {
+        when(hashRing.getOwningNodeWithHighestAdVersion(anyString())).thenReturn(Optional.of(node1));
+        doReturn(node1).when(clusterService).localNode();
+
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            SearchHits searchHits = new SearchHits(new SearchHit[0], new TotalHits(0, TotalHits.Relation.EQUAL_TO), Float.NaN);
+            InternalSearchResponse response = new InternalSearchResponse(
+                searchHits,
+                InternalAggregations.EMPTY,
+                null,
+                null,
+                false,
+                null,
+                1
+            );
+            SearchResponse searchResponse = new SearchResponse(
+                response,
+                null,
+                1,
+                1,
+                0,
+                100,
+                ShardSearchFailure.EMPTY_ARRAY,
+                SearchResponse.Clusters.EMPTY
+            );
+            listener.onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(), any());
+        adTaskManager.maintainRunningHistoricalTasks(transportService, 10, 0, 2);
+        verify(client, times(1)).search(any(), any());
+        // no running task left for the second slice
+        adTaskManager.maintainRunningHistoricalTasks(transportService, 10, 1, 2);
+        verify(client, times(1)).search(any(), any());
+        // a new round starts over
+        adTaskManager.maintainRunningHistoricalTasks(transportService, 10, 0, 2);
+        verify(client, times(2)).search(any(), any());
+    }
+
     public void testMaintainRunningHistoricalTasksWithRunningTask() {
         when(hashRing.getOwningNodeWithHighestAdVersion(anyString())).thenReturn(Optional.of(node1));
         doReturn(node1).when(clusterService).localNode();
@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.task;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.StepListener;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class BatchTaskPiecePipelineTests extends OpenSearchTestCase {
+
+    public void testTakePrefetch() {
+        BatchTaskPiecePipeline pipeline = new BatchTaskPiecePipeline(3);
+        assertFalse(pipeline.takePrefetch(0, 10).isPresent());
+
+        StepListener<Map<Long, Optional<double[]>>> prefetch = new StepListener<>();
+        pipeline.setPrefetch(0, 10, prefetch);
+        assertEquals(prefetch, pipeline.takePrefetch(0, 10).get());
+        // taken only once
+        assertFalse(pipeline.takePrefetch(0, 10).isPresent());
+
+        pipeline.setPrefetch(0, 10, prefetch);
+        // piece size changed
+        assertFalse(pipeline.takePrefetch(0, 5).isPresent());
+    }
+
+    public void testWaitForPendingWrites() {
+        BatchTaskPiecePipeline pipeline = new BatchTaskPiecePipeline(4);
+        assertEquals(2, pipeline.getMaxPendingWrites());
+        AtomicInteger steps = new AtomicInteger();
+
+        pipeline.onWriteStarted();
+        pipeline.runWhenPendingWritesAtMost(1, steps::incrementAndGet);
+        assertEquals(1, steps.get());
+
+        pipeline.onWriteStarted();
+        pipeline.runWhenPendingWritesAtMost(1, steps::incrementAndGet);
+        assertEquals(1, steps.get());
+        pipeline.onWriteDone();
+        assertEquals(2, steps.get());
+
+        pipeline.runWhenPendingWritesAtMost(0, steps::incrementAndGet);
+        assertEquals(2, steps.get());
+        pipeline.onWriteDone();
+        assertEquals(3, steps.get());
+    }
+
+    public void testNotifyOnce() {
+        BatchTaskPiecePipeline pipeline = new BatchTaskPiecePipeline(2);
+        AtomicInteger responses = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ActionListener<String> listener = pipeline
+            .notifyOnce(ActionListener.wrap(r -> responses.incrementAndGet(), e -> failures.incrementAndGet()));
+
+        assertFalse(pipeline.isDone());
+        listener.onFailure(new RuntimeException());
+        listener.onFailure(new RuntimeException());
+        listener.onResponse("task execution done");
+        assertTrue(pipeline.isDone());
+        assertEquals(0, responses.get());
+        assertEquals(1, failures.get());
+    }
+}
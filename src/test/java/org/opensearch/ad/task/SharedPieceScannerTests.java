@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.task;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.feature.SearchFeatureDao;
+import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class SharedPieceScannerTests extends OpenSearchTestCase {
+    private static final String DETECTOR_ID = "123";
+    private static final String DETECTOR_TASK_ID = "456";
+    private static final long PIECE_LENGTH = 10;
+
+    private SearchFeatureDao searchFeatureDao;
+    private ADTaskCacheManager adTaskCacheManager;
+    private AnomalyDetector detector;
+    private SharedPieceScanner scanner;
+    private Entity entity1;
+    private Entity entity2;
+    private ADTask task1;
+    private ADTask task2;
+    private AtomicReference<ActionListener<Map<Entity, Map<Long, Optional<double[]>>>>> scanListener;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        searchFeatureDao = mock(SearchFeatureDao.class);
+        adTaskCacheManager = mock(ADTaskCacheManager.class);
+        detector = mock(AnomalyDetector.class);
+        scanner = new SharedPieceScanner(searchFeatureDao, adTaskCacheManager);
+
+        entity1 = Entity.createSingleAttributeEntity("host", "server_1");
+        entity2 = Entity.createSingleAttributeEntity("host", "server_2");
+        task1 = entityTask("task1", entity1);
+        task2 = entityTask("task2", entity2);
+
+        scanListener = new AtomicReference<>();
+        doAnswer(invocation -> {
+            scanListener.set(invocation.getArgument(4));
+            return null;
+        }).when(searchFeatureDao).getFeaturesForPeriodByBatch(any(AnomalyDetector.class), any(List.class), anyLong(), anyLong(), any());
+    }
+
+    private ADTask entityTask(String taskId, Entity entity) {
+        ADTask task = mock(ADTask.class);
+        when(task.getTaskId()).thenReturn(taskId);
+        when(task.getDetectorId()).thenReturn(DETECTOR_ID);
+        when(task.getDetectorLevelTaskId()).thenReturn(DETECTOR_TASK_ID);
+        when(task.getDetector()).thenReturn(detector);
+        when(task.getEntity()).thenReturn(entity);
+        when(adTaskCacheManager.getEntity(taskId)).thenReturn(entity);
+        return task;
+    }
+
+    private Map<Long, Optional<double[]>> points(long... times) {
+        Map<Long, Optional<double[]>> points = new HashMap<>();
+        for (long time : times) {
+            points.put(time, Optional.of(new double[] { time }));
+        }
+        return points;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testShareScanAmongRunningEntityTasks() throws IOException {
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1", "task2"));
+        AtomicReference<Map<Long, Optional<double[]>>> result1 = new AtomicReference<>();
+        AtomicReference<Map<Long, Optional<double[]>>> result2 = new AtomicReference<>();
+
+        // entity 1's data starts in the middle of the aligned piece
+        scanner.getFeatureData(task1, 14, 20, PIECE_LENGTH, ActionListener.wrap(result1::set, e -> fail()));
+        scanner.getFeatureData(task2, 10, 20, PIECE_LENGTH, ActionListener.wrap(result2::set, e -> fail()));
+        verify(searchFeatureDao, times(1))
+            .getFeaturesForPeriodByBatch(eq(detector), eq(Arrays.asList(entity1, entity2)), eq(10L), eq(20L), any());
+        assertEquals(1, scanner.size());
+
+        Map<Entity, Map<Long, Optional<double[]>>> dataPoints = new HashMap<>();
+        dataPoints.put(entity1, points(12, 14, 16));
+        dataPoints.put(entity2, points(10));
+        scanListener.get().onResponse(dataPoints);
+
+        assertEquals(points(14, 16).keySet(), result1.get().keySet());
+        assertEquals(points(10).keySet(), result2.get().keySet());
+        // every entity task took its points
+        assertEquals(0, scanner.size());
+        verify(searchFeatureDao, never()).getFeaturesForPeriodByBatch(any(), any(Entity.class), anyLong(), anyLong(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSearchAloneIfNotRunningWhenScanned() throws IOException {
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1"));
+        scanner.getFeatureData(task1, 10, 20, PIECE_LENGTH, ActionListener.wrap(r -> {}, e -> fail()));
+        verify(searchFeatureDao, times(1))
+            .getFeaturesForPeriodByBatch(eq(detector), eq(Arrays.asList(entity1)), eq(10L), eq(20L), any());
+
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1", "task2"));
+        scanner.getFeatureData(task2, 10, 20, PIECE_LENGTH, ActionListener.wrap(r -> {}, e -> fail()));
+        verify(searchFeatureDao, times(1)).getFeaturesForPeriodByBatch(eq(detector), eq(entity2), eq(10L), eq(20L), any());
+
+        // both share the next piece
+        scanner.getFeatureData(task2, 20, 30, PIECE_LENGTH, ActionListener.wrap(r -> {}, e -> fail()));
+        verify(searchFeatureDao, times(1))
+            .getFeaturesForPeriodByBatch(eq(detector), eq(Arrays.asList(entity1, entity2)), eq(20L), eq(30L), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSearchAloneIfNotAligned() throws IOException {
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1", "task2"));
+        scanner.getFeatureData(task1, 10, 25, PIECE_LENGTH, ActionListener.wrap(r -> {}, e -> fail()));
+        verify(searchFeatureDao, times(1)).getFeaturesForPeriodByBatch(eq(detector), eq(entity1), eq(10L), eq(25L), any());
+        verify(searchFeatureDao, never()).getFeaturesForPeriodByBatch(any(), any(List.class), anyLong(), anyLong(), any());
+    }
+
+    public void testRemoveDoneEntityTasks() {
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1", "task2"));
+        scanner.getFeatureData(task1, 10, 20, PIECE_LENGTH, ActionListener.wrap(r -> {}, e -> fail()));
+        assertEquals(1, scanner.size());
+
+        scanner.remove(task1);
+        // entity 2 has not taken its points
+        assertEquals(1, scanner.size());
+        scanner.remove(task2);
+        assertEquals(0, scanner.size());
+    }
+
+    public void testFailedScanIsSearchedAgain() {
+        when(adTaskCacheManager.getTasksOfDetector(DETECTOR_ID)).thenReturn(Arrays.asList("task1", "task2"));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        scanner.getFeatureData(task1, 10, 20, PIECE_LENGTH, ActionListener.wrap(r -> fail(), failure::set));
+        scanListener.get().onFailure(new RuntimeException());
+        assertNotNull(failure.get());
+        assertEquals(0, scanner.size());
+    }
+
+    public void testAlignedPieceEndTime() {
+        assertEquals(20, SharedPieceScanner.getAlignedPieceEndTime(14, PIECE_LENGTH));
+        assertEquals(20, SharedPieceScanner.getAlignedPieceEndTime(10, PIECE_LENGTH));
+    }
+}
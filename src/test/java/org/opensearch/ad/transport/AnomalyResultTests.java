@@ -91,6 +91,7 @@ import org.opensearch.ad.stats.ADStat;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
 import org.opensearch.ad.task.ADTaskManager;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.ClusterName;
@@ -373,7 +374,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -498,7 +499,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -551,7 +552,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -596,7 +597,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -723,7 +724,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -766,7 +767,7 @@ public class AnomalyResultTests extends AbstractADTest {
             breakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -836,7 +837,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -889,7 +890,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
         AnomalyResultRequest request = new AnomalyResultRequest(adID, 100, 200);
@@ -931,7 +932,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1110,7 +1111,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
         AnomalyResultTransportAction.RCFActionListener listener = action.new RCFActionListener(
@@ -1202,7 +1203,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1240,7 +1241,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1284,7 +1285,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1328,7 +1329,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1379,7 +1380,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1468,7 +1469,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1517,7 +1518,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
         AnomalyResultTransportAction.RCFActionListener listener = action.new RCFActionListener(
@@ -1544,7 +1545,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
         ActionListener<AnomalyResultResponse> listener = mock(ActionListener.class);
@@ -1578,7 +1579,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
         ActionListener<AnomalyResultResponse> listener = mock(ActionListener.class);
@@ -1620,7 +1621,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1685,7 +1686,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1738,7 +1739,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1782,7 +1783,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1823,7 +1824,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
@@ -1862,7 +1863,7 @@ public class AnomalyResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            NamedXContentRegistry.EMPTY,
+            new FeatureQueryCache(NamedXContentRegistry.EMPTY),
             adTaskManager
         );
 
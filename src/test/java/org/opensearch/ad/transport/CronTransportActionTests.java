@@ -11,12 +11,18 @@
 
 package org.opensearch.ad.transport;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.function.Function;
 
 import org.junit.Assert;
@@ -27,10 +33,13 @@ import org.opensearch.ad.AbstractADTest;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.cluster.MaintenanceScheduler;
 import org.opensearch.ad.common.exception.JsonPathNotFoundException;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.task.ADTaskManager;
 import org.opensearch.cluster.ClusterName;
 import org.opensearch.cluster.node.DiscoveryNode;
@@ -38,6 +47,8 @@ import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.Strings;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.core.xcontent.ToXContent;
 import org.opensearch.core.xcontent.XContentBuilder;
@@ -51,6 +62,10 @@ import com.google.gson.JsonElement;
 public class CronTransportActionTests extends AbstractADTest {
     private CronTransportAction action;
     private String localNodeID;
+    private ModelManager modelManager;
+    private EntityCache entityCache;
+    private ResultRollupBuffer resultRollupBuffer;
+    private ADTaskManager adTaskManager;
 
     @Override
     @Before
@@ -62,17 +77,25 @@ public class CronTransportActionTests extends AbstractADTest {
         localNodeID = "foo";
         when(clusterService.localNode()).thenReturn(new DiscoveryNode(localNodeID, buildNewFakeTransportAddress(), Version.CURRENT));
         when(clusterService.getClusterName()).thenReturn(new ClusterName("test"));
+        ClusterSettings clusterSettings = new ClusterSettings(
+            Settings.EMPTY,
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.MAINTENANCE_SPREAD)))
+        );
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
 
         TransportService transportService = mock(TransportService.class);
         ActionFilters actionFilters = mock(ActionFilters.class);
         NodeStateManager tarnsportStatemanager = mock(NodeStateManager.class);
-        ModelManager modelManager = mock(ModelManager.class);
+        modelManager = mock(ModelManager.class);
         FeatureManager featureManager = mock(FeatureManager.class);
         CacheProvider cacheProvider = mock(CacheProvider.class);
-        EntityCache entityCache = mock(EntityCache.class);
+        entityCache = mock(EntityCache.class);
         EntityColdStarter entityColdStarter = mock(EntityColdStarter.class);
         when(cacheProvider.get()).thenReturn(entityCache);
-        ADTaskManager adTaskManager = mock(ADTaskManager.class);
+        adTaskManager = mock(ADTaskManager.class);
+        resultRollupBuffer = mock(ResultRollupBuffer.class);
+        // run the tasks at once
+        Settings settings = Settings.builder().put(AnomalyDetectorSettings.MAINTENANCE_SPREAD.getKey(), "0s").build();
 
         action = new CronTransportAction(
             threadPool,
@@ -84,7 +107,9 @@ public class CronTransportActionTests extends AbstractADTest {
             featureManager,
             cacheProvider,
             entityColdStarter,
-            adTaskManager
+            adTaskManager,
+            resultRollupBuffer,
+            new MaintenanceScheduler(threadPool, clusterService, settings)
         );
     }
 
@@ -127,4 +152,14 @@ public class CronTransportActionTests extends AbstractADTest {
             new String[] { localNodeID, localNodeID }
         );
     }
+
+    public void testRunMaintenance() {
+        action.nodeOperation(new CronNodeRequest());
+        verify(modelManager, times(1)).maintenance(any());
+        int slices = AnomalyDetectorSettings.MAINTENANCE_SLICES;
+        verify(entityCache, times(slices)).maintenance(anyInt(), eq(slices));
+        verify(adTaskManager, times(slices)).maintainRunningHistoricalTasks(any(), anyInt(), anyInt(), eq(slices));
+        verify(resultRollupBuffer, times(1)).maintenance();
+        verify(adTaskManager, times(1)).maintainRunningRealtimeTasks();
+    }
 }
@@ -36,6 +36,7 @@ import org.opensearch.ad.constant.ADCommonMessages;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.task.ADTaskCacheManager;
 import org.opensearch.cluster.ClusterName;
 import org.opensearch.cluster.node.DiscoveryNode;
@@ -89,7 +90,8 @@ public class DeleteModelTransportActionTests extends AbstractADTest {
             featureManager,
             cacheProvider,
             adTaskCacheManager,
-            coldStarter
+            coldStarter,
+            mock(ResultRollupBuffer.class)
         );
     }
 
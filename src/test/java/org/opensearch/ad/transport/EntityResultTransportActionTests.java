@@ -39,11 +39,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.mockito.ArgumentCaptor;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.action.support.ActionFilters;
@@ -73,8 +75,10 @@ import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.ratelimit.CheckpointReadWorker;
 import org.opensearch.ad.ratelimit.ColdEntityWorker;
 import org.opensearch.ad.ratelimit.EntityColdStartWorker;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.ratelimit.ResultWriteWorker;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.settings.NumericSetting;
 import org.opensearch.ad.stats.ADStat;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
@@ -125,6 +129,7 @@ public class EntityResultTransportActionTests extends AbstractADTest {
     String tooLongEntity;
     double[] tooLongData;
     ResultWriteWorker resultWriteQueue;
+    ResultRollupBuffer resultRollupBuffer;
     CheckpointReadWorker checkpointReadQueue;
     int minSamples;
     Instant now;
@@ -236,6 +241,7 @@ public class EntityResultTransportActionTests extends AbstractADTest {
         when(indexUtil.getSchemaVersion(any())).thenReturn(CommonValue.NO_SCHEMA_VERSION);
 
         resultWriteQueue = mock(ResultWriteWorker.class);
+        resultRollupBuffer = mock(ResultRollupBuffer.class);
         checkpointReadQueue = mock(CheckpointReadWorker.class);
 
         minSamples = 1;
@@ -272,7 +278,8 @@ public class EntityResultTransportActionTests extends AbstractADTest {
             coldEntityQueue,
             threadPool,
             entityColdStartQueue,
-            adStats
+            adStats,
+            resultRollupBuffer
         );
 
         // timeout in 60 seconds
@@ -298,6 +305,41 @@ public class EntityResultTransportActionTests extends AbstractADTest {
         verify(resultWriteQueue, times(1)).put(any());
     }
 
+    public void testRollUpZeroGradeResults() {
+        when(resultRollupBuffer.add(any(), any())).thenReturn(true);
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+
+        entityResult.doExecute(null, request, future);
+
+        future.actionGet(timeoutMs);
+
+        verify(resultRollupBuffer, times(1)).add(any(), any());
+        verify(resultWriteQueue, never()).put(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testParallelScoring() {
+        // all of the new entities are cache misses
+        for (int i = 0; i < 2 * AnomalyDetectorSettings.MIN_ENTITIES_PER_SCORING_PARTITION; i++) {
+            entities.put(Entity.createSingleAttributeEntity(detector.getCategoryField().get(0), "1.0.0." + i), new double[] { i });
+        }
+        ArgumentCaptor<Set<Entity>> cacheMissCaptor = ArgumentCaptor.forClass(Set.class);
+
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+        try {
+            NumericSetting.getInstance().setSettingValue(NumericSetting.ENTITY_SCORING_PARALLELISM, 2);
+            entityResult.doExecute(null, request, future);
+            future.actionGet(timeoutMs);
+        } finally {
+            NumericSetting.getInstance().setSettingValue(NumericSetting.ENTITY_SCORING_PARALLELISM, 1);
+        }
+
+        verify(resultWriteQueue, times(1)).put(any());
+        verify(entityCache, times(1)).selectUpdateCandidate(cacheMissCaptor.capture(), anyString(), any());
+        assertEquals(2 * AnomalyDetectorSettings.MIN_ENTITIES_PER_SCORING_PARTITION + 1, cacheMissCaptor.getValue().size());
+        assertTrue(cacheMissCaptor.getValue().contains(cacheMissEntityObj));
+    }
+
     // test get detector failure
     @SuppressWarnings("unchecked")
     public void testFailtoGetDetector() {
@@ -398,7 +440,8 @@ public class EntityResultTransportActionTests extends AbstractADTest {
             coldEntityQueue,
             threadPool,
             entityColdStartQueue,
-            adStats
+            adStats,
+            resultRollupBuffer
         );
 
         PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
@@ -0,0 +1,111 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.transport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.opensearch.Version;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.ad.AbstractADTest;
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+public class ModelHandoffTransportActionTests extends AbstractADTest {
+    private static final String DETECTOR_ID = "123";
+
+    private ModelHandoffTransportAction action;
+    private EntityCache cache;
+    private DiscoveryNode localNode;
+    private HandoffModel active;
+    private HandoffModel kept;
+    private HandoffModel rejected;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        localNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(), Version.CURRENT);
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.localNode()).thenReturn(localNode);
+        cache = mock(EntityCache.class);
+        CacheProvider cacheProvider = new CacheProvider();
+        cacheProvider.set(cache);
+
+        action = new ModelHandoffTransportAction(
+            mock(ThreadPool.class),
+            clusterService,
+            mock(TransportService.class),
+            mock(ActionFilters.class),
+            cacheProvider
+        );
+
+        active = createModel("server_1");
+        kept = createModel("server_2");
+        rejected = createModel("server_3");
+    }
+
+    private HandoffModel createModel(String value) {
+        Entity entity = Entity.createSingleAttributeEntity("host", value);
+        String modelId = entity.getModelId(DETECTOR_ID).get();
+        return new HandoffModel(modelId, DETECTOR_ID, entity, new byte[] { 1, 2, 3 }, Instant.ofEpochSecond(100));
+    }
+
+    public void testKeepModelsOffHeap() throws IOException {
+        when(cache.isActive(DETECTOR_ID, active.getModelId())).thenReturn(true);
+        when(cache.putOffHeapModel(eq(kept.getModelId()), anyString(), any(), any(), any(), anyInt())).thenReturn(true);
+        when(cache.putOffHeapModel(eq(rejected.getModelId()), anyString(), any(), any(), any(), anyInt())).thenReturn(false);
+
+        ModelHandoffRequest request = new ModelHandoffRequest(Arrays.asList(active, kept, rejected), 7, localNode);
+        ModelHandoffNodeResponse response = action.nodeOperation(action.newNodeRequest(request));
+        assertEquals(1, response.getAccepted());
+        // a hosted model is not replaced
+        verify(cache, never()).putOffHeapModel(eq(active.getModelId()), anyString(), any(), any(), any(), anyInt());
+        verify(cache)
+            .putOffHeapModel(kept.getModelId(), DETECTOR_ID, kept.getEntity(), kept.getCheckpoint(), kept.getLastCheckpointTime(), 7);
+    }
+
+    public void testSerialize() throws IOException {
+        ModelHandoffNodeRequest request = new ModelHandoffNodeRequest(new ModelHandoffRequest(Arrays.asList(kept), 7, localNode));
+        BytesStreamOutput output = new BytesStreamOutput();
+        request.writeTo(output);
+        ModelHandoffNodeRequest read = new ModelHandoffNodeRequest(output.bytes().streamInput());
+        assertEquals(1, read.getModels().size());
+        assertEquals(7, read.getRingVersion());
+        HandoffModel model = read.getModels().get(0);
+        assertEquals(kept.getModelId(), model.getModelId());
+        assertEquals(DETECTOR_ID, model.getDetectorId());
+        assertEquals(kept.getEntity(), model.getEntity());
+        assertArrayEquals(kept.getCheckpoint(), model.getCheckpoint());
+        assertEquals(kept.getLastCheckpointTime(), model.getLastCheckpointTime());
+
+        ModelHandoffNodeResponse response = new ModelHandoffNodeResponse(localNode, 3);
+        output = new BytesStreamOutput();
+        response.writeTo(output);
+        assertEquals(3, new ModelHandoffNodeResponse(output.bytes().streamInput()).getAccepted());
+    }
+}
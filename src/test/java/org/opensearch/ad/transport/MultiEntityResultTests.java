@@ -43,6 +43,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -76,6 +77,7 @@ import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.caching.EntityCache;
 import org.opensearch.ad.cluster.HashRing;
+import org.opensearch.ad.cluster.RoutingSnapshot;
 import org.opensearch.ad.common.exception.EndRunException;
 import org.opensearch.ad.common.exception.InternalFailure;
 import org.opensearch.ad.common.exception.LimitExceededException;
@@ -91,6 +93,7 @@ import org.opensearch.ad.ratelimit.CheckpointReadWorker;
 import org.opensearch.ad.ratelimit.ColdEntityWorker;
 import org.opensearch.ad.ratelimit.EntityColdStartWorker;
 import org.opensearch.ad.ratelimit.EntityFeatureRequest;
+import org.opensearch.ad.ratelimit.ResultRollupBuffer;
 import org.opensearch.ad.ratelimit.ResultWriteWorker;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.stats.ADStat;
@@ -98,6 +101,7 @@ import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
 import org.opensearch.ad.task.ADTaskManager;
 import org.opensearch.ad.util.ClientUtil;
+import org.opensearch.ad.util.FeatureQueryCache;
 import org.opensearch.ad.util.SecurityClientUtil;
 import org.opensearch.ad.util.Throttler;
 import org.opensearch.client.Client;
@@ -162,6 +166,7 @@ public class MultiEntityResultTests extends AbstractADTest {
     private CacheProvider provider;
     private AnomalyDetectionIndices indexUtil;
     private ResultWriteWorker resultWriteQueue;
+    private ResultRollupBuffer resultRollupBuffer;
     private CheckpointReadWorker checkpointReadQueue;
     private EntityColdStartWorker entityColdStartQueue;
     private ColdEntityWorker coldEntityQueue;
@@ -289,7 +294,7 @@ public class MultiEntityResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             adTaskManager
         );
 
@@ -302,6 +307,7 @@ public class MultiEntityResultTests extends AbstractADTest {
 
         indexUtil = mock(AnomalyDetectionIndices.class);
         resultWriteQueue = mock(ResultWriteWorker.class);
+        resultRollupBuffer = mock(ResultRollupBuffer.class);
         checkpointReadQueue = mock(CheckpointReadWorker.class);
         entityColdStartQueue = mock(EntityColdStartWorker.class);
 
@@ -412,7 +418,8 @@ public class MultiEntityResultTests extends AbstractADTest {
             coldEntityQueue,
             threadPool,
             entityColdStartQueue,
-            adStats
+            adStats,
+            resultRollupBuffer
         );
 
         when(normalModelManager.getAnomalyResultForEntity(any(), any(), any(), any(), anyInt()))
@@ -423,6 +430,13 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpEntityResult(nodeIndex, stateManager);
     }
 
+    // a circle with a single ring hash routes every entity to its node
+    private void routeAllEntitiesTo(DiscoveryNode node) {
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        circle.put(0, node);
+        when(hashRing.getRoutingSnapshotWithSameLocalAdVersionForRealtimeAD()).thenReturn(Optional.of(new RoutingSnapshot(circle)));
+    }
+
     @SuppressWarnings("unchecked")
     public void setUpNormlaStateManager() throws IOException {
         AnomalyDetector detector = TestHelpers.AnomalyDetectorBuilder
@@ -443,7 +457,8 @@ public class MultiEntityResultTests extends AbstractADTest {
             new ClientUtil(settings, client, new Throttler(mock(Clock.class)), threadPool),
             clock,
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
-            clusterService
+            clusterService,
+            new FeatureQueryCache(xContentRegistry())
         );
 
         clientUtil = new SecurityClientUtil(stateManager, settings);
@@ -463,7 +478,7 @@ public class MultiEntityResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             mockThreadPool,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             adTaskManager
         );
     }
@@ -698,7 +713,7 @@ public class MultiEntityResultTests extends AbstractADTest {
             adCircuitBreakerService,
             adStats,
             threadPool,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             adTaskManager
         );
     }
@@ -713,8 +728,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpSearchResponse();
         setUpTransportInterceptor(this::entityResultHandler);
         // mock hashing ring response. This has to happen after setting up test nodes with the failure interceptor
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
         setUpEntityResult(1);
 
         CountDownLatch modelNodeInProgress = new CountDownLatch(1);
@@ -754,7 +768,8 @@ public class MultiEntityResultTests extends AbstractADTest {
             clientUtil,
             clock,
             AnomalyDetectorSettings.HOURLY_MAINTENANCE,
-            clusterService
+            clusterService,
+            new FeatureQueryCache(xContentRegistry())
         );
 
         NodeStateManager spyStateManager = spy(stateManager);
@@ -762,8 +777,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpSearchResponse();
         setUpTransportInterceptor(this::entityResultHandler, spyStateManager);
         // mock hashing ring response. This has to happen after setting up test nodes with the failure interceptor
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
 
         ADCircuitBreakerService openBreaker = mock(ADCircuitBreakerService.class);
         when(openBreaker.isOpen()).thenReturn(true);
@@ -783,7 +797,8 @@ public class MultiEntityResultTests extends AbstractADTest {
             coldEntityQueue,
             threadPool,
             entityColdStartQueue,
-            adStats
+            adStats,
+            resultRollupBuffer
         );
 
         CountDownLatch inProgress = new CountDownLatch(1);
@@ -812,8 +827,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpSearchResponse();
         setUpTransportInterceptor(this::unackEntityResultHandler);
         // mock hashing ring response. This has to happen after setting up test nodes with the failure interceptor
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
         setUpEntityResult(1);
 
         CountDownLatch inProgress = new CountDownLatch(1);
@@ -842,15 +856,13 @@ public class MultiEntityResultTests extends AbstractADTest {
         Entity entity2 = Entity.createEntityByReordering(attrs2);
         Entity entity3 = Entity.createEntityByReordering(attrs3);
 
-        // we use ordered attributes values as the key to hashring
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(eq(entity1.toString())))
-            .thenReturn(Optional.of(testNodes[2].discoveryNode()));
-
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(eq(entity2.toString())))
-            .thenReturn(Optional.of(testNodes[3].discoveryNode()));
-
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(eq(entity3.toString())))
-            .thenReturn(Optional.of(testNodes[4].discoveryNode()));
+        // we use the routing hash of ordered attributes values as the key to hashring.
+        // A ring hash right after an entity's routing hash owns the entity.
+        TreeMap<Integer, DiscoveryNode> circle = new TreeMap<>();
+        circle.put(entity1.getRoutingHash() + 1, testNodes[2].discoveryNode());
+        circle.put(entity2.getRoutingHash() + 1, testNodes[3].discoveryNode());
+        circle.put(entity3.getRoutingHash() + 1, testNodes[4].discoveryNode());
+        when(hashRing.getRoutingSnapshotWithSameLocalAdVersionForRealtimeAD()).thenReturn(Optional.of(new RoutingSnapshot(circle)));
 
         for (int i = 2; i <= 4; i++) {
             setUpEntityResult(i);
@@ -879,8 +891,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpSearchResponse();
         setUpTransportInterceptor(this::entityResultHandler);
         setUpEntityResult(1);
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
 
         List<Entity> hotEntities = new ArrayList<>();
         Map<String, Object> attrs4 = new HashMap<>();
@@ -936,8 +947,7 @@ public class MultiEntityResultTests extends AbstractADTest {
     public void testCacheSelection() throws IOException, InterruptedException {
         setUpSearchResponse();
         setUpTransportInterceptor(this::entityResultHandler);
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
 
         List<Entity> hotEntities = new ArrayList<>();
         Entity entity1 = Entity.createEntityByReordering(attrs1);
@@ -967,7 +977,8 @@ public class MultiEntityResultTests extends AbstractADTest {
             coldEntityQueue,
             threadPool,
             entityColdStartQueue,
-            adStats
+            adStats,
+            resultRollupBuffer
         );
 
         CountDownLatch modelNodeInProgress = new CountDownLatch(1);
@@ -1125,8 +1136,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         }).when(coldEntityQueue).putAll(any());
 
         setUpTransportInterceptor(this::entityResultHandler);
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
         setUpEntityResult(1);
 
         PlainActionFuture<AnomalyResultResponse> listener = new PlainActionFuture<>();
@@ -1151,7 +1161,7 @@ public class MultiEntityResultTests extends AbstractADTest {
             0,
             10,
             detector,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             client,
             clientUtil,
             100,
@@ -1178,7 +1188,7 @@ public class MultiEntityResultTests extends AbstractADTest {
             0,
             10,
             detector,
-            xContentRegistry(),
+            new FeatureQueryCache(xContentRegistry()),
             client,
             clientUtil,
             100,
@@ -1201,8 +1211,7 @@ public class MultiEntityResultTests extends AbstractADTest {
         setUpSearchResponse();
         setUpTransportInterceptor(this::entityResultHandler);
         // mock hashing ring response. This has to happen after setting up test nodes with the failure interceptor
-        when(hashRing.getOwningNodeWithSameLocalAdVersionForRealtimeAD(any(String.class)))
-            .thenReturn(Optional.of(testNodes[1].discoveryNode()));
+        routeAllEntitiesTo(testNodes[1].discoveryNode());
 
         NodeStateManager modelNodeStateManager = mock(NodeStateManager.class);
         CountDownLatch modelNodeInProgress = new CountDownLatch(1);
@@ -358,4 +358,36 @@ public class SearchTopAnomalyResultTransportActionTests extends ADIntegTestCase
         assertEquals(expectedResponseBucket1, capturedResponse.getAnomalyResultBuckets().get(1));
         assertEquals(expectedResponseBucket3, capturedResponse.getAnomalyResultBuckets().get(2));
     }
+
+    @SuppressWarnings("unchecked")
+    public void testListenerMergesSummaryBuckets() {
+        ActionListener<SearchTopAnomalyResultResponse> mockListener = mock(ActionListener.class);
+        Map<String, Object> key1 = Collections.singletonMap("category-field-name-1", "value-1");
+        Map<String, Object> key2 = Collections.singletonMap("category-field-name-1", "value-2");
+        Map<Map<String, Object>, AnomalyResultBucket> summaryBuckets = new HashMap<>();
+        summaryBuckets.put(key1, new AnomalyResultBucket(key1, 2, 0.3));
+        summaryBuckets.put(key2, new AnomalyResultBucket(key2, 1, 0.4));
+        SearchTopAnomalyResultTransportAction.TopAnomalyResultListener listener = action.new TopAnomalyResultListener(
+            mockListener, new SearchSourceBuilder(), 1000, 10, SearchTopAnomalyResultTransportAction.OrderType.OCCURRENCE,
+            "custom-result-index-name", summaryBuckets
+        );
+
+        // anomalies of the partial hours found in the result index
+        Aggregations aggs = generateAggregationsFromBuckets(new ArrayList<AnomalyResultBucket>() {
+            {
+                add(new AnomalyResultBucket(key1, 3, 0.5));
+            }
+        }, null);
+
+        SearchResponse response = generateMockSearchResponse(aggs);
+        ArgumentCaptor<SearchTopAnomalyResultResponse> responseCaptor = ArgumentCaptor.forClass(SearchTopAnomalyResultResponse.class);
+
+        listener.onResponse(response);
+
+        verify(mockListener, times(1)).onResponse(responseCaptor.capture());
+        SearchTopAnomalyResultResponse capturedResponse = responseCaptor.getValue();
+        assertEquals(2, capturedResponse.getAnomalyResultBuckets().size());
+        assertEquals(new AnomalyResultBucket(key1, 5, 0.5), capturedResponse.getAnomalyResultBuckets().get(0));
+        assertEquals(new AnomalyResultBucket(key2, 1, 0.4), capturedResponse.getAnomalyResultBuckets().get(1));
+    }
 }
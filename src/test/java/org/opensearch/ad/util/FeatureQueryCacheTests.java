@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+package org.opensearch.ad.util;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.Before;
+import org.opensearch.ad.TestHelpers;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Feature;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+
+import com.google.common.collect.ImmutableList;
+
+public class FeatureQueryCacheTests extends OpenSearchTestCase {
+    private FeatureQueryCache cache;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new FeatureQueryCache(TestHelpers.xContentRegistry());
+    }
+
+    private AnomalyDetector createDetector(String detectorId, Instant lastUpdateTime, List<Feature> features) throws Exception {
+        return TestHelpers.AnomalyDetectorBuilder
+            .newInstance()
+            .setDetectorId(detectorId)
+            .setLastUpdateTime(lastUpdateTime)
+            .setFeatureAttributes(features)
+            .build();
+    }
+
+    public void testReuseParsedAggregations() throws Exception {
+        String detectorId = randomAlphaOfLength(10);
+        Instant lastUpdateTime = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Feature> features = ImmutableList.of(TestHelpers.randomFeature(true), TestHelpers.randomFeature(false));
+        AnomalyDetector detector = createDetector(detectorId, lastUpdateTime, features);
+
+        List<AggregationBuilder> aggs = cache.getFeatureAggregations(detector);
+        assertEquals(2, aggs.size());
+        for (int i = 0; i < features.size(); i++) {
+            assertEquals(features.get(i).getId(), aggs.get(i).getName());
+        }
+
+        // a detector object parsed again from the same config
+        AnomalyDetector sameDetector = createDetector(detectorId, lastUpdateTime, features);
+        List<AggregationBuilder> cachedAggs = cache.getFeatureAggregations(sameDetector);
+        assertSame(aggs.get(0), cachedAggs.get(0));
+        assertSame(aggs.get(1), cachedAggs.get(1));
+
+        SearchSourceBuilder skeleton = cache.getFeatureQuerySkeleton(detector);
+        assertNull(skeleton.query());
+        assertEquals(2, skeleton.aggregations().count());
+    }
+
+    public void testUpdatedDetector() throws Exception {
+        String detectorId = randomAlphaOfLength(10);
+        Instant lastUpdateTime = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        AnomalyDetector detector = createDetector(detectorId, lastUpdateTime, ImmutableList.of(TestHelpers.randomFeature(true)));
+        List<AggregationBuilder> aggs = cache.getFeatureAggregations(detector);
+
+        Feature newFeature = TestHelpers.randomFeature(true);
+        AnomalyDetector updated = createDetector(detectorId, lastUpdateTime.plusSeconds(60), ImmutableList.of(newFeature));
+        List<AggregationBuilder> updatedAggs = cache.getFeatureAggregations(updated);
+        assertNotSame(aggs.get(0), updatedAggs.get(0));
+        assertEquals(newFeature.getId(), updatedAggs.get(0).getName());
+
+        cache.invalidate(detectorId);
+        assertNotSame(updatedAggs.get(0), cache.getFeatureAggregations(updated).get(0));
+    }
+
+    public void testNotCachedWithoutId() throws Exception {
+        AnomalyDetector detector = createDetector(null, Instant.now(), ImmutableList.of(TestHelpers.randomFeature(true)));
+        List<AggregationBuilder> aggs = cache.getFeatureAggregations(detector);
+        assertEquals(1, aggs.size());
+        assertNotSame(aggs.get(0), cache.getFeatureAggregations(detector).get(0));
+    }
+
+    public void testFeatureQueryOnlySwapsRange() throws Exception {
+        List<Feature> features = ImmutableList.of(TestHelpers.randomFeature(true));
+        AnomalyDetector detector = createDetector(randomAlphaOfLength(10), Instant.now(), features);
+        SearchSourceBuilder first = ParseUtils.generateInternalFeatureQuery(detector, 0, 60_000, cache);
+        SearchSourceBuilder second = ParseUtils.generateInternalFeatureQuery(detector, 60_000, 120_000, cache);
+        assertSame(first.aggregations(), second.aggregations());
+        assertNotEquals(first.query(), second.query());
+        // the shared skeleton is not modified
+        assertNull(cache.getFeatureQuerySkeleton(detector).query());
+    }
+
+    public void testCachesAreIndependent() throws Exception {
+        List<Feature> features = ImmutableList.of(TestHelpers.randomFeature(true));
+        AnomalyDetector detector = createDetector(randomAlphaOfLength(10), Instant.now(), features);
+        FeatureQueryCache otherCache = new FeatureQueryCache(TestHelpers.xContentRegistry());
+        assertNotSame(cache.getFeatureAggregations(detector).get(0), otherCache.getFeatureAggregations(detector).get(0));
+    }
+}
@@ -118,7 +118,8 @@ public class ParseUtilsTests extends OpenSearchTestCase {
         AnomalyDetector detector = TestHelpers.randomAnomalyDetector(null, Instant.now());
         long startTime = randomLong();
         long endTime = randomLong();
-        SearchSourceBuilder builder = ParseUtils.generateInternalFeatureQuery(detector, startTime, endTime, TestHelpers.xContentRegistry());
+        SearchSourceBuilder builder = ParseUtils
+            .generateInternalFeatureQuery(detector, startTime, endTime, new FeatureQueryCache(TestHelpers.xContentRegistry()));
         for (Feature feature : detector.getFeatureAttributes()) {
             assertTrue(builder.toString().contains(feature.getId()));
         }
@@ -208,7 +209,7 @@ public class ParseUtilsTests extends OpenSearchTestCase {
         long startTime = now.minus(10, ChronoUnit.DAYS).toEpochMilli();
         long endTime = now.plus(10, ChronoUnit.DAYS).toEpochMilli();
         SearchSourceBuilder searchSourceBuilder = ParseUtils
-            .batchFeatureQuery(detector, null, startTime, endTime, TestHelpers.xContentRegistry());
+            .batchFeatureQuery(detector, null, startTime, endTime, new FeatureQueryCache(TestHelpers.xContentRegistry()));
         assertEquals(
             "{\"size\":0,\"query\":{\"bool\":{\"must\":[{\"range\":{\""
                 + detector.getTimeField()
@@ -244,7 +245,7 @@ public class ParseUtilsTests extends OpenSearchTestCase {
 
         AnomalyDetectionException exception = expectThrows(
             AnomalyDetectionException.class,
-            () -> ParseUtils.batchFeatureQuery(detector, null, startTime, endTime, TestHelpers.xContentRegistry())
+            () -> ParseUtils.batchFeatureQuery(detector, null, startTime, endTime, new FeatureQueryCache(TestHelpers.xContentRegistry()))
         );
         assertEquals("No enabled feature configured", exception.getMessage());
     }
@@ -259,7 +260,7 @@ public class ParseUtilsTests extends OpenSearchTestCase {
         long endTime = now.plus(10, ChronoUnit.DAYS).toEpochMilli();
         AnomalyDetectionException exception = expectThrows(
             AnomalyDetectionException.class,
-            () -> ParseUtils.batchFeatureQuery(detector, null, startTime, endTime, TestHelpers.xContentRegistry())
+            () -> ParseUtils.batchFeatureQuery(detector, null, startTime, endTime, new FeatureQueryCache(TestHelpers.xContentRegistry()))
         );
         assertEquals("No enabled feature configured", exception.getMessage());
     }